@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.dyn4j.collision.broadphase.BroadphaseDetector;
+import org.dyn4j.collision.broadphase.DynamicAABBTree;
+import org.dyn4j.collision.broadphase.FlatDynamicAABBTree;
+import org.dyn4j.collision.broadphase.Sap;
+import org.dyn4j.collision.broadphase.SpatialHashGrid;
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the {@link BroadphaseDetector} implementations on a randomly
+ * populated area.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class BroadphaseBenchmark {
+	/** The broad-phase detector */
+	@Param({"DynamicAABBTree", "DynamicAABBTreeIncremental", "FlatDynamicAABBTree", "SpatialHashGrid", "Sap"})
+	public String detector;
+	
+	/** The number of bodies */
+	@Param({"1000", "10000"})
+	public int count;
+	
+	/** The fraction of bodies moved before each update benchmark */
+	private static final double MOVING = 0.1;
+	
+	/** The broad-phase */
+	private BroadphaseDetector<Body, BodyFixture> broadphase;
+	
+	/** The bodies */
+	private List<Body> bodies;
+	
+	/** The bodies moved each invocation of {@link #updateAndDetect(Blackhole)} */
+	private List<Body> moving;
+	
+	/** The query AABB */
+	private AABB aabb;
+	
+	/** The query ray */
+	private Ray ray;
+	
+	/** The query ray length */
+	private double length;
+	
+	/** The direction the moving bodies are moved in; flipped each invocation */
+	private double sign;
+	
+	/**
+	 * Builds the broad-phase.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		this.broadphase = createBroadphase(this.detector, this.count);
+		
+		// keep the density roughly constant as the count grows
+		double width = Math.sqrt(this.count) * 2.0;
+		Random random = new Random(Scenes.SEED);
+		this.bodies = new ArrayList<Body>(this.count);
+		this.moving = new ArrayList<Body>();
+		for (int i = 0; i < this.count; i++) {
+			Body body = Scenes.createBody(Scenes.createRandomConvex(random), MassType.NORMAL);
+			body.translate(random.nextDouble() * width - width * 0.5, random.nextDouble() * width - width * 0.5);
+			body.rotate(random.nextDouble() * Math.PI);
+			this.bodies.add(body);
+			this.broadphase.add(body);
+			if (random.nextDouble() < MOVING) {
+				this.moving.add(body);
+			}
+		}
+		
+		this.aabb = new AABB(-width * 0.1, -width * 0.1, width * 0.1, width * 0.1);
+		this.ray = new Ray(new Vector2(-width * 0.5, -width * 0.5), new Vector2(1.0, 1.0).getNormalized());
+		this.length = width * Math.sqrt(2.0);
+		this.sign = 1.0;
+	}
+	
+	/**
+	 * Returns a new broad-phase detector for the given name.
+	 * @param name the detector name
+	 * @param capacity the initial capacity
+	 * @return {@link BroadphaseDetector}
+	 */
+	static BroadphaseDetector<Body, BodyFixture> createBroadphase(String name, int capacity) {
+		if ("DynamicAABBTree".equals(name)) {
+			return new DynamicAABBTree<Body, BodyFixture>(capacity);
+		} else if ("DynamicAABBTreeIncremental".equals(name)) {
+			DynamicAABBTree<Body, BodyFixture> tree = new DynamicAABBTree<Body, BodyFixture>(capacity);
+			tree.setIncrementalEnabled(true);
+			return tree;
+		} else if ("FlatDynamicAABBTree".equals(name)) {
+			return new FlatDynamicAABBTree<Body, BodyFixture>(capacity);
+		} else if ("SpatialHashGrid".equals(name)) {
+			return new SpatialHashGrid<Body, BodyFixture>(SpatialHashGrid.DEFAULT_CELL_SIZE, capacity);
+		} else if ("Sap".equals(name)) {
+			return new Sap<Body, BodyFixture>(capacity);
+		}
+		throw new IllegalArgumentException(name);
+	}
+	
+	/**
+	 * Detects all overlapping pairs without moving anything.
+	 * @param blackhole the sink for the results
+	 */
+	@Benchmark
+	public void detect(Blackhole blackhole) {
+		blackhole.consume(this.broadphase.detect());
+	}
+	
+	/**
+	 * Moves a fraction of the bodies, updates them and then detects all overlapping pairs.
+	 * @param blackhole the sink for the results
+	 */
+	@Benchmark
+	public void updateAndDetect(Blackhole blackhole) {
+		// move back and forth so that the scene doesn't drift
+		double dx = 0.5 * this.sign;
+		this.sign = -this.sign;
+		int size = this.moving.size();
+		for (int i = 0; i < size; i++) {
+			Body body = this.moving.get(i);
+			body.translate(dx, 0.0);
+			this.broadphase.update(body);
+		}
+		blackhole.consume(this.broadphase.detect());
+	}
+	
+	/**
+	 * Detects all fixtures overlapping an AABB in the middle of the area.
+	 * @param blackhole the sink for the results
+	 */
+	@Benchmark
+	public void detectAABB(Blackhole blackhole) {
+		blackhole.consume(this.broadphase.detect(this.aabb));
+	}
+	
+	/**
+	 * Casts a ray diagonally across the area.
+	 * @param blackhole the sink for the results
+	 */
+	@Benchmark
+	public void raycast(Blackhole blackhole) {
+		blackhole.consume(this.broadphase.raycast(this.ray, this.length));
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.benchmarks;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.dyn4j.dynamics.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time taken by a single {@link World#step(int)} of a scene that forms one
+ * large island when its constraints are solved serially and concurrently.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ * @see World#setConstraintExecutor(ExecutorService)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ConstraintExecutorBenchmark {
+	/** The number of threads; zero to solve the constraints serially */
+	@Param({"0", "2", "4"})
+	public int threads;
+	
+	/** The executor */
+	private ExecutorService executor;
+	
+	/** The world */
+	private World world;
+	
+	/**
+	 * Creates the executor.
+	 */
+	@Setup(Level.Trial)
+	public void createExecutor() {
+		if (this.threads > 0) {
+			this.executor = Executors.newFixedThreadPool(this.threads);
+		}
+	}
+	
+	/**
+	 * Rebuilds the scene.
+	 */
+	@Setup(Level.Iteration)
+	public void setup() {
+		this.world = Scenes.createPyramid(30);
+		this.world.setConstraintExecutor(this.executor);
+	}
+	
+	/**
+	 * Shuts down the executor.
+	 */
+	@TearDown(Level.Trial)
+	public void shutdownExecutor() {
+		if (this.executor != null) {
+			this.executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Performs one time step.
+	 * @return {@link World}
+	 */
+	@Benchmark
+	public World step() {
+		this.world.step(1);
+		return this.world;
+	}
+}
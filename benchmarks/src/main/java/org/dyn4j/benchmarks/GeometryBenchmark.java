@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.geometry.decompose.Bayazit;
+import org.dyn4j.geometry.decompose.Decomposer;
+import org.dyn4j.geometry.decompose.EarClipping;
+import org.dyn4j.geometry.decompose.SweepLine;
+import org.dyn4j.geometry.hull.DivideAndConquer;
+import org.dyn4j.geometry.hull.GiftWrap;
+import org.dyn4j.geometry.hull.GrahamScan;
+import org.dyn4j.geometry.hull.HullGenerator;
+import org.dyn4j.geometry.hull.MonotoneChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the convex hull generators and the convex decomposers.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+	/** The hull generator */
+	@Param({"GiftWrap", "GrahamScan", "MonotoneChain", "DivideAndConquer"})
+	public String hull;
+	
+	/** The decomposer */
+	@Param({"Bayazit", "EarClipping", "SweepLine"})
+	public String decomposer;
+	
+	/** The hull generator */
+	private HullGenerator generator;
+	
+	/** The decomposer */
+	private Decomposer decompose;
+	
+	/** The point cloud */
+	private Vector2[] points;
+	
+	/** The simple polygon */
+	private Vector2[] polygon;
+	
+	/**
+	 * Creates the algorithms and the input data.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		if ("GiftWrap".equals(this.hull)) this.generator = new GiftWrap();
+		else if ("GrahamScan".equals(this.hull)) this.generator = new GrahamScan();
+		else if ("MonotoneChain".equals(this.hull)) this.generator = new MonotoneChain();
+		else if ("DivideAndConquer".equals(this.hull)) this.generator = new DivideAndConquer();
+		else throw new IllegalArgumentException(this.hull);
+		
+		if ("Bayazit".equals(this.decomposer)) this.decompose = new Bayazit();
+		else if ("EarClipping".equals(this.decomposer)) this.decompose = new EarClipping();
+		else if ("SweepLine".equals(this.decomposer)) this.decompose = new SweepLine();
+		else throw new IllegalArgumentException(this.decomposer);
+		
+		this.points = Scenes.createRandomPoints(1000, 10.0);
+		this.polygon = Scenes.createStar(100);
+	}
+	
+	/**
+	 * Generates the convex hull of the point cloud.
+	 * @return {@link Vector2}[]
+	 */
+	@Benchmark
+	public Vector2[] hull() {
+		return this.generator.generate(this.points);
+	}
+	
+	/**
+	 * Decomposes the simple polygon.
+	 * @return List&lt;{@link Convex}&gt;
+	 */
+	@Benchmark
+	public List<Convex> decompose() {
+		return this.decompose.decompose(this.polygon);
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.dyn4j.collision.manifold.ClippingManifoldSolver;
+import org.dyn4j.collision.manifold.Manifold;
+import org.dyn4j.collision.narrowphase.DispatchingNarrowphaseDetector;
+import org.dyn4j.collision.narrowphase.Gjk;
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.collision.narrowphase.Sat;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Transform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the narrow-phase detectors and the manifold solver on overlapping
+ * pairs of common shapes.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class NarrowphaseBenchmark {
+	/** The shape pair */
+	@Param({"circle-circle", "circle-polygon", "polygon-polygon", "capsule-polygon", "rectangle-rectangle"})
+	public String pair;
+	
+	/** The Gjk/Epa detector */
+	private final Gjk gjk = new Gjk();
+	
+	/** The Sat detector */
+	private final Sat sat = new Sat();
+	
+	/** The dispatching detector */
+	private final DispatchingNarrowphaseDetector dispatching = new DispatchingNarrowphaseDetector();
+	
+	/** The manifold solver */
+	private final ClippingManifoldSolver clipping = new ClippingManifoldSolver();
+	
+	/** The first shape */
+	private Convex convex1;
+	
+	/** The second shape */
+	private Convex convex2;
+	
+	/** The first transform */
+	private Transform transform1;
+	
+	/** The second transform */
+	private Transform transform2;
+	
+	/** The penetration of the pair; used for the manifold benchmark */
+	private Penetration penetration;
+	
+	/**
+	 * Creates the shapes and places them so that they overlap slightly.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		String[] names = this.pair.split("-");
+		this.convex1 = createShape(names[0]);
+		this.convex2 = createShape(names[1]);
+		
+		this.transform1 = new Transform();
+		this.transform2 = new Transform();
+		this.transform2.translate(0.8, 0.3);
+		this.transform2.rotate(0.3);
+		
+		this.penetration = new Penetration();
+		if (!this.gjk.detect(this.convex1, this.transform1, this.convex2, this.transform2, this.penetration)) {
+			throw new IllegalStateException(this.pair);
+		}
+	}
+	
+	/**
+	 * Returns a new shape for the given name.
+	 * @param name the shape name
+	 * @return {@link Convex}
+	 */
+	static Convex createShape(String name) {
+		if ("circle".equals(name)) return Geometry.createCircle(0.5);
+		if ("polygon".equals(name)) return Geometry.createUnitCirclePolygon(8, 0.5);
+		if ("capsule".equals(name)) return Geometry.createCapsule(1.0, 0.4);
+		if ("rectangle".equals(name)) return Geometry.createRectangle(1.0, 0.5);
+		throw new IllegalArgumentException(name);
+	}
+	
+	/**
+	 * Boolean overlap test using Gjk.
+	 * @return boolean
+	 */
+	@Benchmark
+	public boolean gjkDetect() {
+		return this.gjk.detect(this.convex1, this.transform1, this.convex2, this.transform2);
+	}
+	
+	/**
+	 * Penetration test using Gjk and Epa.
+	 * @return {@link Penetration}
+	 */
+	@Benchmark
+	public Penetration gjkPenetration() {
+		Penetration p = new Penetration();
+		this.gjk.detect(this.convex1, this.transform1, this.convex2, this.transform2, p);
+		return p;
+	}
+	
+	/**
+	 * Boolean overlap test using Sat.
+	 * @return boolean
+	 */
+	@Benchmark
+	public boolean satDetect() {
+		return this.sat.detect(this.convex1, this.transform1, this.convex2, this.transform2);
+	}
+	
+	/**
+	 * Penetration test using Sat.
+	 * @return {@link Penetration}
+	 */
+	@Benchmark
+	public Penetration satPenetration() {
+		Penetration p = new Penetration();
+		this.sat.detect(this.convex1, this.transform1, this.convex2, this.transform2, p);
+		return p;
+	}
+	
+	/**
+	 * Penetration test using the dispatching detector.
+	 * @return {@link Penetration}
+	 */
+	@Benchmark
+	public Penetration dispatchingPenetration() {
+		Penetration p = new Penetration();
+		this.dispatching.detect(this.convex1, this.transform1, this.convex2, this.transform2, p);
+		return p;
+	}
+	
+	/**
+	 * Contact manifold generation from a precomputed penetration.
+	 * @return {@link Manifold}
+	 */
+	@Benchmark
+	public Manifold manifold() {
+		Manifold m = new Manifold();
+		this.clipping.getManifold(this.penetration, this.convex1, this.transform1, this.convex2, this.transform2, m);
+		return m;
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.dyn4j.dynamics.ConvexCastResult;
+import org.dyn4j.dynamics.DetectResult;
+import org.dyn4j.dynamics.RaycastResult;
+import org.dyn4j.dynamics.World;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link World} query methods on the random scene after it has
+ * been allowed to settle for a few seconds.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+	/** The world */
+	private World world;
+	
+	/** The raycast results */
+	private final List<RaycastResult> raycastResults = new ArrayList<RaycastResult>();
+	
+	/** The convex cast results */
+	private final List<ConvexCastResult> convexCastResults = new ArrayList<ConvexCastResult>();
+	
+	/** The detect results */
+	private final List<DetectResult> detectResults = new ArrayList<DetectResult>();
+	
+	/** The ray */
+	private Ray ray;
+	
+	/** The convex cast shape */
+	private Convex convex;
+	
+	/** The convex cast shape's initial transform */
+	private Transform transform;
+	
+	/** The convex cast motion */
+	private Vector2 delta;
+	
+	/** The query AABB */
+	private AABB aabb;
+	
+	/**
+	 * Builds and settles the world.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		this.world = Scenes.createRandom(2000, 100.0);
+		// let the bodies fall into a pile
+		this.world.step(300);
+		
+		this.ray = new Ray(new Vector2(-50.0, 1.0), new Vector2(1.0, 0.0));
+		this.convex = Geometry.createCircle(0.5);
+		this.transform = new Transform();
+		this.transform.translate(-50.0, 2.0);
+		this.delta = new Vector2(100.0, 0.0);
+		this.aabb = new AABB(-5.0, 0.0, 5.0, 5.0);
+	}
+	
+	/**
+	 * Casts a ray through the pile, returning all hits.
+	 * @return List&lt;{@link RaycastResult}&gt;
+	 */
+	@Benchmark
+	public List<RaycastResult> raycastAll() {
+		this.raycastResults.clear();
+		this.world.raycast(this.ray, 100.0, true, true, this.raycastResults);
+		return this.raycastResults;
+	}
+	
+	/**
+	 * Casts a ray through the pile, returning the closest hit.
+	 * @return List&lt;{@link RaycastResult}&gt;
+	 */
+	@Benchmark
+	public List<RaycastResult> raycastClosest() {
+		this.raycastResults.clear();
+		this.world.raycast(this.ray, 100.0, true, false, this.raycastResults);
+		return this.raycastResults;
+	}
+	
+	/**
+	 * Sweeps a circle through the pile, returning all hits.
+	 * @return List&lt;{@link ConvexCastResult}&gt;
+	 */
+	@Benchmark
+	public List<ConvexCastResult> convexCast() {
+		this.convexCastResults.clear();
+		this.world.convexCast(this.convex, this.transform, this.delta, true, true, this.convexCastResults);
+		return this.convexCastResults;
+	}
+	
+	/**
+	 * Detects all bodies overlapping an AABB in the middle of the pile.
+	 * @return List&lt;{@link DetectResult}&gt;
+	 */
+	@Benchmark
+	public List<DetectResult> detectAABB() {
+		this.detectResults.clear();
+		this.world.detect(this.aabb, this.detectResults);
+		return this.detectResults;
+	}
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.benchmarks;
+
+import java.util.Random;
+
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.World;
+import org.dyn4j.dynamics.joint.RevoluteJoint;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Builds the reproducible scenes used by the benchmarks.
+ * <p>
+ * All random values are generated from a fixed seed so that each scene is
+ * the same every time it's built.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public final class Scenes {
+	/** The seed used for all random scenes */
+	public static final long SEED = 0x5EED;
+	
+	/** The name of the pyramid scene */
+	public static final String PYRAMID = "pyramid";
+	
+	/** The name of the random scene */
+	public static final String RANDOM = "random";
+	
+	/** The name of the joint chain scene */
+	public static final String CHAIN = "chain";
+	
+	/** The name of the ragdoll scene */
+	public static final String RAGDOLLS = "ragdolls";
+	
+	/** The name of the bullet scene */
+	public static final String BULLETS = "bullets";
+	
+	/** Hidden constructor */
+	private Scenes() {}
+	
+	/**
+	 * Returns a new world containing the scene with the given name.
+	 * @param name the scene name
+	 * @return {@link World}
+	 * @throws IllegalArgumentException if the name isn't one of the scene names
+	 */
+	public static World create(String name) {
+		if (PYRAMID.equals(name)) return createPyramid(30);
+		if (RANDOM.equals(name)) return createRandom(2000, 100.0);
+		if (CHAIN.equals(name)) return createChain(200);
+		if (RAGDOLLS.equals(name)) return createRagdolls(40);
+		if (BULLETS.equals(name)) return createBullets(100);
+		throw new IllegalArgumentException(name);
+	}
+	
+	/**
+	 * Returns a new body with a single fixture.
+	 * @param convex the fixture shape
+	 * @param type the mass type
+	 * @return {@link Body}
+	 */
+	static Body createBody(Convex convex, MassType type) {
+		Body body = new Body();
+		body.addFixture(convex);
+		body.setMass(type);
+		return body;
+	}
+	
+	/**
+	 * Returns a new world with a wide static ground.
+	 * @return {@link World}
+	 */
+	static World createGroundedWorld() {
+		World world = new World();
+		Body ground = createBody(Geometry.createRectangle(500.0, 1.0), MassType.INFINITE);
+		ground.translate(0.0, -0.5);
+		world.addBody(ground);
+		return world;
+	}
+	
+	/**
+	 * Creates a pyramid of boxes resting on the ground.
+	 * @param rows the number of rows at the base
+	 * @return {@link World}
+	 */
+	public static World createPyramid(int rows) {
+		World world = createGroundedWorld();
+		double size = 1.0;
+		for (int row = 0; row < rows; row++) {
+			int count = rows - row;
+			double x = -count * size * 0.5 + size * 0.5;
+			double y = row * size + size * 0.5;
+			for (int i = 0; i < count; i++) {
+				Body box = createBody(Geometry.createSquare(size), MassType.NORMAL);
+				box.translate(x + i * size, y);
+				world.addBody(box);
+			}
+		}
+		return world;
+	}
+	
+	/**
+	 * Creates a single column of boxes resting on the ground.
+	 * @param height the number of boxes in the column
+	 * @return {@link World}
+	 */
+	public static World createStack(int height) {
+		World world = createGroundedWorld();
+		for (int i = 0; i < height; i++) {
+			Body box = new Body();
+			box.addFixture(Geometry.createSquare(1.0), 1.0, 0.6, 0.0);
+			box.setMass(MassType.NORMAL);
+			box.translate(0.0, 0.5 + i);
+			world.addBody(box);
+		}
+		return world;
+	}
+	
+	/**
+	 * Creates a field of sleeping boxes stacked in columns on the ground next to a small
+	 * number of boxes that are kept awake.
+	 * <p>
+	 * The sleeping boxes are placed at rest so that they don't need to be simulated to
+	 * come to rest first.
+	 * @param count the number of sleeping boxes
+	 * @param awake the number of awake boxes
+	 * @return {@link World}
+	 */
+	public static World createDebris(int count, int awake) {
+		World world = new World();
+		int height = 10;
+		int columns = (count + height - 1) / height;
+		double width = columns * 1.5 + awake * 1.5 + 10.0;
+		Body ground = createBody(Geometry.createRectangle(width, 1.0), MassType.INFINITE);
+		ground.translate(width * 0.5 - 5.0, -0.5);
+		world.addBody(ground);
+		for (int i = 0; i < count; i++) {
+			Body box = createBody(Geometry.createSquare(1.0), MassType.NORMAL);
+			box.translate((i / height) * 1.5, 0.495 + (i % height) * 0.995);
+			box.setAsleep(true);
+			world.addBody(box);
+		}
+		// the awake boxes fall next to the sleeping ones
+		double x = columns * 1.5 + 5.0;
+		for (int i = 0; i < awake; i++) {
+			Body box = createBody(Geometry.createSquare(1.0), MassType.NORMAL);
+			box.translate(x + i * 1.5, 2.0 + (i % 3));
+			box.setAutoSleepingEnabled(false);
+			world.addBody(box);
+		}
+		return world;
+	}
+	
+	/**
+	 * Creates a large world of randomly sized and placed shapes falling onto the ground.
+	 * @param count the number of bodies
+	 * @param width the width of the area the bodies are placed in
+	 * @return {@link World}
+	 */
+	public static World createRandom(int count, double width) {
+		World world = createGroundedWorld();
+		Random random = new Random(SEED);
+		for (int i = 0; i < count; i++) {
+			Body body = createBody(createRandomConvex(random), MassType.NORMAL);
+			body.translate(random.nextDouble() * width - width * 0.5, 1.0 + random.nextDouble() * width * 0.5);
+			body.rotate(random.nextDouble() * Math.PI);
+			world.addBody(body);
+		}
+		return world;
+	}
+	
+	/**
+	 * Returns a random convex shape.
+	 * @param random the random number generator
+	 * @return {@link Convex}
+	 */
+	static Convex createRandomConvex(Random random) {
+		double size = 0.25 + random.nextDouble() * 0.75;
+		switch (random.nextInt(5)) {
+			case 0: return Geometry.createCircle(size * 0.5);
+			case 1: return Geometry.createRectangle(size, size * 0.5);
+			case 2: return Geometry.createCapsule(size, size * 0.4);
+			case 3: return Geometry.createUnitCirclePolygon(5 + random.nextInt(4), size * 0.5);
+			default: return Geometry.createIsoscelesTriangle(size, size);
+		}
+	}
+	
+	/**
+	 * Creates a chain of links hanging from a static anchor and connected by revolute joints.
+	 * @param links the number of links
+	 * @return {@link World}
+	 */
+	public static World createChain(int links) {
+		World world = createGroundedWorld();
+		Body anchor = createBody(Geometry.createCircle(0.25), MassType.INFINITE);
+		anchor.translate(0.0, links * 0.5 + 2.0);
+		world.addBody(anchor);
+		
+		Body previous = anchor;
+		for (int i = 0; i < links; i++) {
+			Body link = createBody(Geometry.createRectangle(0.5, 0.1), MassType.NORMAL);
+			// lay the chain out horizontally so that it swings
+			link.translate(0.25 + i * 0.5, links * 0.5 + 2.0);
+			world.addBody(link);
+			world.addJoint(new RevoluteJoint(previous, link, new Vector2(i * 0.5, links * 0.5 + 2.0)));
+			previous = link;
+		}
+		return world;
+	}
+	
+	/**
+	 * Creates a number of ragdolls falling onto the ground.
+	 * @param count the number of ragdolls
+	 * @return {@link World}
+	 */
+	public static World createRagdolls(int count) {
+		World world = createGroundedWorld();
+		for (int i = 0; i < count; i++) {
+			double x = (i % 10) * 3.0 - 15.0;
+			double y = 3.0 + (i / 10) * 4.0;
+			addRagdoll(world, x, y);
+		}
+		return world;
+	}
+	
+	/**
+	 * Adds a ragdoll to the given world at the given position.
+	 * @param world the world
+	 * @param x the x position of the torso
+	 * @param y the y position of the torso
+	 */
+	static void addRagdoll(World world, double x, double y) {
+		Body torso = createBody(Geometry.createRectangle(0.5, 1.0), MassType.NORMAL);
+		torso.translate(x, y);
+		world.addBody(torso);
+		
+		Body head = createBody(Geometry.createCircle(0.25), MassType.NORMAL);
+		head.translate(x, y + 0.8);
+		world.addBody(head);
+		world.addJoint(new RevoluteJoint(torso, head, new Vector2(x, y + 0.55)));
+		
+		for (int side = -1; side <= 1; side += 2) {
+			// arm
+			Body upperArm = createBody(Geometry.createRectangle(0.15, 0.5), MassType.NORMAL);
+			upperArm.translate(x + side * 0.35, y + 0.2);
+			world.addBody(upperArm);
+			world.addJoint(new RevoluteJoint(torso, upperArm, new Vector2(x + side * 0.35, y + 0.45)));
+			
+			Body lowerArm = createBody(Geometry.createRectangle(0.15, 0.5), MassType.NORMAL);
+			lowerArm.translate(x + side * 0.35, y - 0.3);
+			world.addBody(lowerArm);
+			world.addJoint(new RevoluteJoint(upperArm, lowerArm, new Vector2(x + side * 0.35, y - 0.05)));
+			
+			// leg
+			Body upperLeg = createBody(Geometry.createRectangle(0.2, 0.6), MassType.NORMAL);
+			upperLeg.translate(x + side * 0.15, y - 0.8);
+			world.addBody(upperLeg);
+			world.addJoint(new RevoluteJoint(torso, upperLeg, new Vector2(x + side * 0.15, y - 0.5)));
+			
+			Body lowerLeg = createBody(Geometry.createRectangle(0.2, 0.6), MassType.NORMAL);
+			lowerLeg.translate(x + side * 0.15, y - 1.4);
+			world.addBody(lowerLeg);
+			world.addJoint(new RevoluteJoint(upperLeg, lowerLeg, new Vector2(x + side * 0.15, y - 1.1)));
+		}
+	}
+	
+	/**
+	 * Creates a number of fast moving bullets fired at a thin wall.
+	 * @param count the number of bullets
+	 * @return {@link World}
+	 */
+	public static World createBullets(int count) {
+		World world = createGroundedWorld();
+		
+		Body wall = createBody(Geometry.createRectangle(0.1, 20.0), MassType.INFINITE);
+		wall.translate(20.0, 10.0);
+		world.addBody(wall);
+		
+		Random random = new Random(SEED);
+		for (int i = 0; i < count; i++) {
+			Body bullet = createBody(Geometry.createCircle(0.05), MassType.NORMAL);
+			bullet.translate(-20.0 + random.nextDouble() * 10.0, 1.0 + random.nextDouble() * 18.0);
+			bullet.setLinearVelocity(200.0 + random.nextDouble() * 100.0, 0.0);
+			bullet.setBullet(true);
+			world.addBody(bullet);
+		}
+		return world;
+	}
+	
+	/**
+	 * Returns the given number of random points within a square of the given size.
+	 * @param count the number of points
+	 * @param size the size of the square
+	 * @return {@link Vector2}[]
+	 */
+	public static Vector2[] createRandomPoints(int count, double size) {
+		Random random = new Random(SEED);
+		Vector2[] points = new Vector2[count];
+		for (int i = 0; i < count; i++) {
+			points[i] = new Vector2(random.nextDouble() * size - size * 0.5, random.nextDouble() * size - size * 0.5);
+		}
+		return points;
+	}
+	
+	/**
+	 * Returns a simple, counter-clockwise, star shaped polygon with the given number of points.
+	 * @param points the number of outer points
+	 * @return {@link Vector2}[]
+	 */
+	public static Vector2[] createStar(int points) {
+		Vector2[] vertices = new Vector2[points * 2];
+		double step = Math.PI / points;
+		for (int i = 0; i < vertices.length; i++) {
+			double r = (i % 2 == 0) ? 1.0 : 0.4;
+			double a = i * step;
+			vertices[i] = new Vector2(r * Math.cos(a), r * Math.sin(a));
+		}
+		return vertices;
+	}
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.Settings;
+import org.dyn4j.dynamics.World;
+import org.dyn4j.dynamics.contact.BatchedImpulses;
+import org.dyn4j.dynamics.contact.SequentialImpulses;
+import org.dyn4j.dynamics.contact.SubSteppingImpulses;
+import org.dyn4j.geometry.Vector2;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@link SequentialImpulses}, {@link BatchedImpulses} and
+ * {@link SubSteppingImpulses} contact solvers on a tall stack of boxes.
+ * <p>
+ * Each invocation simulates the stack for a fixed number of time steps from rest.  The
+ * horizontal drift and the height of the top of the stack at the end of each invocation
+ * are reported as secondary results by {@link Stability} so that the stability of each
+ * configuration can be compared alongside its cost.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+	/** Sequential impulses with 10 velocity and position iterations */
+	public static final String SEQUENTIAL_10 = "sequential-10";
+	
+	/** Sequential impulses with 30 velocity and 10 position iterations */
+	public static final String SEQUENTIAL_30 = "sequential-30";
+	
+	/** Batched impulses with 10 velocity and position iterations using the body state store */
+	public static final String BATCHED_10 = "batched-10";
+	
+	/** Sub-stepping impulses with 4 sub-steps */
+	public static final String SUB_STEPPING_4 = "subStepping-4";
+	
+	/** Sub-stepping impulses with 8 sub-steps */
+	public static final String SUB_STEPPING_8 = "subStepping-8";
+	
+	/** The number of time steps simulated per invocation */
+	private static final int STEPS = 300;
+	
+	/** The solver configuration */
+	@Param({SEQUENTIAL_10, SEQUENTIAL_30, BATCHED_10, SUB_STEPPING_4, SUB_STEPPING_8})
+	public String solver;
+	
+	/** The number of boxes in the stack */
+	@Param({"10", "20"})
+	public int height;
+	
+	/** The world */
+	private World world;
+	
+	/**
+	 * The stability of the stack reported as JMH auxiliary counters.
+	 * <p>
+	 * Holds the largest horizontal drift and the lowest top of the stack seen during
+	 * the iteration.  A stack that fell over shows up as a large drift and a low top.
+	 * @author William Bittle
+	 * @version 3.3.1
+	 * @since 3.3.1
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Stability {
+		/** The largest horizontal distance of a box from the center of the stack */
+		public double drift;
+		
+		/** The lowest height of the highest box */
+		public double top;
+		
+		/**
+		 * Resets the counters at the start of each iteration.
+		 */
+		@Setup(Level.Iteration)
+		public void reset() {
+			this.drift = 0.0;
+			this.top = Double.MAX_VALUE;
+		}
+		
+		/**
+		 * Records the drift and top of the stack in the given world.
+		 * @param world the world
+		 */
+		public void record(World world) {
+			double drift = 0.0;
+			double top = 0.0;
+			int size = world.getBodyCount();
+			for (int i = 0; i < size; i++) {
+				Body body = world.getBody(i);
+				if (body.getMass().isInfinite()) {
+					// skip the floor
+					continue;
+				}
+				Vector2 c = body.getWorldCenter();
+				drift = Math.max(drift, Math.abs(c.x));
+				top = Math.max(top, c.y);
+			}
+			this.drift = Math.max(this.drift, drift);
+			this.top = Math.min(this.top, top);
+		}
+	}
+	
+	/**
+	 * Rebuilds the stack and configures the solver.
+	 */
+	@Setup(Level.Invocation)
+	public void setup() {
+		this.world = Scenes.createStack(this.height);
+		Settings settings = this.world.getSettings();
+		// keep the stack awake so that every step is solved
+		settings.setAutoSleepingEnabled(false);
+		if (SEQUENTIAL_10.equals(this.solver)) {
+			settings.setVelocityConstraintSolverIterations(10);
+			settings.setPositionConstraintSolverIterations(10);
+			this.world.setContactConstraintSolver(new SequentialImpulses());
+		} else if (SEQUENTIAL_30.equals(this.solver)) {
+			settings.setVelocityConstraintSolverIterations(30);
+			settings.setPositionConstraintSolverIterations(10);
+			this.world.setContactConstraintSolver(new SequentialImpulses());
+		} else if (BATCHED_10.equals(this.solver)) {
+			settings.setVelocityConstraintSolverIterations(10);
+			settings.setPositionConstraintSolverIterations(10);
+			settings.setBodyStateStoreEnabled(true);
+			this.world.setContactConstraintSolver(new BatchedImpulses());
+		} else if (SUB_STEPPING_4.equals(this.solver)) {
+			this.world.setContactConstraintSolver(new SubSteppingImpulses(4));
+		} else if (SUB_STEPPING_8.equals(this.solver)) {
+			this.world.setContactConstraintSolver(new SubSteppingImpulses(8));
+		} else {
+			throw new IllegalArgumentException(this.solver);
+		}
+	}
+	
+	/**
+	 * Simulates the stack.
+	 * <p>
+	 * The stability is recorded after the steps; a single pass over the boxes which is
+	 * small next to the cost of the steps.
+	 * @param stability the stability counters
+	 * @return {@link World}
+	 */
+	@Benchmark
+	public World simulate(Stability stability) {
+		for (int i = 0; i < STEPS; i++) {
+			this.world.step(1);
+		}
+		stability.record(this.world);
+		return this.world;
+	}
+}
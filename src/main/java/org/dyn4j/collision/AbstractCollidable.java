@@ -29,6 +29,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.dyn4j.DataContainer;
 import org.dyn4j.geometry.AABB;
@@ -40,14 +41,20 @@ import org.dyn4j.geometry.Vector2;
 /**
  * A base implementation of the {@link Collidable} interface.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.1
  * @since 3.2.0
  * @param <T> the {@link Fixture} type
  */
 public abstract class AbstractCollidable<T extends Fixture> implements Collidable<T>, Transformable, DataContainer {
+	/** The source of the {@link #sequenceId}s */
+	private static final AtomicInteger SEQUENCE = new AtomicInteger();
+	
 	/** The {@link Collidable}'s unique identifier */
 	protected final UUID id;
 	
+	/** The {@link Collidable}'s compact integer identifier */
+	protected final int sequenceId;
+	
 	/** The current {@link Transform} */
 	protected Transform transform;
 
@@ -79,6 +86,7 @@ public abstract class AbstractCollidable<T extends Fixture> implements Collidabl
 	public AbstractCollidable(int fixtureCount) {
 		int size = fixtureCount <= 0 ? Collidable.TYPICAL_FIXTURE_COUNT : fixtureCount;
 		this.id = UUID.randomUUID();
+		this.sequenceId = SEQUENCE.getAndIncrement();
 		this.fixtures = new ArrayList<T>(size);
 		this.radius = 0.0;
 		this.transform = new Transform();
@@ -349,6 +357,20 @@ public abstract class AbstractCollidable<T extends Fixture> implements Collidabl
 		return this.id;
 	}
 	
+	/**
+	 * Returns a compact integer identifier for this {@link Collidable}.
+	 * <p>
+	 * The identifiers are assigned in creation order and are constant for the life of
+	 * this {@link Collidable}.  They are intended for fast hashing of collidables and
+	 * pairs of collidables.  Unlike {@link #getId()}, they are not guaranteed to be unique
+	 * once more than 2<sup>32</sup> collidables have been created.
+	 * @return int
+	 * @since 3.3.1
+	 */
+	public int getSequenceId() {
+		return this.sequenceId;
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.collision.Collidable#createAABB()
 	 */
@@ -25,6 +25,7 @@
 package org.dyn4j.collision;
 
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.dyn4j.DataContainer;
 import org.dyn4j.geometry.Convex;
@@ -56,13 +57,19 @@ import org.dyn4j.resources.Messages;
  * A {@link Fixture} can be flagged as a sensor fixture to enable standard collision detection, but disable
  * collision resolution (response).
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.1
  * @since 2.0.0
  */
 public class Fixture implements DataContainer {
+	/** The source of the {@link #sequenceId}s */
+	private static final AtomicInteger SEQUENCE = new AtomicInteger();
+	
 	/** The id for the fixture */
 	protected final UUID id;
 	
+	/** The compact integer id for the fixture */
+	protected final int sequenceId;
+	
 	/** The convex shape for this fixture */
 	protected final Convex shape;
 	
@@ -83,6 +90,7 @@ public class Fixture implements DataContainer {
 	public Fixture(Convex shape) {
 		if (shape == null) throw new NullPointerException(Messages.getString("collision.fixture.nullShape"));
 		this.id = UUID.randomUUID();
+		this.sequenceId = SEQUENCE.getAndIncrement();
 		this.shape = shape;
 		this.filter = Filter.DEFAULT_FILTER;
 		this.sensor = false;
@@ -133,6 +141,20 @@ public class Fixture implements DataContainer {
 		return this.id;
 	}
 	
+	/**
+	 * Returns a compact integer id for this fixture.
+	 * <p>
+	 * The ids are assigned in creation order and are constant for the life of this
+	 * {@link Fixture}.  They are intended for fast hashing of fixtures and pairs of fixtures.
+	 * Unlike {@link #getId()}, they are not guaranteed to be unique once more than
+	 * 2<sup>32</sup> fixtures have been created.
+	 * @return int
+	 * @since 3.3.1
+	 */
+	public int getSequenceId() {
+		return this.sequenceId;
+	}
+	
 	/**
 	 * The {@link Convex} {@link Shape} representing the geometry of this fixture.
 	 * @return {@link Convex}
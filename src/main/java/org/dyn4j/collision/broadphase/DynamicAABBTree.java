@@ -44,8 +44,14 @@ import org.dyn4j.geometry.Vector2;
  * <p>
  * This class uses a self-balancing binary tree to store the AABBs.  The AABBs are sorted using the perimeter.
  * The perimeter hueristic is better than area for 2D because axis aligned segments would have zero area.
+ * <p>
+ * When incremental mode is enabled (see {@link #setIncrementalEnabled(boolean)}) the tree records the leaves that
+ * were added or reinserted since the last call to {@link #detect(BroadphaseFilter)} and only those leaves are queried
+ * against the tree.  The pairs between leaves that didn't move are carried forward since their expanded AABBs haven't
+ * changed.  This is faster when most collidables stay within their expanded AABBs from step to step, but the pairs
+ * are returned in a different order than in the default mode.
  * @author William Bittle
- * @version 3.3.0
+ * @version 3.3.1
  * @since 3.0.0
  * @param <E> the {@link Collidable} type
  * @param <T> the {@link Fixture} type
@@ -57,6 +63,15 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 	/** Id to node map for fast lookup */
 	final Map<BroadphaseKey, DynamicAABBTreeLeaf<E, T>> map;
 	
+	/** True if the pairs are carried forward between detections */
+	boolean incremental;
+	
+	/** The leaves that have been added or reinserted since the last detection */
+	final List<DynamicAABBTreeLeaf<E, T>> moved;
+	
+	/** The leaves of the pairs carried forward; two consecutive entries per pair */
+	final List<DynamicAABBTreeLeaf<E, T>> pairs;
+	
 	/**
 	 * Default constructor.
 	 */
@@ -77,6 +92,9 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 		// if we take capacity / load factor
 		// the default load factor is 0.75 according to the javadocs, but lets assign it to be sure
 		this.map = new LinkedHashMap<BroadphaseKey, DynamicAABBTreeLeaf<E, T>>(initialCapacity * 4 / 3 + 1, 0.75f);
+		this.incremental = false;
+		this.moved = new ArrayList<DynamicAABBTreeLeaf<E, T>>();
+		this.pairs = new ArrayList<DynamicAABBTreeLeaf<E, T>>();
 	}
 	
 	/* (non-Javadoc)
@@ -115,6 +133,8 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 		this.map.put(key, node);
 		// insert the node into the tree
 		this.insert(node);
+		// a new node needs to be queried for pairs
+		this.setMoved(node);
 	}
 	
 	/* (non-Javadoc)
@@ -129,6 +149,8 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 		if (node != null) {
 			// remove the node from the tree
 			this.remove(node);
+			// flag the node so that its pairs are dropped
+			node.removed = true;
 			return true;
 		}
 		return false;
@@ -178,6 +200,21 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 		node.aabb = aabb;
 		// reinsert the node
 		this.insert(node);
+		// the node's pairs need to be found again
+		this.setMoved(node);
+	}
+	
+	/**
+	 * Records that the given leaf node was added or reinserted when
+	 * incremental mode is enabled.
+	 * @param node the leaf node
+	 * @since 3.3.1
+	 */
+	void setMoved(DynamicAABBTreeLeaf<E, T> node) {
+		if (this.incremental && !node.moved) {
+			node.moved = true;
+			this.moved.add(node);
+		}
 	}
 	
 	/* (non-Javadoc)
@@ -224,6 +261,8 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 	public void clear() {
 		this.map.clear();
 		this.root = null;
+		this.moved.clear();
+		this.pairs.clear();
 	}
 
 	/* (non-Javadoc)
@@ -239,6 +278,10 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 	 */
 	@Override
 	public List<BroadphasePair<E, T>> detect(BroadphaseFilter<E, T> filter) {
+		if (this.incremental) {
+			return this.detectIncremental(filter);
+		}
+		
 		// clear all the tested flags on the nodes
 		int size = this.map.size();
 		Collection<DynamicAABBTreeLeaf<E, T>> nodes = this.map.values();
@@ -263,6 +306,157 @@ public class DynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends
 		return pairs;
 	}
 	
+	/**
+	 * Returns the pairs using the pairs carried forward from the last detection
+	 * and the pairs of the leaves that were added or reinserted since.
+	 * @param filter the broadphase filter
+	 * @return List&lt;{@link BroadphasePair}&gt;
+	 * @since 3.3.1
+	 */
+	List<BroadphasePair<E, T>> detectIncremental(BroadphaseFilter<E, T> filter) {
+		List<DynamicAABBTreeLeaf<E, T>> pairs = this.pairs;
+		
+		// drop the pairs of moved and removed leaves; the pairs of moved
+		// leaves that still overlap will be found again below
+		int size = pairs.size();
+		int n = 0;
+		for (int i = 0; i < size; i += 2) {
+			DynamicAABBTreeLeaf<E, T> a = pairs.get(i);
+			DynamicAABBTreeLeaf<E, T> b = pairs.get(i + 1);
+			if (a.moved || a.removed || b.moved || b.removed) continue;
+			pairs.set(n++, a);
+			pairs.set(n++, b);
+		}
+		pairs.subList(n, size).clear();
+		
+		// query the moved leaves against the tree
+		size = this.moved.size();
+		for (int i = 0; i < size; i++) {
+			this.moved.get(i).tested = false;
+		}
+		for (int i = 0; i < size; i++) {
+			DynamicAABBTreeLeaf<E, T> node = this.moved.get(i);
+			if (node.removed) continue;
+			this.detectMoved(node);
+			node.tested = true;
+		}
+		for (int i = 0; i < size; i++) {
+			this.moved.get(i).moved = false;
+		}
+		this.moved.clear();
+		
+		// filter the pairs
+		size = pairs.size();
+		int eSize = Collisions.getEstimatedCollisionPairs(this.map.size());
+		List<BroadphasePair<E, T>> list = new ArrayList<BroadphasePair<E, T>>(eSize);
+		for (int i = 0; i < size; i += 2) {
+			DynamicAABBTreeLeaf<E, T> a = pairs.get(i);
+			DynamicAABBTreeLeaf<E, T> b = pairs.get(i + 1);
+			if (filter.isAllowed(a.collidable, a.fixture, b.collidable, b.fixture)) {
+				list.add(new BroadphasePair<E, T>(
+						a.collidable,	// A
+						a.fixture,
+						b.collidable,	// B
+						b.fixture));
+			}
+		}
+		
+		return list;
+	}
+	
+	/**
+	 * Internal non-recursive method to find the pairs of a moved leaf node.
+	 * <p>
+	 * Pairs with other moved nodes that have already been queried are skipped
+	 * since they were added by that node's query.
+	 * @param node the moved leaf node
+	 * @since 3.3.1
+	 */
+	void detectMoved(DynamicAABBTreeLeaf<E, T> node) {
+		// start at the root node
+		DynamicAABBTreeNode test = this.root;
+		// perform a iterative, stack-less, traversal of the tree
+		while (test != null) {
+			// check if the current node overlaps the desired node
+			if (test.aabb.overlaps(node.aabb)) {
+				// if they do overlap, then check the left child node
+				if (test.left != null) {
+					// if the left is not null, then check that subtree
+					test = test.left;
+					continue;
+				} else {
+					@SuppressWarnings("unchecked")
+					DynamicAABBTreeLeaf<E, T> leaf = (DynamicAABBTreeLeaf<E, T>)test;
+					// skip pairs that were already added and pairs
+					// within the same collidable
+					if (!(leaf.moved && leaf.tested) && leaf.collidable != node.collidable) {
+						this.pairs.add(node);
+						this.pairs.add(leaf);
+					}
+				}
+			}
+			// if the current node is a leaf node or doesnt overlap the
+			// desired aabb, then we need to go back up the tree until we
+			// find the first left node who's right node is not null
+			boolean nextNodeFound = false;
+			while (test.parent != null) {
+				// check if the current node the left child of its parent
+				if (test == test.parent.left) {
+					// the sibling node is the next node
+					test = test.parent.right;
+					nextNodeFound = true;
+					break;
+				}
+				// otherwise go to the parent node
+				test = test.parent;
+			}
+			// if we didn't find it then we are done
+			if (!nextNodeFound) break;
+		}
+	}
+	
+	/**
+	 * Returns true if incremental mode is enabled.
+	 * @return boolean
+	 * @see #setIncrementalEnabled(boolean)
+	 * @since 3.3.1
+	 */
+	public boolean isIncrementalEnabled() {
+		return this.incremental;
+	}
+	
+	/**
+	 * Toggles incremental mode.
+	 * <p>
+	 * In incremental mode, the {@link #detect(BroadphaseFilter)} method only queries the
+	 * leaves that were added or reinserted since the last detection and carries forward
+	 * the pairs of the other leaves.  The given filter is still applied to all the pairs
+	 * each time.
+	 * <p>
+	 * Enabling incremental mode causes the next detection to query all leaves.
+	 * @param flag true to enable incremental mode
+	 * @since 3.3.1
+	 */
+	public void setIncrementalEnabled(boolean flag) {
+		if (flag == this.incremental) return;
+		this.incremental = flag;
+		
+		// reset the tracking state
+		int size = this.moved.size();
+		for (int i = 0; i < size; i++) {
+			this.moved.get(i).moved = false;
+		}
+		this.moved.clear();
+		this.pairs.clear();
+		
+		if (flag) {
+			// all the leaves need to be queried
+			for (DynamicAABBTreeLeaf<E, T> node : this.map.values()) {
+				this.setMoved(node);
+			}
+		}
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.geometry.AABB)
 	 */
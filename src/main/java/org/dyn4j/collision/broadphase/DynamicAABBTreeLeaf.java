@@ -32,7 +32,7 @@ import org.dyn4j.collision.Fixture;
  * <p>
  * The leaf nodes in a {@link DynamicAABBTree} are the nodes that contain the {@link Fixture} AABBs.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.1
  * @since 3.2.0
  * @param <E> the {@link Collidable} type
  * @param <T> the {@link Fixture} type
@@ -47,6 +47,12 @@ final class DynamicAABBTreeLeaf<E extends Collidable<T>, T extends Fixture> exte
 	/** Flag used to determine if a node has been tested before */
 	boolean tested = false;
 	
+	/** Flag used to determine if a node was added or reinserted since the last detection */
+	boolean moved = false;
+	
+	/** Flag used to determine if a node has been removed */
+	boolean removed = false;
+	
 	/**
 	 * Minimal constructor.
 	 * @param collidable the collidable
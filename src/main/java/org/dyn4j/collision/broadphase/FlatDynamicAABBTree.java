@@ -0,0 +1,1168 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.broadphase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.dyn4j.collision.AbstractCollidable;
+import org.dyn4j.collision.Collidable;
+import org.dyn4j.collision.Collisions;
+import org.dyn4j.collision.Fixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.resources.Messages;
+
+/**
+ * Implementation of a self-balancing axis-aligned bounding box tree broad-phase collision detection algorithm
+ * that stores its nodes in flat arrays.
+ * <p>
+ * This class uses the same insertion heuristic, balancing and traversal as the {@link DynamicAABBTree} and
+ * produces the same results in the same order.  Instead of node objects, the nodes are stored in parallel
+ * primitive arrays (the AABB extents, parent, children and height) and are referred to by their integer index.
+ * Removed nodes are placed on a free list and reused by later insertions so that adding, updating and removing
+ * collidables does not create garbage once the arrays have grown to the size of the scene.
+ * <p>
+ * The leaf node of a {@link Collidable} {@link Fixture} is found using an open addressing hash table keyed by the
+ * compact integer ids of the {@link Collidable} and {@link Fixture} rather than a {@link BroadphaseKey}.
+ * <p>
+ * Unlike the {@link DynamicAABBTree}, the {@link #getAABB(Collidable, Fixture)} method returns a new {@link AABB}
+ * each time since there are no {@link AABB} objects stored.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ * @param <E> the {@link Collidable} type
+ * @param <T> the {@link Fixture} type
+ */
+public class FlatDynamicAABBTree<E extends Collidable<T>, T extends Fixture> extends AbstractBroadphaseDetector<E, T> implements BroadphaseDetector<E, T> {
+	/** The index used for a missing node */
+	static final int NULL_NODE = -1;
+
+	/** The minimum number of nodes to allocate */
+	private static final int MINIMUM_NODE_CAPACITY = 16;
+
+	/** The minimum size of the hash table; must be a power of two */
+	private static final int MINIMUM_TABLE_SIZE = 16;
+
+	/** The root node of the tree */
+	int root;
+
+	/** The minimum x extent of each node */
+	double[] minX;
+
+	/** The minimum y extent of each node */
+	double[] minY;
+
+	/** The maximum x extent of each node */
+	double[] maxX;
+
+	/** The maximum y extent of each node */
+	double[] maxY;
+
+	/** The parent of each node; the next free node for nodes on the free list */
+	int[] parent;
+
+	/** The left child of each node */
+	int[] child1;
+
+	/** The right child of each node */
+	int[] child2;
+
+	/** The height of each node's subtree; -1 for nodes on the free list */
+	int[] height;
+
+	/** The collidable of each leaf node */
+	Object[] collidables;
+
+	/** The fixture of each leaf node */
+	Object[] fixtures;
+
+	/** The hash key of each leaf node */
+	int[] keys;
+
+	/** The index of each leaf node in the proxy list */
+	int[] proxyIndices;
+
+	/** The tested flag of each leaf node used during pair detection */
+	boolean[] tested;
+
+	/** The number of nodes the arrays can hold */
+	int nodeCapacity;
+
+	/** The first node on the free list */
+	int freeList;
+
+	/** The leaf nodes in the order they were added; removed leaf nodes leave a hole until the list is compacted */
+	int[] proxies;
+
+	/** The number of used entries in the proxy list, including holes */
+	int proxyCount;
+
+	/** The number of leaf nodes */
+	int size;
+
+	/** The open addressing hash table; holds the index of a leaf node plus one or zero if empty */
+	int[] table;
+
+	/**
+	 * Default constructor.
+	 */
+	public FlatDynamicAABBTree() {
+		this(BroadphaseDetector.DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Optional constructor.
+	 * <p>
+	 * Allows fine tuning of the initial capacity of local storage for faster running times.
+	 * @param initialCapacity the initial capacity of local storage
+	 * @throws IllegalArgumentException if initialCapacity is less than zero
+	 */
+	public FlatDynamicAABBTree(int initialCapacity) {
+		if (initialCapacity < 0) throw new IllegalArgumentException(Messages.getString("collision.broadphase.invalidInitialCapacity"));
+		// a tree with n leaf nodes has 2n - 1 nodes
+		int capacity = Math.max(initialCapacity * 2, MINIMUM_NODE_CAPACITY);
+		this.minX = new double[capacity];
+		this.minY = new double[capacity];
+		this.maxX = new double[capacity];
+		this.maxY = new double[capacity];
+		this.parent = new int[capacity];
+		this.child1 = new int[capacity];
+		this.child2 = new int[capacity];
+		this.height = new int[capacity];
+		this.collidables = new Object[capacity];
+		this.fixtures = new Object[capacity];
+		this.keys = new int[capacity];
+		this.proxyIndices = new int[capacity];
+		this.tested = new boolean[capacity];
+		this.nodeCapacity = capacity;
+		this.link(0, capacity);
+
+		this.root = NULL_NODE;
+		this.proxies = new int[Math.max(initialCapacity, MINIMUM_NODE_CAPACITY)];
+		this.proxyCount = 0;
+		this.size = 0;
+		this.table = new int[getTableSize(initialCapacity)];
+	}
+
+	/**
+	 * Returns the hash table size for the given number of leaf nodes.
+	 * <p>
+	 * The table is kept at most half full.
+	 * @param capacity the number of leaf nodes
+	 * @return int
+	 */
+	private static int getTableSize(int capacity) {
+		int n = MINIMUM_TABLE_SIZE;
+		while (n < capacity * 2) {
+			n <<= 1;
+		}
+		return n;
+	}
+
+	/**
+	 * Returns the hash key for the given {@link Collidable} {@link Fixture}.
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 * @return int
+	 */
+	static int getKey(Collidable<?> collidable, Fixture fixture) {
+		int id;
+		if (collidable instanceof AbstractCollidable) {
+			id = ((AbstractCollidable<?>)collidable).getSequenceId();
+		} else {
+			id = System.identityHashCode(collidable);
+		}
+		return id * 0x9E3779B9 + fixture.getSequenceId();
+	}
+
+	/**
+	 * Returns the home slot in the hash table of the given key.
+	 * @param key the key
+	 * @return int
+	 */
+	private int getSlot(int key) {
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & (this.table.length - 1);
+	}
+
+	/**
+	 * Returns the hash table slot of the leaf node of the given {@link Collidable} {@link Fixture}
+	 * or the complement of the empty slot where it would be placed.
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 * @param key the key of the collidable-fixture pair
+	 * @return int
+	 */
+	private int find(E collidable, T fixture, int key) {
+		int mask = this.table.length - 1;
+		int slot = this.getSlot(key);
+		int entry;
+		while ((entry = this.table[slot]) != 0) {
+			int node = entry - 1;
+			if (this.keys[node] == key && this.collidables[node] == collidable && this.fixtures[node] == fixture) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return ~slot;
+	}
+
+	/**
+	 * Returns the leaf node of the given {@link Collidable} {@link Fixture} or {@link #NULL_NODE}
+	 * if it hasn't been added.
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 * @return int
+	 */
+	int getNode(E collidable, T fixture) {
+		int slot = this.find(collidable, fixture, getKey(collidable, fixture));
+		if (slot < 0) return NULL_NODE;
+		return this.table[slot] - 1;
+	}
+
+	/**
+	 * Empties the given hash table slot and shifts back the entries following it
+	 * so that they can still be found.
+	 * @param slot the slot
+	 */
+	private void removeSlot(int slot) {
+		int[] table = this.table;
+		int mask = table.length - 1;
+		int i = slot;
+		int j = slot;
+		table[i] = 0;
+		while (true) {
+			j = (j + 1) & mask;
+			int entry = table[j];
+			if (entry == 0) return;
+			int k = this.getSlot(this.keys[entry - 1]);
+			// skip the entry if its home slot is cyclically in (i, j]
+			if (i <= j ? (i < k && k <= j) : (i < k || k <= j)) continue;
+			table[i] = entry;
+			table[j] = 0;
+			i = j;
+		}
+	}
+
+	/**
+	 * Rebuilds the hash table using the given size.
+	 * @param tableSize the new table size; must be a power of two
+	 */
+	private void rehash(int tableSize) {
+		this.table = new int[tableSize];
+		int mask = tableSize - 1;
+		for (int i = 0; i < this.proxyCount; i++) {
+			int node = this.proxies[i];
+			if (node == NULL_NODE) continue;
+			int slot = this.getSlot(this.keys[node]);
+			while (this.table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			this.table[slot] = node + 1;
+		}
+	}
+
+	/**
+	 * Links the nodes in the given range together and places them at the front of the free list.
+	 * @param start the first node
+	 * @param end one past the last node
+	 */
+	private void link(int start, int end) {
+		for (int i = start; i < end - 1; i++) {
+			this.parent[i] = i + 1;
+			this.height[i] = -1;
+		}
+		this.parent[end - 1] = NULL_NODE;
+		this.height[end - 1] = -1;
+		this.freeList = start;
+	}
+
+	/**
+	 * Returns a node from the free list, growing the node arrays if the free list is empty.
+	 * @return int
+	 */
+	int allocateNode() {
+		if (this.freeList == NULL_NODE) {
+			int capacity = this.nodeCapacity * 2;
+			this.minX = Arrays.copyOf(this.minX, capacity);
+			this.minY = Arrays.copyOf(this.minY, capacity);
+			this.maxX = Arrays.copyOf(this.maxX, capacity);
+			this.maxY = Arrays.copyOf(this.maxY, capacity);
+			this.parent = Arrays.copyOf(this.parent, capacity);
+			this.child1 = Arrays.copyOf(this.child1, capacity);
+			this.child2 = Arrays.copyOf(this.child2, capacity);
+			this.height = Arrays.copyOf(this.height, capacity);
+			this.collidables = Arrays.copyOf(this.collidables, capacity);
+			this.fixtures = Arrays.copyOf(this.fixtures, capacity);
+			this.keys = Arrays.copyOf(this.keys, capacity);
+			this.proxyIndices = Arrays.copyOf(this.proxyIndices, capacity);
+			this.tested = Arrays.copyOf(this.tested, capacity);
+			this.link(this.nodeCapacity, capacity);
+			this.nodeCapacity = capacity;
+		}
+
+		int node = this.freeList;
+		this.freeList = this.parent[node];
+		this.parent[node] = NULL_NODE;
+		this.child1[node] = NULL_NODE;
+		this.child2[node] = NULL_NODE;
+		this.height[node] = 0;
+		this.tested[node] = false;
+		return node;
+	}
+
+	/**
+	 * Returns the given node to the free list.
+	 * @param node the node
+	 */
+	void freeNode(int node) {
+		this.parent[node] = this.freeList;
+		this.height[node] = -1;
+		this.collidables[node] = null;
+		this.fixtures[node] = null;
+		this.freeList = node;
+	}
+
+	/**
+	 * Removes the holes left in the proxy list by removed leaf nodes.
+	 */
+	private void compact() {
+		int n = 0;
+		for (int i = 0; i < this.proxyCount; i++) {
+			int node = this.proxies[i];
+			if (node != NULL_NODE) {
+				this.proxies[n] = node;
+				this.proxyIndices[node] = n;
+				n++;
+			}
+		}
+		this.proxyCount = n;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#add(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public void add(E collidable, T fixture) {
+		int key = getKey(collidable, fixture);
+		// see if the collidable-fixture has already been added
+		int slot = this.find(collidable, fixture, key);
+		if (slot >= 0) {
+			this.update(this.table[slot] - 1, collidable, fixture);
+		} else {
+			this.add(key, collidable, fixture);
+		}
+	}
+
+	/**
+	 * Internal add method.
+	 * <p>
+	 * This method assumes the given arguments are all non-null and that the
+	 * {@link Collidable} {@link Fixture} is not currently in this broad-phase.
+	 * @param key the key for the collidable-fixture pair
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 */
+	void add(int key, E collidable, T fixture) {
+		Transform tx = collidable.getTransform();
+		AABB aabb = fixture.getShape().createAABB(tx);
+		// expand the aabb
+		aabb.expand(this.expansion);
+
+		// create a new leaf node for the collidable
+		int node = this.allocateNode();
+		this.minX[node] = aabb.getMinX();
+		this.minY[node] = aabb.getMinY();
+		this.maxX[node] = aabb.getMaxX();
+		this.maxY[node] = aabb.getMaxY();
+		this.collidables[node] = collidable;
+		this.fixtures[node] = fixture;
+		this.keys[node] = key;
+
+		// add the node to the hash table
+		if ((this.size + 1) * 2 > this.table.length) {
+			this.rehash(this.table.length * 2);
+		}
+		int slot = ~this.find(collidable, fixture, key);
+		this.table[slot] = node + 1;
+
+		// add the node to the proxy list
+		if (this.proxyCount == this.proxies.length) {
+			if (this.proxyCount > this.size) {
+				this.compact();
+			} else {
+				this.proxies = Arrays.copyOf(this.proxies, this.proxies.length * 2);
+			}
+		}
+		this.proxies[this.proxyCount] = node;
+		this.proxyIndices[node] = this.proxyCount;
+		this.proxyCount++;
+		this.size++;
+
+		// insert the node into the tree
+		this.insert(node);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#remove(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public boolean remove(E collidable, T fixture) {
+		int slot = this.find(collidable, fixture, getKey(collidable, fixture));
+		// make sure it was found
+		if (slot >= 0) {
+			int node = this.table[slot] - 1;
+			this.removeSlot(slot);
+			// leave a hole in the proxy list to preserve the order
+			this.proxies[this.proxyIndices[node]] = NULL_NODE;
+			this.size--;
+			// remove the node from the tree
+			this.remove(node);
+			this.freeNode(node);
+			return true;
+		}
+		return false;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#update(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public void update(E collidable, T fixture) {
+		int key = getKey(collidable, fixture);
+		int slot = this.find(collidable, fixture, key);
+		// make sure we found it
+		if (slot >= 0) {
+			// update the node
+			this.update(this.table[slot] - 1, collidable, fixture);
+		} else {
+			// add the node
+			this.add(key, collidable, fixture);
+		}
+	}
+
+	/**
+	 * Internal update method.
+	 * <p>
+	 * This method assumes the given arguments are all non-null.
+	 * @param node the current leaf node in the tree
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 */
+	void update(int node, E collidable, T fixture) {
+		Transform tx = collidable.getTransform();
+		// create the new aabb
+		AABB aabb = fixture.getShape().createAABB(tx);
+		// see if the old aabb contains the new one
+		if (this.minX[node] <= aabb.getMinX() && this.maxX[node] >= aabb.getMaxX() &&
+			this.minY[node] <= aabb.getMinY() && this.maxY[node] >= aabb.getMaxY()) {
+			// if so, don't do anything
+			return;
+		}
+		// otherwise expand the new aabb
+		aabb.expand(this.expansion);
+		// remove the current node from the tree
+		this.remove(node);
+		// set the new aabb
+		this.minX[node] = aabb.getMinX();
+		this.minY[node] = aabb.getMinY();
+		this.maxX[node] = aabb.getMaxX();
+		this.maxY[node] = aabb.getMaxY();
+		// reinsert the node
+		this.insert(node);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#getAABB(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public AABB getAABB(E collidable, T fixture) {
+		int node = this.getNode(collidable, fixture);
+		if (node != NULL_NODE) {
+			return new AABB(this.minX[node], this.minY[node], this.maxX[node], this.maxY[node]);
+		}
+		return fixture.getShape().createAABB(collidable.getTransform());
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable)
+	 */
+	@Override
+	public boolean contains(E collidable) {
+		int size = collidable.getFixtureCount();
+		boolean result = true;
+		for (int i = 0; i < size; i++) {
+			T fixture = collidable.getFixture(i);
+			result &= this.getNode(collidable, fixture) != NULL_NODE;
+		}
+		return result;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public boolean contains(E collidable, T fixture) {
+		return this.getNode(collidable, fixture) != NULL_NODE;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#clear()
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(this.table, 0);
+		Arrays.fill(this.collidables, null);
+		Arrays.fill(this.fixtures, null);
+		this.link(0, this.nodeCapacity);
+		this.root = NULL_NODE;
+		this.proxyCount = 0;
+		this.size = 0;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#size()
+	 */
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+	@Override
+	public List<BroadphasePair<E, T>> detect(BroadphaseFilter<E, T> filter) {
+		// remove any holes left by removed nodes
+		if (this.proxyCount > this.size) {
+			this.compact();
+		}
+
+		// clear all the tested flags on the nodes
+		int size = this.proxyCount;
+		int[] proxies = this.proxies;
+		for (int i = 0; i < size; i++) {
+			// reset the flag
+			this.tested[proxies[i]] = false;
+		}
+
+		// the estimated size of the pair list
+		int eSize = Collisions.getEstimatedCollisionPairs(size);
+		List<BroadphasePair<E, T>> pairs = new ArrayList<BroadphasePair<E, T>>(eSize);
+
+		// test each collidable in the list
+		for (int i = 0; i < size; i++) {
+			int node = proxies[i];
+			// perform a stackless detection routine
+			this.detectNonRecursive(node, filter, pairs);
+			// update the tested flag
+			this.tested[node] = true;
+		}
+
+		// return the list of pairs
+		return pairs;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.geometry.AABB)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public List<BroadphaseItem<E, T>> detect(AABB aabb, BroadphaseFilter<E, T> filter) {
+		double aMinX = aabb.getMinX();
+		double aMinY = aabb.getMinY();
+		double aMaxX = aabb.getMaxX();
+		double aMaxY = aabb.getMaxY();
+
+		// get the estimated collision count
+		int eSize = Collisions.getEstimatedCollisionsPerObject();
+		List<BroadphaseItem<E, T>> list = new ArrayList<BroadphaseItem<E, T>>(eSize);
+
+		int node = this.root;
+		// perform a iterative, stack-less, traversal of the tree
+		while (node != NULL_NODE) {
+			// check if the current node overlaps the desired node
+			if (aMinX <= this.maxX[node] && aMaxX >= this.minX[node] &&
+				aMinY <= this.maxY[node] && aMaxY >= this.minY[node]) {
+				// if they do overlap, then check the left child node
+				if (this.child1[node] != NULL_NODE) {
+					// if the left is not null, then check that subtree
+					node = this.child1[node];
+					continue;
+				} else {
+					// if both are null, then this is a leaf node
+					E collidable = (E)this.collidables[node];
+					T fixture = (T)this.fixtures[node];
+					if (filter.isAllowed(aabb, collidable, fixture)) {
+						list.add(new BroadphaseItem<E, T>(collidable, fixture));
+					}
+				}
+			}
+			// go back up the tree to the next subtree we haven't tested yet
+			node = this.next(node);
+		}
+
+		return list;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#raycast(org.dyn4j.geometry.Ray, double)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public List<BroadphaseItem<E, T>> raycast(Ray ray, double length, BroadphaseFilter<E, T> filter) {
+		// check the size of the proxy list
+		if (this.size == 0) {
+			// return an empty list
+			return Collections.emptyList();
+		}
+
+		// create an aabb from the ray
+		Vector2 s = ray.getStart();
+		Vector2 d = ray.getDirectionVector();
+
+		// get the length
+		double l = length;
+		if (length <= 0.0) l = Double.MAX_VALUE;
+
+		// compute the coordinates
+		double x1 = s.x;
+		double x2 = s.x + d.x * l;
+		double y1 = s.y;
+		double y2 = s.y + d.y * l;
+
+		// compute the ray's aabb
+		double rMinX = Math.min(x1, x2);
+		double rMinY = Math.min(y1, y2);
+		double rMaxX = Math.max(x1, x2);
+		double rMaxY = Math.max(y1, y2);
+
+		// precompute
+		double invDx = 1.0 / d.x;
+		double invDy = 1.0 / d.y;
+
+		// get the estimated collision count
+		int eSize = Collisions.getEstimatedRaycastCollisions(this.size);
+		List<BroadphaseItem<E, T>> list = new ArrayList<BroadphaseItem<E, T>>(eSize);
+
+		int node = this.root;
+		// perform a iterative, stack-less, traversal of the tree
+		while (node != NULL_NODE) {
+			// check if the current node overlaps the desired node
+			if (rMinX <= this.maxX[node] && rMaxX >= this.minX[node] &&
+				rMinY <= this.maxY[node] && rMaxY >= this.minY[node]) {
+				// if they do overlap, then check the left child node
+				if (this.child1[node] != NULL_NODE) {
+					// if the left is not null, then check that subtree
+					node = this.child1[node];
+					continue;
+				} else if (this.raycast(s, l, invDx, invDy, node)) {
+					// if both are null, then this is a leaf node
+					E collidable = (E)this.collidables[node];
+					T fixture = (T)this.fixtures[node];
+					if (filter.isAllowed(ray, length, collidable, fixture)) {
+						list.add(new BroadphaseItem<E, T>(collidable, fixture));
+					}
+				}
+			}
+			// go back up the tree to the next subtree we haven't tested yet
+			node = this.next(node);
+		}
+
+		return list;
+	}
+
+	/**
+	 * Returns true if the given ray intersects the given node.
+	 * <p>
+	 * This is the same test as {@link #raycast(Vector2, double, double, double, AABB)}
+	 * using the node's extents.
+	 * @param start the start position of the ray
+	 * @param length the length of the ray
+	 * @param invDx the inverse of the x component of the ray direction
+	 * @param invDy the inverse of the y component of the ray direction
+	 * @param node the node to test
+	 * @return true if the node and ray intersect
+	 */
+	private boolean raycast(Vector2 start, double length, double invDx, double invDy, int node) {
+		double tx1 = (this.minX[node] - start.x) * invDx;
+		double tx2 = (this.maxX[node] - start.x) * invDx;
+
+		double tmin = Math.min(tx1, tx2);
+		double tmax = Math.max(tx1, tx2);
+
+		double ty1 = (this.minY[node] - start.y) * invDy;
+		double ty2 = (this.maxY[node] - start.y) * invDy;
+
+		tmin = Math.max(tmin, Math.min(ty1, ty2));
+		tmax = Math.min(tmax, Math.max(ty1, ty2));
+		// the ray is pointing in the opposite direction
+		if (tmax < 0) return false;
+		// consider the ray length
+		if (tmin > length) return false;
+		// along the ray, tmax should be larger than tmin
+		return tmax >= tmin;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.geometry.Shiftable#shift(org.dyn4j.geometry.Vector2)
+	 */
+	@Override
+	public void shift(Vector2 shift) {
+		// we need to update all nodes in the tree (not just the
+		// nodes that contain the bodies) so just sweep the arrays
+		for (int i = 0; i < this.nodeCapacity; i++) {
+			// skip nodes on the free list
+			if (this.height[i] < 0) continue;
+			this.minX[i] += shift.x;
+			this.minY[i] += shift.y;
+			this.maxX[i] += shift.x;
+			this.maxY[i] += shift.y;
+		}
+	}
+
+	/**
+	 * Returns the next node of a stackless traversal after the subtree of the
+	 * given node has been visited or skipped.
+	 * <p>
+	 * This goes back up the tree until it finds the first left node whose
+	 * right node hasn't been visited.
+	 * @param node the current node
+	 * @return int the next node or {@link #NULL_NODE} if the traversal is complete
+	 */
+	private int next(int node) {
+		int p;
+		while ((p = this.parent[node]) != NULL_NODE) {
+			// check if the current node the left child of its parent
+			if (node == this.child1[p]) {
+				// every internal node has two children so the
+				// sibling node is the next node
+				return this.child2[p];
+			}
+			// otherwise go to the parent node
+			node = p;
+		}
+		return NULL_NODE;
+	}
+
+	/**
+	 * Internal non-recursive detection method.
+	 * @param node the leaf node to test
+	 * @param filter the broadphase filter
+	 * @param pairs the list of pairs to add to
+	 */
+	@SuppressWarnings("unchecked")
+	void detectNonRecursive(int node, BroadphaseFilter<E, T> filter, List<BroadphasePair<E, T>> pairs) {
+		double nMinX = this.minX[node];
+		double nMinY = this.minY[node];
+		double nMaxX = this.maxX[node];
+		double nMaxY = this.maxY[node];
+		Object nCollidable = this.collidables[node];
+
+		// start at the root node
+		int test = this.root;
+		// perform a iterative, stack-less, traversal of the tree
+		while (test != NULL_NODE) {
+			// check if the current node overlaps the desired node
+			if (this.minX[test] <= nMaxX && this.maxX[test] >= nMinX &&
+				this.minY[test] <= nMaxY && this.maxY[test] >= nMinY) {
+				// if they do overlap, then check the left child node
+				if (this.child1[test] != NULL_NODE) {
+					// if the left is not null, then check that subtree
+					test = this.child1[test];
+					continue;
+				} else if (!this.tested[test] && this.collidables[test] != nCollidable) {
+					// if both are null, then this is a leaf node
+					// check the tested flag to avoid duplicates and
+					// verify we aren't testing the same collidable against
+					// itself
+					E collidable1 = (E)nCollidable;
+					T fixture1 = (T)this.fixtures[node];
+					E collidable2 = (E)this.collidables[test];
+					T fixture2 = (T)this.fixtures[test];
+					if (filter.isAllowed(collidable1, fixture1, collidable2, fixture2)) {
+						// add the pair to the list of pairs
+						pairs.add(new BroadphasePair<E, T>(
+								collidable1,	// A
+								fixture1,
+								collidable2,	// B
+								fixture2));
+					}
+				}
+			}
+			// go back up the tree to the next subtree we haven't tested yet
+			test = this.next(test);
+		}
+	}
+
+	/**
+	 * Returns the perimeter of the given node.
+	 * @param node the node
+	 * @return double
+	 */
+	private double getPerimeter(int node) {
+		return 2 * (this.maxX[node] - this.minX[node] + this.maxY[node] - this.minY[node]);
+	}
+
+	/**
+	 * Returns the perimeter of the union of the given node and the given extents.
+	 * @param node the node
+	 * @param minX the minimum x extent
+	 * @param minY the minimum y extent
+	 * @param maxX the maximum x extent
+	 * @param maxY the maximum y extent
+	 * @return double
+	 */
+	private double getUnionPerimeter(int node, double minX, double minY, double maxX, double maxY) {
+		return 2 * (Math.max(this.maxX[node], maxX) - Math.min(this.minX[node], minX) +
+				    Math.max(this.maxY[node], maxY) - Math.min(this.minY[node], minY));
+	}
+
+	/**
+	 * Sets the extents of the given node to the union of the extents of the other given nodes.
+	 * @param node the node to set
+	 * @param a the first node
+	 * @param b the second node
+	 */
+	private void union(int node, int a, int b) {
+		this.minX[node] = Math.min(this.minX[a], this.minX[b]);
+		this.minY[node] = Math.min(this.minY[a], this.minY[b]);
+		this.maxX[node] = Math.max(this.maxX[a], this.maxX[b]);
+		this.maxY[node] = Math.max(this.maxY[a], this.maxY[b]);
+	}
+
+	/**
+	 * Internal method to insert a leaf node into the tree.
+	 * @param item the node to insert
+	 */
+	void insert(int item) {
+		// make sure the root is not null
+		if (this.root == NULL_NODE) {
+			// if it is then set this node as the root
+			this.root = item;
+			// return from the insert method
+			return;
+		}
+
+		// get the new node's aabb
+		double iMinX = this.minX[item];
+		double iMinY = this.minY[item];
+		double iMaxX = this.maxX[item];
+		double iMaxY = this.maxY[item];
+
+		// start looking for the insertion point at the root
+		int node = this.root;
+		// loop until node is a leaf or we find a better location
+		while (this.child1[node] != NULL_NODE) {
+			// the perimeter heuristic is better than area for 2D because
+			// a line segment aligned with the x or y axis will generate
+			// zero area
+			double perimeter = this.getPerimeter(node);
+			double unionPerimeter = this.getUnionPerimeter(node, iMinX, iMinY, iMaxX, iMaxY);
+
+			// compute the cost of creating a new parent for the new
+			// node and the current node
+			double cost = 2 * unionPerimeter;
+
+			// compute the minimum cost of descending further down the tree
+			double descendCost = 2 * (unionPerimeter - perimeter);
+
+			// get the left and right nodes
+			int left = this.child1[node];
+			int right = this.child2[node];
+
+			// compute the cost of descending to the left
+			double costl = 0.0;
+			if (this.child1[left] == NULL_NODE) {
+				costl = this.getUnionPerimeter(left, iMinX, iMinY, iMaxX, iMaxY) + descendCost;
+			} else {
+				double oldPerimeter = this.getPerimeter(left);
+				double newPerimeter = this.getUnionPerimeter(left, iMinX, iMinY, iMaxX, iMaxY);
+				costl = newPerimeter - oldPerimeter + descendCost;
+			}
+			// compute the cost of descending to the right
+			double costr = 0.0;
+			if (this.child1[right] == NULL_NODE) {
+				costr = this.getUnionPerimeter(right, iMinX, iMinY, iMaxX, iMaxY) + descendCost;
+			} else {
+				double oldPerimeter = this.getPerimeter(right);
+				double newPerimeter = this.getUnionPerimeter(right, iMinX, iMinY, iMaxX, iMaxY);
+				costr = newPerimeter - oldPerimeter + descendCost;
+			}
+
+			// see if the cost to create a new parent node for the new
+			// node and the current node is better than the children of
+			// this node
+			if (cost < costl && cost < costr) {
+				break;
+			}
+
+			// if not then choose the next best node to try
+			if (costl < costr) {
+				node = left;
+			} else {
+				node = right;
+			}
+		}
+
+		// now that we have found a suitable place, insert a new root
+		// node for node and item
+		int oldParent = this.parent[node];
+		int newParent = this.allocateNode();
+		this.parent[newParent] = oldParent;
+		this.union(newParent, node, item);
+		this.height[newParent] = this.height[node] + 1;
+
+		if (oldParent != NULL_NODE) {
+			// node is not the root node
+			if (this.child1[oldParent] == node) {
+				this.child1[oldParent] = newParent;
+			} else {
+				this.child2[oldParent] = newParent;
+			}
+		} else {
+			// node is the root item
+			this.root = newParent;
+		}
+		this.child1[newParent] = node;
+		this.child2[newParent] = item;
+		this.parent[node] = newParent;
+		this.parent[item] = newParent;
+
+		// fix the heights and aabbs
+		node = newParent;
+		while (node != NULL_NODE) {
+			// balance the current tree
+			node = this.balance(node);
+
+			int left = this.child1[node];
+			int right = this.child2[node];
+
+			// neither node should be null
+			this.height[node] = 1 + Math.max(this.height[left], this.height[right]);
+			this.union(node, left, right);
+
+			node = this.parent[node];
+		}
+	}
+
+	/**
+	 * Internal method to remove a leaf node from the tree.
+	 * <p>
+	 * The leaf node itself is not returned to the free list.
+	 * @param node the node to remove
+	 */
+	void remove(int node) {
+		// check for an empty tree
+		if (this.root == NULL_NODE) return;
+		// check the root node
+		if (node == this.root) {
+			// set the root to null
+			this.root = NULL_NODE;
+			// return from the remove method
+			return;
+		}
+
+		// get the node's parent, grandparent, and sibling
+		int parent = this.parent[node];
+		int grandparent = this.parent[parent];
+		int other;
+		if (this.child1[parent] == node) {
+			other = this.child2[parent];
+		} else {
+			other = this.child1[parent];
+		}
+
+		// the parent is no longer needed
+		this.freeNode(parent);
+		this.parent[node] = NULL_NODE;
+
+		// check if the grandparent is null
+		// indicating that the parent is the root
+		if (grandparent != NULL_NODE) {
+			// remove the node by overwriting the parent node
+			// reference in the grandparent with the sibling
+			if (this.child1[grandparent] == parent) {
+				this.child1[grandparent] = other;
+			} else {
+				this.child2[grandparent] = other;
+			}
+			// set the siblings parent to the grandparent
+			this.parent[other] = grandparent;
+
+			// finally rebalance the tree
+			int n = grandparent;
+			while (n != NULL_NODE) {
+				// balance the current subtree
+				n = this.balance(n);
+
+				int left = this.child1[n];
+				int right = this.child2[n];
+
+				// neither node should be null
+				this.height[n] = 1 + Math.max(this.height[left], this.height[right]);
+				this.union(n, left, right);
+
+				n = this.parent[n];
+			}
+		} else {
+			// the parent is the root so set the root to the sibling
+			this.root = other;
+			// set the siblings parent to null
+			this.parent[other] = NULL_NODE;
+		}
+	}
+
+	/**
+	 * Balances the subtree using node as the root.
+	 * @param node the root node of the subtree to balance
+	 * @return int the new root of the subtree
+	 */
+	int balance(int node) {
+		int a = node;
+
+		// see if the node is a leaf node or if
+		// it doesn't have enough children to be unbalanced
+		if (this.child1[a] == NULL_NODE || this.height[a] < 2) {
+			// return since there isn't any work to perform
+			return a;
+		}
+
+		// get the nodes left and right children
+		int b = this.child1[a];
+		int c = this.child2[a];
+
+		// compute the balance factor for node a
+		int balance = this.height[c] - this.height[b];
+
+		// if the balance is off on the right side
+		if (balance > 1) {
+			// get the c's left and right nodes
+			int f = this.child1[c];
+			int g = this.child2[c];
+
+			// switch a and c
+			this.child1[c] = a;
+			this.parent[c] = this.parent[a];
+			this.parent[a] = c;
+
+			// update c's parent to point to c instead of a
+			int p = this.parent[c];
+			if (p != NULL_NODE) {
+				if (this.child1[p] == a) {
+					this.child1[p] = c;
+				} else {
+					this.child2[p] = c;
+				}
+			} else {
+				this.root = c;
+			}
+
+			// compare the balance of the children of c
+			if (this.height[f] > this.height[g]) {
+				// rotate left
+				this.child2[c] = f;
+				this.child2[a] = g;
+				this.parent[g] = a;
+				// update the aabb
+				this.union(a, b, g);
+				this.union(c, a, f);
+				// update the heights
+				this.height[a] = 1 + Math.max(this.height[b], this.height[g]);
+				this.height[c] = 1 + Math.max(this.height[a], this.height[f]);
+			} else {
+				// rotate right
+				this.child2[c] = g;
+				this.child2[a] = f;
+				this.parent[f] = a;
+				// update the aabb
+				this.union(a, b, f);
+				this.union(c, a, g);
+				// update the heights
+				this.height[a] = 1 + Math.max(this.height[b], this.height[f]);
+				this.height[c] = 1 + Math.max(this.height[a], this.height[g]);
+			}
+			// c is the new root node of the subtree
+			return c;
+		}
+		// if the balance is off on the left side
+		if (balance < -1) {
+			// get b's children
+			int d = this.child1[b];
+			int e = this.child2[b];
+
+			// switch a and b
+			this.child1[b] = a;
+			this.parent[b] = this.parent[a];
+			this.parent[a] = b;
+
+			// update b's parent to point to b instead of a
+			int p = this.parent[b];
+			if (p != NULL_NODE) {
+				if (this.child1[p] == a) {
+					this.child1[p] = b;
+				} else {
+					this.child2[p] = b;
+				}
+			} else {
+				this.root = b;
+			}
+
+			// compare the balance of the children of b
+			if (this.height[d] > this.height[e]) {
+				// rotate left
+				this.child2[b] = d;
+				this.child1[a] = e;
+				this.parent[e] = a;
+				// update the aabb
+				this.union(a, c, e);
+				this.union(b, a, d);
+				// update the heights
+				this.height[a] = 1 + Math.max(this.height[c], this.height[e]);
+				this.height[b] = 1 + Math.max(this.height[a], this.height[d]);
+			} else {
+				// rotate right
+				this.child2[b] = e;
+				this.child1[a] = d;
+				this.parent[d] = a;
+				// update the aabb
+				this.union(a, c, d);
+				this.union(b, a, e);
+				// update the heights
+				this.height[a] = 1 + Math.max(this.height[c], this.height[d]);
+				this.height[b] = 1 + Math.max(this.height[a], this.height[e]);
+			}
+			// b is the new root node of the subtree
+			return b;
+		}
+		// no balancing required so return the original subtree root node
+		return a;
+	}
+}
@@ -0,0 +1,1228 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.broadphase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.dyn4j.collision.Collidable;
+import org.dyn4j.collision.Collisions;
+import org.dyn4j.collision.Fixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.resources.Messages;
+
+/**
+ * Implementation of a spatial hashing broad-phase collision detection algorithm.
+ * <p>
+ * This class divides space into a uniform grid of square cells and stores each {@link Collidable} {@link Fixture}
+ * in the cells its expanded AABB overlaps.  Only the occupied cells are stored, in a hash table keyed by the cell
+ * coordinates, so the grid is unbounded.  The cells hold the integer ids of their proxies in primitive arrays which
+ * are reused as proxies come and go.
+ * <p>
+ * This algorithm works best when the {@link Collidable}s are similar in size and the cell size is close to their
+ * size.  Proxies that would span more than {@link #MAXIMUM_PROXY_CELLS} cells, like a large static ground, are not
+ * stored in the grid but tested against everything instead.
+ * <p>
+ * Raycasts walk the cells along the ray in order using a digital differential analyzer (DDA).
+ * <p>
+ * Like the {@link FlatDynamicAABBTree}, the {@link #getAABB(Collidable, Fixture)} method returns a new {@link AABB}
+ * each time.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ * @param <E> the {@link Collidable} type
+ * @param <T> the {@link Fixture} type
+ */
+public class SpatialHashGrid<E extends Collidable<T>, T extends Fixture> extends AbstractBroadphaseDetector<E, T> implements BroadphaseDetector<E, T> {
+	/** The default cell size */
+	public static final double DEFAULT_CELL_SIZE = 1.0;
+
+	/** The maximum number of cells a proxy is stored in; larger proxies are tested against everything */
+	public static final int MAXIMUM_PROXY_CELLS = 64;
+
+	/** The index used for a missing proxy */
+	static final int NULL_PROXY = -1;
+
+	/** The minimum number of proxies to allocate */
+	private static final int MINIMUM_CAPACITY = 16;
+
+	/** The minimum size of the hash tables; must be a power of two */
+	private static final int MINIMUM_TABLE_SIZE = 16;
+
+	/** The initial size of a cell's proxy array */
+	private static final int INITIAL_CELL_CAPACITY = 4;
+
+	/** The cell size */
+	double cellSize;
+
+	/** The inverse of the cell size */
+	double invCellSize;
+
+	// proxies
+
+	/** The minimum x extent of each proxy */
+	double[] minX;
+
+	/** The minimum y extent of each proxy */
+	double[] minY;
+
+	/** The maximum x extent of each proxy */
+	double[] maxX;
+
+	/** The maximum y extent of each proxy */
+	double[] maxY;
+
+	/** The minimum cell x coordinate of each proxy */
+	int[] cellMinX;
+
+	/** The minimum cell y coordinate of each proxy */
+	int[] cellMinY;
+
+	/** The maximum cell x coordinate of each proxy */
+	int[] cellMaxX;
+
+	/** The maximum cell y coordinate of each proxy */
+	int[] cellMaxY;
+
+	/** True for each proxy that is too large to store in the grid */
+	boolean[] oversized;
+
+	/** The collidable of each proxy */
+	Object[] collidables;
+
+	/** The fixture of each proxy */
+	Object[] fixtures;
+
+	/** The hash key of each proxy */
+	int[] keys;
+
+	/** The index of each proxy in the proxy list; the next free proxy for proxies on the free list */
+	int[] proxyIndices;
+
+	/** The number of proxies the arrays can hold */
+	int capacity;
+
+	/** The first proxy on the free list */
+	int freeList;
+
+	/** The list of proxies */
+	int[] proxies;
+
+	/** The number of proxies */
+	int size;
+
+	/** The open addressing hash table of proxies; holds the proxy plus one or zero if empty */
+	int[] table;
+
+	/** The list of oversized proxies */
+	int[] oversize;
+
+	/** The number of oversized proxies */
+	int oversizeCount;
+
+	// cells
+
+	/** The coordinates of each cell packed into a long */
+	long[] cellKeys;
+
+	/** The proxies in each cell; arrays past the cell count are kept for reuse */
+	int[][] cellProxies;
+
+	/** The number of proxies in each cell */
+	int[] cellSizes;
+
+	/** The number of occupied cells */
+	int cellCount;
+
+	/** The open addressing hash table of cells; holds the cell index plus one or zero if empty */
+	int[] cellTable;
+
+	/**
+	 * Default constructor.
+	 * <p>
+	 * Uses the {@link #DEFAULT_CELL_SIZE}.
+	 */
+	public SpatialHashGrid() {
+		this(DEFAULT_CELL_SIZE, BroadphaseDetector.DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Optional constructor.
+	 * @param cellSize the cell size
+	 * @throws IllegalArgumentException if cellSize is less than or equal to zero
+	 */
+	public SpatialHashGrid(double cellSize) {
+		this(cellSize, BroadphaseDetector.DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Full constructor.
+	 * <p>
+	 * Allows fine tuning of the initial capacity of local storage for faster running times.
+	 * @param cellSize the cell size
+	 * @param initialCapacity the initial capacity of local storage
+	 * @throws IllegalArgumentException if cellSize is less than or equal to zero or initialCapacity is less than zero
+	 */
+	public SpatialHashGrid(double cellSize, int initialCapacity) {
+		if (cellSize <= 0.0) throw new IllegalArgumentException(Messages.getString("collision.broadphase.spatialHashGrid.invalidCellSize"));
+		if (initialCapacity < 0) throw new IllegalArgumentException(Messages.getString("collision.broadphase.invalidInitialCapacity"));
+
+		this.cellSize = cellSize;
+		this.invCellSize = 1.0 / cellSize;
+
+		int capacity = Math.max(initialCapacity, MINIMUM_CAPACITY);
+		this.minX = new double[capacity];
+		this.minY = new double[capacity];
+		this.maxX = new double[capacity];
+		this.maxY = new double[capacity];
+		this.cellMinX = new int[capacity];
+		this.cellMinY = new int[capacity];
+		this.cellMaxX = new int[capacity];
+		this.cellMaxY = new int[capacity];
+		this.oversized = new boolean[capacity];
+		this.collidables = new Object[capacity];
+		this.fixtures = new Object[capacity];
+		this.keys = new int[capacity];
+		this.proxyIndices = new int[capacity];
+		this.capacity = capacity;
+		this.link(0, capacity);
+
+		this.proxies = new int[capacity];
+		this.size = 0;
+		this.table = new int[getTableSize(capacity)];
+		this.oversize = new int[MINIMUM_CAPACITY];
+		this.oversizeCount = 0;
+
+		this.cellKeys = new long[capacity];
+		this.cellProxies = new int[capacity][];
+		this.cellSizes = new int[capacity];
+		this.cellCount = 0;
+		this.cellTable = new int[getTableSize(capacity)];
+	}
+
+	/**
+	 * Returns the hash table size for the given number of entries.
+	 * <p>
+	 * The table is kept at most half full.
+	 * @param capacity the number of entries
+	 * @return int
+	 */
+	private static int getTableSize(int capacity) {
+		int n = MINIMUM_TABLE_SIZE;
+		while (n < capacity * 2) {
+			n <<= 1;
+		}
+		return n;
+	}
+
+	/**
+	 * Links the proxies in the given range together and places them at the front of the free list.
+	 * @param start the first proxy
+	 * @param end one past the last proxy
+	 */
+	private void link(int start, int end) {
+		for (int i = start; i < end - 1; i++) {
+			this.proxyIndices[i] = i + 1;
+		}
+		this.proxyIndices[end - 1] = NULL_PROXY;
+		this.freeList = start;
+	}
+
+	/**
+	 * Returns a proxy from the free list, growing the proxy arrays if the free list is empty.
+	 * @return int
+	 */
+	private int allocateProxy() {
+		if (this.freeList == NULL_PROXY) {
+			int capacity = this.capacity * 2;
+			this.minX = Arrays.copyOf(this.minX, capacity);
+			this.minY = Arrays.copyOf(this.minY, capacity);
+			this.maxX = Arrays.copyOf(this.maxX, capacity);
+			this.maxY = Arrays.copyOf(this.maxY, capacity);
+			this.cellMinX = Arrays.copyOf(this.cellMinX, capacity);
+			this.cellMinY = Arrays.copyOf(this.cellMinY, capacity);
+			this.cellMaxX = Arrays.copyOf(this.cellMaxX, capacity);
+			this.cellMaxY = Arrays.copyOf(this.cellMaxY, capacity);
+			this.oversized = Arrays.copyOf(this.oversized, capacity);
+			this.collidables = Arrays.copyOf(this.collidables, capacity);
+			this.fixtures = Arrays.copyOf(this.fixtures, capacity);
+			this.keys = Arrays.copyOf(this.keys, capacity);
+			this.proxyIndices = Arrays.copyOf(this.proxyIndices, capacity);
+			this.proxies = Arrays.copyOf(this.proxies, capacity);
+			this.link(this.capacity, capacity);
+			this.capacity = capacity;
+		}
+		int proxy = this.freeList;
+		this.freeList = this.proxyIndices[proxy];
+		return proxy;
+	}
+
+	/**
+	 * Returns the given proxy to the free list.
+	 * @param proxy the proxy
+	 */
+	private void freeProxy(int proxy) {
+		this.collidables[proxy] = null;
+		this.fixtures[proxy] = null;
+		this.proxyIndices[proxy] = this.freeList;
+		this.freeList = proxy;
+	}
+
+	/**
+	 * Returns the home slot in the proxy hash table of the given key.
+	 * @param key the key
+	 * @return int
+	 */
+	private int getSlot(int key) {
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & (this.table.length - 1);
+	}
+
+	/**
+	 * Returns the proxy hash table slot of the given {@link Collidable} {@link Fixture}
+	 * or the complement of the empty slot where it would be placed.
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 * @param key the key of the collidable-fixture pair
+	 * @return int
+	 */
+	private int find(E collidable, T fixture, int key) {
+		int mask = this.table.length - 1;
+		int slot = this.getSlot(key);
+		int entry;
+		while ((entry = this.table[slot]) != 0) {
+			int proxy = entry - 1;
+			if (this.keys[proxy] == key && this.collidables[proxy] == collidable && this.fixtures[proxy] == fixture) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return ~slot;
+	}
+
+	/**
+	 * Returns the proxy of the given {@link Collidable} {@link Fixture} or {@link #NULL_PROXY}
+	 * if it hasn't been added.
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 * @return int
+	 */
+	int getProxy(E collidable, T fixture) {
+		int slot = this.find(collidable, fixture, FlatDynamicAABBTree.getKey(collidable, fixture));
+		if (slot < 0) return NULL_PROXY;
+		return this.table[slot] - 1;
+	}
+
+	/**
+	 * Empties the given proxy hash table slot and shifts back the entries following it
+	 * so that they can still be found.
+	 * @param slot the slot
+	 */
+	private void removeSlot(int slot) {
+		int[] table = this.table;
+		int mask = table.length - 1;
+		int i = slot;
+		int j = slot;
+		table[i] = 0;
+		while (true) {
+			j = (j + 1) & mask;
+			int entry = table[j];
+			if (entry == 0) return;
+			int k = this.getSlot(this.keys[entry - 1]);
+			// skip the entry if its home slot is cyclically in (i, j]
+			if (i <= j ? (i < k && k <= j) : (i < k || k <= j)) continue;
+			table[i] = entry;
+			table[j] = 0;
+			i = j;
+		}
+	}
+
+	/**
+	 * Rebuilds the proxy hash table using the given size.
+	 * @param tableSize the new table size; must be a power of two
+	 */
+	private void rehash(int tableSize) {
+		this.table = new int[tableSize];
+		int mask = tableSize - 1;
+		for (int i = 0; i < this.size; i++) {
+			int proxy = this.proxies[i];
+			int slot = this.getSlot(this.keys[proxy]);
+			while (this.table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			this.table[slot] = proxy + 1;
+		}
+	}
+
+	/**
+	 * Returns the cell coordinate of the given value.
+	 * @param value the x or y value
+	 * @return int
+	 */
+	private int getCell(double value) {
+		return (int)Math.floor(value * this.invCellSize);
+	}
+
+	/**
+	 * Returns the key of the given cell.
+	 * @param x the cell x coordinate
+	 * @param y the cell y coordinate
+	 * @return long
+	 */
+	private static long getCellKey(int x, int y) {
+		return ((long)x << 32) | (y & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Returns the home slot in the cell hash table of the given key.
+	 * @param key the key
+	 * @return int
+	 */
+	private int getCellSlot(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32)) & (this.cellTable.length - 1);
+	}
+
+	/**
+	 * Returns the cell hash table slot of the given cell or the complement of the
+	 * empty slot where it would be placed.
+	 * @param key the cell key
+	 * @return int
+	 */
+	private int findCell(long key) {
+		int mask = this.cellTable.length - 1;
+		int slot = this.getCellSlot(key);
+		int entry;
+		while ((entry = this.cellTable[slot]) != 0) {
+			if (this.cellKeys[entry - 1] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return ~slot;
+	}
+
+	/**
+	 * Returns the index of the given cell or -1 if the cell is empty.
+	 * @param x the cell x coordinate
+	 * @param y the cell y coordinate
+	 * @return int
+	 */
+	private int getCellIndex(int x, int y) {
+		int slot = this.findCell(getCellKey(x, y));
+		if (slot < 0) return -1;
+		return this.cellTable[slot] - 1;
+	}
+
+	/**
+	 * Adds the given proxy to the given cell.
+	 * @param x the cell x coordinate
+	 * @param y the cell y coordinate
+	 * @param proxy the proxy
+	 */
+	private void addToCell(int x, int y, int proxy) {
+		long key = getCellKey(x, y);
+		int slot = this.findCell(key);
+		int cell;
+		if (slot >= 0) {
+			cell = this.cellTable[slot] - 1;
+		} else {
+			// make sure there's room
+			if (this.cellCount == this.cellKeys.length) {
+				int capacity = this.cellCount * 2;
+				this.cellKeys = Arrays.copyOf(this.cellKeys, capacity);
+				this.cellProxies = Arrays.copyOf(this.cellProxies, capacity);
+				this.cellSizes = Arrays.copyOf(this.cellSizes, capacity);
+			}
+			if ((this.cellCount + 1) * 2 > this.cellTable.length) {
+				this.rehashCells(this.cellTable.length * 2);
+				slot = this.findCell(key);
+			}
+			cell = this.cellCount++;
+			this.cellKeys[cell] = key;
+			this.cellSizes[cell] = 0;
+			if (this.cellProxies[cell] == null) {
+				this.cellProxies[cell] = new int[INITIAL_CELL_CAPACITY];
+			}
+			this.cellTable[~slot] = cell + 1;
+		}
+
+		int[] cellProxies = this.cellProxies[cell];
+		int n = this.cellSizes[cell];
+		if (n == cellProxies.length) {
+			cellProxies = Arrays.copyOf(cellProxies, n * 2);
+			this.cellProxies[cell] = cellProxies;
+		}
+		cellProxies[n] = proxy;
+		this.cellSizes[cell] = n + 1;
+	}
+
+	/**
+	 * Removes the given proxy from the given cell.
+	 * <p>
+	 * The cell is removed when it becomes empty.
+	 * @param x the cell x coordinate
+	 * @param y the cell y coordinate
+	 * @param proxy the proxy
+	 */
+	private void removeFromCell(int x, int y, int proxy) {
+		int slot = this.findCell(getCellKey(x, y));
+		if (slot < 0) return;
+		int cell = this.cellTable[slot] - 1;
+
+		int[] cellProxies = this.cellProxies[cell];
+		int n = this.cellSizes[cell];
+		for (int i = 0; i < n; i++) {
+			if (cellProxies[i] == proxy) {
+				cellProxies[i] = cellProxies[--n];
+				break;
+			}
+		}
+		this.cellSizes[cell] = n;
+
+		if (n == 0) {
+			this.removeCellSlot(slot);
+			int last = --this.cellCount;
+			if (cell != last) {
+				// move the last cell into the empty cell's place and keep
+				// the empty cell's array for reuse
+				this.cellTable[this.findCellIndex(last)] = cell + 1;
+				this.cellKeys[cell] = this.cellKeys[last];
+				this.cellSizes[cell] = this.cellSizes[last];
+				this.cellProxies[cell] = this.cellProxies[last];
+				this.cellProxies[last] = cellProxies;
+			}
+		}
+	}
+
+	/**
+	 * Returns the cell hash table slot that refers to the cell at the given index.
+	 * @param index the cell index
+	 * @return int
+	 */
+	private int findCellIndex(int index) {
+		int mask = this.cellTable.length - 1;
+		int slot = this.getCellSlot(this.cellKeys[index]);
+		while (this.cellTable[slot] != index + 1) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Empties the given cell hash table slot and shifts back the entries following it
+	 * so that they can still be found.
+	 * @param slot the slot
+	 */
+	private void removeCellSlot(int slot) {
+		int[] table = this.cellTable;
+		int mask = table.length - 1;
+		int i = slot;
+		int j = slot;
+		table[i] = 0;
+		while (true) {
+			j = (j + 1) & mask;
+			int entry = table[j];
+			if (entry == 0) return;
+			int k = this.getCellSlot(this.cellKeys[entry - 1]);
+			// skip the entry if its home slot is cyclically in (i, j]
+			if (i <= j ? (i < k && k <= j) : (i < k || k <= j)) continue;
+			table[i] = entry;
+			table[j] = 0;
+			i = j;
+		}
+	}
+
+	/**
+	 * Rebuilds the cell hash table using the given size.
+	 * @param tableSize the new table size; must be a power of two
+	 */
+	private void rehashCells(int tableSize) {
+		this.cellTable = new int[tableSize];
+		int mask = tableSize - 1;
+		for (int i = 0; i < this.cellCount; i++) {
+			int slot = this.getCellSlot(this.cellKeys[i]);
+			while (this.cellTable[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			this.cellTable[slot] = i + 1;
+		}
+	}
+
+	/**
+	 * Sets the extents of the given proxy and computes its range of cells.
+	 * @param proxy the proxy
+	 * @param aabb the expanded AABB
+	 */
+	private void setBounds(int proxy, AABB aabb) {
+		this.minX[proxy] = aabb.getMinX();
+		this.minY[proxy] = aabb.getMinY();
+		this.maxX[proxy] = aabb.getMaxX();
+		this.maxY[proxy] = aabb.getMaxY();
+		this.setCells(proxy);
+	}
+
+	/**
+	 * Computes the range of cells of the given proxy from its extents.
+	 * @param proxy the proxy
+	 */
+	private void setCells(int proxy) {
+		int x0 = this.getCell(this.minX[proxy]);
+		int y0 = this.getCell(this.minY[proxy]);
+		int x1 = this.getCell(this.maxX[proxy]);
+		int y1 = this.getCell(this.maxY[proxy]);
+		this.cellMinX[proxy] = x0;
+		this.cellMinY[proxy] = y0;
+		this.cellMaxX[proxy] = x1;
+		this.cellMaxY[proxy] = y1;
+		this.oversized[proxy] = ((long)x1 - x0 + 1) * ((long)y1 - y0 + 1) > MAXIMUM_PROXY_CELLS;
+	}
+
+	/**
+	 * Adds the given proxy to its cells or to the oversized proxies.
+	 * @param proxy the proxy
+	 */
+	private void insert(int proxy) {
+		if (this.oversized[proxy]) {
+			if (this.oversizeCount == this.oversize.length) {
+				this.oversize = Arrays.copyOf(this.oversize, this.oversizeCount * 2);
+			}
+			this.oversize[this.oversizeCount++] = proxy;
+			return;
+		}
+		int x1 = this.cellMaxX[proxy];
+		int y1 = this.cellMaxY[proxy];
+		for (int x = this.cellMinX[proxy]; x <= x1; x++) {
+			for (int y = this.cellMinY[proxy]; y <= y1; y++) {
+				this.addToCell(x, y, proxy);
+			}
+		}
+	}
+
+	/**
+	 * Removes the given proxy from its cells or from the oversized proxies.
+	 * @param proxy the proxy
+	 */
+	private void remove(int proxy) {
+		if (this.oversized[proxy]) {
+			for (int i = 0; i < this.oversizeCount; i++) {
+				if (this.oversize[i] == proxy) {
+					this.oversize[i] = this.oversize[--this.oversizeCount];
+					break;
+				}
+			}
+			return;
+		}
+		int x1 = this.cellMaxX[proxy];
+		int y1 = this.cellMaxY[proxy];
+		for (int x = this.cellMinX[proxy]; x <= x1; x++) {
+			for (int y = this.cellMinY[proxy]; y <= y1; y++) {
+				this.removeFromCell(x, y, proxy);
+			}
+		}
+	}
+
+	/**
+	 * Removes all the proxies from the cells and adds them back using their
+	 * current extents and the current cell size.
+	 */
+	private void rebuild() {
+		Arrays.fill(this.cellTable, 0);
+		for (int i = 0; i < this.cellCount; i++) {
+			this.cellSizes[i] = 0;
+		}
+		this.cellCount = 0;
+		this.oversizeCount = 0;
+		for (int i = 0; i < this.size; i++) {
+			int proxy = this.proxies[i];
+			this.setCells(proxy);
+			this.insert(proxy);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#add(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public void add(E collidable, T fixture) {
+		int key = FlatDynamicAABBTree.getKey(collidable, fixture);
+		// see if the collidable-fixture has already been added
+		int slot = this.find(collidable, fixture, key);
+		if (slot >= 0) {
+			this.update(this.table[slot] - 1, collidable, fixture);
+		} else {
+			this.add(key, collidable, fixture);
+		}
+	}
+
+	/**
+	 * Internal add method.
+	 * <p>
+	 * This method assumes the given arguments are all non-null and that the
+	 * {@link Collidable} {@link Fixture} is not currently in this broad-phase.
+	 * @param key the key for the collidable-fixture pair
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 */
+	void add(int key, E collidable, T fixture) {
+		Transform tx = collidable.getTransform();
+		AABB aabb = fixture.getShape().createAABB(tx);
+		// expand the aabb
+		aabb.expand(this.expansion);
+
+		// create a new proxy
+		int proxy = this.allocateProxy();
+		this.collidables[proxy] = collidable;
+		this.fixtures[proxy] = fixture;
+		this.keys[proxy] = key;
+
+		// add the proxy to the hash table
+		if ((this.size + 1) * 2 > this.table.length) {
+			this.rehash(this.table.length * 2);
+		}
+		this.table[~this.find(collidable, fixture, key)] = proxy + 1;
+
+		// add the proxy to the list
+		this.proxies[this.size] = proxy;
+		this.proxyIndices[proxy] = this.size;
+		this.size++;
+
+		// add the proxy to the grid
+		this.setBounds(proxy, aabb);
+		this.insert(proxy);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#remove(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public boolean remove(E collidable, T fixture) {
+		int slot = this.find(collidable, fixture, FlatDynamicAABBTree.getKey(collidable, fixture));
+		// make sure it was found
+		if (slot >= 0) {
+			int proxy = this.table[slot] - 1;
+			this.removeSlot(slot);
+			// remove the proxy from the grid
+			this.remove(proxy);
+			// move the last proxy into its place in the list
+			int index = this.proxyIndices[proxy];
+			int last = this.proxies[--this.size];
+			this.proxies[index] = last;
+			this.proxyIndices[last] = index;
+			this.freeProxy(proxy);
+			return true;
+		}
+		return false;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#update(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public void update(E collidable, T fixture) {
+		int key = FlatDynamicAABBTree.getKey(collidable, fixture);
+		int slot = this.find(collidable, fixture, key);
+		// make sure we found it
+		if (slot >= 0) {
+			// update the proxy
+			this.update(this.table[slot] - 1, collidable, fixture);
+		} else {
+			// add the proxy
+			this.add(key, collidable, fixture);
+		}
+	}
+
+	/**
+	 * Internal update method.
+	 * <p>
+	 * This method assumes the given arguments are all non-null.
+	 * @param proxy the current proxy
+	 * @param collidable the collidable
+	 * @param fixture the fixture
+	 */
+	void update(int proxy, E collidable, T fixture) {
+		Transform tx = collidable.getTransform();
+		// create the new aabb
+		AABB aabb = fixture.getShape().createAABB(tx);
+		// see if the old aabb contains the new one
+		if (this.minX[proxy] <= aabb.getMinX() && this.maxX[proxy] >= aabb.getMaxX() &&
+			this.minY[proxy] <= aabb.getMinY() && this.maxY[proxy] >= aabb.getMaxY()) {
+			// if so, don't do anything
+			return;
+		}
+		// otherwise expand the new aabb
+		aabb.expand(this.expansion);
+
+		// only move the proxy between cells if its range of cells changed
+		int x0 = this.cellMinX[proxy];
+		int y0 = this.cellMinY[proxy];
+		int x1 = this.cellMaxX[proxy];
+		int y1 = this.cellMaxY[proxy];
+		if (this.getCell(aabb.getMinX()) == x0 && this.getCell(aabb.getMinY()) == y0 &&
+			this.getCell(aabb.getMaxX()) == x1 && this.getCell(aabb.getMaxY()) == y1) {
+			this.setBounds(proxy, aabb);
+			return;
+		}
+
+		this.remove(proxy);
+		this.setBounds(proxy, aabb);
+		this.insert(proxy);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#getAABB(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public AABB getAABB(E collidable, T fixture) {
+		int proxy = this.getProxy(collidable, fixture);
+		if (proxy != NULL_PROXY) {
+			return new AABB(this.minX[proxy], this.minY[proxy], this.maxX[proxy], this.maxY[proxy]);
+		}
+		return fixture.getShape().createAABB(collidable.getTransform());
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable)
+	 */
+	@Override
+	public boolean contains(E collidable) {
+		int size = collidable.getFixtureCount();
+		boolean result = true;
+		for (int i = 0; i < size; i++) {
+			T fixture = collidable.getFixture(i);
+			result &= this.getProxy(collidable, fixture) != NULL_PROXY;
+		}
+		return result;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#contains(org.dyn4j.collision.Collidable, org.dyn4j.collision.Fixture)
+	 */
+	@Override
+	public boolean contains(E collidable, T fixture) {
+		return this.getProxy(collidable, fixture) != NULL_PROXY;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#clear()
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(this.table, 0);
+		Arrays.fill(this.collidables, null);
+		Arrays.fill(this.fixtures, null);
+		this.link(0, this.capacity);
+		this.size = 0;
+		this.rebuild();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#size()
+	 */
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns true if the given proxies overlap.
+	 * @param a the first proxy
+	 * @param b the second proxy
+	 * @return boolean
+	 */
+	private boolean overlaps(int a, int b) {
+		return this.minX[a] <= this.maxX[b] && this.maxX[a] >= this.minX[b] &&
+			   this.minY[a] <= this.maxY[b] && this.maxY[a] >= this.minY[b];
+	}
+
+	/**
+	 * Adds a pair for the given proxies to the given list if the filter allows it.
+	 * @param a the first proxy
+	 * @param b the second proxy
+	 * @param filter the broadphase filter
+	 * @param pairs the list of pairs
+	 */
+	@SuppressWarnings("unchecked")
+	private void addPair(int a, int b, BroadphaseFilter<E, T> filter, List<BroadphasePair<E, T>> pairs) {
+		E collidable1 = (E)this.collidables[a];
+		T fixture1 = (T)this.fixtures[a];
+		E collidable2 = (E)this.collidables[b];
+		T fixture2 = (T)this.fixtures[b];
+		if (filter.isAllowed(collidable1, fixture1, collidable2, fixture2)) {
+			pairs.add(new BroadphasePair<E, T>(
+					collidable1,	// A
+					fixture1,
+					collidable2,	// B
+					fixture2));
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.collision.broadphase.BroadphaseFilter)
+	 */
+	@Override
+	public List<BroadphasePair<E, T>> detect(BroadphaseFilter<E, T> filter) {
+		// the estimated size of the pair list
+		int eSize = Collisions.getEstimatedCollisionPairs(this.size);
+		List<BroadphasePair<E, T>> pairs = new ArrayList<BroadphasePair<E, T>>(eSize);
+
+		// test the proxies within each cell
+		for (int c = 0; c < this.cellCount; c++) {
+			int[] cellProxies = this.cellProxies[c];
+			int n = this.cellSizes[c];
+			if (n < 2) continue;
+			long key = this.cellKeys[c];
+			int cx = (int)(key >> 32);
+			int cy = (int)key;
+			for (int i = 0; i < n; i++) {
+				int a = cellProxies[i];
+				for (int j = i + 1; j < n; j++) {
+					int b = cellProxies[j];
+					if (this.collidables[a] == this.collidables[b] || !this.overlaps(a, b)) continue;
+					// proxies that share more than one cell are only reported
+					// by the cell containing the minimum of their overlap
+					if (this.getCell(Math.max(this.minX[a], this.minX[b])) != cx ||
+						this.getCell(Math.max(this.minY[a], this.minY[b])) != cy) continue;
+					this.addPair(a, b, filter, pairs);
+				}
+			}
+		}
+
+		// test the oversized proxies against all the others
+		for (int i = 0; i < this.oversizeCount; i++) {
+			int a = this.oversize[i];
+			for (int j = 0; j < this.size; j++) {
+				int b = this.proxies[j];
+				// pairs of oversized proxies are tested below
+				if (this.oversized[b]) continue;
+				if (this.collidables[a] == this.collidables[b] || !this.overlaps(a, b)) continue;
+				this.addPair(a, b, filter, pairs);
+			}
+			for (int j = i + 1; j < this.oversizeCount; j++) {
+				int b = this.oversize[j];
+				if (this.collidables[a] == this.collidables[b] || !this.overlaps(a, b)) continue;
+				this.addPair(a, b, filter, pairs);
+			}
+		}
+
+		return pairs;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#detect(org.dyn4j.geometry.AABB)
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public List<BroadphaseItem<E, T>> detect(AABB aabb, BroadphaseFilter<E, T> filter) {
+		double aMinX = aabb.getMinX();
+		double aMinY = aabb.getMinY();
+		double aMaxX = aabb.getMaxX();
+		double aMaxY = aabb.getMaxY();
+
+		// get the estimated collision count
+		int eSize = Collisions.getEstimatedCollisionsPerObject();
+		List<BroadphaseItem<E, T>> list = new ArrayList<BroadphaseItem<E, T>>(eSize);
+
+		int x0 = this.getCell(aMinX);
+		int y0 = this.getCell(aMinY);
+		int x1 = this.getCell(aMaxX);
+		int y1 = this.getCell(aMaxY);
+
+		// if the aabb covers more cells than there are proxies
+		// then its faster to test all the proxies
+		if (((long)x1 - x0 + 1) * ((long)y1 - y0 + 1) > this.size) {
+			for (int i = 0; i < this.size; i++) {
+				int proxy = this.proxies[i];
+				if (aMinX <= this.maxX[proxy] && aMaxX >= this.minX[proxy] &&
+					aMinY <= this.maxY[proxy] && aMaxY >= this.minY[proxy]) {
+					E collidable = (E)this.collidables[proxy];
+					T fixture = (T)this.fixtures[proxy];
+					if (filter.isAllowed(aabb, collidable, fixture)) {
+						list.add(new BroadphaseItem<E, T>(collidable, fixture));
+					}
+				}
+			}
+			return list;
+		}
+
+		for (int x = x0; x <= x1; x++) {
+			for (int y = y0; y <= y1; y++) {
+				int cell = this.getCellIndex(x, y);
+				if (cell < 0) continue;
+				int[] cellProxies = this.cellProxies[cell];
+				int n = this.cellSizes[cell];
+				for (int i = 0; i < n; i++) {
+					int proxy = cellProxies[i];
+					if (aMinX <= this.maxX[proxy] && aMaxX >= this.minX[proxy] &&
+						aMinY <= this.maxY[proxy] && aMaxY >= this.minY[proxy]) {
+						// proxies in more than one cell are only reported by
+						// the cell containing the minimum of the overlap
+						if (this.getCell(Math.max(aMinX, this.minX[proxy])) != x ||
+							this.getCell(Math.max(aMinY, this.minY[proxy])) != y) continue;
+						E collidable = (E)this.collidables[proxy];
+						T fixture = (T)this.fixtures[proxy];
+						if (filter.isAllowed(aabb, collidable, fixture)) {
+							list.add(new BroadphaseItem<E, T>(collidable, fixture));
+						}
+					}
+				}
+			}
+		}
+
+		for (int i = 0; i < this.oversizeCount; i++) {
+			int proxy = this.oversize[i];
+			if (aMinX <= this.maxX[proxy] && aMaxX >= this.minX[proxy] &&
+				aMinY <= this.maxY[proxy] && aMaxY >= this.minY[proxy]) {
+				E collidable = (E)this.collidables[proxy];
+				T fixture = (T)this.fixtures[proxy];
+				if (filter.isAllowed(aabb, collidable, fixture)) {
+					list.add(new BroadphaseItem<E, T>(collidable, fixture));
+				}
+			}
+		}
+
+		return list;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.broadphase.BroadphaseDetector#raycast(org.dyn4j.geometry.Ray, double)
+	 */
+	@Override
+	public List<BroadphaseItem<E, T>> raycast(Ray ray, double length, BroadphaseFilter<E, T> filter) {
+		// check the size of the proxy list
+		if (this.size == 0) {
+			// return an empty list
+			return Collections.emptyList();
+		}
+
+		Vector2 s = ray.getStart();
+		Vector2 d = ray.getDirectionVector();
+
+		// get the length
+		double l = length;
+		if (length <= 0.0) l = Double.MAX_VALUE;
+
+		// precompute
+		double invDx = 1.0 / d.x;
+		double invDy = 1.0 / d.y;
+
+		// get the estimated collision count
+		int eSize = Collisions.getEstimatedRaycastCollisions(this.size);
+		List<BroadphaseItem<E, T>> list = new ArrayList<BroadphaseItem<E, T>>(eSize);
+
+		// the oversized proxies are always tested
+		for (int i = 0; i < this.oversizeCount; i++) {
+			this.raycast(ray, length, s, l, invDx, invDy, this.oversize[i], filter, list);
+		}
+
+		// clip the ray to the bounds of the proxies in the grid so that
+		// we only walk the cells that could contain something
+		double bMinX = Double.MAX_VALUE;
+		double bMinY = Double.MAX_VALUE;
+		double bMaxX = -Double.MAX_VALUE;
+		double bMaxY = -Double.MAX_VALUE;
+		for (int i = 0; i < this.size; i++) {
+			int proxy = this.proxies[i];
+			if (this.oversized[proxy]) continue;
+			bMinX = Math.min(bMinX, this.minX[proxy]);
+			bMinY = Math.min(bMinY, this.minY[proxy]);
+			bMaxX = Math.max(bMaxX, this.maxX[proxy]);
+			bMaxY = Math.max(bMaxY, this.maxY[proxy]);
+		}
+		if (bMinX > bMaxX) return list;
+
+		double t0 = 0.0;
+		double t1 = l;
+		if (d.x == 0.0) {
+			if (s.x < bMinX || s.x > bMaxX) return list;
+		} else {
+			double tx1 = (bMinX - s.x) * invDx;
+			double tx2 = (bMaxX - s.x) * invDx;
+			t0 = Math.max(t0, Math.min(tx1, tx2));
+			t1 = Math.min(t1, Math.max(tx1, tx2));
+		}
+		if (d.y == 0.0) {
+			if (s.y < bMinY || s.y > bMaxY) return list;
+		} else {
+			double ty1 = (bMinY - s.y) * invDy;
+			double ty2 = (bMaxY - s.y) * invDy;
+			t0 = Math.max(t0, Math.min(ty1, ty2));
+			t1 = Math.min(t1, Math.max(ty1, ty2));
+		}
+		if (t0 > t1) return list;
+
+		// get the first and last cells
+		int x = this.getCell(s.x + d.x * t0);
+		int y = this.getCell(s.y + d.y * t0);
+		int ex = this.getCell(s.x + d.x * t1);
+		int ey = this.getCell(s.y + d.y * t1);
+
+		// if the ray passes through more cells than there are proxies
+		// then its faster to test all the proxies
+		long steps = Math.abs((long)ex - x) + Math.abs((long)ey - y) + 1;
+		if (steps > this.size) {
+			for (int i = 0; i < this.size; i++) {
+				int proxy = this.proxies[i];
+				if (this.oversized[proxy]) continue;
+				this.raycast(ray, length, s, l, invDx, invDy, proxy, filter, list);
+			}
+			return list;
+		}
+
+		// setup the grid traversal
+		int stepX = d.x > 0.0 ? 1 : (d.x < 0.0 ? -1 : 0);
+		int stepY = d.y > 0.0 ? 1 : (d.y < 0.0 ? -1 : 0);
+		double tMaxX = Double.MAX_VALUE;
+		double tMaxY = Double.MAX_VALUE;
+		double tDeltaX = Double.MAX_VALUE;
+		double tDeltaY = Double.MAX_VALUE;
+		if (stepX != 0) {
+			tMaxX = ((stepX > 0 ? x + 1 : x) * this.cellSize - s.x) * invDx;
+			tDeltaX = this.cellSize * Math.abs(invDx);
+		}
+		if (stepY != 0) {
+			tMaxY = ((stepY > 0 ? y + 1 : y) * this.cellSize - s.y) * invDy;
+			tDeltaY = this.cellSize * Math.abs(invDy);
+		}
+
+		// walk the cells along the ray
+		int px = x;
+		int py = y;
+		boolean first = true;
+		for (long i = 0; i < steps; i++) {
+			int cell = this.getCellIndex(x, y);
+			if (cell >= 0) {
+				int[] cellProxies = this.cellProxies[cell];
+				int n = this.cellSizes[cell];
+				for (int j = 0; j < n; j++) {
+					int proxy = cellProxies[j];
+					// the cells along the ray enter a proxy's range of cells once
+					// so skip the proxy if it was in the previous cell
+					if (!first && px >= this.cellMinX[proxy] && px <= this.cellMaxX[proxy] &&
+						py >= this.cellMinY[proxy] && py <= this.cellMaxY[proxy]) continue;
+					this.raycast(ray, length, s, l, invDx, invDy, proxy, filter, list);
+				}
+			}
+
+			if (x == ex && y == ey) break;
+
+			// step to the next cell, never past the last cell
+			px = x;
+			py = y;
+			first = false;
+			if (y == ey || (x != ex && tMaxX < tMaxY)) {
+				x += stepX;
+				tMaxX += tDeltaX;
+			} else {
+				y += stepY;
+				tMaxY += tDeltaY;
+			}
+		}
+
+		return list;
+	}
+
+	/**
+	 * Adds the given proxy to the given list if the given ray intersects it and the filter allows it.
+	 * @param ray the ray
+	 * @param length the length of the ray given to the filter
+	 * @param start the start position of the ray
+	 * @param l the length of the ray
+	 * @param invDx the inverse of the x component of the ray direction
+	 * @param invDy the inverse of the y component of the ray direction
+	 * @param proxy the proxy
+	 * @param filter the broadphase filter
+	 * @param list the list of results
+	 */
+	@SuppressWarnings("unchecked")
+	private void raycast(Ray ray, double length, Vector2 start, double l, double invDx, double invDy, int proxy, BroadphaseFilter<E, T> filter, List<BroadphaseItem<E, T>> list) {
+		double tx1 = (this.minX[proxy] - start.x) * invDx;
+		double tx2 = (this.maxX[proxy] - start.x) * invDx;
+
+		double tmin = Math.min(tx1, tx2);
+		double tmax = Math.max(tx1, tx2);
+
+		double ty1 = (this.minY[proxy] - start.y) * invDy;
+		double ty2 = (this.maxY[proxy] - start.y) * invDy;
+
+		tmin = Math.max(tmin, Math.min(ty1, ty2));
+		tmax = Math.min(tmax, Math.max(ty1, ty2));
+		// the ray is pointing in the opposite direction
+		if (tmax < 0) return;
+		// consider the ray length
+		if (tmin > l) return;
+		// along the ray, tmax should be larger than tmin
+		if (tmax < tmin) return;
+
+		E collidable = (E)this.collidables[proxy];
+		T fixture = (T)this.fixtures[proxy];
+		if (filter.isAllowed(ray, length, collidable, fixture)) {
+			list.add(new BroadphaseItem<E, T>(collidable, fixture));
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.dyn4j.geometry.Shiftable#shift(org.dyn4j.geometry.Vector2)
+	 */
+	@Override
+	public void shift(Vector2 shift) {
+		for (int i = 0; i < this.size; i++) {
+			int proxy = this.proxies[i];
+			this.minX[proxy] += shift.x;
+			this.minY[proxy] += shift.y;
+			this.maxX[proxy] += shift.x;
+			this.maxY[proxy] += shift.y;
+		}
+		// the cells are fixed in space so the proxies need to be placed again
+		this.rebuild();
+	}
+
+	/**
+	 * Returns the cell size.
+	 * @return double
+	 */
+	public double getCellSize() {
+		return this.cellSize;
+	}
+
+	/**
+	 * Sets the cell size.
+	 * <p>
+	 * The proxies are placed in the new cells immediately.
+	 * @param cellSize the cell size
+	 * @throws IllegalArgumentException if cellSize is less than or equal to zero
+	 */
+	public void setCellSize(double cellSize) {
+		if (cellSize <= 0.0) throw new IllegalArgumentException(Messages.getString("collision.broadphase.spatialHashGrid.invalidCellSize"));
+		this.cellSize = cellSize;
+		this.invCellSize = 1.0 / cellSize;
+		this.rebuild();
+	}
+}
@@ -0,0 +1,551 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.broadphase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.dyn4j.collision.Collidable;
+import org.dyn4j.collision.Collisions;
+import org.dyn4j.collision.Fixture;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.resources.Messages;
+
+/**
+ * An immutable axis-aligned bounding box tree built once from the {@link Fixture}s of a list of
+ * {@link Collidable}s.
+ * <p>
+ * Unlike a {@link BroadphaseDetector}, this tree cannot be updated.  Instead, it's built top-down from
+ * the current {@link AABB}s of the {@link Fixture}s by recursively choosing the split with the lowest
+ * cost using the surface area heuristic.  The nodes are stored in flat arrays in depth first order so
+ * that queries only ever walk forward through the arrays.
+ * <p>
+ * The {@link AABB}s are not expanded and do not follow the {@link Collidable}s when they move or when
+ * their {@link Fixture}s are changed.  A new tree must be created instead.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ * @param <E> the {@link Collidable} type
+ * @param <T> the {@link Fixture} type
+ */
+public final class StaticAABBTree<E extends Collidable<T>, T extends Fixture> {
+	/** The number of bins along each axis used to find the best split of a node */
+	private static final int BIN_COUNT = 16;
+	
+	/** The depth after which the nodes are split at the median to bound the depth of the tree */
+	private static final int MAXIMUM_HEURISTIC_DEPTH = 32;
+	
+	/** The filter used by the queries without a filter */
+	private final BroadphaseFilter<E, T> defaultFilter = new DefaultBroadphaseFilter<E, T>();
+	
+	/** The minimum x extent of each node */
+	private final double[] minX;
+	
+	/** The minimum y extent of each node */
+	private final double[] minY;
+	
+	/** The maximum x extent of each node */
+	private final double[] maxX;
+	
+	/** The maximum y extent of each node */
+	private final double[] maxY;
+	
+	/** The node following the subtree of each node */
+	private final int[] skip;
+	
+	/** The {@link BroadphaseItem} of each leaf node; null for the other nodes */
+	private final Object[] items;
+	
+	/** The number of leaf nodes */
+	private final int size;
+	
+	/**
+	 * Creates a new tree containing all the {@link Fixture}s of the given {@link Collidable}s
+	 * at their current positions.
+	 * @param collidables the collidables
+	 * @throws NullPointerException if collidables is null or contains null elements
+	 */
+	public StaticAABBTree(List<E> collidables) {
+		if (collidables == null) throw new NullPointerException(Messages.getString("collision.broadphase.staticAABBTree.nullCollidableList"));
+		
+		// get the leaf items and their bounds
+		List<BroadphaseItem<E, T>> leaves = new ArrayList<BroadphaseItem<E, T>>();
+		List<AABB> aabbs = new ArrayList<AABB>();
+		int cSize = collidables.size();
+		for (int i = 0; i < cSize; i++) {
+			E collidable = collidables.get(i);
+			if (collidable == null) throw new NullPointerException(Messages.getString("collision.broadphase.staticAABBTree.nullCollidableList"));
+			int fSize = collidable.getFixtureCount();
+			for (int j = 0; j < fSize; j++) {
+				T fixture = collidable.getFixture(j);
+				leaves.add(new BroadphaseItem<E, T>(collidable, fixture));
+				aabbs.add(fixture.getShape().createAABB(collidable.getTransform()));
+			}
+		}
+		
+		int size = leaves.size();
+		double[] bounds = new double[size * 4];
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			AABB aabb = aabbs.get(i);
+			bounds[i * 4] = aabb.getMinX();
+			bounds[i * 4 + 1] = aabb.getMinY();
+			bounds[i * 4 + 2] = aabb.getMaxX();
+			bounds[i * 4 + 3] = aabb.getMaxY();
+			order[i] = i;
+		}
+		
+		// a binary tree with n leaves has 2n - 1 nodes
+		int count = size > 0 ? size * 2 - 1 : 0;
+		this.size = size;
+		this.minX = new double[count];
+		this.minY = new double[count];
+		this.maxX = new double[count];
+		this.maxY = new double[count];
+		this.skip = new int[count];
+		this.items = new Object[count];
+		
+		if (size > 0) {
+			// the bins are reused by all the nodes
+			double[] bins = new double[BIN_COUNT * 6];
+			this.build(leaves, bounds, order, bins, 0, size, 0, 0);
+		}
+	}
+	
+	/**
+	 * Builds the subtree of the leaves in the range [start, end) of the given order
+	 * starting at the given node.
+	 * @param leaves the leaf items
+	 * @param bounds the extents of the leaves; min x, min y, max x, max y for each leaf
+	 * @param order the leaf indices
+	 * @param bins the space for the bins used to find the split
+	 * @param start the first leaf in the order, inclusive
+	 * @param end the last leaf in the order, exclusive
+	 * @param node the index of the subtree's root node
+	 * @param depth the depth of the subtree's root node
+	 * @return int the index of the node following the subtree
+	 */
+	private int build(List<BroadphaseItem<E, T>> leaves, double[] bounds, int[] order, double[] bins, int start, int end, int node, int depth) {
+		if (end - start == 1) {
+			int leaf = order[start];
+			this.minX[node] = bounds[leaf * 4];
+			this.minY[node] = bounds[leaf * 4 + 1];
+			this.maxX[node] = bounds[leaf * 4 + 2];
+			this.maxY[node] = bounds[leaf * 4 + 3];
+			this.items[node] = leaves.get(leaf);
+			this.skip[node] = node + 1;
+			return node + 1;
+		}
+		
+		// find the bounds of the leaves and of their centers
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		double cMinX = Double.MAX_VALUE;
+		double cMinY = Double.MAX_VALUE;
+		double cMaxX = -Double.MAX_VALUE;
+		double cMaxY = -Double.MAX_VALUE;
+		for (int i = start; i < end; i++) {
+			int leaf = order[i] * 4;
+			minX = Math.min(minX, bounds[leaf]);
+			minY = Math.min(minY, bounds[leaf + 1]);
+			maxX = Math.max(maxX, bounds[leaf + 2]);
+			maxY = Math.max(maxY, bounds[leaf + 3]);
+			// the centers are only compared, so they don't need halving
+			double cx = bounds[leaf] + bounds[leaf + 2];
+			double cy = bounds[leaf + 1] + bounds[leaf + 3];
+			cMinX = Math.min(cMinX, cx);
+			cMinY = Math.min(cMinY, cy);
+			cMaxX = Math.max(cMaxX, cx);
+			cMaxY = Math.max(cMaxY, cy);
+		}
+		this.minX[node] = minX;
+		this.minY[node] = minY;
+		this.maxX[node] = maxX;
+		this.maxY[node] = maxY;
+		
+		int middle = -1;
+		if (depth < MAXIMUM_HEURISTIC_DEPTH) {
+			middle = StaticAABBTree.split(bounds, order, bins, start, end, cMinX, cMinY, cMaxX, cMaxY);
+		}
+		if (middle < 0) {
+			// split the leaves in half along the longest axis of their centers
+			int axis = cMaxX - cMinX >= cMaxY - cMinY ? 0 : 1;
+			middle = (start + end) >>> 1;
+			StaticAABBTree.select(bounds, order, axis, start, end - 1, middle);
+		}
+		
+		// the left subtree directly follows its parent
+		int next = this.build(leaves, bounds, order, bins, start, middle, node + 1, depth + 1);
+		next = this.build(leaves, bounds, order, bins, middle, end, next, depth + 1);
+		this.skip[node] = next;
+		return next;
+	}
+	
+	/**
+	 * Partitions the leaves in the range [start, end) of the given order using the split with the
+	 * lowest cost and returns the index of the first leaf of the second half.
+	 * <p>
+	 * The leaves are placed into bins along each axis by their centers and each split between two bins
+	 * is given a cost using the surface area heuristic.  In 2D the perimeter of an {@link AABB} takes
+	 * the place of its surface area.
+	 * <p>
+	 * Returns -1 if the centers are too close to be separated by the bins.
+	 * @param bounds the extents of the leaves; min x, min y, max x, max y for each leaf
+	 * @param order the leaf indices
+	 * @param bins the space for the bins; count, min x, min y, max x, max y and cost for each bin
+	 * @param start the first leaf in the order, inclusive
+	 * @param end the last leaf in the order, exclusive
+	 * @param cMinX the minimum x value of the centers
+	 * @param cMinY the minimum y value of the centers
+	 * @param cMaxX the maximum x value of the centers
+	 * @param cMaxY the maximum y value of the centers
+	 * @return int
+	 */
+	private static int split(double[] bounds, int[] order, double[] bins, int start, int end, double cMinX, double cMinY, double cMaxX, double cMaxY) {
+		int count = end - start;
+		int bestAxis = -1;
+		int bestBin = 0;
+		double bestCost = Double.MAX_VALUE;
+		for (int axis = 0; axis < 2; axis++) {
+			double min = axis == 0 ? cMinX : cMinY;
+			double extent = (axis == 0 ? cMaxX : cMaxY) - min;
+			if (!(extent > 0.0)) continue;
+			double scale = BIN_COUNT / extent;
+			
+			// fill the bins
+			for (int b = 0; b < BIN_COUNT; b++) {
+				int o = b * 6;
+				bins[o] = 0.0;
+				bins[o + 1] = Double.MAX_VALUE;
+				bins[o + 2] = Double.MAX_VALUE;
+				bins[o + 3] = -Double.MAX_VALUE;
+				bins[o + 4] = -Double.MAX_VALUE;
+			}
+			for (int i = start; i < end; i++) {
+				int leaf = order[i] * 4;
+				int o = StaticAABBTree.getBin(bounds, leaf, axis, min, scale) * 6;
+				bins[o] += 1.0;
+				bins[o + 1] = Math.min(bins[o + 1], bounds[leaf]);
+				bins[o + 2] = Math.min(bins[o + 2], bounds[leaf + 1]);
+				bins[o + 3] = Math.max(bins[o + 3], bounds[leaf + 2]);
+				bins[o + 4] = Math.max(bins[o + 4], bounds[leaf + 3]);
+			}
+			
+			// sweep from the right storing the cost of the leaves in and after each bin
+			double minX = Double.MAX_VALUE;
+			double minY = Double.MAX_VALUE;
+			double maxX = -Double.MAX_VALUE;
+			double maxY = -Double.MAX_VALUE;
+			double n = 0.0;
+			for (int b = BIN_COUNT - 1; b > 0; b--) {
+				int o = b * 6;
+				n += bins[o];
+				minX = Math.min(minX, bins[o + 1]);
+				minY = Math.min(minY, bins[o + 2]);
+				maxX = Math.max(maxX, bins[o + 3]);
+				maxY = Math.max(maxY, bins[o + 4]);
+				bins[o + 5] = n > 0.0 ? (maxX - minX + maxY - minY) * n : 0.0;
+			}
+			
+			// sweep from the left finding the split with the lowest total cost
+			minX = Double.MAX_VALUE;
+			minY = Double.MAX_VALUE;
+			maxX = -Double.MAX_VALUE;
+			maxY = -Double.MAX_VALUE;
+			n = 0.0;
+			for (int b = 0; b < BIN_COUNT - 1; b++) {
+				int o = b * 6;
+				n += bins[o];
+				minX = Math.min(minX, bins[o + 1]);
+				minY = Math.min(minY, bins[o + 2]);
+				maxX = Math.max(maxX, bins[o + 3]);
+				maxY = Math.max(maxY, bins[o + 4]);
+				// both halves must have leaves
+				if (n == 0.0 || n == count) continue;
+				double cost = (maxX - minX + maxY - minY) * n + bins[o + 11];
+				if (cost < bestCost) {
+					bestCost = cost;
+					bestAxis = axis;
+					bestBin = b;
+				}
+			}
+		}
+		
+		if (bestAxis < 0) return -1;
+		
+		// move the leaves in the bins up to and including the best bin to the front
+		double min = bestAxis == 0 ? cMinX : cMinY;
+		double scale = BIN_COUNT / ((bestAxis == 0 ? cMaxX : cMaxY) - min);
+		int i = start;
+		int j = end - 1;
+		while (i <= j) {
+			if (StaticAABBTree.getBin(bounds, order[i] * 4, bestAxis, min, scale) <= bestBin) {
+				i++;
+			} else {
+				int t = order[i];
+				order[i] = order[j];
+				order[j] = t;
+				j--;
+			}
+		}
+		return i;
+	}
+	
+	/**
+	 * Returns the bin of the given leaf along the given axis.
+	 * @param bounds the extents of the leaves; min x, min y, max x, max y for each leaf
+	 * @param leaf the offset of the leaf in the bounds
+	 * @param axis the axis; 0 for x, 1 for y
+	 * @param min the minimum value of the centers along the axis
+	 * @param scale the number of bins divided by the extent of the centers along the axis
+	 * @return int
+	 */
+	private static int getBin(double[] bounds, int leaf, int axis, double min, double scale) {
+		double center = bounds[leaf + axis] + bounds[leaf + axis + 2];
+		int bin = (int)((center - min) * scale);
+		return bin < BIN_COUNT ? bin : BIN_COUNT - 1;
+	}
+	
+	/**
+	 * Partially sorts the leaf indices in the range [low, high] so that the leaf at the
+	 * given index has the same center as it would when fully sorted, the leaves before it have
+	 * lesser or equal centers, and the leaves after it have greater or equal centers.
+	 * @param bounds the extents of the leaves; min x, min y, max x, max y for each leaf
+	 * @param order the leaf indices
+	 * @param axis the axis to compare the centers along; 0 for x, 1 for y
+	 * @param low the first index, inclusive
+	 * @param high the last index, inclusive
+	 * @param k the index to select
+	 */
+	private static void select(double[] bounds, int[] order, int axis, int low, int high, int k) {
+		while (high > low) {
+			int m = order[(low + high) >>> 1] * 4 + axis;
+			double pivot = bounds[m] + bounds[m + 2];
+			int i = low;
+			int j = high;
+			while (i <= j) {
+				while (bounds[order[i] * 4 + axis] + bounds[order[i] * 4 + axis + 2] < pivot) i++;
+				while (bounds[order[j] * 4 + axis] + bounds[order[j] * 4 + axis + 2] > pivot) j--;
+				if (i <= j) {
+					int t = order[i];
+					order[i] = order[j];
+					order[j] = t;
+					i++;
+					j--;
+				}
+			}
+			// continue with the side containing k
+			if (k <= j) {
+				high = j;
+			} else if (k >= i) {
+				low = i;
+			} else {
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the number of {@link Fixture}s in this tree.
+	 * @return int
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Returns the {@link AABB} containing all the {@link Fixture}s in this tree or null
+	 * if the tree is empty.
+	 * @return {@link AABB}
+	 */
+	public AABB getAABB() {
+		if (this.size == 0) return null;
+		return new AABB(this.minX[0], this.minY[0], this.maxX[0], this.maxY[0]);
+	}
+	
+	/**
+	 * Returns the items whose {@link AABB}s overlap the given {@link AABB}.
+	 * @param aabb the {@link AABB} to test
+	 * @return List&lt;{@link BroadphaseItem}&gt;
+	 * @see BroadphaseDetector#detect(AABB)
+	 */
+	public List<BroadphaseItem<E, T>> detect(AABB aabb) {
+		return this.detect(aabb, this.defaultFilter);
+	}
+	
+	/**
+	 * Returns the items whose {@link AABB}s overlap the given {@link AABB} and are allowed
+	 * by the given filter.
+	 * @param aabb the {@link AABB} to test
+	 * @param filter the broad-phase filter
+	 * @return List&lt;{@link BroadphaseItem}&gt;
+	 * @see BroadphaseDetector#detect(AABB, BroadphaseFilter)
+	 */
+	@SuppressWarnings("unchecked")
+	public List<BroadphaseItem<E, T>> detect(AABB aabb, BroadphaseFilter<E, T> filter) {
+		double aMinX = aabb.getMinX();
+		double aMinY = aabb.getMinY();
+		double aMaxX = aabb.getMaxX();
+		double aMaxY = aabb.getMaxY();
+		
+		// get the estimated collision count
+		int eSize = Collisions.getEstimatedCollisionsPerObject();
+		List<BroadphaseItem<E, T>> list = new ArrayList<BroadphaseItem<E, T>>(eSize);
+		
+		int count = this.skip.length;
+		int node = 0;
+		while (node < count) {
+			if (aMinX <= this.maxX[node] && aMaxX >= this.minX[node] &&
+				aMinY <= this.maxY[node] && aMaxY >= this.minY[node]) {
+				BroadphaseItem<E, T> item = (BroadphaseItem<E, T>)this.items[node];
+				if (item != null && filter.isAllowed(aabb, item.collidable, item.fixture)) {
+					list.add(item);
+				}
+				// descend into the subtree
+				node++;
+			} else {
+				node = this.skip[node];
+			}
+		}
+		
+		return list;
+	}
+	
+	/**
+	 * Returns the items whose {@link AABB}s intersect the given {@link Ray}.
+	 * @param ray the {@link Ray}
+	 * @param length the length of the ray; 0.0 for infinite length
+	 * @return List&lt;{@link BroadphaseItem}&gt;
+	 * @see BroadphaseDetector#raycast(Ray, double)
+	 */
+	public List<BroadphaseItem<E, T>> raycast(Ray ray, double length) {
+		return this.raycast(ray, length, this.defaultFilter);
+	}
+	
+	/**
+	 * Returns the items whose {@link AABB}s intersect the given {@link Ray} and are allowed
+	 * by the given filter.
+	 * @param ray the {@link Ray}
+	 * @param length the length of the ray; 0.0 for infinite length
+	 * @param filter the broad-phase filter
+	 * @return List&lt;{@link BroadphaseItem}&gt;
+	 * @see BroadphaseDetector#raycast(Ray, double, BroadphaseFilter)
+	 */
+	@SuppressWarnings("unchecked")
+	public List<BroadphaseItem<E, T>> raycast(Ray ray, double length, BroadphaseFilter<E, T> filter) {
+		if (this.size == 0) {
+			return Collections.emptyList();
+		}
+		
+		// create an aabb from the ray
+		Vector2 s = ray.getStart();
+		Vector2 d = ray.getDirectionVector();
+		
+		// get the length
+		double l = length;
+		if (length <= 0.0) l = Double.MAX_VALUE;
+		
+		// compute the coordinates
+		double x1 = s.x;
+		double x2 = s.x + d.x * l;
+		double y1 = s.y;
+		double y2 = s.y + d.y * l;
+		
+		// compute the ray's aabb
+		double rMinX = Math.min(x1, x2);
+		double rMinY = Math.min(y1, y2);
+		double rMaxX = Math.max(x1, x2);
+		double rMaxY = Math.max(y1, y2);
+		
+		// precompute
+		double invDx = 1.0 / d.x;
+		double invDy = 1.0 / d.y;
+		
+		// get the estimated collision count
+		int eSize = Collisions.getEstimatedRaycastCollisions(this.size);
+		List<BroadphaseItem<E, T>> list = new ArrayList<BroadphaseItem<E, T>>(eSize);
+		
+		int count = this.skip.length;
+		int node = 0;
+		while (node < count) {
+			if (rMinX <= this.maxX[node] && rMaxX >= this.minX[node] &&
+				rMinY <= this.maxY[node] && rMaxY >= this.minY[node]) {
+				BroadphaseItem<E, T> item = (BroadphaseItem<E, T>)this.items[node];
+				if (item != null && this.raycast(s, l, invDx, invDy, node) && filter.isAllowed(ray, length, item.collidable, item.fixture)) {
+					list.add(item);
+				}
+				// descend into the subtree
+				node++;
+			} else {
+				node = this.skip[node];
+			}
+		}
+		
+		return list;
+	}
+	
+	/**
+	 * Returns true if the given ray intersects the bounds of the given node.
+	 * @param start the start position of the ray
+	 * @param length the length of the ray
+	 * @param invDx the inverse of the x component of the ray direction
+	 * @param invDy the inverse of the y component of the ray direction
+	 * @param node the node
+	 * @return boolean
+	 */
+	private boolean raycast(Vector2 start, double length, double invDx, double invDy, int node) {
+		double tmin = -Double.MAX_VALUE;
+		double tmax = Double.MAX_VALUE;
+		
+		// skip the axes the ray is parallel to; the ray's AABB already overlaps
+		// the node along them and the product below could be NaN
+		if (!Double.isInfinite(invDx)) {
+			double tx1 = (this.minX[node] - start.x) * invDx;
+			double tx2 = (this.maxX[node] - start.x) * invDx;
+			
+			tmin = Math.min(tx1, tx2);
+			tmax = Math.max(tx1, tx2);
+		}
+		
+		if (!Double.isInfinite(invDy)) {
+			double ty1 = (this.minY[node] - start.y) * invDy;
+			double ty2 = (this.maxY[node] - start.y) * invDy;
+			
+			tmin = Math.max(tmin, Math.min(ty1, ty2));
+			tmax = Math.min(tmax, Math.max(ty1, ty2));
+		}
+		// the ray is pointing in the opposite direction
+		if (tmax < 0) return false;
+		// consider the ray length
+		if (tmin > length) return false;
+		// along the ray, tmax should be larger than tmin
+		return tmax >= tmin;
+	}
+}
@@ -28,6 +28,7 @@ import org.dyn4j.Epsilon;
 import org.dyn4j.collision.narrowphase.DistanceDetector;
 import org.dyn4j.collision.narrowphase.Gjk;
 import org.dyn4j.collision.narrowphase.Separation;
+import org.dyn4j.collision.narrowphase.SimplexCache;
 import org.dyn4j.geometry.Convex;
 import org.dyn4j.geometry.Transform;
 import org.dyn4j.geometry.Vector2;
@@ -40,8 +41,12 @@ import org.dyn4j.resources.Messages;
  * time of impact within a given tolerance.
  * <p>
  * This method is described in "Continuous Collision Detection and Physics" by Erwin Coumans (Draft).
+ * <p>
+ * When the {@link DistanceDetector} is {@link Gjk} and {@link #isSimplexCacheEnabled()} is true, each 
+ * distance computation of the root finder is warm started from the separation normal of the previous 
+ * one using a {@link SimplexCache}.
  * @author William Bittle
- * @version 3.1.5
+ * @version 3.3.1
  * @since 1.2.0
  */
 public class ConservativeAdvancement implements TimeOfImpactDetector {
@@ -60,6 +65,9 @@ public class ConservativeAdvancement implements TimeOfImpactDetector {
 	/** The maximum number of iterations of the root finder */
 	protected int maxIterations = ConservativeAdvancement.DEFAULT_MAX_ITERATIONS;
 	
+	/** True if the distance computations of the root finder should be warm started */
+	protected boolean simplexCacheEnabled = false;
+	
 	/**
 	 * Default constructor.
 	 * <p>
@@ -97,9 +105,15 @@ public class ConservativeAdvancement implements TimeOfImpactDetector {
 		Transform lerpTx1 = new Transform();
 		Transform lerpTx2 = new Transform();
 		
+		// the shapes only move a little between iterations
+		SimplexCache cache = null;
+		if (this.simplexCacheEnabled && this.distanceDetector instanceof Gjk) {
+			cache = new SimplexCache();
+		}
+		
 		// check for separation at the beginning of the interval
 		Separation separation = new Separation();
-		boolean separated = this.distanceDetector.distance(convex1, transform1, convex2, transform2, separation);
+		boolean separated = this.distance(convex1, transform1, convex2, transform2, separation, cache);
 		// if they are not separated then there is nothing to do
 		if (!separated) {
 			return false;
@@ -178,7 +192,7 @@ public class ConservativeAdvancement implements TimeOfImpactDetector {
 			transform2.lerp(dp2, da2, l, lerpTx2);
 			
 			// find closest points
-			separated = this.distanceDetector.distance(convex1, lerpTx1, convex2, lerpTx2, separation);
+			separated = this.distance(convex1, lerpTx1, convex2, lerpTx2, separation, cache);
 			d = separation.getDistance();
 			// check for intersection
 			if (!separated) {
@@ -193,7 +207,7 @@ public class ConservativeAdvancement implements TimeOfImpactDetector {
 				transform1.lerp(dp1, da1, l, lerpTx1);
 				transform2.lerp(dp2, da2, l, lerpTx2);
 				// compute a new separation
-				this.distanceDetector.distance(convex1, lerpTx1, convex2, lerpTx2, separation);
+				this.distance(convex1, lerpTx1, convex2, lerpTx2, separation, cache);
 				// get the distance
 				d = separation.getDistance();
 				// the separation here could still be close to zero if the
@@ -235,6 +249,25 @@ public class ConservativeAdvancement implements TimeOfImpactDetector {
 		this.distanceDetector = distanceDetector;
 	}
 	
+	/**
+	 * Computes the distance between the given shapes using the {@link DistanceDetector}
+	 * and the given {@link SimplexCache}, if any.
+	 * @param convex1 the first convex
+	 * @param transform1 the first convex's transform
+	 * @param convex2 the second convex
+	 * @param transform2 the second convex's transform
+	 * @param separation the separation to fill in
+	 * @param cache the simplex cache; null if the {@link DistanceDetector} isn't {@link Gjk}
+	 * @return boolean true if the shapes are separated
+	 * @since 3.3.1
+	 */
+	private boolean distance(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Separation separation, SimplexCache cache) {
+		if (cache != null) {
+			return ((Gjk)this.distanceDetector).distance(convex1, transform1, convex2, transform2, separation, cache);
+		}
+		return this.distanceDetector.distance(convex1, transform1, convex2, transform2, separation);
+	}
+	
 	/**
 	 * Returns the distance epsilon used to determine when a sufficient solution
 	 * has been found.
@@ -277,4 +310,28 @@ public class ConservativeAdvancement implements TimeOfImpactDetector {
 		if (maxIterations < 5) throw new IllegalArgumentException(Messages.getString("collision.continuous.conservativeAdvancement.invalidMaximumIterations"));
 		this.maxIterations = maxIterations;
 	}
+	
+	/**
+	 * Returns true if the distance computations of the root finder are warm started.
+	 * @return boolean
+	 * @since 3.3.1
+	 * @see #setSimplexCacheEnabled(boolean)
+	 */
+	public boolean isSimplexCacheEnabled() {
+		return this.simplexCacheEnabled;
+	}
+	
+	/**
+	 * Toggles the warm starting of the distance computations of the root finder.
+	 * <p>
+	 * When enabled, and the {@link DistanceDetector} is {@link Gjk}, each distance computation
+	 * starts from the separation normal of the previous iteration.  This typically reduces the
+	 * number of {@link Gjk} iterations, but the computed time of impact can differ from the
+	 * cold started result by up to the {@link Gjk}'s distance epsilon.
+	 * @param flag true if the distance computations should be warm started
+	 * @since 3.3.1
+	 */
+	public void setSimplexCacheEnabled(boolean flag) {
+		this.simplexCacheEnabled = flag;
+	}
 }
@@ -0,0 +1,571 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.narrowphase;
+
+import org.dyn4j.Epsilon;
+import org.dyn4j.geometry.Capsule;
+import org.dyn4j.geometry.Circle;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Polygon;
+import org.dyn4j.geometry.Rectangle;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Triangle;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Represents a {@link NarrowphaseDetector} that dispatches on the types of the given {@link Convex}
+ * shapes to closed form methods for the most common pairs.
+ * <p>
+ * The following pairs, in either order, are handled directly:
+ * <ul>
+ * <li>{@link Circle} - {@link Circle}: using {@link CircleDetector}</li>
+ * <li>{@link Circle} - {@link Polygon}: using the closest feature of the polygon to the circle center</li>
+ * <li>{@link Polygon} - {@link Polygon}: using {@link Sat}</li>
+ * <li>{@link Capsule} - {@link Capsule}, {@link Circle} - {@link Capsule} and {@link Capsule} - {@link Polygon}: 
+ * using the closest points of the inner segments of the capsules</li>
+ * </ul>
+ * Here {@link Polygon} includes {@link Rectangle} and {@link Triangle}.  Only these exact classes are 
+ * dispatched; subclasses, other shapes, and the capsule cases where the inner segments overlap, are
+ * handled by the fallback {@link NarrowphaseDetector}, {@link Gjk} by default.
+ * <p>
+ * The pair type is computed from the classes of the shapes and used to index a switch so that the
+ * dispatch cost doesn't depend on the number of supported pairs.
+ * <p>
+ * The results are the same as {@link Gjk}'s within the {@link Epa} tolerance, except when more
+ * than one axis has the same penetration depth, in which case either may be used.
+ * <p>
+ * A {@link SeparatingAxisCache} can be given for the {@link Polygon} - {@link Polygon} pairs
+ * handled by {@link Sat}; it's ignored for the other pairs.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class DispatchingNarrowphaseDetector implements NarrowphaseDetector {
+	/** Shapes that are not dispatched */
+	private static final int OTHER = 0;
+	
+	/** {@link Circle} shapes */
+	private static final int CIRCLE = 1;
+	
+	/** {@link Polygon}, {@link Rectangle} and {@link Triangle} shapes */
+	private static final int POLYGON = 2;
+	
+	/** {@link Capsule} shapes */
+	private static final int CAPSULE = 3;
+	
+	/** The number of shape types */
+	private static final int TYPES = 4;
+	
+	/** A circle and a circle */
+	private static final int CIRCLE_CIRCLE = CIRCLE * TYPES + CIRCLE;
+	
+	/** A circle and a polygon */
+	private static final int CIRCLE_POLYGON = CIRCLE * TYPES + POLYGON;
+	
+	/** A circle and a capsule */
+	private static final int CIRCLE_CAPSULE = CIRCLE * TYPES + CAPSULE;
+	
+	/** A polygon and a circle */
+	private static final int POLYGON_CIRCLE = POLYGON * TYPES + CIRCLE;
+	
+	/** A polygon and a polygon */
+	private static final int POLYGON_POLYGON = POLYGON * TYPES + POLYGON;
+	
+	/** A polygon and a capsule */
+	private static final int POLYGON_CAPSULE = POLYGON * TYPES + CAPSULE;
+	
+	/** A capsule and a circle */
+	private static final int CAPSULE_CIRCLE = CAPSULE * TYPES + CIRCLE;
+	
+	/** A capsule and a polygon */
+	private static final int CAPSULE_POLYGON = CAPSULE * TYPES + POLYGON;
+	
+	/** A capsule and a capsule */
+	private static final int CAPSULE_CAPSULE = CAPSULE * TYPES + CAPSULE;
+	
+	/** The shapes are separated */
+	private static final int SEPARATED = 0;
+	
+	/** The shapes intersect and the penetration was filled */
+	private static final int PENETRATING = 1;
+	
+	/** The inner shapes intersect and the fallback detector must be used */
+	private static final int UNRESOLVED = 2;
+	
+	/** The {@link NarrowphaseDetector} for the pairs that are not dispatched */
+	protected final NarrowphaseDetector fallbackNarrowphaseDetector;
+	
+	/** The detector for {@link Polygon} - {@link Polygon} pairs */
+	protected final Sat sat;
+	
+	/**
+	 * Default constructor.
+	 * <p>
+	 * Uses {@link Gjk} as the fallback {@link NarrowphaseDetector}.
+	 */
+	public DispatchingNarrowphaseDetector() {
+		this(new Gjk());
+	}
+	
+	/**
+	 * Full constructor.
+	 * @param fallbackNarrowphaseDetector the {@link NarrowphaseDetector} for the pairs that are not dispatched
+	 * @throws NullPointerException if fallbackNarrowphaseDetector is null
+	 */
+	public DispatchingNarrowphaseDetector(NarrowphaseDetector fallbackNarrowphaseDetector) {
+		if (fallbackNarrowphaseDetector == null) throw new NullPointerException();
+		this.fallbackNarrowphaseDetector = fallbackNarrowphaseDetector;
+		this.sat = new Sat();
+	}
+	
+	/**
+	 * Returns the type of the given {@link Convex}.
+	 * @param convex the convex
+	 * @return int
+	 */
+	private static int getType(Convex convex) {
+		Class<?> type = convex.getClass();
+		if (type == Circle.class) return CIRCLE;
+		if (type == Polygon.class || type == Rectangle.class || type == Triangle.class) return POLYGON;
+		if (type == Capsule.class) return CAPSULE;
+		return OTHER;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.narrowphase.NarrowphaseDetector#detect(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform)
+	 */
+	@Override
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2) {
+		return this.detect(convex1, transform1, convex2, transform2, (SeparatingAxisCache)null);
+	}
+	
+	/**
+	 * Returns true if the two {@link Convex} shapes intersect.
+	 * <p>
+	 * For {@link Polygon} - {@link Polygon} pairs, the axis stored in the given {@link SeparatingAxisCache},
+	 * if any, is tested first and the separating axis, if any, is stored for the next call with the same pair.
+	 * @param convex1 the first convex
+	 * @param transform1 the first convex's transform
+	 * @param convex2 the second convex
+	 * @param transform2 the second convex's transform
+	 * @param cache the {@link SeparatingAxisCache} of the pair; can be null
+	 * @return boolean true if the two {@link Convex} shapes intersect
+	 * @see Sat#detect(Convex, Transform, Convex, Transform, SeparatingAxisCache)
+	 */
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, SeparatingAxisCache cache) {
+		switch (getType(convex1) * TYPES + getType(convex2)) {
+			case CIRCLE_CIRCLE:
+				return CircleDetector.detect((Circle)convex1, transform1, (Circle)convex2, transform2);
+			case POLYGON_POLYGON:
+				return this.sat.detect(convex1, transform1, convex2, transform2, cache);
+			case CIRCLE_POLYGON:
+			case CIRCLE_CAPSULE:
+			case POLYGON_CIRCLE:
+			case POLYGON_CAPSULE:
+			case CAPSULE_CIRCLE:
+			case CAPSULE_POLYGON:
+			case CAPSULE_CAPSULE:
+				return this.detect(convex1, transform1, convex2, transform2, new Penetration());
+			default:
+				return this.fallbackNarrowphaseDetector.detect(convex1, transform1, convex2, transform2);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.narrowphase.NarrowphaseDetector#detect(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.collision.narrowphase.Penetration)
+	 */
+	@Override
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration) {
+		return this.detect(convex1, transform1, convex2, transform2, penetration, null);
+	}
+	
+	/**
+	 * Returns true if the two {@link Convex} shapes intersect and fills the {@link Penetration}
+	 * object with the penetration vector and depth.
+	 * <p>
+	 * For {@link Polygon} - {@link Polygon} pairs, the axis stored in the given {@link SeparatingAxisCache},
+	 * if any, is tested first and the separating axis or the axis of minimum penetration is stored for the
+	 * next call with the same pair.  The result is the same as without a {@link SeparatingAxisCache}.
+	 * @param convex1 the first convex
+	 * @param transform1 the first convex's transform
+	 * @param convex2 the second convex
+	 * @param transform2 the second convex's transform
+	 * @param penetration the {@link Penetration} object to fill
+	 * @param cache the {@link SeparatingAxisCache} of the pair; can be null
+	 * @return boolean true if the two {@link Convex} shapes intersect
+	 * @see Sat#detect(Convex, Transform, Convex, Transform, Penetration, SeparatingAxisCache)
+	 */
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration, SeparatingAxisCache cache) {
+		switch (getType(convex1) * TYPES + getType(convex2)) {
+			case CIRCLE_CIRCLE:
+				return CircleDetector.detect((Circle)convex1, transform1, (Circle)convex2, transform2, penetration);
+			case CIRCLE_POLYGON:
+				return detect((Polygon)convex2, transform2, (Circle)convex1, transform1, penetration, true);
+			case POLYGON_CIRCLE:
+				return detect((Polygon)convex1, transform1, (Circle)convex2, transform2, penetration, false);
+			case POLYGON_POLYGON:
+				return this.sat.detect(convex1, transform1, convex2, transform2, penetration, cache);
+			case CIRCLE_CAPSULE:
+				return this.resolve(detect((Capsule)convex2, transform2, (Circle)convex1, transform1, penetration, true), convex1, transform1, convex2, transform2, penetration);
+			case CAPSULE_CIRCLE:
+				return this.resolve(detect((Capsule)convex1, transform1, (Circle)convex2, transform2, penetration, false), convex1, transform1, convex2, transform2, penetration);
+			case CAPSULE_POLYGON:
+				return this.resolve(detect((Polygon)convex2, transform2, (Capsule)convex1, transform1, penetration, true), convex1, transform1, convex2, transform2, penetration);
+			case POLYGON_CAPSULE:
+				return this.resolve(detect((Polygon)convex1, transform1, (Capsule)convex2, transform2, penetration, false), convex1, transform1, convex2, transform2, penetration);
+			case CAPSULE_CAPSULE:
+				return this.resolve(detect((Capsule)convex1, transform1, (Capsule)convex2, transform2, penetration), convex1, transform1, convex2, transform2, penetration);
+			default:
+				return this.fallbackNarrowphaseDetector.detect(convex1, transform1, convex2, transform2, penetration);
+		}
+	}
+	
+	/**
+	 * Returns the result of a closed form method, using the fallback {@link NarrowphaseDetector}
+	 * if the method couldn't determine it.
+	 * @param result the result of the closed form method
+	 * @param convex1 the first convex
+	 * @param transform1 the first convex's transform
+	 * @param convex2 the second convex
+	 * @param transform2 the second convex's transform
+	 * @param penetration the penetration to fill
+	 * @return boolean
+	 */
+	private boolean resolve(int result, Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration) {
+		if (result == PENETRATING) return true;
+		if (result == SEPARATED) return false;
+		return this.fallbackNarrowphaseDetector.detect(convex1, transform1, convex2, transform2, penetration);
+	}
+	
+	/**
+	 * Returns true if the given {@link Polygon} and {@link Circle} intersect.
+	 * <p>
+	 * The circle center is brought into the local coordinates of the polygon and the edge
+	 * with the largest separation is found.  If the center is inside the polygon the edge
+	 * normal is used, otherwise the closest point on the edge is used.
+	 * @param polygon the polygon
+	 * @param polygonTransform the polygon's transform
+	 * @param circle the circle
+	 * @param circleTransform the circle's transform
+	 * @param penetration the penetration to fill
+	 * @param flip true if the circle is the first shape
+	 * @return boolean
+	 */
+	private static boolean detect(Polygon polygon, Transform polygonTransform, Circle circle, Transform circleTransform, Penetration penetration, boolean flip) {
+		// get the circle center in the local coordinates of the polygon
+		Vector2 c = circleTransform.getTransformed(circle.getCenter());
+		polygonTransform.inverseTransform(c);
+		double r = circle.getRadius();
+		
+		// find the edge with the largest separation
+		Vector2[] vertices = polygon.getVertices();
+		Vector2[] normals = polygon.getNormals();
+		int size = vertices.length;
+		int edge = 0;
+		double max = -Double.MAX_VALUE;
+		for (int i = 0; i < size; i++) {
+			Vector2 v = vertices[i];
+			Vector2 n = normals[i];
+			double s = n.x * (c.x - v.x) + n.y * (c.y - v.y);
+			// check for a separating axis
+			if (s >= r) return false;
+			if (s > max) {
+				max = s;
+				edge = i;
+			}
+		}
+		
+		Vector2 v1 = vertices[edge];
+		Vector2 v2 = vertices[edge + 1 == size ? 0 : edge + 1];
+		double nx = normals[edge].x;
+		double ny = normals[edge].y;
+		double depth = r - max;
+		// if the center is outside the polygon check the vertex regions of the edge
+		if (max > Epsilon.E) {
+			double ex = v2.x - v1.x;
+			double ey = v2.y - v1.y;
+			Vector2 v = null;
+			if ((c.x - v1.x) * ex + (c.y - v1.y) * ey <= 0.0) {
+				v = v1;
+			} else if ((c.x - v2.x) * ex + (c.y - v2.y) * ey >= 0.0) {
+				v = v2;
+			}
+			if (v != null) {
+				// the closest point is the vertex
+				double dx = c.x - v.x;
+				double dy = c.y - v.y;
+				double d2 = dx * dx + dy * dy;
+				if (d2 >= r * r) return false;
+				double d = Math.sqrt(d2);
+				nx = dx / d;
+				ny = dy / d;
+				depth = r - d;
+			}
+		}
+		
+		// the normal points from the polygon to the circle
+		Vector2 normal = polygonTransform.getTransformedR(new Vector2(nx, ny));
+		if (flip) normal.negate();
+		penetration.normal = normal;
+		penetration.depth = depth;
+		return true;
+	}
+	
+	/**
+	 * Returns {@link #PENETRATING} if the given {@link Capsule} and {@link Circle} intersect
+	 * or {@link #SEPARATED} if they do not.
+	 * <p>
+	 * Returns {@link #UNRESOLVED} if the circle center lies on the inner segment of the capsule.
+	 * @param capsule the capsule
+	 * @param capsuleTransform the capsule's transform
+	 * @param circle the circle
+	 * @param circleTransform the circle's transform
+	 * @param penetration the penetration to fill
+	 * @param flip true if the circle is the first shape
+	 * @return int
+	 */
+	private static int detect(Capsule capsule, Transform capsuleTransform, Circle circle, Transform circleTransform, Penetration penetration, boolean flip) {
+		Vector2[] foci = capsule.getFoci(capsuleTransform);
+		Vector2 c = circleTransform.getTransformed(circle.getCenter());
+		Vector2 p = new Vector2();
+		double d2 = getClosestPoint(c, foci[0], foci[1], p);
+		double r = capsule.getCapRadius() + circle.getRadius();
+		return getPenetration(p, c, d2, r, penetration, flip);
+	}
+	
+	/**
+	 * Returns {@link #PENETRATING} if the given {@link Capsule}s intersect
+	 * or {@link #SEPARATED} if they do not.
+	 * <p>
+	 * Returns {@link #UNRESOLVED} if the inner segments of the capsules intersect.
+	 * @param capsule1 the first capsule
+	 * @param transform1 the first capsule's transform
+	 * @param capsule2 the second capsule
+	 * @param transform2 the second capsule's transform
+	 * @param penetration the penetration to fill
+	 * @return int
+	 */
+	private static int detect(Capsule capsule1, Transform transform1, Capsule capsule2, Transform transform2, Penetration penetration) {
+		Vector2[] foci1 = capsule1.getFoci(transform1);
+		Vector2[] foci2 = capsule2.getFoci(transform2);
+		Vector2 c1 = new Vector2();
+		Vector2 c2 = new Vector2();
+		double d2 = getClosestPoints(foci1[0], foci1[1], foci2[0], foci2[1], c1, c2);
+		double r = capsule1.getCapRadius() + capsule2.getCapRadius();
+		return getPenetration(c1, c2, d2, r, penetration, false);
+	}
+	
+	/**
+	 * Returns {@link #PENETRATING} if the given {@link Polygon} and {@link Capsule} intersect
+	 * or {@link #SEPARATED} if they do not.
+	 * <p>
+	 * The inner segment of the capsule is brought into the local coordinates of the polygon
+	 * and its closest points to the edges of the polygon are found.  Returns {@link #UNRESOLVED}
+	 * if the inner segment intersects the polygon.
+	 * @param polygon the polygon
+	 * @param polygonTransform the polygon's transform
+	 * @param capsule the capsule
+	 * @param capsuleTransform the capsule's transform
+	 * @param penetration the penetration to fill
+	 * @param flip true if the capsule is the first shape
+	 * @return int
+	 */
+	private static int detect(Polygon polygon, Transform polygonTransform, Capsule capsule, Transform capsuleTransform, Penetration penetration, boolean flip) {
+		// get the inner segment in the local coordinates of the polygon
+		Vector2[] foci = capsule.getFoci(capsuleTransform);
+		Vector2 a = polygonTransform.getInverseTransformed(foci[0]);
+		Vector2 b = polygonTransform.getInverseTransformed(foci[1]);
+		double r = capsule.getCapRadius();
+		
+		Vector2[] vertices = polygon.getVertices();
+		Vector2[] normals = polygon.getNormals();
+		int size = vertices.length;
+		
+		// check for a separating axis and whether an end point is inside
+		boolean aInside = true;
+		boolean bInside = true;
+		for (int i = 0; i < size; i++) {
+			Vector2 v = vertices[i];
+			Vector2 n = normals[i];
+			double sa = n.x * (a.x - v.x) + n.y * (a.y - v.y);
+			double sb = n.x * (b.x - v.x) + n.y * (b.y - v.y);
+			if (sa >= r && sb >= r) return SEPARATED;
+			if (sa > 0.0) aInside = false;
+			if (sb > 0.0) bInside = false;
+		}
+		if (aInside || bInside) {
+			// the inner segment overlaps the polygon
+			return UNRESOLVED;
+		}
+		
+		// find the closest points between the inner segment and the edges
+		Vector2 p1 = new Vector2();
+		Vector2 p2 = new Vector2();
+		Vector2 c1 = new Vector2();
+		Vector2 c2 = new Vector2();
+		double min = Double.MAX_VALUE;
+		for (int i = 0; i < size; i++) {
+			Vector2 v1 = vertices[i];
+			Vector2 v2 = vertices[i + 1 == size ? 0 : i + 1];
+			double d2 = getClosestPoints(v1, v2, a, b, p1, p2);
+			if (d2 < min) {
+				min = d2;
+				c1.set(p1);
+				c2.set(p2);
+			}
+		}
+		
+		int result = getPenetration(c1, c2, min, r, penetration, flip);
+		if (result == PENETRATING) {
+			// the normal was computed in the local coordinates of the polygon
+			polygonTransform.transformR(penetration.normal);
+		}
+		return result;
+	}
+	
+	/**
+	 * Fills the given {@link Penetration} for two rounded shapes whose inner shapes are
+	 * closest at the given points.
+	 * <p>
+	 * Returns {@link #SEPARATED} if the shapes are separated or {@link #UNRESOLVED} if the
+	 * inner shapes intersect.
+	 * @param p1 the closest point on the first inner shape
+	 * @param p2 the closest point on the second inner shape
+	 * @param d2 the squared distance between the points
+	 * @param r the sum of the radii
+	 * @param penetration the penetration to fill
+	 * @param flip true if the normal should point from the second point to the first
+	 * @return int
+	 */
+	private static int getPenetration(Vector2 p1, Vector2 p2, double d2, double r, Penetration penetration, boolean flip) {
+		if (d2 >= r * r) return SEPARATED;
+		if (d2 <= Epsilon.E) {
+			// the inner shapes intersect
+			return UNRESOLVED;
+		}
+		double d = Math.sqrt(d2);
+		Vector2 normal = new Vector2((p2.x - p1.x) / d, (p2.y - p1.y) / d);
+		if (flip) normal.negate();
+		penetration.normal = normal;
+		penetration.depth = r - d;
+		return PENETRATING;
+	}
+	
+	/**
+	 * Finds the point on the segment a-b closest to the given point and returns the squared
+	 * distance between them.
+	 * @param point the point
+	 * @param a the first point of the segment
+	 * @param b the second point of the segment
+	 * @param closest the closest point on the segment to fill
+	 * @return double
+	 */
+	private static double getClosestPoint(Vector2 point, Vector2 a, Vector2 b, Vector2 closest) {
+		double ex = b.x - a.x;
+		double ey = b.y - a.y;
+		double ee = ex * ex + ey * ey;
+		double t = 0.0;
+		if (ee > Epsilon.E) {
+			t = clamp(((point.x - a.x) * ex + (point.y - a.y) * ey) / ee);
+		}
+		closest.set(a.x + ex * t, a.y + ey * t);
+		return closest.distanceSquared(point);
+	}
+	
+	/**
+	 * Finds the closest points between the segments p1-q1 and p2-q2 and returns the 
+	 * squared distance between them.
+	 * @param p1 the first point of the first segment
+	 * @param q1 the second point of the first segment
+	 * @param p2 the first point of the second segment
+	 * @param q2 the second point of the second segment
+	 * @param c1 the closest point on the first segment to fill
+	 * @param c2 the closest point on the second segment to fill
+	 * @return double
+	 * @see <a href="http://realtimecollisiondetection.net/" target="_blank">Real-Time Collision Detection</a>
+	 */
+	private static double getClosestPoints(Vector2 p1, Vector2 q1, Vector2 p2, Vector2 q2, Vector2 c1, Vector2 c2) {
+		double d1x = q1.x - p1.x;
+		double d1y = q1.y - p1.y;
+		double d2x = q2.x - p2.x;
+		double d2y = q2.y - p2.y;
+		double rx = p1.x - p2.x;
+		double ry = p1.y - p2.y;
+		double a = d1x * d1x + d1y * d1y;
+		double e = d2x * d2x + d2y * d2y;
+		double f = d2x * rx + d2y * ry;
+		double s = 0.0;
+		double t = 0.0;
+		if (a <= Epsilon.E && e <= Epsilon.E) {
+			// both segments are points
+		} else if (a <= Epsilon.E) {
+			// the first segment is a point
+			t = clamp(f / e);
+		} else {
+			double c = d1x * rx + d1y * ry;
+			if (e <= Epsilon.E) {
+				// the second segment is a point
+				s = clamp(-c / a);
+			} else {
+				double b = d1x * d2x + d1y * d2y;
+				double denominator = a * e - b * b;
+				// if the segments are parallel pick any s
+				if (denominator != 0.0) {
+					s = clamp((b * f - c * e) / denominator);
+				}
+				t = (b * s + f) / e;
+				if (t < 0.0) {
+					t = 0.0;
+					s = clamp(-c / a);
+				} else if (t > 1.0) {
+					t = 1.0;
+					s = clamp((b - c) / a);
+				}
+			}
+		}
+		c1.set(p1.x + d1x * s, p1.y + d1y * s);
+		c2.set(p2.x + d2x * t, p2.y + d2y * t);
+		return c1.distanceSquared(c2);
+	}
+	
+	/**
+	 * Clamps the given value to the range [0, 1].
+	 * @param value the value
+	 * @return double
+	 */
+	private static double clamp(double value) {
+		if (value < 0.0) return 0.0;
+		if (value > 1.0) return 1.0;
+		return value;
+	}
+	
+	/**
+	 * Returns the fallback {@link NarrowphaseDetector}.
+	 * @return {@link NarrowphaseDetector}
+	 */
+	public NarrowphaseDetector getFallbackNarrowphaseDetector() {
+		return this.fallbackNarrowphaseDetector;
+	}
+}
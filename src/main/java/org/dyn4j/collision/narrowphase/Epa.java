@@ -61,8 +61,11 @@ import org.dyn4j.resources.Messages;
  * If either shape has curved surfaces the algorithm requires an expected accuracy epsilon: {@link #distanceEpsilon}.
  * In the case that the {@link #distanceEpsilon} is too small, the {@link #maxIterations} will prevent the
  * algorithm from running forever.
+ * <p>
+ * The expanding simplex is kept per thread and reused between calls so that the algorithm
+ * doesn't allocate, other than the support points and the resulting normal.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.1
  * @since 1.0.0
  * @see Gjk
  * @see <a href="http://www.dyn4j.org/2010/05/epa-expanding-polytope-algorithm/" target="_blank">EPA (Expanding Polytope Algorithm)</a>
@@ -80,29 +83,39 @@ public class Epa implements MinkowskiPenetrationSolver {
 	/** The {@link Epa} distance epsilon in meters */
 	protected double distanceEpsilon = Epa.DEFAULT_DISTANCE_EPSILON;
 	
+	/** The reusable expanding simplex of each thread */
+	private final ThreadLocal<ExpandingSimplex> simplexes = new ThreadLocal<ExpandingSimplex>() {
+		@Override
+		protected ExpandingSimplex initialValue() {
+			return new ExpandingSimplex(16);
+		}
+	};
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.collision.narrowphase.MinkowskiPenetrationSolver#getPenetration(java.util.List, org.dyn4j.collision.narrowphase.MinkowskiSum, org.dyn4j.collision.narrowphase.Penetration)
 	 */
 	public void getPenetration(List<Vector2> simplex, MinkowskiSum minkowskiSum, Penetration penetration) {
-		// create an expandable simplex
-		ExpandingSimplex smplx = new ExpandingSimplex(simplex);
-		ExpandingSimplexEdge edge = null;
+		// reuse this thread's expandable simplex
+		ExpandingSimplex smplx = this.simplexes.get();
+		smplx.initialize(simplex);
+		Vector2 normal = new Vector2();
 		Vector2 point = null;
 		for (int i = 0; i < this.maxIterations; i++) {
 			// get the closest edge to the origin
-			edge = smplx.getClosestEdge();
+			int edge = smplx.getClosestEdge();
+			normal.set(smplx.getNormalX(edge), smplx.getNormalY(edge));
 			// get a new support point in the direction of the edge normal
-			point = minkowskiSum.getSupportPoint(edge.normal);
+			point = minkowskiSum.getSupportPoint(normal);
 			
 			// see if the new point is significantly past the edge
-			double projection = point.dot(edge.normal);
-			if ((projection - edge.distance) < this.distanceEpsilon) {
+			double projection = point.dot(normal);
+			if ((projection - smplx.getDistance(edge)) < this.distanceEpsilon) {
 				// then the new point we just made is not far enough
 				// in the direction of n so we can stop now and
 				// return n as the direction and the projection
 				// as the depth since this is the closest found
 				// edge and it cannot increase any more
-				penetration.normal = edge.normal;
+				penetration.normal = normal;
 				penetration.depth = projection;
 				return;
 			}
@@ -110,13 +123,13 @@ public class Epa implements MinkowskiPenetrationSolver {
 			// lastly add the point to the simplex
 			// this breaks the edge we just found to be closest into two edges
 			// from a -> b to a -> newPoint -> b
-			smplx.expand(point);
+			smplx.expand(point.x, point.y);
 		}
 		// if we made it here then we know that we hit the maximum number of iterations
 		// this is really a catch all termination case
 		// set the normal and depth equal to the last edge we created
-		penetration.normal = edge.normal;
-		penetration.depth = point.dot(edge.normal);
+		penetration.normal = normal;
+		penetration.depth = point.dot(normal);
 	}
 	
 	/**
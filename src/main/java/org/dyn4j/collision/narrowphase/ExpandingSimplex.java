@@ -24,9 +24,10 @@
  */
 package org.dyn4j.collision.narrowphase;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.PriorityQueue;
 
+import org.dyn4j.Epsilon;
 import org.dyn4j.geometry.Vector2;
 
 /**
@@ -38,35 +39,105 @@ import org.dyn4j.geometry.Vector2;
  * <p>
  * Given the way the simplex is expanded, the winding can be computed initially
  * and will never change.
+ * <p>
+ * The points and edges are stored in primitive arrays and the edges are ordered
+ * using a binary heap of edge indices so that an instance can be reused without
+ * allocating.  The arrays only grow when a run needs more room than any previous one.
+ * The heap orders the edges the same way a {@link java.util.PriorityQueue} would.
+ * <p>
+ * This class is not thread safe.
  * @author William Bittle 
- * @version 3.2.0
+ * @version 3.3.1
  * @since 3.2.0
  */
 final class ExpandingSimplex {
 	/** The winding direction of the simplex */
-	private final int winding;
+	private int winding;
+	
+	/** The x coordinates of the points */
+	private double[] x;
+	
+	/** The y coordinates of the points */
+	private double[] y;
+	
+	/** The number of points */
+	private int pointCount;
+	
+	/** The index of the first point of each edge */
+	private int[] point1;
+	
+	/** The index of the second point of each edge */
+	private int[] point2;
+	
+	/** The x component of the normal of each edge */
+	private double[] normalX;
 	
-	/** The priority queue of simplex edges */
-	private final PriorityQueue<ExpandingSimplexEdge> queue;
+	/** The y component of the normal of each edge */
+	private double[] normalY;
+	
+	/** The perpendicular distance from each edge to the origin */
+	private double[] distance;
+	
+	/** The number of edges */
+	private int edgeCount;
+	
+	/** The heap of edge indices; the closest edge to the origin is first */
+	private int[] heap;
+	
+	/** The number of edges in the heap */
+	private int heapSize;
+	
+	/**
+	 * Full constructor.
+	 * @param capacity the initial number of points and edges
+	 * @since 3.3.1
+	 */
+	public ExpandingSimplex(int capacity) {
+		int n = Math.max(capacity, 4);
+		this.x = new double[n];
+		this.y = new double[n];
+		this.point1 = new int[n];
+		this.point2 = new int[n];
+		this.normalX = new double[n];
+		this.normalY = new double[n];
+		this.distance = new double[n];
+		this.heap = new int[n];
+	}
 	
 	/**
 	 * Minimal constructor.
 	 * @param simplex the starting simplex from GJK
 	 */
 	public ExpandingSimplex(List<Vector2> simplex) {
+		this(simplex.size() * 2);
+		this.initialize(simplex);
+	}
+	
+	/**
+	 * Resets this simplex to the given starting simplex.
+	 * @param simplex the starting simplex from GJK
+	 * @since 3.3.1
+	 */
+	public void initialize(List<Vector2> simplex) {
 		// compute the winding
 		this.winding = this.getWinding(simplex);
-		// build the initial edge queue
-		this.queue = new PriorityQueue<ExpandingSimplexEdge>();
+		this.pointCount = 0;
+		this.edgeCount = 0;
+		this.heapSize = 0;
 		int size = simplex.size();
+		this.ensureCapacity(size);
+		for (int i = 0; i < size; i++) {
+			Vector2 p = simplex.get(i);
+			this.x[i] = p.x;
+			this.y[i] = p.y;
+		}
+		this.pointCount = size;
+		// build the initial edge heap
 		for (int i = 0; i < size; i++) {
 			// compute j
 			int j = i + 1 == size ? 0 : i + 1;
-			// get the points that make up the current edge
-			Vector2 a = simplex.get(i);
-			Vector2 b = simplex.get(j);
 			// create the edge
-			this.queue.add(new ExpandingSimplexEdge(a, b, this.winding));
+			this.offer(this.setEdge(this.edgeCount++, i, j));
 		}
 	}
 	
@@ -101,11 +172,41 @@ final class ExpandingSimplex {
 	}
 	
 	/**
-	 * Returns the edge on the simplex that is closest to the origin.
-	 * @return {@link ExpandingSimplexEdge} the closest edge to the origin
+	 * Returns the index of the edge on the simplex that is closest to the origin.
+	 * @return int the closest edge to the origin
+	 */
+	public final int getClosestEdge() {
+		return this.heap[0]; // O(1)
+	}
+	
+	/**
+	 * Returns the x component of the normal of the given edge.
+	 * @param edge the edge index
+	 * @return double
+	 * @since 3.3.1
 	 */
-	public final ExpandingSimplexEdge getClosestEdge() {
-		return this.queue.peek(); // O(1)
+	public final double getNormalX(int edge) {
+		return this.normalX[edge];
+	}
+	
+	/**
+	 * Returns the y component of the normal of the given edge.
+	 * @param edge the edge index
+	 * @return double
+	 * @since 3.3.1
+	 */
+	public final double getNormalY(int edge) {
+		return this.normalY[edge];
+	}
+	
+	/**
+	 * Returns the perpendicular distance from the given edge to the origin.
+	 * @param edge the edge index
+	 * @return double
+	 * @since 3.3.1
+	 */
+	public final double getDistance(int edge) {
+		return this.distance[edge];
 	}
 	
 	/**
@@ -114,15 +215,129 @@ final class ExpandingSimplex {
 	 * Removes the closest edge to the origin and adds
 	 * two new edges using the given point and the removed
 	 * edge's vertices.
-	 * @param point the new point
+	 * @param px the x coordinate of the new point
+	 * @param py the y coordinate of the new point
 	 */
-	public final void expand(Vector2 point) {
+	public final void expand(double px, double py) {
+		this.ensureCapacity(this.edgeCount + 1);
+		// add the point
+		int p = this.pointCount++;
+		this.x[p] = px;
+		this.y[p] = py;
 		// remove the edge we are splitting
-		ExpandingSimplexEdge edge = this.queue.poll(); // O(log n)
-		// create two new edges
-		ExpandingSimplexEdge edge1 = new ExpandingSimplexEdge(edge.point1, point, this.winding);
-		ExpandingSimplexEdge edge2 = new ExpandingSimplexEdge(point, edge.point2, this.winding);
-		this.queue.add(edge1); // O(log n)
-		this.queue.add(edge2); // O(log n)
+		int edge = this.poll(); // O(log n)
+		int a = this.point1[edge];
+		int b = this.point2[edge];
+		// create two new edges; the removed edge's slot is reused
+		this.offer(this.setEdge(edge, a, p)); // O(log n)
+		this.offer(this.setEdge(this.edgeCount++, p, b)); // O(log n)
+	}
+	
+	/**
+	 * Sets the given edge to the edge between the given points and
+	 * computes its normal and distance to the origin.
+	 * @param edge the edge index
+	 * @param a the index of the first point
+	 * @param b the index of the second point
+	 * @return int the edge index
+	 */
+	private int setEdge(int edge, int a, int b) {
+		double ax = this.x[a];
+		double ay = this.y[a];
+		// inline b - a
+		double nx = this.x[b] - ax;
+		double ny = this.y[b] - ay;
+		// depending on the winding get the edge normal
+		// it would be better to use Vector.tripleProduct(ab, ao, ab);
+		// where ab is the edge and ao is a.to(ORIGIN) but this will
+		// return an incorrect normal if the origin lies on the ab segment
+		// therefore we use the winding of the simplex to determine the 
+		// normal direction
+		double t = nx;
+		if (this.winding < 0) {
+			// right
+			nx = -ny;
+			ny = t;
+		} else {
+			// left
+			nx = ny;
+			ny = -t;
+		}
+		// normalize the vector
+		double magnitude = Math.sqrt(nx * nx + ny * ny);
+		if (magnitude > Epsilon.E) {
+			double m = 1.0 / magnitude;
+			nx *= m;
+			ny *= m;
+		}
+		this.point1[edge] = a;
+		this.point2[edge] = b;
+		this.normalX[edge] = nx;
+		this.normalY[edge] = ny;
+		// project the first point onto the normal (it doesnt matter which
+		// you project since the normal is perpendicular to the edge)
+		this.distance[edge] = Math.abs(ax * nx + ay * ny);
+		return edge;
+	}
+	
+	/**
+	 * Adds the given edge to the heap.
+	 * @param edge the edge index
+	 */
+	private void offer(int edge) {
+		double d = this.distance[edge];
+		int k = this.heapSize++;
+		while (k > 0) {
+			int parent = (k - 1) >>> 1;
+			int e = this.heap[parent];
+			if (d >= this.distance[e]) break;
+			this.heap[k] = e;
+			k = parent;
+		}
+		this.heap[k] = edge;
+	}
+	
+	/**
+	 * Removes and returns the closest edge to the origin from the heap.
+	 * @return int the edge index
+	 */
+	private int poll() {
+		int result = this.heap[0];
+		int n = --this.heapSize;
+		int edge = this.heap[n];
+		if (n == 0) return result;
+		double d = this.distance[edge];
+		int k = 0;
+		int half = n >>> 1;
+		while (k < half) {
+			int child = (k << 1) + 1;
+			int c = this.heap[child];
+			int right = child + 1;
+			if (right < n && this.distance[c] > this.distance[this.heap[right]]) {
+				c = this.heap[child = right];
+			}
+			if (d <= this.distance[c]) break;
+			this.heap[k] = c;
+			k = child;
+		}
+		this.heap[k] = edge;
+		return result;
+	}
+	
+	/**
+	 * Makes sure there's room for the given number of edges, and points, plus one.
+	 * @param count the number of edges
+	 */
+	private void ensureCapacity(int count) {
+		if (count < this.heap.length) return;
+		int n = Math.max(count + 1, this.heap.length * 2);
+		this.x = Arrays.copyOf(this.x, n);
+		this.y = Arrays.copyOf(this.y, n);
+		this.point1 = Arrays.copyOf(this.point1, n);
+		this.point2 = Arrays.copyOf(this.point2, n);
+		this.normalX = Arrays.copyOf(this.normalX, n);
+		this.normalY = Arrays.copyOf(this.normalY, n);
+		this.distance = Arrays.copyOf(this.distance, n);
+		this.heap = Arrays.copyOf(this.heap, n);
 	}
 }
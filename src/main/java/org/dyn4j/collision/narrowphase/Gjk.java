@@ -114,6 +114,10 @@ import org.dyn4j.resources.Messages;
  * <p>
  * {@link Gjk}'s default {@link MinkowskiPenetrationSolver} is {@link Epa}.
  * <p>
+ * The simplex and {@link MinkowskiSum} used by the detection methods are kept per thread and
+ * reused between calls.  They're only valid during the call to the {@link MinkowskiPenetrationSolver}
+ * and should not be kept by it.
+ * <p>
  * The {@link Gjk} algorithm's original intent was to find the minimum distance between two {@link Convex}
  * {@link Shape}s.  Refer to {@link Gjk#distance(Convex, Transform, Convex, Transform, Separation)}
  * for details on the implementation.
@@ -165,6 +169,36 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 	/** The raycast check epsilon in meters */
 	protected double raycastEpsilon = Gjk.DEFAULT_DISTANCE_EPSILON;
 	
+	/** The reusable simplex and Minkowski sum of each thread */
+	private final ThreadLocal<Workspace> workspaces = new ThreadLocal<Workspace>() {
+		@Override
+		protected Workspace initialValue() {
+			return new Workspace();
+		}
+	};
+	
+	/**
+	 * Holds the objects of a thread that are reused between detections.
+	 * @author William Bittle
+	 * @version 3.3.1
+	 * @since 3.3.1
+	 */
+	private static final class Workspace {
+		/** The simplex */
+		final List<Vector2> simplex = new ArrayList<Vector2>(3);
+		
+		/** The Minkowski sum */
+		final MinkowskiSum minkowskiSum = new MinkowskiSum(null, null, null, null);
+		
+		/**
+		 * Releases the references to the shapes and points of the last detection.
+		 */
+		void clear() {
+			this.simplex.clear();
+			this.minkowskiSum.set(null, null, null, null);
+		}
+	}
+	
 	/**
 	 * Default constructor.
 	 */
@@ -185,28 +219,53 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 	 */
 	@Override
 	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration) {
+		return this.detect(convex1, transform1, convex2, transform2, penetration, null);
+	}
+	
+	/**
+	 * Returns true if the two {@link Convex} {@link Shape}s intersect and fills the {@link Penetration}
+	 * object with the penetration vector and depth.
+	 * <p>
+	 * The search starts from the direction stored in the given {@link SimplexCache}, if any, instead of
+	 * the direction returned by {@link #getInitialDirection(Convex, Transform, Convex, Transform)}.  On
+	 * return, the final search direction is stored in the given {@link SimplexCache} for the next call
+	 * with the same pair.
+	 * @param convex1 the first {@link Convex} {@link Shape}
+	 * @param transform1 the first {@link Shape}'s {@link Transform}
+	 * @param convex2 the second {@link Convex} {@link Shape}
+	 * @param transform2 the second {@link Shape}'s {@link Transform}
+	 * @param penetration the {@link Penetration} object to fill
+	 * @param cache the {@link SimplexCache} of the pair; can be null
+	 * @return boolean true if the two {@link Convex} {@link Shape}s intersect
+	 * @since 3.3.1
+	 */
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration, SimplexCache cache) {
 		// check for circles
 		if (convex1 instanceof Circle && convex2 instanceof Circle) {
 			// if its a circle - circle collision use the faster method
 			return CircleDetector.detect((Circle) convex1, transform1, (Circle) convex2, transform2, penetration);
 		}
 		
-		// define the simplex
-		List<Vector2> simplex = new ArrayList<Vector2>(3);
-		
-		// create a Minkowski sum
-		MinkowskiSum ms = new MinkowskiSum(convex1, transform1, convex2, transform2);
+		// reuse this thread's simplex and Minkowski sum
+		Workspace workspace = this.workspaces.get();
+		List<Vector2> simplex = workspace.simplex;
+		MinkowskiSum ms = workspace.minkowskiSum;
+		ms.set(convex1, transform1, convex2, transform2);
 		
 		// choose some search direction
-		Vector2 d = this.getInitialDirection(convex1, transform1, convex2, transform2);
+		Vector2 d = this.getInitialDirection(convex1, transform1, convex2, transform2, cache);
 		
 		// perform the detection
-		if (this.detect(ms, simplex, d)) {
+		boolean collision = this.detect(ms, simplex, d);
+		if (cache != null) {
+			cache.setDirection(d, transform1);
+		}
+		if (collision) {
 			this.minkowskiPenetrationSolver.getPenetration(simplex, ms, penetration);
-			return true;
 		}
 		
-		return false;
+		workspace.clear();
+		return collision;
 	}
 	
 	/* (non-Javadoc)
@@ -214,23 +273,65 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 	 */
 	@Override
 	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2) {
+		return this.detect(convex1, transform1, convex2, transform2, (SimplexCache)null);
+	}
+	
+	/**
+	 * Returns true if the two {@link Convex} {@link Shape}s intersect.
+	 * <p>
+	 * The search starts from the direction stored in the given {@link SimplexCache}, if any, and the
+	 * final search direction is stored in it on return.
+	 * @param convex1 the first {@link Convex} {@link Shape}
+	 * @param transform1 the first {@link Shape}'s {@link Transform}
+	 * @param convex2 the second {@link Convex} {@link Shape}
+	 * @param transform2 the second {@link Shape}'s {@link Transform}
+	 * @param cache the {@link SimplexCache} of the pair; can be null
+	 * @return boolean true if the two {@link Convex} {@link Shape}s intersect
+	 * @since 3.3.1
+	 * @see #detect(Convex, Transform, Convex, Transform, Penetration, SimplexCache)
+	 */
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, SimplexCache cache) {
 		// check for circles
 		if (convex1 instanceof Circle && convex2 instanceof Circle) {
 			// if its a circle - circle collision use the faster method
 			return CircleDetector.detect((Circle) convex1, transform1, (Circle) convex2, transform2);
 		}
 		
-		// define the simplex
-		List<Vector2> simplex = new ArrayList<Vector2>(3);
-		
-		// create a Minkowski sum
-		MinkowskiSum ms = new MinkowskiSum(convex1, transform1, convex2, transform2);
+		// reuse this thread's simplex and Minkowski sum
+		Workspace workspace = this.workspaces.get();
+		List<Vector2> simplex = workspace.simplex;
+		MinkowskiSum ms = workspace.minkowskiSum;
+		ms.set(convex1, transform1, convex2, transform2);
 		
 		// choose some search direction
-		Vector2 d = this.getInitialDirection(convex1, transform1, convex2, transform2);
+		Vector2 d = this.getInitialDirection(convex1, transform1, convex2, transform2, cache);
 		
 		// perform the detection
-		return detect(ms, simplex, d);
+		boolean collision = this.detect(ms, simplex, d);
+		if (cache != null) {
+			cache.setDirection(d, transform1);
+		}
+		
+		workspace.clear();
+		return collision;
+	}
+	
+	/**
+	 * Returns the initial search direction using the given {@link SimplexCache} if it's not
+	 * empty or {@link #getInitialDirection(Convex, Transform, Convex, Transform)} otherwise.
+	 * @param convex1 the first convex
+	 * @param transform1 the first convex's transform
+	 * @param convex2 the second convex
+	 * @param transform2 the second convex's transform
+	 * @param cache the simplex cache; can be null
+	 * @return Vector2
+	 * @since 3.3.1
+	 */
+	private Vector2 getInitialDirection(Convex convex1, Transform transform1, Convex convex2, Transform transform2, SimplexCache cache) {
+		if (cache != null && cache.isValid()) {
+			return cache.getDirection(transform1);
+		}
+		return this.getInitialDirection(convex1, transform1, convex2, transform2);
 	}
 	
 	/**
@@ -318,30 +419,34 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 	 */
 	protected boolean checkSimplex(List<Vector2> simplex, Vector2 direction) {
 		// this method should never be supplied anything other than 2 or 3 points for the simplex
+		// the vectors are inlined into primitives to avoid allocating temporaries
 		// get the last point added (a)
-		Vector2 a = simplex.get(simplex.size() - 1);
+		int size = simplex.size();
+		Vector2 a = simplex.get(size - 1);
 		// this is the same as a.to(ORIGIN);
-		Vector2 ao = a.getNegative();
+		double aox = -a.x;
+		double aoy = -a.y;
 		// check to see what type of simplex we have
-		if (simplex.size() == 3) {
+		if (size == 3) {
 			// then we have a triangle
 			Vector2 b = simplex.get(1);
 			Vector2 c = simplex.get(0);
 			// get the edges
-			Vector2 ab = a.to(b);
-			Vector2 ac = a.to(c);
+			double abx = b.x - a.x;
+			double aby = b.y - a.y;
+			double acx = c.x - a.x;
+			double acy = c.y - a.y;
 			// get the edge normal
 			
 			// inline Vector2.tripleProduct(ab, ac, ac) so we can use the
 			// immidiate calculations for Vector2.tripleProduct(ac, ab, ab) too
 			
-			Vector2 acPerp = new Vector2();
-			double dot = ab.x * ac.y - ac.x * ab.y;
-			acPerp.x = -ac.y * dot;
-			acPerp.y = ac.x * dot;
+			double dot = abx * acy - acx * aby;
+			double acPerpx = -acy * dot;
+			double acPerpy = acx * dot;
 			
 			// see where the origin is at
-			double acLocation = acPerp.dot(ao);
+			double acLocation = acPerpx * aox + acPerpy * aoy;
 			if (acLocation >= 0.0) {
 				// the origin lies on the right side of A->C
 				// because of the condition for the gjk loop to continue the origin 
@@ -352,16 +457,15 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 				// but was changed since the origin may lie on the segment created
 				// by a -> c in which case would produce a zero vector normal
 				// calculating ac's normal using b is more robust
-				direction.set(acPerp);
+				direction.set(acPerpx, acPerpy);
 			} else {
 				// inlined Vector2.tripleProduct(ac, ab, ab) because
 				// it can use dot from the tripleProduct(ab, ab, ac) above
 				// see Vector2.tripleProduct implementation
-				Vector2 abPerp = new Vector2();
-				abPerp.x = ab.y * dot;
-				abPerp.y = -ab.x * dot;
+				double abPerpx = aby * dot;
+				double abPerpy = -abx * dot;
 				
-				double abLocation = abPerp.dot(ao);
+				double abLocation = abPerpx * aox + abPerpy * aoy;
 				// the origin lies on the left side of A->C
 				if (abLocation < 0.0) {
 					// the origin lies on the right side of A->B and therefore in the
@@ -375,23 +479,26 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 					// but was changed since the origin may lie on the segment created
 					// by a -> b in which case would produce a zero vector normal
 					// calculating ab's normal using c is more robust
-					direction.set(abPerp);
+					direction.set(abPerpx, abPerpy);
 				}
 			}
 		} else {
 			// get the b point
 			Vector2 b = simplex.get(0);
-			Vector2 ab = a.to(b);
+			double abx = b.x - a.x;
+			double aby = b.y - a.y;
 			// otherwise we have 2 points (line segment)
 			// because of the condition for the gjk loop to continue the origin 
 			// must lie in between A and B, so keep both points in the simplex and
 			// set the direction to the perp of the line segment towards the origin
-			direction.set(Vector2.tripleProduct(ab, ao, ab));
+			// inline Vector2.tripleProduct(ab, ao, ab)
+			double dot = abx * aoy - aox * aby;
+			direction.set(-aby * dot, abx * dot);
 			// check for degenerate cases where the origin lies on the segment
 			// created by a -> b which will yield a zero edge normal
 			if (direction.getMagnitudeSquared() <= Epsilon.E) {
 				// in this case just choose either normal (left or right)
-				direction.set(ab.left());
+				direction.set(aby, -abx);
 			}
 		}
 		return false;
@@ -402,22 +509,72 @@ public class Gjk implements NarrowphaseDetector, DistanceDetector, RaycastDetect
 	 */
 	@Override
 	public boolean distance(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Separation separation) {
+		return this.distance(convex1, transform1, convex2, transform2, separation, null);
+	}
+	
+	/**
+	 * Returns true if the two {@link Convex} {@link Shape}s are separated and fills the given
+	 * {@link Separation} object with the minimum distance vector, distance, and closest points.
+	 * <p>
+	 * The search starts from the direction stored in the given {@link SimplexCache}, if any, instead
+	 * of the direction between the centers of the shapes.  When the shapes are separated, the separation
+	 * normal is stored in the given {@link SimplexCache} for the next call with the same pair.
+	 * @param convex1 the first {@link Convex} {@link Shape}
+	 * @param transform1 the first {@link Shape}'s {@link Transform}
+	 * @param convex2 the second {@link Convex} {@link Shape}
+	 * @param transform2 the second {@link Shape}'s {@link Transform}
+	 * @param separation the {@link Separation} object to fill
+	 * @param cache the {@link SimplexCache} of the pair; can be null
+	 * @return boolean true if the two {@link Convex} {@link Shape}s are separated
+	 * @since 3.3.1
+	 */
+	public boolean distance(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Separation separation, SimplexCache cache) {
 		// check for circles
 		if (convex1 instanceof Circle && convex2 instanceof Circle) {
 			// if its a circle - circle collision use the faster method
 			return CircleDetector.distance((Circle) convex1, transform1, (Circle) convex2, transform2, separation);
 		}
-		// create a Minkowski sum
-		MinkowskiSum ms = new MinkowskiSum(convex1, transform1, convex2, transform2);
+		// reuse this thread's Minkowski sum
+		Workspace workspace = this.workspaces.get();
+		MinkowskiSum ms = workspace.minkowskiSum;
+		ms.set(convex1, transform1, convex2, transform2);
+		// choose some search direction
+		Vector2 d;
+		if (cache != null && cache.isValid()) {
+			d = cache.getDirection(transform1);
+		} else {
+			// transform into world space if transform is not null
+			Vector2 c1 = transform1.getTransformed(convex1.getCenter());
+			Vector2 c2 = transform2.getTransformed(convex2.getCenter());
+			d = c1.to(c2);
+		}
+		boolean separated = this.distance(ms, d, separation);
+		if (cache != null) {
+			if (separated) {
+				cache.setDirection(separation.normal, transform1);
+			} else {
+				cache.clear();
+			}
+		}
+		workspace.clear();
+		return separated;
+	}
+	
+	/**
+	 * The main {@link Gjk} distance algorithm loop.
+	 * <p>
+	 * Returns true if the shapes are separated and fills the given {@link Separation} object.
+	 * @param ms the {@link MinkowskiSum}
+	 * @param d the initial direction; from the first shape to the second
+	 * @param separation the {@link Separation} object to fill
+	 * @return boolean
+	 * @since 3.3.1
+	 */
+	private boolean distance(MinkowskiSum ms, Vector2 d, Separation separation) {
 		// define some Minkowski points
 		MinkowskiSumPoint a = null;
 		MinkowskiSumPoint b = null;
 		MinkowskiSumPoint c = null;
-		// transform into world space if transform is not null
-		Vector2 c1 = transform1.getTransformed(convex1.getCenter());
-		Vector2 c2 = transform2.getTransformed(convex2.getCenter());
-		// choose some search direction
-		Vector2 d = c1.to(c2);
 		// check for a zero direction vector
 		// a zero direction vector indicates that the center's are coincident
 		// which guarantees that the convex shapes are overlapping
@@ -36,21 +36,21 @@ import org.dyn4j.geometry.Vector2;
  * <p>
  * This class doesn't actually compute the Minkowski sum.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.1
  * @since 1.0.0
  */
 public class MinkowskiSum {
 	/** The first {@link Convex} */
-	final Convex convex1;
+	Convex convex1;
 	
 	/** The second {@link Convex} */
-	final Convex convex2;
+	Convex convex2;
 	
 	/** The first {@link Convex}'s {@link Transform} */
-	final Transform transform1;
+	Transform transform1;
 	
 	/** The second {@link Convex}'s {@link Transform} */
-	final Transform transform2;
+	Transform transform2;
 		
 	/**
 	 * Full constructor.
@@ -60,6 +60,18 @@ public class MinkowskiSum {
 	 * @param transform2 the second {@link Convex}'s {@link Transform}
 	 */
 	public MinkowskiSum(Convex convex1, Transform transform1, Convex convex2, Transform transform2) {
+		this.set(convex1, transform1, convex2, transform2);
+	}
+	
+	/**
+	 * Sets the {@link Convex} {@link Shape}s of this sum so that it can be reused.
+	 * @param convex1 the first {@link Convex}
+	 * @param transform1 the first {@link Convex}'s {@link Transform}
+	 * @param convex2 the second {@link Convex}
+	 * @param transform2 the second {@link Convex}'s {@link Transform}
+	 * @since 3.3.1
+	 */
+	void set(Convex convex1, Transform transform1, Convex convex2, Transform transform2) {
 		this.convex1 = convex1;
 		this.convex2 = convex2;
 		this.transform1 = transform1;
@@ -24,11 +24,15 @@
  */
 package org.dyn4j.collision.narrowphase;
 
+import org.dyn4j.Epsilon;
 import org.dyn4j.geometry.Circle;
 import org.dyn4j.geometry.Convex;
 import org.dyn4j.geometry.Interval;
+import org.dyn4j.geometry.Polygon;
+import org.dyn4j.geometry.Rectangle;
 import org.dyn4j.geometry.Shape;
 import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Triangle;
 import org.dyn4j.geometry.Vector2;
 
 /**
@@ -45,17 +49,102 @@ import org.dyn4j.geometry.Vector2;
  * If the {@link Convex} {@link Shape}s are penetrating, a {@link Penetration} object can be built from the {@link Interval}s
  * with the least overlap.  The normal will be the edge normal of the {@link Interval} and the depth will be the {@link Interval}
  * overlap.
+ * <p>
+ * The axes are kept in storage reused by each thread and the {@link Polygon}, {@link Triangle}, {@link Rectangle} 
+ * and {@link Circle} shapes are projected directly, so testing pairs of these shapes doesn't create any objects other 
+ * than the {@link Penetration} normal.  A {@link SeparatingAxisCache} can be given to test the axis that separated a pair,
+ * or had the least penetration, in the last run first.
  * @author William Bittle
- * @version 3.0.2
+ * @version 3.3.1
  * @since 1.0.0
  * @see <a href="http://www.dyn4j.org/2010/01/sat/" target="_blank">SAT (Separating Axis Theorem)</a>
  */
 public class Sat implements NarrowphaseDetector {
+	/** The initial number of axes the storage of each thread can hold */
+	private static final int INITIAL_CAPACITY = 16;
+	
+	/** The reusable axes of each thread */
+	private final ThreadLocal<Workspace> workspaces = new ThreadLocal<Workspace>() {
+		@Override
+		protected Workspace initialValue() {
+			return new Workspace();
+		}
+	};
+	
+	/**
+	 * Holds the axes and projections of a thread that are reused between detections.
+	 * @author William Bittle
+	 * @version 3.3.1
+	 * @since 3.3.1
+	 */
+	private static final class Workspace {
+		/** The x components of the axes of the first shape followed by the second shape */
+		double[] x = new double[INITIAL_CAPACITY];
+		
+		/** The y components of the axes of the first shape followed by the second shape */
+		double[] y = new double[INITIAL_CAPACITY];
+		
+		/** The number of axes */
+		int count;
+		
+		/** The minimum of the last projection */
+		double min;
+		
+		/** The maximum of the last projection */
+		double max;
+		
+		/** The x component of the axis of the last projection */
+		double axisX;
+		
+		/** The y component of the axis of the last projection */
+		double axisY;
+		
+		/**
+		 * Appends the given axis.
+		 * @param x the x component of the axis
+		 * @param y the y component of the axis
+		 */
+		void add(double x, double y) {
+			if (this.count == this.x.length) {
+				int capacity = this.count * 2;
+				double[] nx = new double[capacity];
+				double[] ny = new double[capacity];
+				System.arraycopy(this.x, 0, nx, 0, this.count);
+				System.arraycopy(this.y, 0, ny, 0, this.count);
+				this.x = nx;
+				this.y = ny;
+			}
+			this.x[this.count] = x;
+			this.y[this.count] = y;
+			this.count++;
+		}
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.collision.narrowphase.NarrowphaseDetector#detect(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.collision.narrowphase.Penetration)
 	 */
 	@Override
 	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration) {
+		return this.detect(convex1, transform1, convex2, transform2, penetration, null);
+	}
+	
+	/**
+	 * Returns true if the two {@link Convex} {@link Shape}s intersect and fills the {@link Penetration}
+	 * object with the penetration vector and depth.
+	 * <p>
+	 * The axis stored in the given {@link SeparatingAxisCache}, if any, is tested first.  On return,
+	 * the separating axis or the axis of minimum penetration is stored in the given {@link SeparatingAxisCache}
+	 * for the next call with the same pair.  The result is the same as without a {@link SeparatingAxisCache}.
+	 * @param convex1 the first {@link Convex} {@link Shape}
+	 * @param transform1 the first {@link Shape}'s {@link Transform}
+	 * @param convex2 the second {@link Convex} {@link Shape}
+	 * @param transform2 the second {@link Shape}'s {@link Transform}
+	 * @param penetration the {@link Penetration} object to fill
+	 * @param cache the {@link SeparatingAxisCache} of the pair; can be null
+	 * @return boolean true if the two {@link Convex} {@link Shape}s intersect
+	 * @since 3.3.1
+	 */
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration, SeparatingAxisCache cache) {
 		// check for circles
 		if (convex1 instanceof Circle && convex2 instanceof Circle) {
 			// if its a circle - circle collision use the faster method
@@ -63,184 +152,303 @@ public class Sat implements NarrowphaseDetector {
 		}
 		
 		penetration.clear();
-		Vector2 n = null;
-		double overlap = Double.MAX_VALUE;
+		return this.test(convex1, transform1, convex2, transform2, penetration, cache);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.narrowphase.NarrowphaseDetector#test(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform)
+	 */
+	@Override
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2) {
+		return this.detect(convex1, transform1, convex2, transform2, (SeparatingAxisCache)null);
+	}
+	
+	/**
+	 * Returns true if the two {@link Convex} {@link Shape}s intersect.
+	 * <p>
+	 * The axis stored in the given {@link SeparatingAxisCache}, if any, is tested first.  On return,
+	 * the separating axis, if any, is stored in the given {@link SeparatingAxisCache} for the next call
+	 * with the same pair.
+	 * @param convex1 the first {@link Convex} {@link Shape}
+	 * @param transform1 the first {@link Shape}'s {@link Transform}
+	 * @param convex2 the second {@link Convex} {@link Shape}
+	 * @param transform2 the second {@link Shape}'s {@link Transform}
+	 * @param cache the {@link SeparatingAxisCache} of the pair; can be null
+	 * @return boolean true if the two {@link Convex} {@link Shape}s intersect
+	 * @since 3.3.1
+	 */
+	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, SeparatingAxisCache cache) {
+		// check for circles
+		if (convex1 instanceof Circle && convex2 instanceof Circle) {
+			// if its a circle - circle collision use the faster method
+			return CircleDetector.detect((Circle) convex1, transform1, (Circle) convex2, transform2);
+		}
+		
+		return this.test(convex1, transform1, convex2, transform2, null, cache);
+	}
+	
+	/**
+	 * Tests the axes of the two {@link Convex} {@link Shape}s and returns true if none of them
+	 * separates the shapes.
+	 * <p>
+	 * The {@link Penetration} is only filled if given.
+	 * @param convex1 the first {@link Convex} {@link Shape}
+	 * @param transform1 the first {@link Shape}'s {@link Transform}
+	 * @param convex2 the second {@link Convex} {@link Shape}
+	 * @param transform2 the second {@link Shape}'s {@link Transform}
+	 * @param penetration the {@link Penetration} object to fill; null if not needed
+	 * @param cache the {@link SeparatingAxisCache} of the pair; can be null
+	 * @return boolean true if the two {@link Convex} {@link Shape}s intersect
+	 */
+	private boolean test(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration, SeparatingAxisCache cache) {
+		Workspace workspace = this.workspaces.get();
 		
 		// get the foci from both shapes, the foci are used to test any
 		// voronoi regions of the other shape
 		Vector2[] foci1 = convex1.getFoci(transform1);
 		Vector2[] foci2 = convex2.getFoci(transform2);
 		
-		// get the vector arrays for the separating axes tests
-		Vector2[] axes1 = convex1.getAxes(foci2, transform1);
-		Vector2[] axes2 = convex2.getAxes(foci1, transform2);
+		// get the separating axes of both shapes
+		workspace.count = 0;
+		Sat.addAxes(convex1, foci2, transform1, workspace);
+		Sat.addAxes(convex2, foci1, transform2, workspace);
 		
-		// loop through shape1 axes
-		if (axes1 != null) {
-			int size = axes1.length;
-			for (int i = 0; i < size; i++) {
-				Vector2 axis = axes1[i];
-				// check for the zero vector
-				if (!axis.isZero()) {
-					// project both shapes onto the axis
-	        		Interval intervalA = convex1.project(axis, transform1);
-		            Interval intervalB = convex2.project(axis, transform2);
-		            // if the intervals do not overlap then the two shapes
-		            // cannot be intersecting
-		            if (!intervalA.overlaps(intervalB)) {
-		            	// the shapes cannot be intersecting so immediately return null
-		            	return false;
-		            } else {
-		            	// get the overlap
-		            	double o = intervalA.getOverlap(intervalB);
-		            	// check for containment
-		            	if (intervalA.contains(intervalB) || intervalB.contains(intervalA)) {
-		            		// if containment exists then get the overlap plus the distance
-		            		// to between the two end points that are the closest
-		            		double max = Math.abs(intervalA.getMax() - intervalB.getMax());
-		            		double min = Math.abs(intervalA.getMin() - intervalB.getMin());
-		            		if (max > min) {
-		            			// if the min differences is less than the max then we need
-		            			// to flip the penetration axis
-		            			axis.negate();
-		            			o += min;
-		            		} else {
-		            			o += max;
-		            		}
-		            	}
-		            	// if the intervals do overlap then get save the depth and axis
-		            	// get the magnitude of the overlap
-		            	// get the minimum penetration depth and axis
-		            	if (o < overlap) {
-		            		overlap = o;
-		            		n = axis;
-		            	}
-		            }
+		int size = workspace.count;
+		double[] xs = workspace.x;
+		double[] ys = workspace.y;
+		
+		// test the axis that separated the shapes (or was the axis
+		// of minimum penetration) last time first
+		if (cache != null && cache.index < size) {
+			int i = cache.index;
+			if (i >= 0 && !Sat.isZero(xs[i], ys[i])) {
+				Sat.project(convex1, transform1, xs[i], ys[i], workspace);
+				double min1 = workspace.min;
+				double max1 = workspace.max;
+				Sat.project(convex2, transform2, workspace.axisX, workspace.axisY, workspace);
+				if (min1 > workspace.max || workspace.min > max1) {
+					// still separated
+					return false;
 				}
 			}
 		}
 		
-		// loop through shape2 axes
-		if (axes2 != null) {
-			int size = axes2.length;
-			for (int i = 0; i < size; i++) {
-				Vector2 axis = axes2[i];
-				// check for the zero vector
-				if (!axis.isZero()) {
-					// project both shapes onto the axis
-	        		Interval intervalA = convex1.project(axis, transform1);
-		            Interval intervalB = convex2.project(axis, transform2);
-		            // if the intervals do not overlap then the two shapes
-		            // cannot be intersecting
-		            if (!intervalA.overlaps(intervalB)) {
-		            	// the shapes cannot be intersecting so immediately return null
-		            	return false;
-		            } else {
-		            	// if the intervals do overlap then get save the depth and axis
-		            	// get the magnitude of the overlap
-		            	double o = intervalA.getOverlap(intervalB);
-		            	// check for containment
-		            	if (intervalA.contains(intervalB) || intervalB.contains(intervalA)) {
-		            		// if containment exists then get the overlap plus the distance
-		            		// to between the two end points that are the closest
-		            		double max = Math.abs(intervalA.getMax() - intervalB.getMax());
-		            		double min = Math.abs(intervalA.getMin() - intervalB.getMin());
-		            		if (max > min) {
-		            			// if the min differences is less than the max then we need
-		            			// to flip the penetration axis
-		            			axis.negate();
-		            			o += min;
-		            		} else {
-		            			o += max;
-		            		}
-		            	}
-		            	// get the minimum penetration depth and axis
-		            	if (o < overlap) {
-		            		overlap = o;
-		            		n = axis;
-		            	}
-		            }
+		int n = -1;
+		double sign = 1.0;
+		double overlap = Double.MAX_VALUE;
+		
+		for (int i = 0; i < size; i++) {
+			double x = xs[i];
+			double y = ys[i];
+			// check for the zero vector
+			if (Sat.isZero(x, y)) {
+				continue;
+			}
+			// project both shapes onto the axis
+			Sat.project(convex1, transform1, x, y, workspace);
+			double min1 = workspace.min;
+			double max1 = workspace.max;
+			Sat.project(convex2, transform2, workspace.axisX, workspace.axisY, workspace);
+			double min2 = workspace.min;
+			double max2 = workspace.max;
+			// keep the axis as the projections left it
+			xs[i] = workspace.axisX;
+			ys[i] = workspace.axisY;
+			// if the intervals do not overlap then the two shapes
+			// cannot be intersecting
+			if (min1 > max2 || min2 > max1) {
+				if (cache != null) {
+					cache.setIndex(i);
+				}
+				// the shapes cannot be intersecting so immediately return
+				return false;
+			}
+			if (penetration == null) {
+				continue;
+			}
+			// if the intervals do overlap then get the overlap
+			double o = Math.min(max1, max2) - Math.max(min1, min2);
+			double s = 1.0;
+			// check for containment
+			if ((min2 > min1 && max2 < max1) || (min1 > min2 && max1 < max2)) {
+				// if containment exists then get the overlap plus the distance
+				// to between the two end points that are the closest
+				double max = Math.abs(max1 - max2);
+				double min = Math.abs(min1 - min2);
+				if (max > min) {
+					// if the min differences is less than the max then we need
+					// to flip the penetration axis
+					s = -1.0;
+					o += min;
+				} else {
+					o += max;
 				}
 			}
+			// get the minimum penetration depth and axis
+			if (o < overlap) {
+				overlap = o;
+				n = i;
+				sign = s;
+			}
 		}
 		
+		// if we get here, then we have intersection
+		if (penetration == null) {
+			return true;
+		}
+		
+		if (cache != null) {
+			cache.setIndex(n);
+		}
+		
+		Vector2 normal = new Vector2(sign * xs[n], sign * ys[n]);
+		
 		// make sure the vector is pointing from shape1 to shape2
 		Vector2 c1 = transform1.getTransformed(convex1.getCenter());
 		Vector2 c2 = transform2.getTransformed(convex2.getCenter());
 		Vector2 cToc = c1.to(c2);
-		if (cToc.dot(n) < 0) {
+		if (cToc.dot(normal) < 0) {
 			// negate the normal if its not
-			n.negate();
+			normal.negate();
 		}
 		
 		// fill the penetration object
-		penetration.normal = n;
+		penetration.normal = normal;
 		penetration.depth = overlap;
 		// return true
-        return true;
+		return true;
 	}
 	
-	/* (non-Javadoc)
-	 * @see org.dyn4j.collision.narrowphase.NarrowphaseDetector#test(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform)
+	/**
+	 * Appends the separating axes of the given {@link Convex} {@link Shape} to the given {@link Workspace}.
+	 * <p>
+	 * The edge normals of the {@link Polygon}, {@link Triangle} and {@link Rectangle} classes are
+	 * rotated directly when there are no foci; the axes of all other shapes are obtained from
+	 * {@link Convex#getAxes(Vector2[], Transform)}.  In both cases the order is the same.
+	 * @param convex the {@link Convex} {@link Shape}
+	 * @param foci the foci of the other {@link Shape}; can be null
+	 * @param transform the {@link Shape}'s {@link Transform}
+	 * @param workspace the {@link Workspace} to append to
 	 */
-	@Override
-	public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2) {
-		// check for circles
-		if (convex1 instanceof Circle && convex2 instanceof Circle) {
-			// if its a circle - circle collision use the faster method
-			return CircleDetector.detect((Circle) convex1, transform1, (Circle) convex2, transform2);
-		}
-
-		// get the foci from both shapes, the foci are used to test any
-		// voronoi regions of the other shape
-		Vector2[] foci1 = convex1.getFoci(transform1);
-		Vector2[] foci2 = convex2.getFoci(transform2);
-		
-		// get the vector arrays for the separating axes tests
-		Vector2[] axes1 = convex1.getAxes(foci2, transform1);
-		Vector2[] axes2 = convex2.getAxes(foci1, transform2);
-
-		// loop through shape1 axes
-		if (axes1 != null) {
-			int size = axes1.length;
-			for (int i = 0; i < size; i++) {
-				Vector2 axis = axes1[i];
-				// check for the zero vector
-				if (!axis.isZero()) {
-					// project both shapes onto the axis
-	        		Interval intervalA = convex1.project(axis, transform1);
-		            Interval intervalB = convex2.project(axis, transform2);
-		            // if the intervals do not overlap then the two shapes
-		            // cannot be intersecting
-		            if (!intervalA.overlaps(intervalB)) {
-		            	// the shapes cannot be intersecting so immediately return
-		            	return false;
-		            }
+	private static void addAxes(Convex convex, Vector2[] foci, Transform transform, Workspace workspace) {
+		if (foci == null) {
+			Class<?> type = convex.getClass();
+			if (type == Polygon.class || type == Triangle.class) {
+				Vector2[] normals = ((Polygon)convex).getNormals();
+				int size = normals.length;
+				for (int i = 0; i < size; i++) {
+					Sat.addRotated(normals[i], transform, workspace);
 				}
+				return;
+			} else if (type == Rectangle.class) {
+				// a rectangle only has two unique axes
+				Vector2[] normals = ((Rectangle)convex).getNormals();
+				Sat.addRotated(normals[1], transform, workspace);
+				Sat.addRotated(normals[2], transform, workspace);
+				return;
 			}
 		}
 		
-		// loop through shape2 axes
-		if (axes2 != null) {
-			int size = axes2.length;
+		Vector2[] axes = convex.getAxes(foci, transform);
+		if (axes != null) {
+			int size = axes.length;
 			for (int i = 0; i < size; i++) {
-				Vector2 axis = axes2[i];
-				// check for the zero vector
-				if (!axis.isZero()) {
-					// project both shapes onto the axis
-	        		Interval intervalA = convex1.project(axis, transform1);
-		            Interval intervalB = convex2.project(axis, transform2);
-		            // if the intervals do not overlap then the two shapes
-		            // cannot be intersecting
-		            if (!intervalA.overlaps(intervalB)) {
-		            	// the shapes cannot be intersecting so immediately return
-		            	return false;
-		            }
+				Vector2 axis = axes[i];
+				workspace.add(axis.x, axis.y);
+			}
+		}
+	}
+	
+	/**
+	 * Appends the given vector, rotated by the given {@link Transform}, to the given {@link Workspace}.
+	 * @param vector the vector
+	 * @param transform the {@link Transform}
+	 * @param workspace the {@link Workspace} to append to
+	 */
+	private static void addRotated(Vector2 vector, Transform transform, Workspace workspace) {
+		double cos = transform.getCost();
+		double sin = transform.getSint();
+		workspace.add(cos * vector.x - sin * vector.y, sin * vector.x + cos * vector.y);
+	}
+	
+	/**
+	 * Projects the given {@link Convex} {@link Shape} onto the given axis and stores the
+	 * result in the min and max of the given {@link Workspace}.
+	 * <p>
+	 * The {@link Polygon}, {@link Triangle}, {@link Rectangle} and {@link Circle} classes are
+	 * projected directly, using the same arithmetic as their project methods; all other shapes
+	 * use {@link Convex#project(Vector2, Transform)}.  Since some shapes normalize the given
+	 * axis, like the {@link org.dyn4j.geometry.Capsule}, the axis is stored in the axis of 
+	 * the given {@link Workspace} afterwards.
+	 * @param convex the {@link Convex} {@link Shape}
+	 * @param transform the {@link Shape}'s {@link Transform}
+	 * @param x the x component of the axis
+	 * @param y the y component of the axis
+	 * @param workspace the {@link Workspace} to store the projection in
+	 */
+	private static void project(Convex convex, Transform transform, double x, double y, Workspace workspace) {
+		Class<?> type = convex.getClass();
+		double cos = transform.getCost();
+		double sin = transform.getSint();
+		double tx = transform.getTranslationX();
+		double ty = transform.getTranslationY();
+		if (type == Polygon.class || type == Triangle.class) {
+			Vector2[] vertices = ((Polygon)convex).getVertices();
+			Vector2 p = vertices[0];
+			double min = x * (cos * p.x - sin * p.y + tx) + y * (sin * p.x + cos * p.y + ty);
+			double max = min;
+			int size = vertices.length;
+			for (int i = 1; i < size; i++) {
+				p = vertices[i];
+				double v = x * (cos * p.x - sin * p.y + tx) + y * (sin * p.x + cos * p.y + ty);
+				if (v < min) {
+					min = v;
+				} else if (v > max) {
+					max = v;
 				}
 			}
+			workspace.min = min;
+			workspace.max = max;
+		} else if (type == Rectangle.class) {
+			Rectangle rectangle = (Rectangle)convex;
+			Vector2 center = rectangle.getCenter();
+			Vector2[] normals = rectangle.getNormals();
+			Vector2 n0 = normals[1];
+			Vector2 n1 = normals[2];
+			double c = (cos * center.x - sin * center.y + tx) * x + (sin * center.x + cos * center.y + ty) * y;
+			double d0 = (cos * n0.x - sin * n0.y) * x + (sin * n0.x + cos * n0.y) * y;
+			double d1 = (cos * n1.x - sin * n1.y) * x + (sin * n1.x + cos * n1.y) * y;
+			double e = (rectangle.getWidth() * 0.5) * Math.abs(d0) + (rectangle.getHeight() * 0.5) * Math.abs(d1);
+			workspace.min = c - e;
+			workspace.max = c + e;
+		} else if (type == Circle.class) {
+			Circle circle = (Circle)convex;
+			Vector2 center = circle.getCenter();
+			double r = circle.getRadius();
+			double c = (cos * center.x - sin * center.y + tx) * x + (sin * center.x + cos * center.y + ty) * y;
+			workspace.min = c - r;
+			workspace.max = c + r;
+		} else {
+			Vector2 axis = new Vector2(x, y);
+			Interval interval = convex.project(axis, transform);
+			workspace.min = interval.getMin();
+			workspace.max = interval.getMax();
+			workspace.axisX = axis.x;
+			workspace.axisY = axis.y;
+			return;
 		}
-		
-		// if we get here, then we have intersection
-		return true;
+		workspace.axisX = x;
+		workspace.axisY = y;
+	}
+	
+	/**
+	 * Returns true if the given axis is the zero vector.
+	 * @param x the x component of the axis
+	 * @param y the y component of the axis
+	 * @return boolean
+	 * @see Vector2#isZero()
+	 */
+	private static boolean isZero(double x, double y) {
+		return Math.abs(x) <= Epsilon.E && Math.abs(y) <= Epsilon.E;
 	}
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.narrowphase;
+
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Transform;
+
+/**
+ * Represents the result of a previous {@link Sat} run for a pair of {@link Convex} shapes
+ * used to test the most likely separating axis first in the next run for the same pair.
+ * <p>
+ * When the shapes of a pair were separated, the axis that separated them usually still does
+ * in the next run, allowing {@link Sat} to stop after a single projection.  When they were
+ * penetrating, the axis of minimum penetration is stored instead since it's the first to
+ * become a separating axis as the shapes move apart.
+ * <p>
+ * The axis is stored as its index into the axes of the two shapes, the axes of the first shape
+ * followed by the axes of the second, so that it follows the shapes when they move or rotate.
+ * <p>
+ * A {@link SeparatingAxisCache} should only be used for one pair of shapes in the same order.  Using 
+ * it for other shapes doesn't produce wrong results, only one more projection.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ * @see Sat#detect(Convex, Transform, Convex, Transform, Penetration, SeparatingAxisCache)
+ * @see Sat#detect(Convex, Transform, Convex, Transform, SeparatingAxisCache)
+ */
+public class SeparatingAxisCache {
+	/** The index of the last separating or minimum penetration axis; -1 if not set */
+	protected int index;
+	
+	/**
+	 * Default constructor.
+	 * <p>
+	 * The cache is empty.
+	 */
+	public SeparatingAxisCache() {
+		this.index = -1;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("SeparatingAxisCache[Index=").append(this.index)
+		.append("]");
+		return sb.toString();
+	}
+	
+	/**
+	 * Empties this cache.
+	 */
+	public void clear() {
+		this.index = -1;
+	}
+	
+	/**
+	 * Returns true if this cache holds an axis.
+	 * @return boolean
+	 */
+	public boolean isValid() {
+		return this.index >= 0;
+	}
+	
+	/**
+	 * Returns the index of the stored axis.
+	 * <p>
+	 * Returns -1 if this cache is empty.
+	 * @return int
+	 */
+	public int getIndex() {
+		return this.index;
+	}
+	
+	/**
+	 * Stores the given axis index.
+	 * <p>
+	 * A negative index empties the cache.
+	 * @param index the index of the axis into the axes of the first shape followed by the axes of the second shape
+	 */
+	public void setIndex(int index) {
+		this.index = index < 0 ? -1 : index;
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision.narrowphase;
+
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Represents the result of a previous {@link Gjk} run for a pair of {@link Convex} shapes
+ * used to warm start the next run for the same pair.
+ * <p>
+ * The initial search direction determines the number of iterations {@link Gjk} needs.  For
+ * a pair that is tested repeatedly, like a pair of resting or slowly moving bodies, the last
+ * search direction of the previous run is usually close to the final one.  In particular, if
+ * the shapes were separated, it's a separating axis and the next run can stop after a single
+ * support point if the shapes are still separated.
+ * <p>
+ * The search direction is stored relative to the rotation of the first shape's {@link Transform}
+ * so that it follows the pair when it rotates.  The support points themselves aren't stored 
+ * since {@link Convex} shapes report the farthest points rather than their indices.
+ * <p>
+ * A {@link SimplexCache} should only be used for one pair of shapes in the same order.  Using 
+ * it for other shapes, or after the shapes have moved significantly, doesn't produce wrong
+ * results, only more iterations.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ * @see Gjk#detect(Convex, Transform, Convex, Transform, Penetration, SimplexCache)
+ * @see Gjk#distance(Convex, Transform, Convex, Transform, Separation, SimplexCache)
+ */
+public class SimplexCache {
+	/** The last search direction in the local coordinates of the first shape */
+	protected final Vector2 direction;
+	
+	/** True if the direction has been set */
+	protected boolean valid;
+	
+	/**
+	 * Default constructor.
+	 * <p>
+	 * The cache is empty.
+	 */
+	public SimplexCache() {
+		this.direction = new Vector2();
+		this.valid = false;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("SimplexCache[Direction=").append(this.direction)
+		.append("|Valid=").append(this.valid)
+		.append("]");
+		return sb.toString();
+	}
+	
+	/**
+	 * Empties this cache.
+	 */
+	public void clear() {
+		this.direction.zero();
+		this.valid = false;
+	}
+	
+	/**
+	 * Returns true if this cache holds a search direction.
+	 * @return boolean
+	 */
+	public boolean isValid() {
+		return this.valid;
+	}
+	
+	/**
+	 * Returns the stored search direction in world coordinates.
+	 * <p>
+	 * Returns null if this cache is empty.
+	 * @param transform1 the first shape's transform
+	 * @return {@link Vector2}
+	 */
+	public Vector2 getDirection(Transform transform1) {
+		if (!this.valid) return null;
+		return transform1.getTransformedR(this.direction);
+	}
+	
+	/**
+	 * Stores the given search direction.
+	 * <p>
+	 * The direction should point from the first shape towards the second; a zero
+	 * direction empties the cache.
+	 * @param direction the search direction in world coordinates
+	 * @param transform1 the first shape's transform
+	 */
+	public void setDirection(Vector2 direction, Transform transform1) {
+		if (direction.isZero()) {
+			this.clear();
+			return;
+		}
+		this.direction.set(direction);
+		transform1.inverseTransformR(this.direction);
+		this.valid = true;
+	}
+}
@@ -79,7 +79,7 @@ import org.dyn4j.resources.Messages;
  * setting in the world's {@link Settings}.  Use this if the body is a fast moving
  * body, but be careful as this will incur a performance hit.
  * @author William Bittle
- * @version 3.3.0
+ * @version 3.3.1
  * @since 1.0.0
  */
 public class Body extends AbstractCollidable<BodyFixture> implements Collidable<BodyFixture>, Transformable, DataContainer {
@@ -104,6 +104,15 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 	/** The state flag indicating the {@link Body} is a really fast object and requires CCD */
 	private static final int BULLET = 16;
 	
+	/** The state flag indicating the {@link Body}'s contacts are kept from the last detection */
+	private static final int FROZEN = 32;
+	
+	/** The state flag indicating the {@link Body} has been baked into the {@link World}'s static layer */
+	private static final int BAKED = 64;
+	
+	/** The state flag indicating the {@link Body}'s transform at the last detection has been saved */
+	private static final int DETECTED = 128;
+	
 	/** The {@link Mass} information */
 	protected Mass mass;
 	
@@ -127,6 +136,9 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 	/** The beginning transform for CCD */
 	Transform transform0;
 	
+	/** The transform at the last detection; used to tell if a sleeping or static {@link Body} was moved */
+	final Transform transformD;
+	
 	/** The {@link Body}'s state */
 	private int state;
 	
@@ -135,6 +147,12 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 	
 	/** The time that the {@link Body} has been waiting to be put sleep */
 	double sleepTime;
+	
+	/** The index of this {@link Body} in the {@link BodyStateStore} of its island */
+	int stateIndex;
+	
+	/** The index of this {@link Body} on its island; used when building the island and coloring its constraints */
+	int islandIndex;
 
 	// last iteration accumulated force/torque
 
@@ -184,6 +202,7 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 		this.radius = 0.0;
 		this.mass = new Mass();
 		this.transform0 = new Transform();
+		this.transformD = new Transform();
 		this.velocity = new Vector2();
 		this.angularVelocity = 0.0;
 		this.force = new Vector2();
@@ -1055,6 +1074,86 @@ public class Body extends AbstractCollidable<BodyFixture> implements Collidable<
 		}
 	}
 	
+	/**
+	 * Returns true if this {@link Body}'s contacts are kept from the last detection.
+	 * @return boolean
+	 * @since 3.3.1
+	 */
+	boolean isFrozen() {
+		return (this.state & Body.FROZEN) == Body.FROZEN;
+	}
+	
+	/**
+	 * Sets the flag indicating that this {@link Body}'s contacts are kept from the last detection.
+	 * @param flag true if this {@link Body}'s contacts are kept
+	 * @since 3.3.1
+	 */
+	void setFrozen(boolean flag) {
+		if (flag) {
+			this.state |= Body.FROZEN;
+		} else {
+			this.state &= ~Body.FROZEN;
+		}
+	}
+	
+	/**
+	 * Returns true if this {@link Body} has been moved since its transform was saved at the
+	 * last detection or if it wasn't saved.
+	 * @return boolean
+	 * @see #setDetected(boolean)
+	 * @since 3.3.1
+	 */
+	boolean isMovedSinceDetection() {
+		if ((this.state & Body.DETECTED) != Body.DETECTED) return true;
+		Transform t0 = this.transformD;
+		Transform t = this.transform;
+		return t0.getTranslationX() != t.getTranslationX() ||
+			   t0.getTranslationY() != t.getTranslationY() ||
+			   t0.getCost() != t.getCost() ||
+			   t0.getSint() != t.getSint();
+	}
+	
+	/**
+	 * Saves the current transform of this {@link Body} as the transform at the last
+	 * detection or, if false, forgets it.
+	 * @param flag true to save the current transform
+	 * @since 3.3.1
+	 */
+	void setDetected(boolean flag) {
+		if (flag) {
+			this.transformD.set(this.transform);
+			this.state |= Body.DETECTED;
+		} else {
+			this.state &= ~Body.DETECTED;
+		}
+	}
+	
+	/**
+	 * Returns true if this {@link Body} has been baked into its {@link World}'s static layer.
+	 * <p>
+	 * A baked {@link Body} must not be moved and its {@link BodyFixture}s must not be changed until
+	 * the static bodies are baked again or unbaked.
+	 * @return boolean
+	 * @see World#bakeStaticBodies()
+	 * @since 3.3.1
+	 */
+	public boolean isBaked() {
+		return (this.state & Body.BAKED) == Body.BAKED;
+	}
+	
+	/**
+	 * Sets the flag indicating that this {@link Body} has been baked into its {@link World}'s static layer.
+	 * @param flag true if this {@link Body} has been baked
+	 * @since 3.3.1
+	 */
+	void setBaked(boolean flag) {
+		if (flag) {
+			this.state |= Body.BAKED;
+		} else {
+			this.state &= ~Body.BAKED;
+		}
+	}
+	
 	/**
 	 * Returns true if this {@link Body} is a bullet.
 	 * @see #setBullet(boolean)
@@ -0,0 +1,599 @@
+/*
+ * Copyright (c) 2010-2016 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.dyn4j.dynamics.contact.ContactConstraint;
+import org.dyn4j.geometry.Mass;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Represents a packed, struct-of-arrays copy of the state of the {@link Body}s on an island.
+ * <p>
+ * Each {@link Body} is assigned a slot and its position, rotation, velocity and mass properties
+ * are copied into primitive arrays indexed by that slot.  The integrator and contact solvers
+ * can then read and write the state in contiguous memory rather than following the references
+ * from each {@link Body} to its {@link Vector2}s, {@link Mass} and {@link Transform}.  Once the
+ * island has been solved the state is written back to the {@link Body}s.
+ * <p>
+ * Every non-static {@link Body} on the island gets one slot.  Static {@link Body}s can be shared
+ * by many islands, so instead of being assigned a slot themselves, each {@link ContactConstraint}
+ * end that refers to a static {@link Body} is given its own read-only copy.  The slots of the
+ * {@link Body}s of each {@link ContactConstraint} are available from {@link #getBody1Slots()} and
+ * {@link #getBody2Slots()} by the index of the constraint in the list given to the store.
+ * <p>
+ * The arrays returned from this class are the backing arrays of the store and are only valid
+ * until the store is loaded again.  Only the first {@link #getSize()} elements are in use.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ * @see Settings#setBodyStateStoreEnabled(boolean)
+ */
+public final class BodyStateStore {
+	/** The default number of slots */
+	private static final int DEFAULT_CAPACITY = 16;
+	
+	/** The {@link Body} of each slot */
+	Body[] bodies;
+	
+	/** The x translation of each slot */
+	double[] x;
+	
+	/** The y translation of each slot */
+	double[] y;
+	
+	/** The cosine of the rotation of each slot */
+	double[] cos;
+	
+	/** The sine of the rotation of each slot */
+	double[] sin;
+	
+	/** The x coordinate of the local center of mass of each slot */
+	double[] centerX;
+	
+	/** The y coordinate of the local center of mass of each slot */
+	double[] centerY;
+	
+	/** The x component of the linear velocity of each slot */
+	double[] velocityX;
+	
+	/** The y component of the linear velocity of each slot */
+	double[] velocityY;
+	
+	/** The angular velocity of each slot */
+	double[] angularVelocity;
+	
+	/** The mass of each slot */
+	double[] mass;
+	
+	/** The inverse mass of each slot */
+	double[] inverseMass;
+	
+	/** The inverse inertia of each slot */
+	double[] inverseInertia;
+	
+	/** The linear damping of each slot */
+	double[] linearDamping;
+	
+	/** The angular damping of each slot */
+	double[] angularDamping;
+	
+	/** The gravity scale of each slot */
+	double[] gravityScale;
+	
+	/** The slot of the first {@link Body} of each {@link ContactConstraint} */
+	int[] body1Slots;
+	
+	/** The slot of the second {@link Body} of each {@link ContactConstraint} */
+	int[] body2Slots;
+	
+	/** The number of slots assigned to {@link Body}s on the island */
+	int bodyCount;
+	
+	/** The total number of slots in use */
+	int size;
+	
+	/**
+	 * Default constructor.
+	 */
+	public BodyStateStore() {
+		this.bodies = new Body[DEFAULT_CAPACITY];
+		this.x = new double[DEFAULT_CAPACITY];
+		this.y = new double[DEFAULT_CAPACITY];
+		this.cos = new double[DEFAULT_CAPACITY];
+		this.sin = new double[DEFAULT_CAPACITY];
+		this.centerX = new double[DEFAULT_CAPACITY];
+		this.centerY = new double[DEFAULT_CAPACITY];
+		this.velocityX = new double[DEFAULT_CAPACITY];
+		this.velocityY = new double[DEFAULT_CAPACITY];
+		this.angularVelocity = new double[DEFAULT_CAPACITY];
+		this.mass = new double[DEFAULT_CAPACITY];
+		this.inverseMass = new double[DEFAULT_CAPACITY];
+		this.inverseInertia = new double[DEFAULT_CAPACITY];
+		this.linearDamping = new double[DEFAULT_CAPACITY];
+		this.angularDamping = new double[DEFAULT_CAPACITY];
+		this.gravityScale = new double[DEFAULT_CAPACITY];
+		this.body1Slots = new int[DEFAULT_CAPACITY];
+		this.body2Slots = new int[DEFAULT_CAPACITY];
+		this.bodyCount = 0;
+		this.size = 0;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("BodyStateStore[BodyCount=").append(this.bodyCount)
+		.append("|Size=").append(this.size)
+		.append("|Capacity=").append(this.bodies.length)
+		.append("]");
+		return sb.toString();
+	}
+	
+	/**
+	 * Copies the state of the given {@link Body}s into this store and assigns the
+	 * slots of the given {@link ContactConstraint}s' {@link Body}s.
+	 * <p>
+	 * Static {@link Body}s in the given list are skipped.
+	 * @param bodies the {@link Body}s on the island
+	 * @param contactConstraints the {@link ContactConstraint}s on the island
+	 */
+	void load(List<Body> bodies, List<ContactConstraint> contactConstraints) {
+		int bSize = bodies.size();
+		int cSize = contactConstraints.size();
+		
+		// make sure we have enough room for the worst case
+		this.ensureCapacity(bSize + 2 * cSize);
+		if (this.body1Slots.length < cSize) {
+			int capacity = Math.max(cSize, this.body1Slots.length * 2);
+			this.body1Slots = new int[capacity];
+			this.body2Slots = new int[capacity];
+		}
+		
+		this.size = 0;
+		for (int i = 0; i < bSize; i++) {
+			Body body = bodies.get(i);
+			// static bodies may be shared with other islands
+			if (body.isStatic()) continue;
+			body.stateIndex = this.size;
+			this.set(this.size++, body);
+		}
+		this.bodyCount = this.size;
+		
+		for (int i = 0; i < cSize; i++) {
+			ContactConstraint contactConstraint = contactConstraints.get(i);
+			this.body1Slots[i] = this.getSlot(contactConstraint.getBody1());
+			this.body2Slots[i] = this.getSlot(contactConstraint.getBody2());
+		}
+	}
+	
+	/**
+	 * Copies the state of the {@link Body}s of the given {@link ContactConstraint}s into this
+	 * store and assigns their slots.
+	 * <p>
+	 * Only the {@link Body}s that can be moved by a contact solver, those with a non-zero inverse
+	 * mass or inverse inertia, are assigned a slot of their own and written back by
+	 * {@link #writeBack()}.  The others are given a read-only copy for each {@link ContactConstraint}
+	 * end like static {@link Body}s.  This allows disjoint sets of {@link ContactConstraint}s that only
+	 * share such {@link Body}s to be loaded into the stores of different threads at the same time.
+	 * @param contactConstraints the {@link ContactConstraint}s
+	 */
+	public void load(List<ContactConstraint> contactConstraints) {
+		int cSize = contactConstraints.size();
+		
+		// make sure we have enough room for the worst case
+		this.ensureCapacity(2 * cSize);
+		if (this.body1Slots.length < cSize) {
+			int capacity = Math.max(cSize, this.body1Slots.length * 2);
+			this.body1Slots = new int[capacity];
+			this.body2Slots = new int[capacity];
+		}
+		
+		// assign the movable bodies a slot first so that they are written back
+		this.size = 0;
+		this.bodyCount = 0;
+		for (int i = 0; i < cSize; i++) {
+			ContactConstraint contactConstraint = contactConstraints.get(i);
+			this.add(contactConstraint.getBody1());
+			this.add(contactConstraint.getBody2());
+		}
+		
+		for (int i = 0; i < cSize; i++) {
+			ContactConstraint contactConstraint = contactConstraints.get(i);
+			this.body1Slots[i] = this.getSlot(contactConstraint.getBody1());
+			this.body2Slots[i] = this.getSlot(contactConstraint.getBody2());
+		}
+	}
+	
+	/**
+	 * Assigns the given {@link Body} a slot if it can be moved by a contact
+	 * solver and it wasn't assigned a slot already.
+	 * @param body the {@link Body}
+	 */
+	private void add(Body body) {
+		Mass mass = body.mass;
+		if (mass.getInverseMass() <= 0.0 && mass.getInverseInertia() <= 0.0) return;
+		if (this.indexOf(body) >= 0) return;
+		body.stateIndex = this.size;
+		this.set(this.size++, body);
+		this.bodyCount = this.size;
+	}
+	
+	/**
+	 * Returns the slot of the given {@link Body}, adding a read-only
+	 * copy of the {@link Body} if it was not assigned a slot.
+	 * @param body the {@link Body}
+	 * @return int
+	 */
+	private int getSlot(Body body) {
+		int slot = this.indexOf(body);
+		if (slot >= 0) return slot;
+		// static bodies get a copy for each constraint
+		slot = this.size++;
+		this.set(slot, body);
+		return slot;
+	}
+	
+	/**
+	 * Returns the slot of the given {@link Body} or -1 if the
+	 * {@link Body} was not assigned a slot.
+	 * @param body the {@link Body}
+	 * @return int
+	 */
+	int indexOf(Body body) {
+		int slot = body.stateIndex;
+		if (slot >= 0 && slot < this.bodyCount && this.bodies[slot] == body) {
+			return slot;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Copies the state of the given {@link Body} into the given slot.
+	 * @param slot the slot
+	 * @param body the {@link Body}
+	 */
+	private void set(int slot, Body body) {
+		Transform transform = body.getTransform();
+		Mass mass = body.mass;
+		Vector2 center = mass.getCenter();
+		this.bodies[slot] = body;
+		this.x[slot] = transform.getTranslationX();
+		this.y[slot] = transform.getTranslationY();
+		this.cos[slot] = transform.getCost();
+		this.sin[slot] = transform.getSint();
+		this.centerX[slot] = center.x;
+		this.centerY[slot] = center.y;
+		this.velocityX[slot] = body.velocity.x;
+		this.velocityY[slot] = body.velocity.y;
+		this.angularVelocity[slot] = body.angularVelocity;
+		this.mass[slot] = mass.getMass();
+		this.inverseMass[slot] = mass.getInverseMass();
+		this.inverseInertia[slot] = mass.getInverseInertia();
+		this.linearDamping[slot] = body.linearDamping;
+		this.angularDamping[slot] = body.angularDamping;
+		this.gravityScale[slot] = body.gravityScale;
+	}
+	
+	/**
+	 * Copies the velocity and transform of the given {@link Body} into its slot.
+	 * <p>
+	 * Does nothing if the {@link Body} was not assigned a slot.
+	 * @param body the {@link Body}
+	 */
+	void readFrom(Body body) {
+		int slot = this.indexOf(body);
+		if (slot < 0) return;
+		Transform transform = body.getTransform();
+		this.x[slot] = transform.getTranslationX();
+		this.y[slot] = transform.getTranslationY();
+		this.cos[slot] = transform.getCost();
+		this.sin[slot] = transform.getSint();
+		this.velocityX[slot] = body.velocity.x;
+		this.velocityY[slot] = body.velocity.y;
+		this.angularVelocity[slot] = body.angularVelocity;
+	}
+	
+	/**
+	 * Copies the velocity and transform in the slot of the given {@link Body} to the {@link Body}.
+	 * <p>
+	 * Does nothing if the {@link Body} was not assigned a slot.
+	 * @param body the {@link Body}
+	 */
+	void writeTo(Body body) {
+		int slot = this.indexOf(body);
+		if (slot < 0) return;
+		this.write(slot, body);
+	}
+	
+	/**
+	 * Copies the velocity and transform of all the {@link Body}s in this
+	 * store back to the {@link Body}s.
+	 * <p>
+	 * The read-only copies are not written back.
+	 */
+	public void writeBack() {
+		for (int i = 0; i < this.bodyCount; i++) {
+			this.write(i, this.bodies[i]);
+		}
+	}
+	
+	/**
+	 * Releases the {@link Body}s in this store.
+	 */
+	public void clear() {
+		Arrays.fill(this.bodies, 0, this.size, null);
+		this.bodyCount = 0;
+		this.size = 0;
+	}
+	
+	/**
+	 * Copies the velocity and transform in the given slot to the given {@link Body}.
+	 * @param slot the slot
+	 * @param body the {@link Body}
+	 */
+	private void write(int slot, Body body) {
+		body.getTransform().set(this.cos[slot], this.sin[slot], this.x[slot], this.y[slot]);
+		body.velocity.x = this.velocityX[slot];
+		body.velocity.y = this.velocityY[slot];
+		body.angularVelocity = this.angularVelocity[slot];
+	}
+	
+	/**
+	 * Translates the {@link Body} in the given slot.
+	 * <p>
+	 * This performs the same computation as {@link Transform#translate(double, double)}.
+	 * @param slot the slot
+	 * @param x the translation along the x axis
+	 * @param y the translation along the y axis
+	 */
+	public void translate(int slot, double x, double y) {
+		this.x[slot] += x;
+		this.y[slot] += y;
+	}
+	
+	/**
+	 * Rotates the {@link Body} in the given slot about the given point.
+	 * <p>
+	 * This performs the same computation as {@link Transform#rotate(double, double, double)}.
+	 * @param slot the slot
+	 * @param theta the rotation angle in radians
+	 * @param x the x coordinate of the point to rotate about
+	 * @param y the y coordinate of the point to rotate about
+	 */
+	public void rotate(int slot, double theta, double x, double y) {
+		// a zero rotation is the identity
+		if (theta == 0.0) return;
+		
+		double cos = Math.cos(theta);
+		double sin = Math.sin(theta);
+		
+		double cost = this.cos[slot];
+		double sint = this.sin[slot];
+		this.cos[slot] = cos * cost - sin * sint;
+		this.sin[slot] = sin * cost + cos * sint;
+		
+		double cx = this.x[slot] - x;
+		double cy = this.y[slot] - y;
+		this.x[slot] = cos * cx - sin * cy + x;
+		this.y[slot] = sin * cx + cos * cy + y;
+	}
+	
+	/**
+	 * Makes sure this store can hold at least the given number of slots.
+	 * @param capacity the required number of slots
+	 */
+	private void ensureCapacity(int capacity) {
+		if (this.bodies.length >= capacity) return;
+		int n = Math.max(capacity, this.bodies.length * 2);
+		this.bodies = Arrays.copyOf(this.bodies, n);
+		this.x = Arrays.copyOf(this.x, n);
+		this.y = Arrays.copyOf(this.y, n);
+		this.cos = Arrays.copyOf(this.cos, n);
+		this.sin = Arrays.copyOf(this.sin, n);
+		this.centerX = Arrays.copyOf(this.centerX, n);
+		this.centerY = Arrays.copyOf(this.centerY, n);
+		this.velocityX = Arrays.copyOf(this.velocityX, n);
+		this.velocityY = Arrays.copyOf(this.velocityY, n);
+		this.angularVelocity = Arrays.copyOf(this.angularVelocity, n);
+		this.mass = Arrays.copyOf(this.mass, n);
+		this.inverseMass = Arrays.copyOf(this.inverseMass, n);
+		this.inverseInertia = Arrays.copyOf(this.inverseInertia, n);
+		this.linearDamping = Arrays.copyOf(this.linearDamping, n);
+		this.angularDamping = Arrays.copyOf(this.angularDamping, n);
+		this.gravityScale = Arrays.copyOf(this.gravityScale, n);
+	}
+	
+	/**
+	 * Returns the number of slots in use.
+	 * @return int
+	 */
+	public int getSize() {
+		return this.size;
+	}
+	
+	/**
+	 * Returns the number of slots assigned to the non-static {@link Body}s on the island.
+	 * <p>
+	 * These are the first slots of the store.  The remaining slots are read-only copies
+	 * of static {@link Body}s.
+	 * @return int
+	 */
+	public int getBodyCount() {
+		return this.bodyCount;
+	}
+	
+	/**
+	 * Returns the {@link Body} of the given slot.
+	 * @param slot the slot
+	 * @return {@link Body}
+	 * @throws IndexOutOfBoundsException if slot is not a slot in use
+	 */
+	public Body getBody(int slot) {
+		if (slot < 0 || slot >= this.size) throw new IndexOutOfBoundsException();
+		return this.bodies[slot];
+	}
+	
+	/**
+	 * Returns the x translations.
+	 * @return double[]
+	 */
+	public double[] getTranslationX() {
+		return this.x;
+	}
+	
+	/**
+	 * Returns the y translations.
+	 * @return double[]
+	 */
+	public double[] getTranslationY() {
+		return this.y;
+	}
+	
+	/**
+	 * Returns the cosines of the rotations.
+	 * @return double[]
+	 */
+	public double[] getCost() {
+		return this.cos;
+	}
+	
+	/**
+	 * Returns the sines of the rotations.
+	 * @return double[]
+	 */
+	public double[] getSint() {
+		return this.sin;
+	}
+	
+	/**
+	 * Returns the x coordinates of the local centers of mass.
+	 * @return double[]
+	 */
+	public double[] getCenterX() {
+		return this.centerX;
+	}
+	
+	/**
+	 * Returns the y coordinates of the local centers of mass.
+	 * @return double[]
+	 */
+	public double[] getCenterY() {
+		return this.centerY;
+	}
+	
+	/**
+	 * Returns the x components of the linear velocities.
+	 * @return double[]
+	 */
+	public double[] getVelocityX() {
+		return this.velocityX;
+	}
+	
+	/**
+	 * Returns the y components of the linear velocities.
+	 * @return double[]
+	 */
+	public double[] getVelocityY() {
+		return this.velocityY;
+	}
+	
+	/**
+	 * Returns the angular velocities.
+	 * @return double[]
+	 */
+	public double[] getAngularVelocity() {
+		return this.angularVelocity;
+	}
+	
+	/**
+	 * Returns the masses.
+	 * @return double[]
+	 */
+	public double[] getMass() {
+		return this.mass;
+	}
+	
+	/**
+	 * Returns the inverse masses.
+	 * @return double[]
+	 */
+	public double[] getInverseMass() {
+		return this.inverseMass;
+	}
+	
+	/**
+	 * Returns the inverse inertias.
+	 * @return double[]
+	 */
+	public double[] getInverseInertia() {
+		return this.inverseInertia;
+	}
+	
+	/**
+	 * Returns the linear damping values.
+	 * @return double[]
+	 */
+	public double[] getLinearDamping() {
+		return this.linearDamping;
+	}
+	
+	/**
+	 * Returns the angular damping values.
+	 * @return double[]
+	 */
+	public double[] getAngularDamping() {
+		return this.angularDamping;
+	}
+	
+	/**
+	 * Returns the gravity scales.
+	 * @return double[]
+	 */
+	public double[] getGravityScale() {
+		return this.gravityScale;
+	}
+	
+	/**
+	 * Returns the slots of the first {@link Body} of each {@link ContactConstraint}.
+	 * @return int[]
+	 */
+	public int[] getBody1Slots() {
+		return this.body1Slots;
+	}
+	
+	/**
+	 * Returns the slots of the second {@link Body} of each {@link ContactConstraint}.
+	 * @return int[]
+	 */
+	public int[] getBody2Slots() {
+		return this.body2Slots;
+	}
+}
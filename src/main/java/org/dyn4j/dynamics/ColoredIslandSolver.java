@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.dyn4j.dynamics.contact.ContactConstraint;
+import org.dyn4j.dynamics.contact.ContactConstraintSolver;
+import org.dyn4j.dynamics.joint.Joint;
+import org.dyn4j.resources.Messages;
+
+/**
+ * Solves the {@link ContactConstraint}s and {@link Joint}s of a single {@link Island} concurrently.
+ * <p>
+ * The constraints are graph colored so that no two constraints of the same color share a
+ * {@link Body} that the constraints can move.  The colors are solved one after the other and
+ * the constraints of each color are split into batches that are solved concurrently.  Since
+ * the constraints of a color are independent, the order in which the batches complete does
+ * not matter and the result is the same for any number of threads.
+ * <p>
+ * Each constraint is given the lowest color not yet used by either of its {@link Body}s, in
+ * the order of the {@link Joint}s and then the {@link ContactConstraint}s on the island.
+ * Constraints that can't be given one of the {@link #MAXIMUM_COLOR_COUNT} colors are solved
+ * serially after all the colors.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ * @see World#setConstraintExecutor(ExecutorService)
+ */
+final class ColoredIslandSolver {
+	/** The maximum number of constraints solved by each task */
+	static final int BATCH_SIZE = 64;
+	
+	/** The maximum number of colors */
+	static final int MAXIMUM_COLOR_COUNT = 64;
+	
+	/** Initialize the constraints */
+	private static final int INITIALIZE = 0;
+	
+	/** Solve the velocity constraints */
+	private static final int VELOCITY = 1;
+	
+	/** Solve the position constraints */
+	private static final int POSITION = 2;
+	
+	/** The {@link Joint}s of each color; the last are the joints that couldn't be colored */
+	private final List<List<Joint>> joints;
+	
+	/** The {@link ContactConstraint}s of each color; the last are the constraints that couldn't be colored */
+	private final List<List<ContactConstraint>> contactConstraints;
+	
+	/** The number of colors used, not including the last */
+	private int colorCount;
+	
+	/** The colors used by each {@link Body} indexed by the island index */
+	private long[] bodyColors;
+	
+	/** The reusable task list */
+	private final List<Callable<Boolean>> tasks;
+	
+	/**
+	 * Default constructor.
+	 */
+	public ColoredIslandSolver() {
+		this.joints = new ArrayList<List<Joint>>(MAXIMUM_COLOR_COUNT + 1);
+		this.contactConstraints = new ArrayList<List<ContactConstraint>>(MAXIMUM_COLOR_COUNT + 1);
+		for (int i = 0; i <= MAXIMUM_COLOR_COUNT; i++) {
+			this.joints.add(new ArrayList<Joint>());
+			this.contactConstraints.add(new ArrayList<ContactConstraint>());
+		}
+		this.bodyColors = new long[16];
+		this.tasks = new ArrayList<Callable<Boolean>>();
+	}
+	
+	/**
+	 * Colors the constraints of the given island.
+	 * @param island the island
+	 */
+	public void color(Island island) {
+		List<Body> bodies = island.bodies;
+		int size = bodies.size();
+		if (this.bodyColors.length < size) {
+			this.bodyColors = new long[Math.max(size, this.bodyColors.length * 2)];
+		}
+		
+		// index the bodies that can be moved; bodies that can't may be shared with
+		// other islands and don't need a color
+		for (int i = 0; i < size; i++) {
+			Body body = bodies.get(i);
+			if (ColoredIslandSolver.isMovable(body)) {
+				body.islandIndex = i;
+				this.bodyColors[i] = 0L;
+			}
+		}
+		
+		this.colorCount = 0;
+		
+		int jSize = island.joints.size();
+		for (int i = 0; i < jSize; i++) {
+			Joint joint = island.joints.get(i);
+			int color = this.color(joint.getBody1(), joint.getBody2());
+			this.joints.get(color).add(joint);
+		}
+		
+		int cSize = island.contactConstraints.size();
+		for (int i = 0; i < cSize; i++) {
+			ContactConstraint contactConstraint = island.contactConstraints.get(i);
+			int color = this.color(contactConstraint.getBody1(), contactConstraint.getBody2());
+			this.contactConstraints.get(color).add(contactConstraint);
+		}
+	}
+	
+	/**
+	 * Returns the lowest color not used by either {@link Body} and marks it as used.
+	 * @param body1 the first body
+	 * @param body2 the second body
+	 * @return int the color; {@link #MAXIMUM_COLOR_COUNT} if all colors are used
+	 */
+	private int color(Body body1, Body body2) {
+		boolean m1 = ColoredIslandSolver.isMovable(body1);
+		boolean m2 = ColoredIslandSolver.isMovable(body2);
+		
+		long mask = 0L;
+		if (m1) mask |= this.bodyColors[body1.islandIndex];
+		if (m2) mask |= this.bodyColors[body2.islandIndex];
+		
+		int color = Long.numberOfTrailingZeros(~mask);
+		if (color < MAXIMUM_COLOR_COUNT) {
+			long bit = 1L << color;
+			if (m1) this.bodyColors[body1.islandIndex] |= bit;
+			if (m2) this.bodyColors[body2.islandIndex] |= bit;
+			this.colorCount = Math.max(this.colorCount, color + 1);
+		}
+		return color;
+	}
+	
+	/**
+	 * Returns true if the given {@link Body} can be moved by the constraints.
+	 * @param body the body
+	 * @return boolean
+	 */
+	private static boolean isMovable(Body body) {
+		return body.mass.getInverseMass() > 0.0 || body.mass.getInverseInertia() > 0.0;
+	}
+	
+	/**
+	 * Clears the colors.
+	 */
+	public void clear() {
+		for (int i = 0; i <= MAXIMUM_COLOR_COUNT; i++) {
+			this.joints.get(i).clear();
+			this.contactConstraints.get(i).clear();
+		}
+		this.tasks.clear();
+		this.colorCount = 0;
+	}
+	
+	/**
+	 * Returns the number of colors used, not including the constraints that couldn't be colored.
+	 * @return int
+	 */
+	int getColorCount() {
+		return this.colorCount;
+	}
+	
+	/**
+	 * Returns the {@link Joint}s of each color.
+	 * @return List&lt;List&lt;{@link Joint}&gt;&gt;
+	 */
+	List<List<Joint>> getJoints() {
+		return this.joints;
+	}
+	
+	/**
+	 * Returns the {@link ContactConstraint}s of each color.
+	 * @return List&lt;List&lt;{@link ContactConstraint}&gt;&gt;
+	 */
+	List<List<ContactConstraint>> getContactConstraints() {
+		return this.contactConstraints;
+	}
+	
+	/**
+	 * Initializes the colored constraints.
+	 * @param solver the contact constraint solver
+	 * @param executor the executor
+	 * @param step the time step information
+	 * @param settings the current world settings
+	 */
+	public void initialize(ContactConstraintSolver solver, ExecutorService executor, Step step, Settings settings) {
+		this.solve(INITIALIZE, solver, executor, step, settings);
+	}
+	
+	/**
+	 * Solves the velocity constraints once.
+	 * @param solver the contact constraint solver
+	 * @param executor the executor
+	 * @param step the time step information
+	 * @param settings the current world settings
+	 */
+	public void solveVelocityConstraints(ContactConstraintSolver solver, ExecutorService executor, Step step, Settings settings) {
+		this.solve(VELOCITY, solver, executor, step, settings);
+	}
+	
+	/**
+	 * Solves the position constraints once.
+	 * @param solver the contact constraint solver
+	 * @param executor the executor
+	 * @param step the time step information
+	 * @param settings the current world settings
+	 * @return boolean true if all the position constraints are solved
+	 */
+	public boolean solvePositionConstraints(ContactConstraintSolver solver, ExecutorService executor, Step step, Settings settings) {
+		return this.solve(POSITION, solver, executor, step, settings);
+	}
+	
+	/**
+	 * Performs the given phase for each color in order.
+	 * @param phase the phase
+	 * @param solver the contact constraint solver
+	 * @param executor the executor
+	 * @param step the time step information
+	 * @param settings the current world settings
+	 * @return boolean true if all the position constraints are solved
+	 */
+	private boolean solve(final int phase, final ContactConstraintSolver solver, ExecutorService executor, final Step step, final Settings settings) {
+		boolean solved = true;
+		for (int c = 0; c < this.colorCount; c++) {
+			final List<Joint> joints = this.joints.get(c);
+			final List<ContactConstraint> contactConstraints = this.contactConstraints.get(c);
+			int size = joints.size() + contactConstraints.size();
+			
+			// solve small colors on this thread
+			if (size <= BATCH_SIZE) {
+				boolean colorSolved = ColoredIslandSolver.solve(phase, solver, joints, contactConstraints, 0, size, step, settings);
+				solved = solved && colorSolved;
+				continue;
+			}
+			
+			// create a task for each batch
+			List<Callable<Boolean>> tasks = this.tasks;
+			tasks.clear();
+			for (int i = 0; i < size; i += BATCH_SIZE) {
+				final int start = i;
+				final int end = Math.min(i + BATCH_SIZE, size);
+				tasks.add(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						return ColoredIslandSolver.solve(phase, solver, joints, contactConstraints, start, end, step, settings);
+					}
+				});
+			}
+			
+			// solve the batches and wait for all to complete
+			List<Future<Boolean>> results;
+			try {
+				results = executor.invokeAll(tasks);
+			} catch (InterruptedException e) {
+				// restore the interrupted status
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(Messages.getString("dynamics.world.constraintSolvingInterrupted"), e);
+			}
+			
+			int rSize = results.size();
+			for (int i = 0; i < rSize; i++) {
+				boolean batchSolved = World.getResult(results.get(i), "dynamics.world.constraintSolvingInterrupted");
+				solved = solved && batchSolved;
+			}
+			tasks.clear();
+		}
+		
+		// solve the constraints that couldn't be colored
+		List<Joint> joints = this.joints.get(MAXIMUM_COLOR_COUNT);
+		List<ContactConstraint> contactConstraints = this.contactConstraints.get(MAXIMUM_COLOR_COUNT);
+		int size = joints.size() + contactConstraints.size();
+		if (size > 0) {
+			boolean remainingSolved = ColoredIslandSolver.solve(phase, solver, joints, contactConstraints, 0, size, step, settings);
+			solved = solved && remainingSolved;
+		}
+		
+		return solved;
+	}
+	
+	/**
+	 * Performs the given phase for a range of the constraints of a color.
+	 * <p>
+	 * The range indexes the {@link Joint}s followed by the {@link ContactConstraint}s.
+	 * @param phase the phase
+	 * @param solver the contact constraint solver
+	 * @param joints the joints of the color
+	 * @param contactConstraints the contact constraints of the color
+	 * @param start the start of the range, inclusive
+	 * @param end the end of the range, exclusive
+	 * @param step the time step information
+	 * @param settings the current world settings
+	 * @return boolean true if all the position constraints are solved
+	 */
+	private static boolean solve(int phase, ContactConstraintSolver solver, List<Joint> joints, List<ContactConstraint> contactConstraints, int start, int end, Step step, Settings settings) {
+		int jSize = joints.size();
+		
+		// the contact constraints in the range
+		int cStart = Math.max(start - jSize, 0);
+		int cEnd = Math.max(end - jSize, 0);
+		List<ContactConstraint> range = null;
+		if (cEnd > cStart) {
+			range = contactConstraints.subList(cStart, cEnd);
+		}
+		
+		boolean solved = true;
+		if (phase == INITIALIZE) {
+			if (range != null) solver.initialize(range, step, settings);
+			for (int i = start; i < end && i < jSize; i++) {
+				joints.get(i).initializeConstraints(step, settings);
+			}
+		} else if (phase == VELOCITY) {
+			for (int i = start; i < end && i < jSize; i++) {
+				joints.get(i).solveVelocityConstraints(step, settings);
+			}
+			if (range != null) solver.solveVelocityContraints(range, step, settings);
+		} else {
+			if (range != null) solved = solver.solvePositionContraints(range, step, settings);
+			for (int i = start; i < end && i < jSize; i++) {
+				boolean jointSolved = joints.get(i).solvePositionConstraints(step, settings);
+				solved = solved && jointSolved;
+			}
+		}
+		return solved;
+	}
+}
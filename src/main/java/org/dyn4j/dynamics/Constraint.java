@@ -30,7 +30,7 @@ import org.dyn4j.resources.Messages;
 /**
  * Represents some physical constraint between a pair of {@link Body}s.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.1
  * @since 1.0.0
  */
 public abstract class Constraint implements Shiftable {
@@ -74,8 +74,8 @@ public abstract class Constraint implements Shiftable {
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
-		sb.append("Body1=").append(this.body1)
-		.append("|Body2=").append(this.body2);
+		sb.append("Body1=").append(this.getBody1())
+		.append("|Body2=").append(this.getBody2());
 		return sb.toString();
 	}
 	
@@ -29,16 +29,40 @@ import org.dyn4j.dynamics.contact.ContactConstraint;
 /**
  * Represents an interaction of a body in an interaction graph via a {@link ContactConstraint}.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.1
  * @since 1.0.0
  */
 final class ContactEdge extends InteractionEdge<ContactConstraint> {
+	/** 
+	 * The other {@link Body} in contact
+	 * <p>
+	 * Hides the final field of {@link InteractionEdge} since pooled contact edges are reused for other contacts.
+	 */
+	Body other;
+	
+	/** The {@link ContactConstraint} between the {@link Body}s; see {@link #other} */
+	ContactConstraint interaction;
+	
 	/**
 	 * Full constructor.
 	 * @param other the other {@link Body} in contact
 	 * @param contactConstraint the {@link ContactConstraint} between the {@link Body}s
 	 */
 	public ContactEdge(Body other, ContactConstraint contactConstraint) {
-		super(other, contactConstraint);
+		super(null, null);
+		this.other = other;
+		this.interaction = contactConstraint;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.InteractionEdge#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("ContactEdge[Interaction=").append(this.interaction)
+		.append("|Body=").append(this.other)
+		.append("]");
+		return sb.toString();
 	}
 }
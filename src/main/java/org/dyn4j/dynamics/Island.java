@@ -26,11 +26,14 @@ package org.dyn4j.dynamics;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.dyn4j.Epsilon;
 import org.dyn4j.collision.Collisions;
+import org.dyn4j.dynamics.contact.BodyStateContactConstraintSolver;
 import org.dyn4j.dynamics.contact.ContactConstraint;
 import org.dyn4j.dynamics.contact.ContactConstraintSolver;
+import org.dyn4j.dynamics.contact.SubSteppingContactConstraintSolver;
 import org.dyn4j.dynamics.joint.Joint;
 import org.dyn4j.geometry.Interval;
 import org.dyn4j.geometry.Vector2;
@@ -52,6 +55,24 @@ final class Island {
 	/** The list of {@link ContactConstraint}s on this {@link Island} */
 	final List<ContactConstraint> contactConstraints;
 	
+	/** The packed {@link Body} state; created when first used */
+	private BodyStateStore store;
+	
+	/** The sub-step information; created when first used */
+	private Step subStep;
+	
+	/** The colored constraint solver; created when first used */
+	private ColoredIslandSolver colored;
+	
+	/** The {@link ExecutorService} used to solve the constraints of this island concurrently; null to solve them serially */
+	ExecutorService executor;
+	
+	/** The time spent solving the velocity constraints; only set when step statistics are enabled */
+	long velocityTime;
+	
+	/** The time spent solving the position constraints; only set when step statistics are enabled */
+	long positionTime;
+	
 	/**
 	 * Default constructor.
 	 * <p>
@@ -120,27 +141,223 @@ final class Island {
 	 * @param settings the current world settings
 	 */
 	public void solve(ContactConstraintSolver solver, Vector2 gravity, Step step, Settings settings) {
-		// the number of solver iterations
-		int velocitySolverIterations = settings.getVelocityConstraintSolverIterations();
-		int positionSolverIterations = settings.getPositionConstraintSolverIterations();
+		// solve the island and put it to sleep if it came to rest
+		if (this.solveConstraints(solver, gravity, step, settings)) {
+			this.sleep();
+		}
+	}
+	
+	/**
+	 * Integrates the {@link Body}s and solves all {@link ContactConstraint}s and
+	 * {@link Joint}s.
+	 * <p>
+	 * Unlike the {@link #solve(ContactConstraintSolver, Vector2, Step, Settings)} method
+	 * this method does not put the {@link Body}s to sleep.  Instead it returns true if
+	 * the {@link Body}s should be put to sleep.  This allows islands to be solved concurrently
+	 * and their sleep state applied afterwards (static bodies can be shared by many islands).
+	 * @param solver the contact constraint solver
+	 * @param gravity the gravity vector
+	 * @param step the time step information
+	 * @param settings the current world settings
+	 * @return boolean true if all the {@link Body}s on this island should be put to sleep
+	 * @since 3.3.1
+	 */
+	boolean solveConstraints(ContactConstraintSolver solver, Vector2 gravity, Step step, Settings settings) {
 		// the sleep settings
 		double sleepAngularVelocity = settings.getSleepAngularVelocity();
 		double sleepLinearVelocitySquared = settings.getSleepLinearVelocitySquared();
 		double sleepTime = settings.getSleepTime();
-
+		
 		int size = this.bodies.size();
+		
+		// integrate and solve either using the bodies directly or the packed body state
+		boolean positionConstraintsSolved;
+		if (solver instanceof SubSteppingContactConstraintSolver) {
+			positionConstraintsSolved = this.solveSubSteps((SubSteppingContactConstraintSolver)solver, gravity, step, settings);
+		} else if (this.executor != null && this.joints.size() + this.contactConstraints.size() > ColoredIslandSolver.BATCH_SIZE) {
+			positionConstraintsSolved = this.solveColored(solver, gravity, step, settings);
+		} else if (settings.isBodyStateStoreEnabled() && solver instanceof BodyStateContactConstraintSolver) {
+			positionConstraintsSolved = this.solveBodyStates((BodyStateContactConstraintSolver)solver, gravity, step, settings);
+		} else {
+			positionConstraintsSolved = this.solveBodies(solver, gravity, step, settings);
+		}
+		
+		// see if sleep is enabled
+		if (settings.isAutoSleepingEnabled()) {
+			double minSleepTime = Double.MAX_VALUE;
+			// check for sleep-able bodies
+			for (int i = 0; i < size; i++) {
+				Body body = this.bodies.get(i);
+				// just skip static bodies
+				if (body.isStatic()) continue;
+				// see if the body is allowed to sleep
+				if (body.isAutoSleepingEnabled()) {
+					// check the linear and angular velocity
+					if (body.velocity.getMagnitudeSquared() > sleepLinearVelocitySquared || body.angularVelocity > sleepAngularVelocity) {
+						// if either the linear or angular velocity is above the 
+						// threshold then reset the sleep time
+						body.sleepTime = 0.0;
+						minSleepTime = 0.0;
+					} else {
+						// then increment the sleep time
+						body.sleepTime += step.dt;
+						minSleepTime = Math.min(minSleepTime, body.sleepTime);
+					}
+				} else {
+					body.sleepTime = 0.0;
+					minSleepTime = 0.0;
+				}
+			}
+			
+			// check the min sleep time
+			return minSleepTime >= sleepTime && positionConstraintsSolved;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Integrates the {@link Body}s and solves all {@link ContactConstraint}s and
+	 * {@link Joint}s in a number of sub-steps.
+	 * <p>
+	 * Each sub-step integrates the velocities, solves the constraints once, integrates the
+	 * positions, solves the {@link Joint} position constraints once and then relaxes the
+	 * constraints.  The maximum translation and rotation are divided evenly among the sub-steps.
+	 * @param solver the contact constraint solver
+	 * @param gravity the gravity vector
+	 * @param step the time step information
+	 * @param settings the current world settings
+	 * @return boolean true if the position constraints were solved
+	 * @see SubSteppingContactConstraintSolver
+	 * @since 3.3.1
+	 */
+	private boolean solveSubSteps(SubSteppingContactConstraintSolver solver, Vector2 gravity, Step step, Settings settings) {
+		// get the step statistics; null if disabled
+		StepStatistics statistics = step.statistics;
+		long velocityTime = 0;
+		long positionTime = 0;
+		long time = 0;
+		if (statistics != null) time = System.nanoTime();
+		
+		int n = solver.getSubStepCount();
 		int jSize = this.joints.size();
 		
-		double dt = step.dt;
+		// setup the sub-step; the ratio only applies to the first sub-step
+		if (this.subStep == null) {
+			this.subStep = new Step(step.dt);
+		}
+		Step subStep = this.subStep;
+		subStep.dt = step.dt / n;
+		subStep.invdt = step.invdt * n;
+		subStep.dt0 = step.dt0 / n;
+		subStep.invdt0 = step.invdt0 * n;
+		subStep.dtRatio = step.dtRatio;
+		subStep.statistics = step.statistics;
+		
+		double h = subStep.dt;
+		double maxTranslation = settings.getMaximumTranslation() / n;
+		double maxRotation = settings.getMaximumRotation() / n;
+		
+		// accumulate the forces and torques for the whole step
+		int size = this.bodies.size();
+		for (int i = 0; i < size; i++) {
+			Body body = this.bodies.get(i);
+			if (body.isDynamic()) {
+				body.accumulate(step.dt);
+			}
+		}
+		
+		// prepare the contact constraints
+		solver.initialize(this.contactConstraints, step, settings);
+		
+		boolean jointsSolved = true;
+		for (int s = 0; s < n; s++) {
+			// integrate the velocities
+			this.integrateVelocities(gravity, h, false);
+			
+			// warm start and solve the velocity constraints
+			for (int j = 0; j < jSize; j++) {
+				Joint joint = this.joints.get(j);
+				joint.initializeConstraints(subStep, settings);
+			}
+			solver.warmStart(this.contactConstraints, subStep, settings);
+			for (int j = 0; j < jSize; j++) {
+				Joint joint = this.joints.get(j);
+				joint.solveVelocityConstraints(subStep, settings);
+			}
+			solver.solveVelocityContraints(this.contactConstraints, subStep, settings);
+			
+			if (statistics != null) {
+				long now = System.nanoTime();
+				velocityTime += now - time;
+				time = now;
+			}
+			
+			// integrate the positions
+			this.integratePositions(h, maxTranslation, maxRotation);
+			
+			// solve the joint position constraints
+			jointsSolved = true;
+			for (int j = 0; j < jSize; j++) {
+				Joint joint = this.joints.get(j);
+				boolean jointSolved = joint.solvePositionConstraints(subStep, settings);
+				jointsSolved = jointsSolved && jointSolved;
+			}
+			
+			if (statistics != null) {
+				long now = System.nanoTime();
+				positionTime += now - time;
+				time = now;
+			}
+			
+			// remove the velocity used to correct the penetration
+			for (int j = 0; j < jSize; j++) {
+				Joint joint = this.joints.get(j);
+				joint.solveVelocityConstraints(subStep, settings);
+			}
+			solver.relaxVelocityContraints(this.contactConstraints, subStep, settings);
+			
+			// the impulses from the previous sub-step are for the same sub-step time
+			subStep.dtRatio = 1.0;
+			subStep.dt0 = h;
+			subStep.invdt0 = subStep.invdt;
+		}
+		
+		// apply restitution
+		solver.applyRestitution(this.contactConstraints, step, settings);
+		
+		// check the contacts
+		boolean contactsSolved = solver.solvePositionContraints(this.contactConstraints, step, settings);
+		
+		if (statistics != null) {
+			long now = System.nanoTime();
+			this.velocityTime = velocityTime + (now - time);
+			this.positionTime = positionTime;
+		}
+		
+		return contactsSolved && jointsSolved;
+	}
+	
+	/**
+	 * Integrates the velocities of the dynamic {@link Body}s using their accumulated
+	 * forces and torques, gravity and damping.
+	 * @param gravity the gravity vector
+	 * @param dt the elapsed time
+	 * @param accumulate true if the forces and torques should be accumulated first
+	 * @since 3.3.1
+	 */
+	private void integrateVelocities(Vector2 gravity, double dt, boolean accumulate) {
+		int size = this.bodies.size();
 		double invM, invI;
 		
-		// integrate the velocities
 		for (int i = 0; i < size; i++) {
 			Body body = this.bodies.get(i);
 			// check if the body has infinite mass and infinite inertia
 			if (!body.isDynamic()) continue;
 			// accumulate the forces and torques
-			body.accumulate(dt);
+			if (accumulate) {
+				body.accumulate(dt);
+			}
 			// get the mass properties
 			invM = body.mass.getInverseMass();
 			invI = body.mass.getInverseInertia();
@@ -169,6 +386,85 @@ final class Island {
 			body.velocity.y *= linear;
 			body.angularVelocity *= angular;
 		}
+	}
+	
+	/**
+	 * Integrates the positions of the non-static {@link Body}s using their velocities.
+	 * <p>
+	 * The velocities are reduced if the translation or rotation exceed the given maximums.
+	 * @param dt the elapsed time
+	 * @param maxTranslation the maximum translation
+	 * @param maxRotation the maximum rotation
+	 * @since 3.3.1
+	 */
+	private void integratePositions(double dt, double maxTranslation, double maxRotation) {
+		int size = this.bodies.size();
+		double maxTranslationSqrd = maxTranslation * maxTranslation;
+		
+		for (int i = 0; i < size; i++) {
+			Body body = this.bodies.get(i);
+			
+			if (body.isStatic()) continue;
+			
+			// compute the translation and rotation for this time step
+			double translationX = body.velocity.x * dt;
+			double translationY = body.velocity.y * dt;
+			double translationMagnitudeSquared = translationX * translationX + translationY * translationY;
+			
+			// make sure the translation is not over the maximum
+			if (translationMagnitudeSquared > maxTranslationSqrd) {
+				double translationMagnitude = Math.sqrt(translationMagnitudeSquared);
+				double ratio = maxTranslation / translationMagnitude;
+				
+				body.velocity.multiply(ratio);
+
+				translationX *= ratio;
+				translationY *= ratio;
+			}
+			
+			double rotation = body.angularVelocity * dt;
+			
+			// make sure the rotation is not over the maximum
+			if (rotation > maxRotation) {
+				double ratio = maxRotation / Math.abs(rotation);
+				
+				body.angularVelocity *= ratio;
+				rotation *= ratio;
+			}
+			
+			// recompute the translation/rotation in case we hit the maximums
+			// inline body.translate(body.velocity.product(dt));
+			body.translate(translationX, translationY);
+			body.rotateAboutCenter(rotation);
+		}
+	}
+	
+	/**
+	 * Integrates the {@link Body}s and solves all {@link ContactConstraint}s and
+	 * {@link Joint}s using the {@link Body}s directly.
+	 * @param solver the contact constraint solver
+	 * @param gravity the gravity vector
+	 * @param step the time step information
+	 * @param settings the current world settings
+	 * @return boolean true if the position constraints were solved
+	 * @since 3.3.1
+	 */
+	private boolean solveBodies(ContactConstraintSolver solver, Vector2 gravity, Step step, Settings settings) {
+		// the number of solver iterations
+		int velocitySolverIterations = settings.getVelocityConstraintSolverIterations();
+		int positionSolverIterations = settings.getPositionConstraintSolverIterations();
+
+		// get the step statistics; null if disabled
+		StepStatistics statistics = step.statistics;
+		long start = 0;
+		if (statistics != null) start = System.nanoTime();
+		
+		int jSize = this.joints.size();
+		
+		double dt = step.dt;
+		
+		// integrate the velocities
+		this.integrateVelocities(gravity, dt, true);
 		
 		// initialize the solver
 		solver.initialize(this.contactConstraints, step, settings);
@@ -190,20 +486,234 @@ final class Island {
 			solver.solveVelocityContraints(this.contactConstraints, step, settings);
 		}
 		
+		long velocity = 0;
+		if (statistics != null) velocity = System.nanoTime();
+		
+		// integrate the positions
+		this.integratePositions(dt, settings.getMaximumTranslation(), settings.getMaximumRotation());
+		
+		// solve the position constraints
+		boolean positionConstraintsSolved = false;
+		for (int i = 0; i < positionSolverIterations; i++) {
+			boolean contactsSolved = solver.solvePositionContraints(this.contactConstraints, step, settings);
+			
+			// solve the joint position constraints
+			boolean jointsSolved = true;
+			for (int j = 0; j < jSize; j++) {
+				Joint joint = this.joints.get(j);
+				boolean jointSolved = joint.solvePositionConstraints(step, settings);
+				jointsSolved = jointsSolved && jointSolved;
+			}
+			
+			if (contactsSolved && jointsSolved) {
+				positionConstraintsSolved = true;
+				break;
+			}
+		}
+		
+		if (statistics != null) {
+			this.velocityTime = velocity - start;
+			this.positionTime = System.nanoTime() - velocity;
+		}
+		
+		return positionConstraintsSolved;
+	}
+	
+	/**
+	 * Integrates the {@link Body}s and solves all {@link ContactConstraint}s and
+	 * {@link Joint}s concurrently using the {@link #executor}.
+	 * <p>
+	 * The constraints are graph colored and the constraints of each color are solved
+	 * concurrently.  Otherwise this method performs the same steps as the
+	 * {@link #solveBodies(ContactConstraintSolver, Vector2, Step, Settings)} method.
+	 * @param solver the contact constraint solver
+	 * @param gravity the gravity vector
+	 * @param step the time step information
+	 * @param settings the current world settings
+	 * @return boolean true if the position constraints were solved
+	 * @see ColoredIslandSolver
+	 * @since 3.3.1
+	 */
+	private boolean solveColored(ContactConstraintSolver solver, Vector2 gravity, Step step, Settings settings) {
+		// the number of solver iterations
+		int velocitySolverIterations = settings.getVelocityConstraintSolverIterations();
+		int positionSolverIterations = settings.getPositionConstraintSolverIterations();
+		
+		// get the step statistics; null if disabled
+		StepStatistics statistics = step.statistics;
+		long start = 0;
+		if (statistics != null) start = System.nanoTime();
+		
+		if (this.colored == null) {
+			this.colored = new ColoredIslandSolver();
+		}
+		ColoredIslandSolver colored = this.colored;
+		ExecutorService executor = this.executor;
+		
+		double dt = step.dt;
+		
+		// integrate the velocities
+		this.integrateVelocities(gravity, dt, true);
+		
+		// color the constraints and initialize them
+		colored.color(this);
+		colored.initialize(solver, executor, step, settings);
+		
+		// solve the velocity constraints
+		for (int i = 0; i < velocitySolverIterations; i++) {
+			colored.solveVelocityConstraints(solver, executor, step, settings);
+		}
+		
+		long velocity = 0;
+		if (statistics != null) velocity = System.nanoTime();
+		
+		// integrate the positions
+		this.integratePositions(dt, settings.getMaximumTranslation(), settings.getMaximumRotation());
+		
+		// solve the position constraints
+		boolean positionConstraintsSolved = false;
+		for (int i = 0; i < positionSolverIterations; i++) {
+			if (colored.solvePositionConstraints(solver, executor, step, settings)) {
+				positionConstraintsSolved = true;
+				break;
+			}
+		}
+		
+		// allow memory to be reclaimed
+		colored.clear();
+		
+		if (statistics != null) {
+			this.velocityTime = velocity - start;
+			this.positionTime = System.nanoTime() - velocity;
+		}
+		
+		return positionConstraintsSolved;
+	}
+	
+	/**
+	 * Integrates the {@link Body}s and solves all {@link ContactConstraint}s and
+	 * {@link Joint}s using a packed {@link BodyStateStore}.
+	 * <p>
+	 * The state of the {@link Body}s is loaded into the store, integrated and solved
+	 * there and then written back to the {@link Body}s.  {@link Joint}s work with the
+	 * {@link Body}s directly so the state of their {@link Body}s is written back before
+	 * and read again after each {@link Joint} is solved.
+	 * <p>
+	 * This method performs exactly the same computations as the
+	 * {@link #solveBodies(ContactConstraintSolver, Vector2, Step, Settings)} method.
+	 * @param solver the contact constraint solver
+	 * @param gravity the gravity vector
+	 * @param step the time step information
+	 * @param settings the current world settings
+	 * @return boolean true if the position constraints were solved
+	 * @since 3.3.1
+	 */
+	private boolean solveBodyStates(BodyStateContactConstraintSolver solver, Vector2 gravity, Step step, Settings settings) {
+		// the number of solver iterations
+		int velocitySolverIterations = settings.getVelocityConstraintSolverIterations();
+		int positionSolverIterations = settings.getPositionConstraintSolverIterations();
+		
+		// get the step statistics; null if disabled
+		StepStatistics statistics = step.statistics;
+		long start = 0;
+		if (statistics != null) start = System.nanoTime();
+		
+		// load the body state
+		if (this.store == null) {
+			this.store = new BodyStateStore();
+		}
+		BodyStateStore store = this.store;
+		store.load(this.bodies, this.contactConstraints);
+		
+		int size = store.bodyCount;
+		int jSize = this.joints.size();
+		
+		Body[] bodies = store.bodies;
+		double[] x = store.x;
+		double[] y = store.y;
+		double[] cos = store.cos;
+		double[] sin = store.sin;
+		double[] cx = store.centerX;
+		double[] cy = store.centerY;
+		double[] vx = store.velocityX;
+		double[] vy = store.velocityY;
+		double[] av = store.angularVelocity;
+		
+		double dt = step.dt;
+		double invM, invI;
+		
+		// integrate the velocities
+		for (int i = 0; i < size; i++) {
+			Body body = bodies[i];
+			// check if the body has infinite mass and infinite inertia
+			if (!body.isDynamic()) continue;
+			// accumulate the forces and torques
+			body.accumulate(dt);
+			// get the mass properties
+			invM = store.inverseMass[i];
+			invI = store.inverseInertia[i];
+			// integrate force and torque to modify the velocity and
+			// angular velocity (sympletic euler)
+			// v1 = v0 + (f / m) + g) * dt
+			if (invM > Epsilon.E) {
+				// only perform this step if the body does not have
+				// a fixed linear velocity
+				vx[i] += (body.force.x * invM + gravity.x * store.gravityScale[i]) * dt;
+				vy[i] += (body.force.y * invM + gravity.y * store.gravityScale[i]) * dt;
+			}
+			// av1 = av0 + (t / I) * dt
+			if (invI > Epsilon.E) {
+				// only perform this step if the body does not have
+				// a fixed angular velocity
+				av[i] += dt * invI * body.torque;
+			}
+			// apply damping
+			double linear = 1.0 - dt * store.linearDamping[i];
+			double angular = 1.0 - dt * store.angularDamping[i];
+			linear = Interval.clamp(linear, 0.0, 1.0);
+			angular = Interval.clamp(angular, 0.0, 1.0);
+			vx[i] *= linear;
+			vy[i] *= linear;
+			av[i] *= angular;
+		}
+		
+		// initialize the solver
+		solver.initialize(this.contactConstraints, store, step, settings);
+		
+		// initialize joint constraints
+		for (int i = 0; i < jSize; i++) {
+			Joint joint = this.joints.get(i);
+			this.writeTo(store, joint);
+			joint.initializeConstraints(step, settings);
+			this.readFrom(store, joint);
+		}
+
+		// solve the velocity constraints
+		for (int i = 0; i < velocitySolverIterations; i++) {
+			// solve the joint velocity constraints
+			for (int j = 0; j < jSize; j++) {
+				Joint joint = this.joints.get(j);
+				this.writeTo(store, joint);
+				joint.solveVelocityConstraints(step, settings);
+				this.readFrom(store, joint);
+			}
+			
+			solver.solveVelocityContraints(this.contactConstraints, store, step, settings);
+		}
+		
+		long velocity = 0;
+		if (statistics != null) velocity = System.nanoTime();
+		
 		// the max settings
 		double maxTranslation = settings.getMaximumTranslation();
 		double maxRotation = settings.getMaximumRotation();
 		double maxTranslationSqrd = settings.getMaximumTranslationSquared();
 		
-		// integrate the positions
+		// integrate the positions (the store only contains non-static bodies)
 		for (int i = 0; i < size; i++) {
-			Body body = this.bodies.get(i);
-			
-			if (body.isStatic()) continue;
-			
 			// compute the translation and rotation for this time step
-			double translationX = body.velocity.x * dt;
-			double translationY = body.velocity.y * dt;
+			double translationX = vx[i] * dt;
+			double translationY = vy[i] * dt;
 			double translationMagnitudeSquared = translationX * translationX + translationY * translationY;
 			
 			// make sure the translation is not over the maximum
@@ -211,38 +721,42 @@ final class Island {
 				double translationMagnitude = Math.sqrt(translationMagnitudeSquared);
 				double ratio = maxTranslation / translationMagnitude;
 				
-				body.velocity.multiply(ratio);
+				vx[i] *= ratio;
+				vy[i] *= ratio;
 
 				translationX *= ratio;
 				translationY *= ratio;
 			}
 			
-			double rotation = body.angularVelocity * dt;
+			double rotation = av[i] * dt;
 			
 			// make sure the rotation is not over the maximum
 			if (rotation > maxRotation) {
 				double ratio = maxRotation / Math.abs(rotation);
 				
-				body.angularVelocity *= ratio;
+				av[i] *= ratio;
 				rotation *= ratio;
 			}
 			
-			// recompute the translation/rotation in case we hit the maximums
-			// inline body.translate(body.velocity.product(dt));
-			body.translate(translationX, translationY);
-			body.rotateAboutCenter(rotation);
+			store.translate(i, translationX, translationY);
+			// rotate about the world center of mass
+			double wcx = cos[i] * cx[i] - sin[i] * cy[i] + x[i];
+			double wcy = sin[i] * cx[i] + cos[i] * cy[i] + y[i];
+			store.rotate(i, rotation, wcx, wcy);
 		}
 		
 		// solve the position constraints
 		boolean positionConstraintsSolved = false;
 		for (int i = 0; i < positionSolverIterations; i++) {
-			boolean contactsSolved = solver.solvePositionContraints(this.contactConstraints, step, settings);
+			boolean contactsSolved = solver.solvePositionContraints(this.contactConstraints, store, step, settings);
 			
 			// solve the joint position constraints
 			boolean jointsSolved = true;
 			for (int j = 0; j < jSize; j++) {
 				Joint joint = this.joints.get(j);
+				this.writeTo(store, joint);
 				boolean jointSolved = joint.solvePositionConstraints(step, settings);
+				this.readFrom(store, joint);
 				jointsSolved = jointsSolved && jointSolved;
 			}
 			
@@ -252,40 +766,49 @@ final class Island {
 			}
 		}
 		
-		// see if sleep is enabled
-		if (settings.isAutoSleepingEnabled()) {
-			double minSleepTime = Double.MAX_VALUE;
-			// check for sleep-able bodies
-			for (int i = 0; i < size; i++) {
-				Body body = this.bodies.get(i);
-				// just skip static bodies
-				if (body.isStatic()) continue;
-				// see if the body is allowed to sleep
-				if (body.isAutoSleepingEnabled()) {
-					// check the linear and angular velocity
-					if (body.velocity.getMagnitudeSquared() > sleepLinearVelocitySquared || body.angularVelocity > sleepAngularVelocity) {
-						// if either the linear or angular velocity is above the 
-						// threshold then reset the sleep time
-						body.sleepTime = 0.0;
-						minSleepTime = 0.0;
-					} else {
-						// then increment the sleep time
-						body.sleepTime += step.dt;
-						minSleepTime = Math.min(minSleepTime, body.sleepTime);
-					}
-				} else {
-					body.sleepTime = 0.0;
-					minSleepTime = 0.0;
-				}
-			}
-			
-			// check the min sleep time
-			if (minSleepTime >= sleepTime && positionConstraintsSolved) {
-				for (int i = 0; i < size; i++) {
-					Body body = this.bodies.get(i);
-					body.setAsleep(true);
-				}
-			}
+		// write the state back to the bodies
+		store.writeBack();
+		store.clear();
+		
+		if (statistics != null) {
+			this.velocityTime = velocity - start;
+			this.positionTime = System.nanoTime() - velocity;
+		}
+		
+		return positionConstraintsSolved;
+	}
+	
+	/**
+	 * Copies the state of the given {@link Joint}'s {@link Body}s from the given store to the {@link Body}s.
+	 * @param store the body state store
+	 * @param joint the joint
+	 * @since 3.3.1
+	 */
+	private void writeTo(BodyStateStore store, Joint joint) {
+		store.writeTo(joint.getBody1());
+		store.writeTo(joint.getBody2());
+	}
+	
+	/**
+	 * Copies the state of the given {@link Joint}'s {@link Body}s from the {@link Body}s to the given store.
+	 * @param store the body state store
+	 * @param joint the joint
+	 * @since 3.3.1
+	 */
+	private void readFrom(BodyStateStore store, Joint joint) {
+		store.readFrom(joint.getBody1());
+		store.readFrom(joint.getBody2());
+	}
+	
+	/**
+	 * Puts all the {@link Body}s on this island to sleep.
+	 * @since 3.3.1
+	 */
+	void sleep() {
+		int size = this.bodies.size();
+		for (int i = 0; i < size; i++) {
+			Body body = this.bodies.get(i);
+			body.setAsleep(true);
 		}
 	}
 }
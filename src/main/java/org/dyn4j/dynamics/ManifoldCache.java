@@ -0,0 +1,532 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.dyn4j.collision.manifold.Manifold;
+import org.dyn4j.collision.manifold.ManifoldPoint;
+import org.dyn4j.collision.manifold.ManifoldPointId;
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.collision.narrowphase.SeparatingAxisCache;
+import org.dyn4j.collision.narrowphase.SimplexCache;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Represents a cache of the {@link Penetration}s and {@link Manifold}s found for pairs of 
+ * {@link BodyFixture}s used to skip the narrow-phase for pairs that have barely moved.
+ * <p>
+ * A cached {@link Manifold} is stored relative to the {@link Body}s along with the relative
+ * transform of the {@link Body}s at the time it was found.  As long as the relative transform
+ * doesn't change by more than the given tolerances, the cached {@link Manifold} is re-projected
+ * using the current transforms of the {@link Body}s: the normals follow the first {@link Body}
+ * and the depths are updated by the relative motion of the {@link Body}s along the normal.
+ * Since the relative transform is compared to the one stored when the {@link Manifold} was
+ * found, and not to the one of the last step, slow drifting eventually causes a new detection.
+ * <p>
+ * Each entry also holds a {@link SimplexCache} and a {@link SeparatingAxisCache} used to warm
+ * start the narrow-phase of the pair when the cached {@link Manifold} can't be used.
+ * <p>
+ * The pairs are ordered; a pair reported in the opposite order is a different entry.  Entries
+ * that are not stored or used between two calls to {@link #update()} are removed.
+ * <p>
+ * This class is not thread safe.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+final class ManifoldCache {
+	/** The minimum size of the hash table; must be a power of two */
+	private static final int MINIMUM_TABLE_SIZE = 16;
+	
+	/** The maximum number of {@link ManifoldPoint}s that can be cached for a pair */
+	private static final int MAXIMUM_POINTS = 2;
+	
+	/**
+	 * Represents a cached {@link Penetration} and {@link Manifold}.
+	 * <p>
+	 * All the vectors are stored in the local coordinates of one of the {@link Body}s.
+	 * @author William Bittle
+	 * @version 3.3.1
+	 * @since 3.3.1
+	 */
+	private static final class Entry {
+		/** The first body */
+		Body body1;
+		
+		/** The second body */
+		Body body2;
+		
+		/** The first body's fixture */
+		BodyFixture fixture1;
+		
+		/** The second body's fixture */
+		BodyFixture fixture2;
+		
+		/** The key */
+		long key;
+		
+		/** The update generation this entry was last stored or used in */
+		int mark;
+		
+		/** The x coordinate of the second body's position in the first body's local coordinates */
+		double x;
+		
+		/** The y coordinate of the second body's position in the first body's local coordinates */
+		double y;
+		
+		/** The cosine of the rotation from the first body to the second body */
+		double cos;
+		
+		/** The sine of the rotation from the first body to the second body */
+		double sin;
+		
+		/** The penetration normal in the first body's local coordinates */
+		final Vector2 penetrationNormal = new Vector2();
+		
+		/** The penetration depth */
+		double penetrationDepth;
+		
+		/** The manifold normal in the first body's local coordinates */
+		final Vector2 manifoldNormal = new Vector2();
+		
+		/** The number of manifold points; zero if there's no cached manifold */
+		int count;
+		
+		/** The manifold point ids */
+		final ManifoldPointId[] ids = new ManifoldPointId[MAXIMUM_POINTS];
+		
+		/** The manifold points in the first body's local coordinates */
+		final Vector2[] points1 = new Vector2[] { new Vector2(), new Vector2() };
+		
+		/** The manifold points in the second body's local coordinates */
+		final Vector2[] points2 = new Vector2[] { new Vector2(), new Vector2() };
+		
+		/** The manifold point depths */
+		final double[] depths = new double[MAXIMUM_POINTS];
+		
+		/** The narrow-phase warm starting information */
+		final SimplexCache simplex = new SimplexCache();
+		
+		/** The narrow-phase warm starting information for {@link org.dyn4j.collision.narrowphase.Sat} */
+		final SeparatingAxisCache axis = new SeparatingAxisCache();
+	}
+	
+	/** The entries; the first {@link #size} are in use and the remaining are kept for reuse */
+	private Entry[] entries;
+	
+	/** The number of entries in use */
+	private int size;
+	
+	/** The open addressing hash table; holds the index of an entry plus one or zero if empty */
+	private int[] table;
+	
+	/** The current update generation */
+	private int generation;
+	
+	/**
+	 * Full constructor.
+	 * @param initialCapacity the expected number of pairs
+	 */
+	public ManifoldCache(int initialCapacity) {
+		int capacity = Math.max(initialCapacity, 1);
+		this.entries = new Entry[capacity];
+		this.size = 0;
+		this.table = new int[getTableSize(capacity)];
+		this.generation = 1;
+	}
+	
+	/**
+	 * Returns the hash table size for the given number of entries.
+	 * <p>
+	 * The table is kept at most half full.
+	 * @param capacity the number of entries
+	 * @return int
+	 */
+	private static int getTableSize(int capacity) {
+		int n = MINIMUM_TABLE_SIZE;
+		while (n < capacity * 2) {
+			n <<= 1;
+		}
+		return n;
+	}
+	
+	/**
+	 * Returns the key for the given pair.
+	 * <p>
+	 * The sequence ids of the {@link BodyFixture}s are unique so the {@link Body}s are
+	 * only compared to confirm a match.
+	 * @param fixture1 the first body's fixture
+	 * @param fixture2 the second body's fixture
+	 * @return long
+	 */
+	private static long getKey(BodyFixture fixture1, BodyFixture fixture2) {
+		return ((long)fixture1.getSequenceId() << 32) | (fixture2.getSequenceId() & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Returns the home slot in the hash table of the given key.
+	 * @param key the key
+	 * @return int
+	 */
+	private int getSlot(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32)) & (this.table.length - 1);
+	}
+	
+	/**
+	 * Returns the hash table slot of the entry for the given pair or the complement
+	 * of the empty slot where it would be placed.
+	 * @param body1 the first body
+	 * @param fixture1 the first body's fixture
+	 * @param body2 the second body
+	 * @param fixture2 the second body's fixture
+	 * @param key the key of the pair
+	 * @return int
+	 */
+	private int find(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, long key) {
+		int mask = this.table.length - 1;
+		int slot = this.getSlot(key);
+		int entry;
+		while ((entry = this.table[slot]) != 0) {
+			Entry e = this.entries[entry - 1];
+			if (e.key == key && e.fixture1 == fixture1 && e.fixture2 == fixture2 && e.body1 == body1 && e.body2 == body2) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return ~slot;
+	}
+	
+	/**
+	 * Rebuilds the hash table using the given size.
+	 * @param tableSize the new table size; must be a power of two
+	 */
+	private void rehash(int tableSize) {
+		if (tableSize == this.table.length) {
+			Arrays.fill(this.table, 0);
+		} else {
+			this.table = new int[tableSize];
+		}
+		int mask = tableSize - 1;
+		for (int i = 0; i < this.size; i++) {
+			int slot = this.getSlot(this.entries[i].key);
+			while (this.table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			this.table[slot] = i + 1;
+		}
+	}
+	
+	/**
+	 * Fills in the given {@link Penetration} and {@link Manifold} from the cached entry of the
+	 * given pair if the relative transform of the {@link Body}s changed by less than the given
+	 * tolerances since the entry was stored.
+	 * <p>
+	 * Returns false if there's no cached {@link Manifold} for the pair, if the {@link Body}s moved
+	 * too much or if any re-projected depth is no longer positive.  The given {@link Penetration} and
+	 * {@link Manifold} are not modified in this case.
+	 * @param body1 the first body
+	 * @param fixture1 the first body's fixture
+	 * @param body2 the second body
+	 * @param fixture2 the second body's fixture
+	 * @param linearTolerance the maximum change in the relative position
+	 * @param angularTolerance the maximum change in the relative rotation in radians
+	 * @param penetration the penetration to fill in
+	 * @param manifold the manifold to fill in
+	 * @return boolean true if the cached entry was used
+	 */
+	public boolean get(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, double linearTolerance, double angularTolerance, Penetration penetration, Manifold manifold) {
+		if (this.size == 0) return false;
+		int slot = this.find(body1, fixture1, body2, fixture2, getKey(fixture1, fixture2));
+		if (slot < 0) return false;
+		Entry e = this.entries[this.table[slot] - 1];
+		if (e.count == 0) return false;
+		
+		Transform t1 = body1.getTransform();
+		Transform t2 = body2.getTransform();
+		double c1 = t1.getCost();
+		double s1 = t1.getSint();
+		double x1 = t1.getTranslationX();
+		double y1 = t1.getTranslationY();
+		
+		// compare the relative rotations; the sine of the difference
+		// is used since the tolerance is small
+		double c2 = t2.getCost();
+		double s2 = t2.getSint();
+		double c = c1 * c2 + s1 * s2;
+		double s = c1 * s2 - s1 * c2;
+		double cd = e.cos * c + e.sin * s;
+		double sd = e.cos * s - e.sin * c;
+		if (cd <= 0.0 || Math.abs(sd) > angularTolerance) return false;
+		
+		// compare the relative positions
+		double dx = t2.getTranslationX() - x1;
+		double dy = t2.getTranslationY() - y1;
+		double rx = c1 * dx + s1 * dy - e.x;
+		double ry = -s1 * dx + c1 * dy - e.y;
+		if (rx * rx + ry * ry > linearTolerance * linearTolerance) return false;
+		
+		// the penetration normal in world coordinates
+		Vector2 pn = e.penetrationNormal;
+		double nx = c1 * pn.x - s1 * pn.y;
+		double ny = s1 * pn.x + c1 * pn.y;
+		
+		// re-project the points; a point is attached to both bodies and the motion of
+		// the second body relative to the first along the normal reduces the depth
+		ManifoldPoint[] points = new ManifoldPoint[e.count];
+		double motion = 0.0;
+		for (int i = 0; i < e.count; i++) {
+			Vector2 p1 = e.points1[i];
+			Vector2 p2 = e.points2[i];
+			double wx1 = t1.getTransformedX(p1);
+			double wy1 = t1.getTransformedY(p1);
+			double wx2 = t2.getTransformedX(p2);
+			double wy2 = t2.getTransformedY(p2);
+			double d = (wx2 - wx1) * nx + (wy2 - wy1) * ny;
+			double depth = e.depths[i] - d;
+			if (depth <= 0.0) return false;
+			points[i] = new ManifoldPoint(e.ids[i], new Vector2((wx1 + wx2) * 0.5, (wy1 + wy2) * 0.5), depth);
+			motion += d;
+		}
+		double depth = e.penetrationDepth - motion / e.count;
+		if (depth <= 0.0) return false;
+		
+		penetration.setNormal(new Vector2(nx, ny));
+		penetration.setDepth(depth);
+		
+		Vector2 mn = e.manifoldNormal;
+		manifold.clear();
+		manifold.setNormal(new Vector2(c1 * mn.x - s1 * mn.y, s1 * mn.x + c1 * mn.y));
+		List<ManifoldPoint> mps = manifold.getPoints();
+		for (int i = 0; i < e.count; i++) {
+			mps.add(points[i]);
+		}
+		
+		e.mark = this.generation;
+		return true;
+	}
+	
+	/**
+	 * Stores the given penetration and {@link Manifold} for the given pair using
+	 * the current transforms of the {@link Body}s.
+	 * <p>
+	 * The penetration normal is passed separately since a {@link org.dyn4j.collision.manifold.ManifoldSolver}
+	 * may modify the normal of the {@link Penetration} it's given.
+	 * A {@link Manifold} without points or with more than two points is not stored and removes
+	 * the cached {@link Manifold} of the pair, if any.
+	 * @param body1 the first body
+	 * @param fixture1 the first body's fixture
+	 * @param body2 the second body
+	 * @param fixture2 the second body's fixture
+	 * @param normal the penetration normal the manifold was found from
+	 * @param depth the penetration depth
+	 * @param manifold the manifold
+	 */
+	public void put(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, Vector2 normal, double depth, Manifold manifold) {
+		List<ManifoldPoint> mps = manifold.getPoints();
+		int count = mps.size();
+		if (count == 0 || count > MAXIMUM_POINTS) {
+			// make sure a stale manifold isn't used
+			if (this.size == 0) return;
+			int slot = this.find(body1, fixture1, body2, fixture2, getKey(fixture1, fixture2));
+			if (slot >= 0) this.entries[this.table[slot] - 1].count = 0;
+			return;
+		}
+		
+		Entry e = this.getEntry(body1, fixture1, body2, fixture2);
+		
+		Transform t1 = body1.getTransform();
+		Transform t2 = body2.getTransform();
+		double c1 = t1.getCost();
+		double s1 = t1.getSint();
+		double c2 = t2.getCost();
+		double s2 = t2.getSint();
+		
+		// the relative transform
+		double dx = t2.getTranslationX() - t1.getTranslationX();
+		double dy = t2.getTranslationY() - t1.getTranslationY();
+		e.x = c1 * dx + s1 * dy;
+		e.y = -s1 * dx + c1 * dy;
+		e.cos = c1 * c2 + s1 * s2;
+		e.sin = c1 * s2 - s1 * c2;
+		
+		// the normals only need to be rotated
+		e.penetrationNormal.set(c1 * normal.x + s1 * normal.y, -s1 * normal.x + c1 * normal.y);
+		e.penetrationDepth = depth;
+		Vector2 mn = manifold.getNormal();
+		e.manifoldNormal.set(c1 * mn.x + s1 * mn.y, -s1 * mn.x + c1 * mn.y);
+		
+		e.count = count;
+		for (int i = 0; i < count; i++) {
+			ManifoldPoint mp = mps.get(i);
+			Vector2 p = mp.getPoint();
+			e.ids[i] = mp.getId();
+			e.points1[i].set(p);
+			t1.inverseTransform(e.points1[i]);
+			e.points2[i].set(p);
+			t2.inverseTransform(e.points2[i]);
+			e.depths[i] = mp.getDepth();
+		}
+		
+		e.mark = this.generation;
+	}
+	
+	/**
+	 * Returns the {@link SimplexCache} of the given pair.
+	 * <p>
+	 * An entry without a cached {@link Manifold} is created if the pair doesn't have one.  The
+	 * entry is kept until the next call to {@link #update()}.
+	 * @param body1 the first body
+	 * @param fixture1 the first body's fixture
+	 * @param body2 the second body
+	 * @param fixture2 the second body's fixture
+	 * @return {@link SimplexCache}
+	 */
+	public SimplexCache getSimplexCache(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2) {
+		Entry e = this.getEntry(body1, fixture1, body2, fixture2);
+		e.mark = this.generation;
+		return e.simplex;
+	}
+	
+	/**
+	 * Returns the {@link SeparatingAxisCache} of the given pair.
+	 * <p>
+	 * An entry without a cached {@link Manifold} is created if the pair doesn't have one.  The
+	 * entry is kept until the next call to {@link #update()}.
+	 * @param body1 the first body
+	 * @param fixture1 the first body's fixture
+	 * @param body2 the second body
+	 * @param fixture2 the second body's fixture
+	 * @return {@link SeparatingAxisCache}
+	 */
+	public SeparatingAxisCache getSeparatingAxisCache(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2) {
+		Entry e = this.getEntry(body1, fixture1, body2, fixture2);
+		e.mark = this.generation;
+		return e.axis;
+	}
+	
+	/**
+	 * Returns the entry of the given pair, creating an empty one if the pair doesn't have one.
+	 * @param body1 the first body
+	 * @param fixture1 the first body's fixture
+	 * @param body2 the second body
+	 * @param fixture2 the second body's fixture
+	 * @return Entry
+	 */
+	private Entry getEntry(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2) {
+		long key = getKey(fixture1, fixture2);
+		int slot = this.find(body1, fixture1, body2, fixture2, key);
+		if (slot >= 0) {
+			return this.entries[this.table[slot] - 1];
+		}
+		
+		// make sure there's room
+		if (this.size == this.entries.length) {
+			int capacity = this.size * 2;
+			this.entries = Arrays.copyOf(this.entries, capacity);
+			int tableSize = getTableSize(capacity);
+			if (tableSize > this.table.length) {
+				this.rehash(tableSize);
+				slot = this.find(body1, fixture1, body2, fixture2, key);
+			}
+		}
+		int index = this.size++;
+		Entry e = this.entries[index];
+		if (e == null) {
+			e = new Entry();
+			this.entries[index] = e;
+		}
+		e.body1 = body1;
+		e.body2 = body2;
+		e.fixture1 = fixture1;
+		e.fixture2 = fixture2;
+		e.key = key;
+		e.count = 0;
+		e.simplex.clear();
+		e.axis.clear();
+		this.table[~slot] = index + 1;
+		return e;
+	}
+	
+	/**
+	 * Removes the entries that haven't been stored or used since the last call to this method.
+	 */
+	public void update() {
+		int n = 0;
+		for (int i = 0; i < this.size; i++) {
+			Entry e = this.entries[i];
+			if (e.mark == this.generation) {
+				// swap so that the removed entries are kept for reuse
+				this.entries[i] = this.entries[n];
+				this.entries[n++] = e;
+			} else {
+				// release the references
+				e.body1 = null;
+				e.body2 = null;
+				e.fixture1 = null;
+				e.fixture2 = null;
+			}
+		}
+		if (n < this.size) {
+			this.size = n;
+			this.rehash(this.table.length);
+		}
+		this.generation++;
+		// start over when the generation wraps around
+		if (this.generation == 0) {
+			for (int i = 0; i < this.size; i++) {
+				this.entries[i].mark = 0;
+			}
+			this.generation = 1;
+		}
+	}
+	
+	/**
+	 * Removes all the entries.
+	 */
+	public void clear() {
+		if (this.size == 0) return;
+		for (int i = 0; i < this.size; i++) {
+			Entry e = this.entries[i];
+			e.body1 = null;
+			e.body2 = null;
+			e.fixture1 = null;
+			e.fixture2 = null;
+		}
+		this.size = 0;
+		Arrays.fill(this.table, 0);
+	}
+	
+	/**
+	 * Returns the number of cached pairs.
+	 * @return int
+	 */
+	public int size() {
+		return this.size;
+	}
+}
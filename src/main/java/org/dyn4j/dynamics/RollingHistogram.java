@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.Arrays;
+
+import org.dyn4j.resources.Messages;
+
+/**
+ * Represents a histogram of the most recent samples of a value.
+ * <p>
+ * A fixed number of samples are retained; once full, each new sample replaces the oldest one.
+ * Adding a sample is constant time and never allocates, making this class suitable for recording
+ * values every time step.  The statistics of the retained samples can then be queried at any time,
+ * for example, to export them to a metrics library.
+ * <p>
+ * All statistics return zero when no samples have been added.
+ * <p>
+ * This class is not thread safe.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ * @see StepStatistics
+ */
+public class RollingHistogram {
+	/** The samples in the order they were added; circular */
+	private final long[] samples;
+	
+	/** The sorted samples; only up to date when valid is true */
+	private final long[] sorted;
+	
+	/** The index the next sample will be stored at */
+	private int index;
+	
+	/** The number of samples */
+	private int count;
+	
+	/** True if the sorted samples are up to date */
+	private boolean valid;
+	
+	/**
+	 * Minimal constructor.
+	 * @param capacity the number of samples to retain
+	 * @throws IllegalArgumentException if capacity is less than or equal to zero
+	 */
+	public RollingHistogram(int capacity) {
+		if (capacity <= 0) throw new IllegalArgumentException(Messages.getString("dynamics.statistics.invalidCapacity"));
+		this.samples = new long[capacity];
+		this.sorted = new long[capacity];
+		this.index = 0;
+		this.count = 0;
+		this.valid = true;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("RollingHistogram[Capacity=").append(this.samples.length)
+		.append("|Count=").append(this.count)
+		.append("|Minimum=").append(this.getMinimum())
+		.append("|Maximum=").append(this.getMaximum())
+		.append("|Mean=").append(this.getMean())
+		.append("|Median=").append(this.getPercentile(0.5))
+		.append("]");
+		return sb.toString();
+	}
+	
+	/**
+	 * Adds the given sample, replacing the oldest sample if this histogram is full.
+	 * @param value the sample
+	 */
+	public void add(long value) {
+		this.samples[this.index] = value;
+		this.index++;
+		if (this.index == this.samples.length) {
+			this.index = 0;
+		}
+		if (this.count < this.samples.length) {
+			this.count++;
+		}
+		this.valid = false;
+	}
+	
+	/**
+	 * Removes all the samples.
+	 */
+	public void clear() {
+		this.index = 0;
+		this.count = 0;
+		this.valid = true;
+	}
+	
+	/**
+	 * Returns the maximum number of samples retained.
+	 * @return int
+	 */
+	public int getCapacity() {
+		return this.samples.length;
+	}
+	
+	/**
+	 * Returns the number of samples retained.
+	 * @return int
+	 */
+	public int getCount() {
+		return this.count;
+	}
+	
+	/**
+	 * Returns the most recently added sample.
+	 * @return long
+	 */
+	public long getLatest() {
+		if (this.count == 0) return 0;
+		int i = this.index - 1;
+		if (i < 0) i += this.samples.length;
+		return this.samples[i];
+	}
+	
+	/**
+	 * Returns the smallest sample.
+	 * @return long
+	 */
+	public long getMinimum() {
+		if (this.count == 0) return 0;
+		return this.getSorted()[0];
+	}
+	
+	/**
+	 * Returns the largest sample.
+	 * @return long
+	 */
+	public long getMaximum() {
+		if (this.count == 0) return 0;
+		return this.getSorted()[this.count - 1];
+	}
+	
+	/**
+	 * Returns the mean of the samples.
+	 * @return double
+	 */
+	public double getMean() {
+		if (this.count == 0) return 0.0;
+		double sum = 0.0;
+		for (int i = 0; i < this.count; i++) {
+			sum += this.samples[i];
+		}
+		return sum / this.count;
+	}
+	
+	/**
+	 * Returns the sample at the given percentile using the nearest-rank method.
+	 * <p>
+	 * For example, 0.5 returns the median and 0.99 returns the 99th percentile.
+	 * @param percentile the percentile in the range [0, 1]
+	 * @return long
+	 * @throws IllegalArgumentException if percentile is not in the range [0, 1]
+	 */
+	public long getPercentile(double percentile) {
+		if (!(percentile >= 0.0 && percentile <= 1.0)) throw new IllegalArgumentException(Messages.getString("dynamics.statistics.invalidPercentile"));
+		if (this.count == 0) return 0;
+		int rank = (int)Math.ceil(percentile * this.count);
+		return this.getSorted()[Math.max(rank - 1, 0)];
+	}
+	
+	/**
+	 * Returns the number of samples in each of the buckets defined by the given upper bounds.
+	 * <p>
+	 * The i<sup>th</sup> bucket contains the samples that are less than or equal to bounds[i] and
+	 * greater than bounds[i - 1].  The returned array has one more element than the given
+	 * bounds; the last bucket contains the samples greater than the last bound.
+	 * @param bounds the bucket upper bounds in ascending order
+	 * @return int[]
+	 * @throws NullPointerException if bounds is null
+	 */
+	public int[] getCounts(long... bounds) {
+		int[] counts = new int[bounds.length + 1];
+		long[] sorted = this.getSorted();
+		int b = 0;
+		for (int i = 0; i < this.count; i++) {
+			long value = sorted[i];
+			while (b < bounds.length && value > bounds[b]) {
+				b++;
+			}
+			counts[b]++;
+		}
+		return counts;
+	}
+	
+	/**
+	 * Returns a new array containing the samples from oldest to newest.
+	 * @return long[]
+	 */
+	public long[] getSamples() {
+		long[] samples = new long[this.count];
+		// the oldest sample is at the index once full
+		int start = this.count < this.samples.length ? 0 : this.index;
+		int n = this.samples.length - start;
+		if (n >= this.count) {
+			System.arraycopy(this.samples, start, samples, 0, this.count);
+		} else {
+			System.arraycopy(this.samples, start, samples, 0, n);
+			System.arraycopy(this.samples, 0, samples, n, this.count - n);
+		}
+		return samples;
+	}
+	
+	/**
+	 * Returns the samples in ascending order, sorting them if needed.
+	 * <p>
+	 * Only the first {@link #getCount()} elements are valid.
+	 * @return long[]
+	 */
+	private long[] getSorted() {
+		if (!this.valid) {
+			System.arraycopy(this.samples, 0, this.sorted, 0, this.count);
+			Arrays.sort(this.sorted, 0, this.count);
+			this.valid = true;
+		}
+		return this.sorted;
+	}
+}
@@ -29,7 +29,7 @@ import org.dyn4j.resources.Messages;
 /**
  * Responsible for housing all of the dynamics engine's settings.
  * @author William Bittle
- * @version 3.1.1
+ * @version 3.3.1
  * @since 1.0.0
  */
 public class Settings {
@@ -75,6 +75,12 @@ public class Settings {
 	/** The default baumgarte */
 	public static final double DEFAULT_BAUMGARTE = 0.2;
 	
+	/** The default manifold cache linear tolerance; in meters */
+	public static final double DEFAULT_MANIFOLD_CACHE_LINEAR_TOLERANCE = 0.001;
+	
+	/** The default manifold cache angular tolerance; in radians */
+	public static final double DEFAULT_MANIFOLD_CACHE_ANGULAR_TOLERANCE = Math.toRadians(0.5);
+	
 	/** The step frequency of the dynamics engine */
 	private double stepFrequency = Settings.DEFAULT_STEP_FREQUENCY;
 	
@@ -156,6 +162,24 @@ public class Settings {
 	/** The continuous collision detection flag */
 	private ContinuousDetectionMode continuousDetectionMode = ContinuousDetectionMode.ALL;
 	
+	/** True if the packed body state store should be used when solving islands */
+	private boolean bodyStateStoreEnabled = false;
+	
+	/** True if the contact manifolds of pairs that barely moved should be reused */
+	private boolean manifoldCacheEnabled = false;
+	
+	/** The maximum relative linear motion of a pair for its contact manifold to be reused */
+	private double manifoldCacheLinearTolerance = Settings.DEFAULT_MANIFOLD_CACHE_LINEAR_TOLERANCE;
+	
+	/** The maximum relative angular motion of a pair for its contact manifold to be reused */
+	private double manifoldCacheAngularTolerance = Settings.DEFAULT_MANIFOLD_CACHE_ANGULAR_TOLERANCE;
+	
+	/** True if the narrow-phase of a pair should be warm started from its last detection */
+	private boolean simplexCacheEnabled = false;
+	
+	/** True if the {@link org.dyn4j.collision.narrowphase.Sat} narrow-phase of a pair should start from its last separating axis */
+	private boolean separatingAxisCacheEnabled = false;
+	
 	/** Default constructor */
 	public Settings() {}
 	
@@ -182,6 +206,12 @@ public class Settings {
 		.append("|MaximumAngularCorrection=").append(this.maximumAngularCorrection)
 		.append("|Baumgarte=").append(this.baumgarte)
 		.append("|ContinuousDetectionMode=").append(this.continuousDetectionMode)
+		.append("|BodyStateStoreEnabled=").append(this.bodyStateStoreEnabled)
+		.append("|ManifoldCacheEnabled=").append(this.manifoldCacheEnabled)
+		.append("|ManifoldCacheLinearTolerance=").append(this.manifoldCacheLinearTolerance)
+		.append("|ManifoldCacheAngularTolerance=").append(this.manifoldCacheAngularTolerance)
+		.append("|SimplexCacheEnabled=").append(this.simplexCacheEnabled)
+		.append("|SeparatingAxisCacheEnabled=").append(this.separatingAxisCacheEnabled)
 		.append("]");
 		return sb.toString();
 	}
@@ -215,6 +245,12 @@ public class Settings {
 		this.angularToleranceSquared = Settings.DEFAULT_ANGULAR_TOLERANCE * Settings.DEFAULT_ANGULAR_TOLERANCE;
 		this.baumgarte = Settings.DEFAULT_BAUMGARTE;
 		this.continuousDetectionMode = ContinuousDetectionMode.ALL;
+		this.bodyStateStoreEnabled = false;
+		this.manifoldCacheEnabled = false;
+		this.manifoldCacheLinearTolerance = Settings.DEFAULT_MANIFOLD_CACHE_LINEAR_TOLERANCE;
+		this.manifoldCacheAngularTolerance = Settings.DEFAULT_MANIFOLD_CACHE_ANGULAR_TOLERANCE;
+		this.simplexCacheEnabled = false;
+		this.separatingAxisCacheEnabled = false;
 	}
 	
 	/**
@@ -716,4 +752,180 @@ public class Settings {
 		// set the mode
 		this.continuousDetectionMode = mode;
 	}
+	
+	/**
+	 * Returns true if the packed {@link BodyStateStore} is used when solving islands.
+	 * @return boolean
+	 * @since 3.3.1
+	 * @see #setBodyStateStoreEnabled(boolean)
+	 */
+	public boolean isBodyStateStoreEnabled() {
+		return this.bodyStateStoreEnabled;
+	}
+	
+	/**
+	 * Sets whether the packed {@link BodyStateStore} is used when solving islands.
+	 * <p>
+	 * When enabled, the state of the {@link Body}s on an island is copied into contiguous
+	 * arrays before the island is integrated and solved and copied back to the {@link Body}s
+	 * when the island has been solved.  This improves the memory access pattern of the
+	 * integrator and of the contact solver for large islands.
+	 * <p>
+	 * The store is only used if the contact constraint solver implements the
+	 * {@link org.dyn4j.dynamics.contact.BodyStateContactConstraintSolver} interface, like
+	 * the default {@link org.dyn4j.dynamics.contact.SequentialImpulses} solver.  The results
+	 * are identical to those produced without the store.
+	 * @param flag true if the store should be used
+	 * @since 3.3.1
+	 */
+	public void setBodyStateStoreEnabled(boolean flag) {
+		this.bodyStateStoreEnabled = flag;
+	}
+	
+	/**
+	 * Returns true if the contact manifolds of pairs that barely moved are reused.
+	 * @return boolean
+	 * @since 3.3.1
+	 * @see #setManifoldCacheEnabled(boolean)
+	 */
+	public boolean isManifoldCacheEnabled() {
+		return this.manifoldCacheEnabled;
+	}
+	
+	/**
+	 * Sets whether the contact manifolds of pairs that barely moved are reused.
+	 * <p>
+	 * When enabled, the penetration and contact manifold found for a pair of fixtures are
+	 * kept until the next detection.  If the relative position and rotation of the bodies 
+	 * changed by less than the manifold cache tolerances since they were found, they're 
+	 * re-projected using the current positions of the bodies instead of performing the 
+	 * narrow-phase and manifold solving again.  This makes resting contacts much cheaper
+	 * at the expense of small errors in the contact points.
+	 * <p>
+	 * The cache is cleared when an update is required.  Changes to the shapes of the fixtures
+	 * must be followed by a call to {@link World#setUpdateRequired(boolean)}.
+	 * @param flag true if the contact manifolds should be reused
+	 * @since 3.3.1
+	 * @see #setManifoldCacheLinearTolerance(double)
+	 * @see #setManifoldCacheAngularTolerance(double)
+	 */
+	public void setManifoldCacheEnabled(boolean flag) {
+		this.manifoldCacheEnabled = flag;
+	}
+	
+	/**
+	 * Returns the manifold cache linear tolerance.
+	 * @return double
+	 * @since 3.3.1
+	 * @see #setManifoldCacheLinearTolerance(double)
+	 */
+	public double getManifoldCacheLinearTolerance() {
+		return this.manifoldCacheLinearTolerance;
+	}
+	
+	/**
+	 * Sets the manifold cache linear tolerance.
+	 * <p>
+	 * This is the maximum distance the bodies of a pair can move relative to each other 
+	 * for their contact manifold to be reused.
+	 * <p>
+	 * Valid values are in the range [0, &infin;] meters
+	 * @param manifoldCacheLinearTolerance the manifold cache linear tolerance
+	 * @throws IllegalArgumentException if manifoldCacheLinearTolerance is less than zero
+	 * @since 3.3.1
+	 * @see #setManifoldCacheEnabled(boolean)
+	 */
+	public void setManifoldCacheLinearTolerance(double manifoldCacheLinearTolerance) {
+		if (manifoldCacheLinearTolerance < 0) throw new IllegalArgumentException(Messages.getString("dynamics.settings.invalidManifoldCacheLinearTolerance"));
+		this.manifoldCacheLinearTolerance = manifoldCacheLinearTolerance;
+	}
+	
+	/**
+	 * Returns the manifold cache angular tolerance.
+	 * @return double
+	 * @since 3.3.1
+	 * @see #setManifoldCacheAngularTolerance(double)
+	 */
+	public double getManifoldCacheAngularTolerance() {
+		return this.manifoldCacheAngularTolerance;
+	}
+	
+	/**
+	 * Sets the manifold cache angular tolerance.
+	 * <p>
+	 * This is the maximum angle the bodies of a pair can rotate relative to each other 
+	 * for their contact manifold to be reused.
+	 * <p>
+	 * Valid values are in the range [0, &infin;] radians
+	 * @param manifoldCacheAngularTolerance the manifold cache angular tolerance
+	 * @throws IllegalArgumentException if manifoldCacheAngularTolerance is less than zero
+	 * @since 3.3.1
+	 * @see #setManifoldCacheEnabled(boolean)
+	 */
+	public void setManifoldCacheAngularTolerance(double manifoldCacheAngularTolerance) {
+		if (manifoldCacheAngularTolerance < 0) throw new IllegalArgumentException(Messages.getString("dynamics.settings.invalidManifoldCacheAngularTolerance"));
+		this.manifoldCacheAngularTolerance = manifoldCacheAngularTolerance;
+	}
+	
+	/**
+	 * Returns true if the narrow-phase of a pair is warm started from its last detection.
+	 * @return boolean
+	 * @since 3.3.1
+	 * @see #setSimplexCacheEnabled(boolean)
+	 */
+	public boolean isSimplexCacheEnabled() {
+		return this.simplexCacheEnabled;
+	}
+	
+	/**
+	 * Sets whether the narrow-phase of a pair is warm started from its last detection.
+	 * <p>
+	 * When enabled and the narrow-phase detector is {@link org.dyn4j.collision.narrowphase.Gjk}, 
+	 * the last search direction of each pair of fixtures is kept and used as the initial
+	 * direction of the next detection of the pair.  Pairs whose bodies move little between
+	 * steps typically need fewer iterations.  The penetrations found can differ slightly
+	 * from the ones found without warm starting, within the tolerances of the detector.
+	 * <p>
+	 * The cache is cleared when an update is required.
+	 * @param flag true if the narrow-phase should be warm started
+	 * @since 3.3.1
+	 */
+	public void setSimplexCacheEnabled(boolean flag) {
+		this.simplexCacheEnabled = flag;
+	}
+	
+	/**
+	 * Returns true if the {@link org.dyn4j.collision.narrowphase.Sat} narrow-phase of a pair
+	 * starts from its last separating axis.
+	 * @return boolean
+	 * @since 3.3.1
+	 * @see #setSeparatingAxisCacheEnabled(boolean)
+	 */
+	public boolean isSeparatingAxisCacheEnabled() {
+		return this.separatingAxisCacheEnabled;
+	}
+	
+	/**
+	 * Sets whether the {@link org.dyn4j.collision.narrowphase.Sat} narrow-phase of a pair starts
+	 * from its last separating axis.
+	 * <p>
+	 * When enabled and the narrow-phase detector is {@link org.dyn4j.collision.narrowphase.Sat}
+	 * or {@link org.dyn4j.collision.narrowphase.DispatchingNarrowphaseDetector}, the axis that
+	 * separated each pair of fixtures, or its axis of minimum penetration, is kept and tested
+	 * first in the next detection of the pair.  Pairs that stay separated typically need a
+	 * single projection.  The results are the same as without the cache.
+	 * <p>
+	 * The axes are kept in the same per-pair entries as the manifold cache, so every pair
+	 * tested by the narrow-phase holds an entry, a few hundred bytes, for as long as it's
+	 * reported by the broad-phase, and the entries are looked up and updated every step.
+	 * This pays off when the polygons have many vertices; for boxes and triangles the lookup
+	 * can cost more than the projections it saves.
+	 * <p>
+	 * The cache is cleared when an update is required.
+	 * @param flag true if the last separating axis should be tested first
+	 * @since 3.3.1
+	 */
+	public void setSeparatingAxisCacheEnabled(boolean flag) {
+		this.separatingAxisCacheEnabled = flag;
+	}
 }
@@ -30,8 +30,10 @@ package org.dyn4j.dynamics;
  * The {@link World} class maintains an instance of this class to perform various functions.
  * <p>
  * A time step represents the elapsed time since the last update.
+ * <p>
+ * When enabled, the {@link StepStatistics} of the current time step are also available.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.1
  * @since 1.0.0
  */
 public class Step {
@@ -49,6 +51,9 @@ public class Step {
 	
 	/** The elapsed time ratio from the last to the current */
 	protected double dtRatio;
+	
+	/** The statistics of the current time step; null if disabled */
+	protected StepStatistics statistics;
 
 	/**
 	 * Default constructor.
@@ -133,4 +138,16 @@ public class Step {
 	public double getPreviousInverseDeltaTime() {
 		return this.invdt0;
 	}
+	
+	/**
+	 * Returns the statistics of the current time step.
+	 * <p>
+	 * Returns null unless statistics have been enabled using the
+	 * {@link World#setStepStatistics(StepStatistics)} method.
+	 * @return {@link StepStatistics}
+	 * @since 3.3.1
+	 */
+	public StepStatistics getStatistics() {
+		return this.statistics;
+	}
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+/**
+ * Enumeration of the phases of a {@link World} time step measured by {@link StepStatistics}.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public enum StepPhase {
+	/** Checking the bounds of the {@link Body}s and updating the broad-phase with their new positions */
+	BROADPHASE_UPDATE,
+	
+	/** Finding the overlapping pairs in the broad-phase */
+	BROADPHASE_DETECT,
+	
+	/** 
+	 * Testing the broad-phase pairs in the narrow-phase.
+	 * <p>
+	 * When the narrow-phase is performed concurrently this also includes the manifold solving.
+	 */
+	NARROWPHASE,
+	
+	/** Finding the contact manifolds of the narrow-phase collisions */
+	MANIFOLD,
+	
+	/** Matching the new contacts to the last step's contacts and warm starting them */
+	CONTACT_UPDATE,
+	
+	/** Building the islands from the contact and joint graph */
+	ISLAND_BUILD,
+	
+	/** Integrating the velocities and solving the velocity constraints */
+	VELOCITY_SOLVE,
+	
+	/** Integrating the positions and solving the position constraints */
+	POSITION_SOLVE,
+	
+	/** Continuous collision detection */
+	CONTINUOUS,
+	
+	/** 
+	 * The entire time step, including the listener notifications.
+	 * <p>
+	 * The notification of the {@link StepListener#end(Step, World)} method is not included.
+	 */
+	STEP
+}
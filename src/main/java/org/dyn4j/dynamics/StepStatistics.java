@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import org.dyn4j.resources.Messages;
+
+/**
+ * Represents the time spent in each {@link StepPhase} of a {@link World} time step along with
+ * the number of pairs, collisions, contacts and islands processed.
+ * <p>
+ * Statistics are only collected when an instance of this class is set on the {@link World} using
+ * the {@link World#setStepStatistics(StepStatistics)} method.  When not set, the cost to the
+ * {@link World} is a null check per phase.  Once set, the statistics of the current step are
+ * available from the {@link Step#getStatistics()} method, making them accessible to 
+ * {@link StepListener}s; the {@link StepListener#end(Step, World)} method is the best place to
+ * read them.
+ * <p>
+ * Times are measured using {@link System#nanoTime()} and are reported in nanoseconds.  Times and
+ * counts are reset at the beginning of each step and accumulate over the step.  Since the 
+ * {@link World#detect()} method is performed at the beginning of a step when an update is
+ * required and again at the end of the step, the detection phases may include both.
+ * <p>
+ * When the islands are solved concurrently, the {@link StepPhase#VELOCITY_SOLVE} and 
+ * {@link StepPhase#POSITION_SOLVE} times are the sum of the times spent on each island and may
+ * exceed the {@link StepPhase#STEP} time.
+ * <p>
+ * When created with a history size greater than zero, a {@link RollingHistogram} of the most recent
+ * step times is kept for each {@link StepPhase}.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class StepStatistics {
+	/** The phases; cached to avoid copying the array */
+	private static final StepPhase[] PHASES = StepPhase.values();
+	
+	/** The time spent in each phase; indexed by ordinal */
+	private final long[] times;
+	
+	/** The time histograms of each phase; null if the history is disabled */
+	private final RollingHistogram[] histograms;
+	
+	/** The number of pairs found by the broad-phase */
+	int pairCount;
+	
+	/** The number of pairs found colliding by the narrow-phase */
+	int collisionCount;
+	
+	/** The number of contact constraints created */
+	int contactConstraintCount;
+	
+	/** The number of colliding pairs whose cached contact manifold was reused */
+	int manifoldCacheHitCount;
+	
+	/** The number of islands solved */
+	int islandCount;
+	
+	/**
+	 * Default constructor.
+	 * <p>
+	 * No history is kept.
+	 */
+	public StepStatistics() {
+		this(0);
+	}
+	
+	/**
+	 * Full constructor.
+	 * @param historySize the number of steps to keep in each phase's {@link RollingHistogram}; zero to disable
+	 * @throws IllegalArgumentException if historySize is negative
+	 */
+	public StepStatistics(int historySize) {
+		if (historySize < 0) throw new IllegalArgumentException(Messages.getString("dynamics.statistics.invalidHistorySize"));
+		this.times = new long[PHASES.length];
+		if (historySize > 0) {
+			this.histograms = new RollingHistogram[PHASES.length];
+			for (int i = 0; i < PHASES.length; i++) {
+				this.histograms[i] = new RollingHistogram(historySize);
+			}
+		} else {
+			this.histograms = null;
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("StepStatistics[");
+		for (int i = 0; i < PHASES.length; i++) {
+			sb.append(PHASES[i]).append("=").append(this.times[i]).append("|");
+		}
+		sb.append("PairCount=").append(this.pairCount)
+		.append("|CollisionCount=").append(this.collisionCount)
+		.append("|ContactConstraintCount=").append(this.contactConstraintCount)
+		.append("|ManifoldCacheHitCount=").append(this.manifoldCacheHitCount)
+		.append("|IslandCount=").append(this.islandCount)
+		.append("]");
+		return sb.toString();
+	}
+	
+	/**
+	 * Resets the times and counts for a new step.
+	 */
+	void begin() {
+		for (int i = 0; i < PHASES.length; i++) {
+			this.times[i] = 0;
+		}
+		this.pairCount = 0;
+		this.collisionCount = 0;
+		this.contactConstraintCount = 0;
+		this.manifoldCacheHitCount = 0;
+		this.islandCount = 0;
+	}
+	
+	/**
+	 * Records the times of the step in the histograms, if enabled.
+	 */
+	void end() {
+		if (this.histograms != null) {
+			for (int i = 0; i < PHASES.length; i++) {
+				this.histograms[i].add(this.times[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Adds the given time to the given phase.
+	 * @param phase the phase
+	 * @param time the time in nanoseconds
+	 */
+	void add(StepPhase phase, long time) {
+		this.times[phase.ordinal()] += time;
+	}
+	
+	/**
+	 * Adds the solve times of the given solved island.
+	 * @param island the island
+	 */
+	void add(Island island) {
+		this.times[StepPhase.VELOCITY_SOLVE.ordinal()] += island.velocityTime;
+		this.times[StepPhase.POSITION_SOLVE.ordinal()] += island.positionTime;
+		this.islandCount++;
+	}
+	
+	/**
+	 * Clears the times, counts and history.
+	 */
+	public void clear() {
+		this.begin();
+		if (this.histograms != null) {
+			for (int i = 0; i < PHASES.length; i++) {
+				this.histograms[i].clear();
+			}
+		}
+	}
+	
+	/**
+	 * Returns the time spent in the given phase in nanoseconds.
+	 * @param phase the phase
+	 * @return long
+	 * @throws NullPointerException if phase is null
+	 */
+	public long getTime(StepPhase phase) {
+		return this.times[phase.ordinal()];
+	}
+	
+	/**
+	 * Returns the {@link RollingHistogram} of the times of the given phase.
+	 * <p>
+	 * Returns null if this object was created without a history.
+	 * @param phase the phase
+	 * @return {@link RollingHistogram}
+	 */
+	public RollingHistogram getHistogram(StepPhase phase) {
+		if (this.histograms == null) return null;
+		return this.histograms[phase.ordinal()];
+	}
+	
+	/**
+	 * Returns the number of steps kept in each {@link RollingHistogram}.
+	 * <p>
+	 * Returns zero if the history is disabled.
+	 * @return int
+	 */
+	public int getHistorySize() {
+		if (this.histograms == null) return 0;
+		return this.histograms[0].getCapacity();
+	}
+	
+	/**
+	 * Returns the number of pairs found by the broad-phase.
+	 * @return int
+	 */
+	public int getPairCount() {
+		return this.pairCount;
+	}
+	
+	/**
+	 * Returns the number of pairs found colliding by the narrow-phase.
+	 * @return int
+	 */
+	public int getCollisionCount() {
+		return this.collisionCount;
+	}
+	
+	/**
+	 * Returns the number of {@link org.dyn4j.dynamics.contact.ContactConstraint}s created.
+	 * @return int
+	 */
+	public int getContactConstraintCount() {
+		return this.contactConstraintCount;
+	}
+	
+	/**
+	 * Returns the number of colliding pairs whose cached contact manifold was reused.
+	 * @return int
+	 * @see Settings#setManifoldCacheEnabled(boolean)
+	 */
+	public int getManifoldCacheHitCount() {
+		return this.manifoldCacheHitCount;
+	}
+	
+	/**
+	 * Returns the number of islands solved.
+	 * @return int
+	 */
+	public int getIslandCount() {
+		return this.islandCount;
+	}
+}
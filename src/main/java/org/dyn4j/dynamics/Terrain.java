@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.dyn4j.collision.broadphase.BroadphaseDetector;
+import org.dyn4j.collision.broadphase.BroadphaseItem;
+import org.dyn4j.collision.broadphase.StaticAABBTree;
+import org.dyn4j.collision.narrowphase.LinkPostProcessor;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Link;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.resources.Messages;
+
+/**
+ * Represents a static {@link Body} made of many {@link Convex} pieces, like the chain of {@link Link}s
+ * created by {@link Geometry#createLinks(Vector2[], boolean)} for the ground of a large level.
+ * <p>
+ * Each piece is a {@link BodyFixture} of the terrain, but the fixtures are not added to the
+ * {@link World}'s {@link BroadphaseDetector}.  Instead, the terrain keeps them in its own
+ * {@link StaticAABBTree} which the {@link World} queries with the fixtures of the other {@link Body}s.
+ * The contacts are then found for each nearby piece as usual and the {@link LinkPostProcessor}
+ * still smooths the contacts across connected {@link Link}s.
+ * <p>
+ * The fixtures of a terrain cannot be added or removed one by one after it's created; an
+ * {@link UnsupportedOperationException} is thrown instead.  All of them can be removed at once
+ * with {@link #removeAllFixtures()}, which leaves an empty terrain.
+ * <p>
+ * A terrain has infinite mass and should remain static.  It can be moved, but its tree is rebuilt
+ * the next time it's queried after each move.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class Terrain extends Body {
+	/** The tree of the fixtures; null until first queried */
+	private StaticAABBTree<Body, BodyFixture> tree;
+	
+	/** The transform the tree was built with */
+	private final Transform treeTransform;
+	
+	/**
+	 * Creates a new terrain with a {@link BodyFixture} for each of the given shapes.
+	 * @param shapes the shapes
+	 * @throws NullPointerException if shapes is null or contains null elements
+	 */
+	public Terrain(List<? extends Convex> shapes) {
+		if (shapes == null) throw new NullPointerException(Messages.getString("dynamics.terrain.nullShapeList"));
+		int size = shapes.size();
+		List<BodyFixture> fixtures = new ArrayList<BodyFixture>(size);
+		for (int i = 0; i < size; i++) {
+			Convex shape = shapes.get(i);
+			if (shape == null) throw new NullPointerException(Messages.getString("dynamics.body.addNullShape"));
+			fixtures.add(new BodyFixture(shape));
+		}
+		this.fixtures = Collections.unmodifiableList(fixtures);
+		this.treeTransform = new Transform();
+		this.setMass(MassType.INFINITE);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.Body#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Terrain[").append(super.toString())
+		.append("]");
+		return sb.toString();
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.Body#removeAllFixtures()
+	 */
+	@Override
+	public List<BodyFixture> removeAllFixtures() {
+		// the fixtures were never added to the broad-phase so only
+		// the fixture list and the tree need to be cleared
+		List<BodyFixture> fixtures = new ArrayList<BodyFixture>(this.fixtures);
+		this.fixtures = Collections.emptyList();
+		this.tree = null;
+		return fixtures;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.collision.AbstractCollidable#createAABB()
+	 */
+	@Override
+	public AABB createAABB() {
+		// the root of the tree already contains all the fixtures
+		AABB aabb = this.getTree().getAABB();
+		if (aabb != null) return aabb;
+		return super.createAABB();
+	}
+	
+	/**
+	 * Returns the fixtures of this terrain whose {@link AABB}s overlap the given world space {@link AABB}.
+	 * @param aabb the world space {@link AABB}
+	 * @return List&lt;{@link BodyFixture}&gt;
+	 */
+	public List<BodyFixture> getFixtures(AABB aabb) {
+		List<BroadphaseItem<Body, BodyFixture>> items = this.getTree().detect(aabb);
+		int size = items.size();
+		List<BodyFixture> fixtures = new ArrayList<BodyFixture>(size);
+		for (int i = 0; i < size; i++) {
+			fixtures.add(items.get(i).getFixture());
+		}
+		return fixtures;
+	}
+	
+	/**
+	 * Returns the tree of the fixtures of this terrain at its current position.
+	 * <p>
+	 * The tree is built on the first call and rebuilt whenever the terrain was moved since.
+	 * @return {@link StaticAABBTree}
+	 */
+	StaticAABBTree<Body, BodyFixture> getTree() {
+		Transform transform = this.transform;
+		Transform tt = this.treeTransform;
+		if (this.tree == null ||
+			tt.getTranslationX() != transform.getTranslationX() ||
+			tt.getTranslationY() != transform.getTranslationY() ||
+			tt.getCost() != transform.getCost() ||
+			tt.getSint() != transform.getSint()) {
+			tt.set(transform);
+			this.tree = new StaticAABBTree<Body, BodyFixture>(Collections.<Body>singletonList(this));
+		}
+		return this.tree;
+	}
+}
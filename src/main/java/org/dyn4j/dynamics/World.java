@@ -26,11 +26,16 @@ package org.dyn4j.dynamics;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.dyn4j.DataContainer;
 import org.dyn4j.Listener;
@@ -43,12 +48,14 @@ import org.dyn4j.collision.broadphase.BroadphaseFilter;
 import org.dyn4j.collision.broadphase.BroadphaseItem;
 import org.dyn4j.collision.broadphase.BroadphasePair;
 import org.dyn4j.collision.broadphase.DynamicAABBTree;
+import org.dyn4j.collision.broadphase.StaticAABBTree;
 import org.dyn4j.collision.continuous.ConservativeAdvancement;
 import org.dyn4j.collision.continuous.TimeOfImpact;
 import org.dyn4j.collision.continuous.TimeOfImpactDetector;
 import org.dyn4j.collision.manifold.ClippingManifoldSolver;
 import org.dyn4j.collision.manifold.Manifold;
 import org.dyn4j.collision.manifold.ManifoldSolver;
+import org.dyn4j.collision.narrowphase.DispatchingNarrowphaseDetector;
 import org.dyn4j.collision.narrowphase.Gjk;
 import org.dyn4j.collision.narrowphase.LinkPostProcessor;
 import org.dyn4j.collision.narrowphase.NarrowphaseDetector;
@@ -56,14 +63,20 @@ import org.dyn4j.collision.narrowphase.NarrowphasePostProcessor;
 import org.dyn4j.collision.narrowphase.Penetration;
 import org.dyn4j.collision.narrowphase.Raycast;
 import org.dyn4j.collision.narrowphase.RaycastDetector;
+import org.dyn4j.collision.narrowphase.Sat;
+import org.dyn4j.collision.narrowphase.SeparatingAxisCache;
+import org.dyn4j.collision.narrowphase.SimplexCache;
+import org.dyn4j.dynamics.contact.BatchedImpulses;
 import org.dyn4j.dynamics.contact.Contact;
 import org.dyn4j.dynamics.contact.ContactConstraint;
+import org.dyn4j.dynamics.contact.ContactConstraintPool;
 import org.dyn4j.dynamics.contact.ContactConstraintSolver;
 import org.dyn4j.dynamics.contact.ContactListener;
 import org.dyn4j.dynamics.contact.ContactManager;
 import org.dyn4j.dynamics.contact.ContactPoint;
 import org.dyn4j.dynamics.contact.DefaultContactManager;
 import org.dyn4j.dynamics.contact.SequentialImpulses;
+import org.dyn4j.dynamics.contact.SubSteppingImpulses;
 import org.dyn4j.dynamics.contact.TimeOfImpactSolver;
 import org.dyn4j.dynamics.joint.Joint;
 import org.dyn4j.geometry.AABB;
@@ -95,6 +108,9 @@ public class World implements Shiftable, DataContainer {
 	
 	/** Zero gravity constant */
 	public static final Vector2 ZERO_GRAVITY = new Vector2(0.0, 0.0);
+	
+	/** The number of broad-phase pairs tested by each task when performing the narrow-phase concurrently */
+	private static final int NARROWPHASE_BATCH_SIZE = 128;
 
 	/** The world id */
 	protected final UUID id = UUID.randomUUID();
@@ -147,6 +163,18 @@ public class World implements Shiftable, DataContainer {
 	
 	/** The {@link TimeOfImpactSolver} */
 	protected TimeOfImpactSolver timeOfImpactSolver;
+	
+	/** The {@link ExecutorService} used to solve islands concurrently; null to solve them serially */
+	protected ExecutorService islandExecutor;
+	
+	/** The {@link ExecutorService} used to perform the narrow-phase concurrently; null to perform it serially */
+	protected ExecutorService narrowphaseExecutor;
+	
+	/** The {@link ExecutorService} used to solve the constraints of large islands concurrently; null to solve them serially */
+	protected ExecutorService constraintExecutor;
+	
+	/** True if contact related objects are reused across steps */
+	protected boolean contactPoolingEnabled;
 
 	/** The application data associated */
 	protected Object userData;
@@ -163,6 +191,15 @@ public class World implements Shiftable, DataContainer {
 	/** The {@link Body} list */
 	private final List<Body> bodies;
 	
+	/** The {@link Terrain}s in the {@link Body} list; their fixtures are not in the broad-phase */
+	private final List<Terrain> terrains;
+	
+	/** The static {@link Body}s baked into the static layer; their fixtures are not in the broad-phase */
+	private final List<Body> bakedBodies;
+	
+	/** The tree of the fixtures of the baked {@link Body}s; null until it's needed */
+	private StaticAABBTree<Body, BodyFixture> bakedTree;
+	
 	/** The {@link Joint} list */
 	private final List<Joint> joints;
 	
@@ -171,6 +208,60 @@ public class World implements Shiftable, DataContainer {
 	/** The reusable island */
 	private Island island;
 	
+	/** The reusable island search stack */
+	private final Deque<Body> stack;
+	
+	/** The reusable list of the awake {@link Body}s that can start an island */
+	private final List<Body> seeds;
+	
+	/** The broad-phase filter used to find the bodies near a swept body */
+	private final BroadphaseFilter<Body, BodyFixture> timeOfImpactBroadphaseFilter;
+	
+	/** The reusable islands used when solving islands concurrently */
+	private final List<Island> islands;
+	
+	/** The broad-phase pairs allowed by the listeners when performing the narrow-phase concurrently */
+	private boolean[] allowed;
+	
+	/** The broad-phase pairs with a penetration when performing the narrow-phase concurrently */
+	private boolean[] colliding;
+	
+	/** The broad-phase pairs with a contact manifold when performing the narrow-phase concurrently */
+	private boolean[] contacting;
+	
+	/** The penetration of each broad-phase pair when performing the narrow-phase concurrently */
+	private Penetration[] penetrations;
+	
+	/** The manifold of each broad-phase pair when performing the narrow-phase concurrently */
+	private Manifold[] manifolds;
+	
+	/** The broad-phase pairs whose cached manifold was reused when performing the narrow-phase concurrently */
+	private boolean[] cached;
+	
+	/** The penetration normal each manifold was found from when performing the narrow-phase concurrently */
+	private Vector2[] normals;
+	
+	/** The simplex cache of each broad-phase pair when performing the narrow-phase concurrently; null if not warm started */
+	private SimplexCache[] simplexCaches;
+	
+	/** The separating axis cache of each broad-phase pair when performing the narrow-phase concurrently; null if not warm started */
+	private SeparatingAxisCache[] separatingAxisCaches;
+	
+	/** The cache of the manifolds, simplexes and separating axes found in the last detection */
+	private final ManifoldCache manifoldCache;
+	
+	/** The reusable penetration when contact pooling is enabled */
+	private final Penetration penetration;
+	
+	/** The reusable manifold when contact pooling is enabled */
+	private final Manifold manifold;
+	
+	/** The pool of contact constraints used when contact pooling is enabled */
+	private final ContactConstraintPool contactConstraintPool;
+	
+	/** The contact edges available for reuse when contact pooling is enabled */
+	private final List<ContactEdge> contactEdges;
+	
 	/** The accumulated time */
 	private double time;
 	
@@ -255,10 +346,31 @@ public class World implements Shiftable, DataContainer {
 		this.timeOfImpactSolver = new TimeOfImpactSolver();
 		
 		this.bodies = new ArrayList<Body>(initialCapacity.getBodyCount());
+		this.terrains = new ArrayList<Terrain>();
+		this.bakedBodies = new ArrayList<Body>();
 		this.joints = new ArrayList<Joint>(initialCapacity.getJointCount());
 		this.listeners = new ArrayList<Listener>(initialCapacity.getListenerCount());
 		
 		this.island = new Island(initialCapacity);
+		this.stack = new ArrayDeque<Body>();
+		this.seeds = new ArrayList<Body>();
+		this.islands = new ArrayList<Island>();
+		this.timeOfImpactBroadphaseFilter = new AABBBroadphaseFilter(true, true, null);
+		this.allowed = new boolean[0];
+		this.colliding = new boolean[0];
+		this.contacting = new boolean[0];
+		this.penetrations = new Penetration[0];
+		this.manifolds = new Manifold[0];
+		this.cached = new boolean[0];
+		this.normals = new Vector2[0];
+		this.simplexCaches = new SimplexCache[0];
+		this.separatingAxisCaches = new SeparatingAxisCache[0];
+		this.manifoldCache = new ManifoldCache(initialCapacity.getBodyCount());
+		this.penetration = new Penetration();
+		this.manifold = new Manifold();
+		this.contactConstraintPool = new ContactConstraintPool();
+		this.contactEdges = new ArrayList<ContactEdge>();
+		this.contactPoolingEnabled = false;
 		
 		this.time = 0.0;
 		this.updateRequired = true;
@@ -480,6 +592,14 @@ public class World implements Shiftable, DataContainer {
 	 * or after this method has returned.
 	 */
 	protected void step() {
+		// get the step statistics; null if disabled
+		StepStatistics statistics = this.step.statistics;
+		long stepStart = 0;
+		if (statistics != null) {
+			statistics.begin();
+			stepStart = System.nanoTime();
+		}
+		
 		// get all the step listeners
 		List<StepListener> stepListeners = this.getListeners(StepListener.class);
 		List<ContactListener> contactListeners = this.getListeners(ContactListener.class);
@@ -514,8 +634,10 @@ public class World implements Shiftable, DataContainer {
 		// get the number of bodies
 		int size = this.bodies.size();
 		
-		// test for out of bounds objects
-		// clear the body contacts
+		// the awake bodies that can start an island so that
+		// the sleeping bodies are only visited once
+		List<Body> seeds = this.seeds;
+		
 		// clear the island flag
 		// save the current transform for CCD
 		for (int i = 0; i < size; i++) {
@@ -524,118 +646,46 @@ public class World implements Shiftable, DataContainer {
 			body.setOnIsland(false);
 			// save the current transform into the previous transform
 			body.transform0.set(body.getTransform());
-		}
-		
-		// clear the joint island flags
-		int jSize = this.joints.size();
-		for (int i = 0; i < jSize; i++) {
-			// get the joint
-			Constraint joint = this.joints.get(i);
-			// set the island flag to false
-			joint.setOnIsland(false);
+			// skip if asleep, in active, or static
+			if (!body.isAsleep() && body.isActive() && !body.isStatic()) {
+				seeds.add(body);
+			}
 		}
 		
 		// perform a depth first search of the contact graph
 		// to create islands for constraint solving
-		Deque<Body> stack = new ArrayDeque<Body>(size);
-
-		// temp storage
-		// we put these here so we can implicitly convert from joint and
-		// contact constraint to constraint so that we have package private
-		// access to the isOnIsland and setOnIsland methods
-		Joint joint;
-		ContactConstraint contactConstraint;
-		Constraint constraint;
+		Deque<Body> stack = this.stack;
 		
-		// loop over the bodies and their contact edges to create the islands
-		for (int i = 0; i < size; i++) {
-			Body seed = this.bodies.get(i);
-			// skip if asleep, in active, static, or already on an island
-			if (seed.isOnIsland() || seed.isAsleep() || !seed.isActive() || seed.isStatic()) continue;
-			
-			// set the island to the reusable island
-			Island island = this.island;
-			
-			island.clear();
-			stack.clear();
-			stack.push(seed);
-			
-			while (stack.size() > 0) {
-				// get the next body
-				Body body = stack.pop();
-				// add it to the island
-				island.add(body);
-				// flag that it has been added
-				body.setOnIsland(true);
-				// make sure the body is awake
-				body.setAsleep(false);
-				// if its static then continue since we dont want the
-				// island to span more than one static object
-				// this keeps the size of the islands small
-				if (body.isStatic()) continue;
-				// loop over the contact edges of this body
-				int ceSize = body.contacts.size();
-				for (int j = 0; j < ceSize; j++) {
-					ContactEdge contactEdge = body.contacts.get(j);
-					// get the contact constraint
-					constraint = contactConstraint = contactEdge.interaction;
-					// skip sensor contacts
-					// check if the contact constraint has already been added to an island
-					if (!contactConstraint.isEnabled() || contactConstraint.isSensor() || constraint.isOnIsland()) continue;
-					// get the other body
-					Body other = contactEdge.other;
-					// add the contact constraint to the island list
-					island.add(contactConstraint);
-					// set the island flag on the contact constraint
-					constraint.setOnIsland(true);
-					// has the other body been added to an island yet?
-					if (!other.isOnIsland()) {
-						// if not then add this body to the stack
-						stack.push(other);
-						other.setOnIsland(true);
-					}
-				}
-				// loop over the joint edges of this body
-				int jeSize = body.joints.size();
-				for (int j = 0; j < jeSize; j++) {
-					// get the joint edge
-					JointEdge jointEdge = body.joints.get(j);
-					// get the joint
-					constraint = joint = jointEdge.interaction;
-					// check if the joint is inactive
-					if (!joint.isActive() || constraint.isOnIsland()) continue;
-					// get the other body
-					Body other = jointEdge.other;
-					// check if the joint has already been added to an island
-					// or if the other body is not active
-					if (!other.isActive()) continue;
-					// add the joint to the island
-					island.add(joint);
-					// set the island flag on the joint
-					constraint.setOnIsland(true);
-					// check if the other body has been added to an island
-					if (!other.isOnIsland()) {
-						// if not then add the body to the stack
-						stack.push(other);
-						other.setOnIsland(true);
-					}
-				}
-			}
-			
-			// solve the island
-			island.solve(this.contactConstraintSolver, this.gravity, this.step, this.settings);
-			
-			// allow static bodies to participate in other islands
-			int isize = island.bodies.size();
-			for (int j = 0; j < isize; j++) {
-				Body body = island.bodies.get(j);
-				if (body.isStatic()) {
-					body.setOnIsland(false);
-				}
+		// check if the islands should be solved concurrently
+		boolean concurrent = World.isConcurrencySafe(this.contactConstraintSolver);
+		if (this.islandExecutor != null && concurrent) {
+			this.solveIslands(seeds, stack);
+		} else {
+			// loop over the bodies and their contact edges to create the islands
+			int kSize = seeds.size();
+			for (int i = 0; i < kSize; i++) {
+				Body seed = seeds.get(i);
+				// skip if already on an island
+				if (seed.isOnIsland()) continue;
+				
+				// set the island to the reusable island
+				Island island = this.island;
+				
+				// find all the bodies, contacts and joints connected to the seed
+				long time = 0;
+				if (statistics != null) time = System.nanoTime();
+				this.buildIsland(seed, island, stack);
+				if (statistics != null) statistics.add(StepPhase.ISLAND_BUILD, System.nanoTime() - time);
+				
+				// solve the island
+				island.executor = concurrent ? this.constraintExecutor : null;
+				island.solve(this.contactConstraintSolver, this.gravity, this.step, this.settings);
+				if (statistics != null) statistics.add(island);
 			}
 		}
 		
 		// allow memory to be reclaimed
+		seeds.clear();
 		stack.clear();
 		this.island.clear();
 		
@@ -645,7 +695,10 @@ public class World implements Shiftable, DataContainer {
 		// make sure CCD is enabled
 		if (continuousDetectionMode != ContinuousDetectionMode.NONE) {
 			// solve time of impact
+			long time = 0;
+			if (statistics != null) time = System.nanoTime();
 			this.solveTOI(continuousDetectionMode);
+			if (statistics != null) statistics.add(StepPhase.CONTINUOUS, System.nanoTime() - time);
 		}
 		
 		// notify the step listener
@@ -662,6 +715,12 @@ public class World implements Shiftable, DataContainer {
 		// set the update required flag to false
 		this.updateRequired = false;
 		
+		// finish the statistics so that they are available to the listeners
+		if (statistics != null) {
+			statistics.add(StepPhase.STEP, System.nanoTime() - stepStart);
+			statistics.end();
+		}
+		
 		// notify the step listener
 		for (int i = 0; i < sSize; i++) {
 			StepListener sl = stepListeners.get(i);
@@ -670,174 +729,1238 @@ public class World implements Shiftable, DataContainer {
 	}
 	
 	/**
-	 * Finds new contacts for all bodies in this world.
-	 * <p>
-	 * This method performs the following:
-	 * <ol>
-	 * 	<li>Checks for out of bound bodies</li>
-	 * 	<li>Updates the broad-phase using the current body positions</li>
-	 * 	<li>Performs broad-phase collision detection</li>
-	 * 	<li>Performs narrow-phase collision detection</li>
-	 * 	<li>Performs manifold solving</li>
-	 * 	<li>Adds contacts to the contact manager</li>
-	 * 	<li>Warm starts the contacts</li>
-	 * </ol>
-	 * <p>
-	 * This method will notify all bounds and collision listeners.  If any {@link CollisionListener}
-	 * returns false, the collision is ignored.
-	 * <p>
-	 * This method also notifies any {@link ContactListener}s.
-	 * @since 3.0.0
+	 * Builds an {@link Island} starting from the given seed {@link Body}.
+	 * <p>
+	 * Performs a depth first search of the contact and joint graph starting at the
+	 * given seed {@link Body}, adding all connected {@link Body}s, {@link ContactConstraint}s
+	 * and {@link Joint}s to the given {@link Island}.
+	 * <p>
+	 * Static {@link Body}s are added to the island but are not traversed so that the
+	 * island does not span more than one static object.  Once the island is built, the
+	 * static bodies are released so that they can participate in other islands.
+	 * <p>
+	 * A {@link ContactConstraint} has already been added if the other {@link Body} has already
+	 * been traversed, so contact constraints are never flagged.  The {@link Joint}s are flagged
+	 * and released along with the static bodies once the island is built.
+	 * @param seed the {@link Body} to start from
+	 * @param island the {@link Island} to fill; cleared first
+	 * @param stack the reusable search stack
+	 * @since 3.3.1
+	 */
+	private void buildIsland(Body seed, Island island, Deque<Body> stack) {
+		// temp storage
+		// we put these here so we can implicitly convert from joint
+		// to constraint so that we have package private access to
+		// the isOnIsland and setOnIsland methods
+		Joint joint;
+		Constraint constraint;
+		
+		island.clear();
+		stack.clear();
+		stack.push(seed);
+		
+		while (stack.size() > 0) {
+			// get the next body
+			Body body = stack.pop();
+			// add it to the island
+			body.islandIndex = island.bodies.size();
+			island.add(body);
+			// flag that it has been added
+			body.setOnIsland(true);
+			// make sure the body is awake
+			body.setAsleep(false);
+			// if its static then continue since we dont want the
+			// island to span more than one static object
+			// this keeps the size of the islands small
+			if (body.isStatic()) continue;
+			// loop over the contact edges of this body
+			int ceSize = body.contacts.size();
+			for (int j = 0; j < ceSize; j++) {
+				ContactEdge contactEdge = body.contacts.get(j);
+				// get the contact constraint
+				ContactConstraint contactConstraint = contactEdge.interaction;
+				// skip sensor contacts
+				if (!contactConstraint.isEnabled() || contactConstraint.isSensor()) continue;
+				// get the other body
+				Body other = contactEdge.other;
+				// check if the contact constraint has already been added to the island
+				if (World.isTraversed(other, island)) continue;
+				// add the contact constraint to the island list
+				island.add(contactConstraint);
+				// has the other body been added to an island yet?
+				if (!other.isOnIsland()) {
+					// if not then add this body to the stack
+					stack.push(other);
+					other.setOnIsland(true);
+				}
+			}
+			// loop over the joint edges of this body
+			int jeSize = body.joints.size();
+			for (int j = 0; j < jeSize; j++) {
+				// get the joint edge
+				JointEdge jointEdge = body.joints.get(j);
+				// get the joint
+				constraint = joint = jointEdge.interaction;
+				// check if the joint is inactive
+				if (!joint.isActive() || constraint.isOnIsland()) continue;
+				// get the other body
+				Body other = jointEdge.other;
+				// check if the joint has already been added to an island
+				// or if the other body is not active
+				if (!other.isActive()) continue;
+				// add the joint to the island
+				island.add(joint);
+				// set the island flag on the joint
+				constraint.setOnIsland(true);
+				// check if the other body has been added to an island
+				if (!other.isOnIsland()) {
+					// if not then add the body to the stack
+					stack.push(other);
+					other.setOnIsland(true);
+				}
+			}
+		}
+		
+		// allow static bodies to participate in other islands
+		int isize = island.bodies.size();
+		for (int j = 0; j < isize; j++) {
+			Body body = island.bodies.get(j);
+			if (body.isStatic()) {
+				body.setOnIsland(false);
+			}
+		}
+		
+		// release the joints so that they don't need to be cleared every step
+		int jsize = island.joints.size();
+		for (int j = 0; j < jsize; j++) {
+			constraint = island.joints.get(j);
+			constraint.setOnIsland(false);
+		}
+	}
+	
+	/**
+	 * Returns true if the given {@link Body} has been traversed while building the given {@link Island}.
+	 * <p>
+	 * Static {@link Body}s are never traversed.
+	 * @param body the {@link Body}
+	 * @param island the {@link Island} being built
+	 * @return boolean
+	 * @since 3.3.1
+	 */
+	private static boolean isTraversed(Body body, Island island) {
+		if (!body.isOnIsland() || body.isStatic()) return false;
+		// a body that's still on the stack is flagged but hasn't been added yet
+		int index = body.islandIndex;
+		return index < island.bodies.size() && island.bodies.get(index) == body;
+	}
+	
+	/**
+	 * Builds all the {@link Island}s for this time step and solves them concurrently
+	 * using the island {@link ExecutorService}.
+	 * <p>
+	 * All islands are built first, each into its own {@link Island} instance.  Since islands
+	 * only share static {@link Body}s, which the solvers never move, the islands can then
+	 * be solved independently of one another.
+	 * <p>
+	 * Putting bodies to sleep is deferred until all islands have been solved and is then
+	 * applied in the order the islands were built.  This produces the same result as
+	 * solving the islands serially, regardless of the order in which the islands finished.
+	 * @param seeds the awake {@link Body}s that can start an island
+	 * @param stack the reusable search stack
+	 * @see #setIslandExecutor(ExecutorService)
+	 * @since 3.3.1
+	 */
+	private void solveIslands(List<Body> seeds, Deque<Body> stack) {
+		StepStatistics statistics = this.step.statistics;
+		int size = seeds.size();
+		
+		// build all the islands up front
+		long time = 0;
+		if (statistics != null) time = System.nanoTime();
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			Body seed = seeds.get(i);
+			// skip if already on an island
+			if (seed.isOnIsland()) continue;
+			
+			// reuse the islands from the previous steps
+			if (n == this.islands.size()) {
+				this.islands.add(new Island());
+			}
+			Island island = this.islands.get(n++);
+			
+			// find all the bodies, contacts and joints connected to the seed
+			this.buildIsland(seed, island, stack);
+		}
+		if (statistics != null) statistics.add(StepPhase.ISLAND_BUILD, System.nanoTime() - time);
+		
+		// nothing to do in parallel if there's only one island, but its
+		// constraints can still be solved concurrently
+		if (n == 1) {
+			this.islands.get(0).executor = this.constraintExecutor;
+			this.islands.get(0).solve(this.contactConstraintSolver, this.gravity, this.step, this.settings);
+		} else if (n > 1) {
+			// create a task for each island
+			List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>(n);
+			for (int i = 0; i < n; i++) {
+				final Island island = this.islands.get(i);
+				// never wait on an executor from one of its own threads
+				island.executor = null;
+				tasks.add(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						return island.solveConstraints(contactConstraintSolver, gravity, step, settings);
+					}
+				});
+			}
+			
+			// solve the islands and wait for all to complete
+			List<Future<Boolean>> results;
+			try {
+				results = this.islandExecutor.invokeAll(tasks);
+			} catch (InterruptedException e) {
+				// restore the interrupted status
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(Messages.getString("dynamics.world.islandSolvingInterrupted"), e);
+			}
+			
+			// merge the sleep state of the islands in island order
+			for (int i = 0; i < n; i++) {
+				Island island = this.islands.get(i);
+				if (World.getResult(results.get(i), "dynamics.world.islandSolvingInterrupted")) {
+					island.sleep();
+				} else {
+					// when solved serially, building this island would have
+					// woken any static bodies a previous island put to sleep
+					int isize = island.bodies.size();
+					for (int j = 0; j < isize; j++) {
+						Body body = island.bodies.get(j);
+						if (body.isStatic()) {
+							body.setAsleep(false);
+						}
+					}
+				}
+			}
+		}
+		
+		// allow memory to be reclaimed
+		for (int i = 0; i < n; i++) {
+			Island island = this.islands.get(i);
+			if (statistics != null) statistics.add(island);
+			island.clear();
+		}
+	}
+	
+	/**
+	 * Returns true if the given {@link ContactConstraintSolver} is known to be safe to use
+	 * concurrently on different islands and on disjoint lists of constraints.
+	 * <p>
+	 * Only the {@link SequentialImpulses}, {@link BatchedImpulses} and {@link SubSteppingImpulses}
+	 * solvers are.  Sub classes are not since they may add state, so they are always used serially.
+	 * @param solver the contact constraint solver
+	 * @return boolean
+	 * @see #setIslandExecutor(ExecutorService)
+	 * @see #setConstraintExecutor(ExecutorService)
+	 * @since 3.3.1
+	 */
+	static boolean isConcurrencySafe(ContactConstraintSolver solver) {
+		Class<?> type = solver.getClass();
+		return type == SequentialImpulses.class ||
+			   type == BatchedImpulses.class ||
+			   type == SubSteppingImpulses.class;
+	}
+	
+	/**
+	 * Returns the result of the given completed {@link Future}.
+	 * <p>
+	 * Any exception thrown by the task is rethrown on the calling thread.
+	 * @param future the completed future
+	 * @param interruptedMessage the message key used if the thread is interrupted
+	 * @return T
+	 * @since 3.3.1
+	 */
+	static <T> T getResult(Future<T> future, String interruptedMessage) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			// restore the interrupted status
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(Messages.getString(interruptedMessage), e);
+		} catch (ExecutionException e) {
+			// rethrow the original exception
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+			if (cause instanceof Error) throw (Error)cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+	
+	/**
+	 * Finds new contacts for all bodies in this world.
+	 * <p>
+	 * This method performs the following:
+	 * <ol>
+	 * 	<li>Checks for out of bound bodies</li>
+	 * 	<li>Updates the broad-phase using the current body positions</li>
+	 * 	<li>Performs broad-phase collision detection</li>
+	 * 	<li>Performs narrow-phase collision detection</li>
+	 * 	<li>Performs manifold solving</li>
+	 * 	<li>Adds contacts to the contact manager</li>
+	 * 	<li>Warm starts the contacts</li>
+	 * </ol>
+	 * <p>
+	 * This method will notify all bounds and collision listeners.  If any {@link CollisionListener}
+	 * returns false, the collision is ignored.
+	 * <p>
+	 * This method also notifies any {@link ContactListener}s.
+	 * <p>
+	 * Sleeping {@link Body}s that haven't moved during the last step are skipped entirely; their
+	 * broad-phase entries are not updated and they are not tested against other sleeping or static
+	 * {@link Body}s.  Instead, their {@link ContactConstraint}s are kept as is, without notification,
+	 * until one of the {@link Body}s is woken up or moved.  A sleeping or static {@link Body} whose
+	 * transform has changed since the last detection is detected again.  Other changes, like adding or
+	 * removing {@link BodyFixture}s, still require a call to {@link #setUpdateRequired(boolean)}.  When
+	 * an update is required all {@link Body}s are detected.
+	 * @since 3.0.0
+	 */
+	protected void detect() {
+		// get the bounds listeners
+		List<BoundsListener> boundsListeners = this.getListeners(BoundsListener.class);
+		List<CollisionListener> collisionListeners = this.getListeners(CollisionListener.class);
+		
+		// get the number of bodies
+		int size = this.bodies.size();
+		int blSize = boundsListeners.size();
+		int clSize = collisionListeners.size();
+		
+		// get the step statistics; null if disabled
+		StepStatistics statistics = this.step.statistics;
+		long time = 0;
+		if (statistics != null) time = System.nanoTime();
+		
+		// the number of bodies whose contacts are kept
+		int frozen = 0;
+		
+		// test for out of bounds objects
+		// clear the body contacts
+		// update the broadphase
+		for (int i = 0; i < size; i++) {
+			Body body = this.bodies.get(i);
+			body.setFrozen(false);
+			// skip if already not active
+			if (!body.isActive()) {
+				// the contact constraints of the last step will be reused
+				// so inactive bodies cannot keep referring to them
+				if (this.contactPoolingEnabled) {
+					this.clearContacts(body);
+				}
+				// it must be detected again when it's activated
+				body.setDetected(false);
+				continue;
+			}
+			// skip sleeping bodies that haven't moved; static bodies
+			// keep their contacts with them, the rest are found again
+			boolean freezable = this.isFreezable(body);
+			// save the transform to tell if it's moved by the next detection
+			body.setDetected(true);
+			if (freezable) {
+				body.setFrozen(true);
+				frozen++;
+				if (!body.isStatic()) continue;
+			} else {
+				// clear all the old contacts
+				this.clearContacts(body);
+			}
+			// check if bounds have been set
+			// check if the body is out of bounds
+			if (this.bounds != null && this.bounds.isOutside(body)) {
+				// set the body to inactive
+				body.setActive(false);
+				// including any contacts that were kept
+				body.setFrozen(false);
+				frozen--;
+				this.clearContacts(body);
+				// if so, notify via the listeners
+				for (int j = 0; j < blSize; j++) {
+					BoundsListener bl = boundsListeners.get(j);
+					bl.outside(body);
+				}
+			}
+			// update the broadphase with the new position/orientation
+			if (!(body instanceof Terrain) && !body.isBaked()) {
+				this.broadphaseDetector.update(body);
+			}
+		}
+		
+		// keep the contacts between sleeping and static bodies
+		// now that all the bodies have been bounds checked
+		if (frozen > 0) {
+			for (int i = 0; i < size; i++) {
+				Body body = this.bodies.get(i);
+				if (body.isFrozen()) {
+					this.freezeContacts(body);
+				}
+			}
+		}
+		
+		if (statistics != null) {
+			long now = System.nanoTime();
+			statistics.add(StepPhase.BROADPHASE_UPDATE, now - time);
+			time = now;
+		}
+		
+		// the manifolds of the pairs that barely moved can be reused and the
+		// narrow-phase can be warm started unless the bodies or fixtures may
+		// have been changed
+		ManifoldCache cache = null;
+		ManifoldCache warmStart = null;
+		if (!this.updateRequired) {
+			if (this.settings.isManifoldCacheEnabled()) {
+				cache = this.manifoldCache;
+			}
+			if (this.settings.isSimplexCacheEnabled() && this.narrowphaseDetector instanceof Gjk) {
+				warmStart = this.manifoldCache;
+			}
+			if (this.settings.isSeparatingAxisCacheEnabled() && this.isSeparatingAxisCacheSupported()) {
+				warmStart = this.manifoldCache;
+			}
+		}
+		if (cache == null && warmStart == null) {
+			this.manifoldCache.clear();
+		}
+		double cacheLinearTolerance = this.settings.getManifoldCacheLinearTolerance();
+		double cacheAngularTolerance = this.settings.getManifoldCacheAngularTolerance();
+		
+		// make sure there are some bodies
+		if (size > 0) {
+			// test for collisions via the broad-phase
+			List<BroadphasePair<Body, BodyFixture>> pairs;
+			if (frozen > size / 2) {
+				// most bodies are asleep or static so only query the others
+				pairs = this.detectUnfrozen();
+			} else {
+				pairs = this.broadphaseDetector.detect(this.detectBroadphaseFilter);
+			}
+			// the fixtures of the terrains and the baked bodies are only found by querying them
+			if (this.terrains.size() > 0 || this.bakedBodies.size() > 0) {
+				pairs = this.detectStatic(pairs);
+			}
+			int pSize = pairs.size();
+			
+			if (statistics != null) {
+				long now = System.nanoTime();
+				statistics.add(StepPhase.BROADPHASE_DETECT, now - time);
+				statistics.pairCount += pSize;
+				time = now;
+			}
+			
+			// check if the narrow-phase should be performed concurrently
+			if (this.narrowphaseExecutor != null && pSize > World.NARROWPHASE_BATCH_SIZE) {
+				this.detect(pairs, collisionListeners, cache, warmStart);
+				if (statistics != null) statistics.add(StepPhase.NARROWPHASE, System.nanoTime() - time);
+			} else {
+				boolean allow = true;
+				
+				// using the broad-phase results, test for narrow-phase
+				for (int i = 0; i < pSize; i++) {
+					BroadphasePair<Body, BodyFixture> pair = pairs.get(i);
+					
+					// get the bodies
+					Body body1 = pair.getCollidable1();
+					Body body2 = pair.getCollidable2();
+					BodyFixture fixture1 = pair.getFixture1();
+					BodyFixture fixture2 = pair.getFixture2();
+					
+					// the contacts between sleeping and static bodies were kept
+					if (body1.isFrozen() && body2.isFrozen()) continue;
+					
+					allow = true;
+					for (int j = 0; j < clSize; j++) {
+						CollisionListener cl = collisionListeners.get(j);
+						if (!cl.collision(body1, fixture1, body2, fixture2)) {
+							// if any collision listener returned false then skip this collision
+							// we must allow all the listeners to get notified first, then skip
+							// the collision
+							allow = false;
+						}
+					}
+					if (!allow) continue;
+					
+					// get their transforms
+					Transform transform1 = body1.getTransform();
+					Transform transform2 = body2.getTransform();
+					
+					Convex convex2 = fixture2.getShape();
+					Convex convex1 = fixture1.getShape();
+					
+					Penetration penetration = this.penetration;
+					if (this.contactPoolingEnabled) {
+						penetration.clear();
+					} else {
+						penetration = new Penetration();
+					}
+					Manifold manifold = null;
+					boolean cached = false;
+					if (statistics != null) time = System.nanoTime();
+					// reuse the manifold of the last detection if the bodies barely moved
+					if (cache != null) {
+						manifold = this.createManifold();
+						cached = cache.get(body1, fixture1, body2, fixture2, cacheLinearTolerance, cacheAngularTolerance, penetration, manifold);
+					}
+					// test the two convex shapes
+					boolean collision = cached;
+					if (!cached) {
+						if (warmStart != null && this.isSeparatingAxisCacheSupported()) {
+							// start from the last separating axis of the pair
+							SeparatingAxisCache axis = warmStart.getSeparatingAxisCache(body1, fixture1, body2, fixture2);
+							collision = this.detect(convex1, transform1, convex2, transform2, penetration, axis);
+						} else if (warmStart != null) {
+							// start from the last search direction of the pair
+							SimplexCache simplex = warmStart.getSimplexCache(body1, fixture1, body2, fixture2);
+							collision = ((Gjk)this.narrowphaseDetector).detect(convex1, transform1, convex2, transform2, penetration, simplex);
+						} else {
+							collision = this.narrowphaseDetector.detect(convex1, transform1, convex2, transform2, penetration);
+						}
+					}
+					if (statistics != null) statistics.add(StepPhase.NARROWPHASE, System.nanoTime() - time);
+					if (collision) {
+						if (!cached) {
+							// check for zero penetration
+							if (penetration.getDepth() == 0.0) {
+								// this should only happen if numerical error occurs
+								continue;
+							}
+							// perform post processing
+							if (this.narrowphasePostProcessor != null) {
+								this.narrowphasePostProcessor.process(convex1, transform1, convex2, transform2, penetration);
+							}
+						}
+						if (statistics != null) statistics.collisionCount++;
+						// notify of the narrow-phase collision
+						allow = true;
+						for (int j = 0; j < clSize; j++) {
+							CollisionListener cl = collisionListeners.get(j);
+							if (!cl.collision(body1, fixture1, body2, fixture2, penetration)) {
+								// if any collision listener returned false then skip this collision
+								// we must allow all the listeners to get notified first, then skip
+								// the collision
+								allow = false;
+							}
+						}
+						if (!allow) continue;
+						boolean contact = cached;
+						if (cached) {
+							if (statistics != null) statistics.manifoldCacheHitCount++;
+						} else {
+							if (manifold == null) {
+								manifold = this.createManifold();
+							}
+							// the manifold solver may modify the normal
+							Vector2 normal = cache != null ? penetration.getNormal().copy() : null;
+							// if there is penetration then find a contact manifold
+							// using the filled in penetration object
+							if (statistics != null) time = System.nanoTime();
+							contact = this.manifoldSolver.getManifold(penetration, convex1, transform1, convex2, transform2, manifold);
+							if (statistics != null) statistics.add(StepPhase.MANIFOLD, System.nanoTime() - time);
+							// keep the manifold for the next detection
+							if (contact && cache != null) {
+								cache.put(body1, fixture1, body2, fixture2, normal, penetration.getDepth(), manifold);
+							}
+						}
+						if (contact) {
+							// check for zero points
+							if (manifold.getPoints().size() == 0) {
+								// this should only happen if numerical error occurs
+								continue;
+							}
+							// create the contact constraint
+							this.addContactConstraint(body1, fixture1, body2, fixture2, manifold, collisionListeners);
+						}
+					}
+				}
+			}
+		}
+		
+		// remove the manifolds of the pairs that are no longer colliding
+		if (cache != null || warmStart != null) {
+			this.manifoldCache.update();
+		}
+		
+		// warm start the contact constraints
+		if (statistics != null) time = System.nanoTime();
+		this.contactManager.updateAndNotify(this.getListeners(ContactListener.class), this.settings);
+		if (statistics != null) statistics.add(StepPhase.CONTACT_UPDATE, System.nanoTime() - time);
+		
+		// the contact constraints from the last step are no longer used
+		if (this.contactPoolingEnabled) {
+			this.contactConstraintPool.update();
+		}
+	}
+	
+	/**
+	 * Performs narrow-phase collision detection and manifold solving on the given
+	 * broad-phase pairs concurrently using the narrow-phase {@link ExecutorService}.
+	 * <p>
+	 * All the pairs are first passed through the broad-phase {@link CollisionListener#collision(Body, BodyFixture, Body, BodyFixture)}
+	 * method serially.  The remaining pairs are then partitioned into batches which are tested
+	 * concurrently.  Finally, the results are merged serially, in pair order, notifying the 
+	 * {@link CollisionListener}s of the penetrations, manifolds and contact constraints and creating
+	 * the {@link ContactConstraint}s.
+	 * <p>
+	 * As a result, the listeners are notified on the calling thread and each kind of notification
+	 * is in pair order, but the order differs from when the narrow-phase is performed serially: all
+	 * the broad-phase notifications come before any of the others instead of being interleaved pair
+	 * by pair.
+	 * <p>
+	 * The contact manifold for a pair is computed along with the penetration, before the listeners
+	 * are notified of it.  Unlike when the narrow-phase is performed serially, changes made to the
+	 * {@link Penetration} in the {@link CollisionListener#collision(Body, BodyFixture, Body, BodyFixture, Penetration)}
+	 * method are not used by the manifold.
+	 * <p>
+	 * When a {@link ManifoldCache} is given, the cached manifolds are looked up serially along
+	 * with the first notification and the pairs using them are not tested.  Likewise, the
+	 * {@link SimplexCache}s or {@link SeparatingAxisCache}s used to warm start the remaining pairs are
+	 * looked up serially.
+	 * @param pairs the broad-phase pairs
+	 * @param collisionListeners the collision listeners
+	 * @param cache the manifold cache; null if disabled
+	 * @param warmStart the cache holding the simplex or separating axis caches; null if disabled
+	 * @see #setNarrowphaseExecutor(ExecutorService)
+	 * @since 3.3.1
+	 */
+	private void detect(final List<BroadphasePair<Body, BodyFixture>> pairs, List<CollisionListener> collisionListeners, ManifoldCache cache, ManifoldCache warmStart) {
+		final int pSize = pairs.size();
+		int clSize = collisionListeners.size();
+		
+		// make sure the result storage is large enough
+		if (this.allowed.length < pSize) {
+			int capacity = Math.max(pSize, this.allowed.length * 2);
+			this.allowed = new boolean[capacity];
+			this.colliding = new boolean[capacity];
+			this.contacting = new boolean[capacity];
+			this.cached = new boolean[capacity];
+			this.normals = Arrays.copyOf(this.normals, capacity);
+			this.simplexCaches = new SimplexCache[capacity];
+			this.separatingAxisCaches = new SeparatingAxisCache[capacity];
+			// keep the existing penetration and manifold objects
+			this.penetrations = Arrays.copyOf(this.penetrations, capacity);
+			this.manifolds = Arrays.copyOf(this.manifolds, capacity);
+		}
+		
+		double cacheLinearTolerance = this.settings.getManifoldCacheLinearTolerance();
+		double cacheAngularTolerance = this.settings.getManifoldCacheAngularTolerance();
+		
+		// the broad-phase collision listeners are notified first and serially
+		boolean allow = true;
+		for (int i = 0; i < pSize; i++) {
+			BroadphasePair<Body, BodyFixture> pair = pairs.get(i);
+			this.cached[i] = false;
+			this.simplexCaches[i] = null;
+			this.separatingAxisCaches[i] = null;
+			
+			// the contacts between sleeping and static bodies were kept
+			if (pair.getCollidable1().isFrozen() && pair.getCollidable2().isFrozen()) {
+				this.allowed[i] = false;
+				continue;
+			}
+			
+			allow = true;
+			for (int j = 0; j < clSize; j++) {
+				CollisionListener cl = collisionListeners.get(j);
+				if (!cl.collision(pair.getCollidable1(), pair.getFixture1(), pair.getCollidable2(), pair.getFixture2())) {
+					// if any collision listener returned false then skip this collision
+					// we must allow all the listeners to get notified first, then skip
+					// the collision
+					allow = false;
+				}
+			}
+			this.allowed[i] = allow;
+			
+			// reuse the manifold of the last detection if the bodies barely moved
+			if (allow && cache != null) {
+				if (this.penetrations[i] == null) {
+					this.penetrations[i] = new Penetration();
+				}
+				if (this.manifolds[i] == null) {
+					this.manifolds[i] = new Manifold();
+				}
+				if (cache.get(pair.getCollidable1(), pair.getFixture1(), pair.getCollidable2(), pair.getFixture2(), cacheLinearTolerance, cacheAngularTolerance, this.penetrations[i], this.manifolds[i])) {
+					this.cached[i] = true;
+					this.colliding[i] = true;
+					this.contacting[i] = true;
+				}
+			}
+			
+			// start the remaining pairs from their last search direction
+			if (allow && warmStart != null && !this.cached[i]) {
+				if (this.isSeparatingAxisCacheSupported()) {
+					this.separatingAxisCaches[i] = warmStart.getSeparatingAxisCache(pair.getCollidable1(), pair.getFixture1(), pair.getCollidable2(), pair.getFixture2());
+				} else {
+					this.simplexCaches[i] = warmStart.getSimplexCache(pair.getCollidable1(), pair.getFixture1(), pair.getCollidable2(), pair.getFixture2());
+				}
+			}
+		}
+		
+		// create a task for each batch of pairs
+		int batches = (pSize + World.NARROWPHASE_BATCH_SIZE - 1) / World.NARROWPHASE_BATCH_SIZE;
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(batches);
+		final boolean caching = cache != null;
+		for (int i = 0; i < batches; i++) {
+			final int start = i * World.NARROWPHASE_BATCH_SIZE;
+			final int end = Math.min(start + World.NARROWPHASE_BATCH_SIZE, pSize);
+			tasks.add(new Callable<Object>() {
+				@Override
+				public Object call() {
+					detect(pairs, start, end, caching);
+					return null;
+				}
+			});
+		}
+		
+		// test the batches and wait for all to complete
+		List<Future<Object>> results;
+		try {
+			results = this.narrowphaseExecutor.invokeAll(tasks);
+		} catch (InterruptedException e) {
+			// restore the interrupted status
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(Messages.getString("dynamics.world.narrowphaseInterrupted"), e);
+		}
+		for (int i = 0; i < batches; i++) {
+			World.getResult(results.get(i), "dynamics.world.narrowphaseInterrupted");
+		}
+		
+		// merge the results in pair order
+		for (int i = 0; i < pSize; i++) {
+			// skip pairs that are not colliding
+			if (!this.colliding[i]) continue;
+			
+			StepStatistics statistics = this.step.statistics;
+			if (statistics != null) statistics.collisionCount++;
+			
+			Penetration penetration = this.penetrations[i];
+			Manifold manifold = this.manifolds[i];
+			
+			BroadphasePair<Body, BodyFixture> pair = pairs.get(i);
+			
+			// get the bodies
+			Body body1 = pair.getCollidable1();
+			Body body2 = pair.getCollidable2();
+			BodyFixture fixture1 = pair.getFixture1();
+			BodyFixture fixture2 = pair.getFixture2();
+			
+			if (this.cached[i]) {
+				if (statistics != null) statistics.manifoldCacheHitCount++;
+			} else if (this.contacting[i] && cache != null) {
+				// keep the manifold for the next detection
+				cache.put(body1, fixture1, body2, fixture2, this.normals[i], penetration.getDepth(), manifold);
+			}
+			
+			// the penetration and manifold are handed to the listeners
+			// so they can only be reused when pooling is enabled
+			if (!this.contactPoolingEnabled) {
+				this.penetrations[i] = null;
+				if (this.contacting[i]) {
+					this.manifolds[i] = null;
+				}
+			}
+			
+			// notify of the narrow-phase collision
+			allow = true;
+			for (int j = 0; j < clSize; j++) {
+				CollisionListener cl = collisionListeners.get(j);
+				if (!cl.collision(body1, fixture1, body2, fixture2, penetration)) {
+					// if any collision listener returned false then skip this collision
+					// we must allow all the listeners to get notified first, then skip
+					// the collision
+					allow = false;
+				}
+			}
+			if (!allow) continue;
+			
+			// skip pairs that didn't produce a manifold
+			if (!this.contacting[i]) continue;
+			
+			// create the contact constraint
+			this.addContactConstraint(body1, fixture1, body2, fixture2, manifold, collisionListeners);
+		}
+	}
+	
+	/**
+	 * Performs narrow-phase collision detection and manifold solving on the given
+	 * range of broad-phase pairs.
+	 * <p>
+	 * Only the pairs allowed by the {@link CollisionListener}s are tested.  On output, the
+	 * colliding flag of a pair is set if the pair has a penetration and the contacting flag
+	 * is set if a contact manifold was also found.
+	 * <p>
+	 * This method is called concurrently for disjoint ranges.  The {@link NarrowphaseDetector},
+	 * {@link NarrowphasePostProcessor} and {@link ManifoldSolver} only read the shapes and
+	 * transforms of the bodies.  The penetration and manifold objects of each pair are only 
+	 * accessed by the task testing the pair.
+	 * @param pairs the broad-phase pairs
+	 * @param start the first pair index; inclusive
+	 * @param end the last pair index; exclusive
+	 * @param caching true if the penetration normals should be kept for the manifold cache
+	 * @since 3.3.1
+	 */
+	private void detect(List<BroadphasePair<Body, BodyFixture>> pairs, int start, int end, boolean caching) {
+		for (int i = start; i < end; i++) {
+			// skip pairs using a cached manifold
+			if (this.cached[i]) continue;
+			
+			this.colliding[i] = false;
+			this.contacting[i] = false;
+			
+			// skip pairs the listeners didn't allow
+			if (!this.allowed[i]) continue;
+			
+			BroadphasePair<Body, BodyFixture> pair = pairs.get(i);
+			BodyFixture fixture1 = pair.getFixture1();
+			BodyFixture fixture2 = pair.getFixture2();
+			
+			// get their transforms
+			Transform transform1 = pair.getCollidable1().getTransform();
+			Transform transform2 = pair.getCollidable2().getTransform();
+			
+			Convex convex2 = fixture2.getShape();
+			Convex convex1 = fixture1.getShape();
+			
+			Penetration penetration = this.penetrations[i];
+			if (penetration == null) {
+				penetration = new Penetration();
+				this.penetrations[i] = penetration;
+			} else {
+				penetration.clear();
+			}
+			
+			// test the two convex shapes
+			boolean collision;
+			SimplexCache simplex = this.simplexCaches[i];
+			SeparatingAxisCache axis = this.separatingAxisCaches[i];
+			if (simplex != null) {
+				collision = ((Gjk)this.narrowphaseDetector).detect(convex1, transform1, convex2, transform2, penetration, simplex);
+			} else if (axis != null) {
+				collision = this.detect(convex1, transform1, convex2, transform2, penetration, axis);
+			} else {
+				collision = this.narrowphaseDetector.detect(convex1, transform1, convex2, transform2, penetration);
+			}
+			if (collision) {
+				// check for zero penetration
+				if (penetration.getDepth() == 0.0) {
+					// this should only happen if numerical error occurs
+					continue;
+				}
+				// perform post processing
+				if (this.narrowphasePostProcessor != null) {
+					this.narrowphasePostProcessor.process(convex1, transform1, convex2, transform2, penetration);
+				}
+				this.colliding[i] = true;
+				
+				Manifold manifold = this.manifolds[i];
+				if (manifold == null) {
+					manifold = new Manifold();
+					this.manifolds[i] = manifold;
+				} else {
+					manifold.clear();
+				}
+				
+				// the manifold solver may modify the normal
+				if (caching) {
+					if (this.normals[i] == null) {
+						this.normals[i] = penetration.getNormal().copy();
+					} else {
+						this.normals[i].set(penetration.getNormal());
+					}
+				}
+				
+				// if there is penetration then find a contact manifold
+				// using the filled in penetration object
+				if (this.manifoldSolver.getManifold(penetration, convex1, transform1, convex2, transform2, manifold)) {
+					// check for zero points
+					this.contacting[i] = manifold.getPoints().size() > 0;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Creates a {@link ContactConstraint} for the given fixture pair and manifold, adds it
+	 * to the contact graph and queues it with the {@link ContactManager}.
+	 * <p>
+	 * The given {@link CollisionListener}s are notified of the manifold and the 
+	 * {@link ContactConstraint}; if any of them returns false the contact is skipped.
+	 * @param body1 the first body
+	 * @param fixture1 the first body's fixture
+	 * @param body2 the second body
+	 * @param fixture2 the second body's fixture
+	 * @param manifold the contact manifold
+	 * @param collisionListeners the collision listeners
+	 * @since 3.3.1
+	 */
+	private void addContactConstraint(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, Manifold manifold, List<CollisionListener> collisionListeners) {
+		int clSize = collisionListeners.size();
+		
+		// notify of the manifold solving result
+		boolean allow = true;
+		for (int j = 0; j < clSize; j++) {
+			CollisionListener cl = collisionListeners.get(j);
+			if (!cl.collision(body1, fixture1, body2, fixture2, manifold)) {
+				// if any collision listener returned false then skip this collision
+				// we must allow all the listeners to get notified first, then skip
+				// the collision
+				allow = false;
+			}
+		}
+		if (!allow) return;
+		double friction = this.coefficientMixer.mixFriction(fixture1.getFriction(), fixture2.getFriction());
+		double restitution = this.coefficientMixer.mixRestitution(fixture1.getRestitution(), fixture2.getRestitution());
+		
+		// create a contact constraint
+		ContactConstraint contactConstraint;
+		if (this.contactPoolingEnabled) {
+			contactConstraint = this.contactConstraintPool.getContactConstraint(body1, fixture1, body2, fixture2, manifold, friction, restitution);
+		} else {
+			contactConstraint = new ContactConstraint(body1, fixture1, body2, fixture2, manifold, friction, restitution);
+		}
+		
+		allow = true;
+		// notify of the created contact constraint
+		for (int j = 0; j < clSize; j++) {
+			CollisionListener cl = collisionListeners.get(j);
+			if (!cl.collision(contactConstraint)) {
+				// if any collision listener returned false then skip this collision
+				// we must allow all the listeners to get notified first, then skip
+				// the collision
+				allow = false;
+			}
+		}
+		if (!allow) return;
+		
+		// add a contact edge to both bodies
+		ContactEdge contactEdge1 = this.createContactEdge(body2, contactConstraint);
+		ContactEdge contactEdge2 = this.createContactEdge(body1, contactConstraint);
+		body1.contacts.add(contactEdge1);
+		body2.contacts.add(contactEdge2);
+		// add the contact constraint to the contact manager
+		this.contactManager.queue(contactConstraint);
+		
+		StepStatistics statistics = this.step.statistics;
+		if (statistics != null) statistics.contactConstraintCount++;
+	}
+	
+	/**
+	 * Returns a {@link Manifold} to be filled in.
+	 * <p>
+	 * When contact pooling is enabled the reusable {@link Manifold} is cleared and returned.
+	 * @return {@link Manifold}
+	 * @since 3.3.1
+	 */
+	private Manifold createManifold() {
+		if (this.contactPoolingEnabled) {
+			this.manifold.clear();
+			return this.manifold;
+		}
+		return new Manifold();
+	}
+	
+	/**
+	 * Returns a {@link ContactEdge} for the given body and contact constraint.
+	 * <p>
+	 * When contact pooling is enabled a {@link ContactEdge} is reused if one is available.
+	 * @param other the other body
+	 * @param contactConstraint the contact constraint
+	 * @return {@link ContactEdge}
+	 * @since 3.3.1
+	 */
+	private ContactEdge createContactEdge(Body other, ContactConstraint contactConstraint) {
+		int size = this.contactEdges.size();
+		if (this.contactPoolingEnabled && size > 0) {
+			// remove from the end to avoid shifting
+			ContactEdge contactEdge = this.contactEdges.remove(size - 1);
+			contactEdge.other = other;
+			contactEdge.interaction = contactConstraint;
+			return contactEdge;
+		}
+		return new ContactEdge(other, contactConstraint);
+	}
+	
+	/**
+	 * Removes all the {@link ContactEdge}s from the given body.
+	 * <p>
+	 * When contact pooling is enabled the {@link ContactEdge}s are kept for reuse.
+	 * @param body the body
+	 * @since 3.3.1
+	 */
+	private void clearContacts(Body body) {
+		if (this.contactPoolingEnabled) {
+			int size = body.contacts.size();
+			for (int i = 0; i < size; i++) {
+				ContactEdge contactEdge = body.contacts.get(i);
+				// release the references
+				contactEdge.other = null;
+				contactEdge.interaction = null;
+				this.contactEdges.add(contactEdge);
+			}
+		}
+		body.contacts.clear();
+	}
+	
+	/**
+	 * Returns true if the narrow-phase detector can start from the last separating axis of a pair.
+	 * @return boolean
+	 * @see Settings#setSeparatingAxisCacheEnabled(boolean)
+	 * @since 3.3.1
+	 */
+	private boolean isSeparatingAxisCacheSupported() {
+		return this.narrowphaseDetector instanceof Sat || this.narrowphaseDetector instanceof DispatchingNarrowphaseDetector;
+	}
+	
+	/**
+	 * Returns true if the given {@link Convex}s intersect, starting from the given {@link SeparatingAxisCache}.
+	 * <p>
+	 * The narrow-phase detector must be a {@link Sat} or a {@link DispatchingNarrowphaseDetector}.
+	 * @param convex1 the first convex
+	 * @param transform1 the first convex's transform
+	 * @param convex2 the second convex
+	 * @param transform2 the second convex's transform
+	 * @param penetration the penetration to fill
+	 * @param cache the separating axis cache of the pair
+	 * @return boolean
+	 * @see #isSeparatingAxisCacheSupported()
+	 * @since 3.3.1
+	 */
+	private boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration, SeparatingAxisCache cache) {
+		if (this.narrowphaseDetector instanceof Sat) {
+			return ((Sat)this.narrowphaseDetector).detect(convex1, transform1, convex2, transform2, penetration, cache);
+		}
+		return ((DispatchingNarrowphaseDetector)this.narrowphaseDetector).detect(convex1, transform1, convex2, transform2, penetration, cache);
+	}
+	
+	/**
+	 * Returns true if the contacts of the given active {@link Body} can be kept from the last detection.
+	 * <p>
+	 * This is the case for static and sleeping {@link Body}s that haven't moved since the last
+	 * detection, unless an update is required.  This includes any movement during the step a
+	 * {@link Body} was put to sleep in and any movement by the user between steps.  The contacts
+	 * between two such {@link Body}s are not detected again.
+	 * @param body the body
+	 * @return boolean
+	 * @since 3.3.1
+	 */
+	private boolean isFreezable(Body body) {
+		if (this.updateRequired) return false;
+		if (!body.isStatic() && !body.isAsleep()) return false;
+		return !body.isMovedSinceDetection();
+	}
+	
+	/**
+	 * Returns the broad-phase pairs that include at least one {@link Body} whose contacts
+	 * are not kept from the last detection.
+	 * <p>
+	 * Rather than testing every {@link Body} in the broad-phase, each fixture of these
+	 * {@link Body}s is used to query the broad-phase.  The pairs between two such
+	 * {@link Body}s are only reported by the {@link Body} with the lower sequence id.
+	 * @return List&lt;{@link BroadphasePair}&gt;
+	 * @see #isFreezable(Body)
+	 * @since 3.3.1
+	 */
+	private List<BroadphasePair<Body, BodyFixture>> detectUnfrozen() {
+		List<BroadphasePair<Body, BodyFixture>> pairs = new ArrayList<BroadphasePair<Body, BodyFixture>>();
+		int size = this.bodies.size();
+		for (int i = 0; i < size; i++) {
+			Body body = this.bodies.get(i);
+			if (!body.isActive() || body.isFrozen() || body instanceof Terrain || body.isBaked()) continue;
+			
+			int fSize = body.getFixtureCount();
+			for (int j = 0; j < fSize; j++) {
+				BodyFixture fixture = body.getFixture(j);
+				AABB aabb = this.broadphaseDetector.getAABB(body, fixture);
+				List<BroadphaseItem<Body, BodyFixture>> items = this.broadphaseDetector.detect(aabb);
+				int iSize = items.size();
+				for (int k = 0; k < iSize; k++) {
+					BroadphaseItem<Body, BodyFixture> item = items.get(k);
+					Body other = item.getCollidable();
+					if (other == body) continue;
+					// the other body will report the pair itself
+					if (!other.isFrozen() && other.getSequenceId() < body.getSequenceId()) continue;
+					BodyFixture otherFixture = item.getFixture();
+					if (this.detectBroadphaseFilter.isAllowed(body, fixture, other, otherFixture)) {
+						pairs.add(new BroadphasePair<Body, BodyFixture>(body, fixture, other, otherFixture));
+					}
+				}
+			}
+		}
+		return pairs;
+	}
+	
+	/**
+	 * Returns the given broad-phase pairs along with the pairs between the fixtures of the
+	 * {@link Terrain}s and baked {@link Body}s and the fixtures of the other {@link Body}s.
+	 * <p>
+	 * The trees of the baked {@link Body}s and of each {@link Terrain} are queried with the broad-phase
+	 * {@link AABB} of each fixture of the other {@link Body}s.  The static fixtures never query each other.
+	 * @param pairs the broad-phase pairs
+	 * @return List&lt;{@link BroadphasePair}&gt;
+	 * @see Terrain
+	 * @see #bakeStaticBodies()
+	 * @since 3.3.1
 	 */
-	protected void detect() {
-		// get the bounds listeners
-		List<BoundsListener> boundsListeners = this.getListeners(BoundsListener.class);
-		List<CollisionListener> collisionListeners = this.getListeners(CollisionListener.class);
-		
-		// get the number of bodies
+	private List<BroadphasePair<Body, BodyFixture>> detectStatic(List<BroadphasePair<Body, BodyFixture>> pairs) {
+		List<BroadphasePair<Body, BodyFixture>> all = new ArrayList<BroadphasePair<Body, BodyFixture>>(pairs);
+		StaticAABBTree<Body, BodyFixture> baked = this.getBakedTree();
+		int tSize = this.terrains.size();
 		int size = this.bodies.size();
-		int blSize = boundsListeners.size();
-		int clSize = collisionListeners.size();
-		
-		// test for out of bounds objects
-		// clear the body contacts
-		// update the broadphase
 		for (int i = 0; i < size; i++) {
 			Body body = this.bodies.get(i);
-			// skip if already not active
-			if (!body.isActive()) continue;
-			// clear all the old contacts
-			body.contacts.clear();
-			// check if bounds have been set
-			// check if the body is out of bounds
-			if (this.bounds != null && this.bounds.isOutside(body)) {
-				// set the body to inactive
-				body.setActive(false);
-				// if so, notify via the listeners
-				for (int j = 0; j < blSize; j++) {
-					BoundsListener bl = boundsListeners.get(j);
-					bl.outside(body);
+			if (!body.isActive() || body instanceof Terrain || body.isBaked()) continue;
+			
+			int fSize = body.getFixtureCount();
+			for (int j = 0; j < fSize; j++) {
+				BodyFixture fixture = body.getFixture(j);
+				AABB aabb = this.broadphaseDetector.getAABB(body, fixture);
+				if (baked != null) {
+					this.detectStatic(body, fixture, baked.detect(aabb), all);
+				}
+				for (int k = 0; k < tSize; k++) {
+					Terrain terrain = this.terrains.get(k);
+					if (!terrain.isActive()) continue;
+					// the contacts between sleeping and static bodies were kept
+					if (body.isFrozen() && terrain.isFrozen()) continue;
+					this.detectStatic(body, fixture, terrain.getTree().detect(aabb), all);
 				}
 			}
-			// update the broadphase with the new position/orientation
-			this.broadphaseDetector.update(body);
 		}
+		return all;
+	}
+	
+	/**
+	 * Adds the pairs between the given fixture and the given items of a static tree to the given pairs.
+	 * <p>
+	 * The pairs between a {@link Body} and a static {@link Body} whose contacts are both kept from
+	 * the last detection are skipped.
+	 * @param body the {@link Body}
+	 * @param fixture the {@link Body}'s fixture
+	 * @param items the items of the static tree overlapping the fixture
+	 * @param pairs the pairs to add to
+	 * @since 3.3.1
+	 */
+	private void detectStatic(Body body, BodyFixture fixture, List<BroadphaseItem<Body, BodyFixture>> items, List<BroadphasePair<Body, BodyFixture>> pairs) {
+		int size = items.size();
+		for (int i = 0; i < size; i++) {
+			BroadphaseItem<Body, BodyFixture> item = items.get(i);
+			Body other = item.getCollidable();
+			if (!other.isActive()) continue;
+			// the contacts between sleeping and static bodies were kept
+			if (body.isFrozen() && other.isFrozen()) continue;
+			BodyFixture otherFixture = item.getFixture();
+			if (this.detectBroadphaseFilter.isAllowed(body, fixture, other, otherFixture)) {
+				pairs.add(new BroadphasePair<Body, BodyFixture>(body, fixture, other, otherFixture));
+			}
+		}
+	}
+	
+	/**
+	 * Returns the tree of the fixtures of the baked {@link Body}s, building it if needed.
+	 * <p>
+	 * Returns null if there are no baked {@link Body}s.
+	 * @return {@link StaticAABBTree}
+	 * @since 3.3.1
+	 */
+	private StaticAABBTree<Body, BodyFixture> getBakedTree() {
+		if (this.bakedBodies.isEmpty()) return null;
+		if (this.bakedTree == null) {
+			this.bakedTree = new StaticAABBTree<Body, BodyFixture>(this.bakedBodies);
+		}
+		return this.bakedTree;
+	}
+	
+	/**
+	 * Returns the items in the broad-phase, in the tree of the baked {@link Body}s and in the trees of
+	 * the {@link Terrain}s whose {@link AABB}s overlap the given {@link AABB} and are allowed by the given filter.
+	 * @param aabb the {@link AABB}
+	 * @param filter the broad-phase filter
+	 * @return List&lt;{@link BroadphaseItem}&gt;
+	 * @see BroadphaseDetector#detect(AABB, BroadphaseFilter)
+	 * @since 3.3.1
+	 */
+	private List<BroadphaseItem<Body, BodyFixture>> detectBroadphase(AABB aabb, BroadphaseFilter<Body, BodyFixture> filter) {
+		List<BroadphaseItem<Body, BodyFixture>> items = this.broadphaseDetector.detect(aabb, filter);
+		StaticAABBTree<Body, BodyFixture> baked = this.getBakedTree();
+		int size = this.terrains.size();
+		if (size == 0 && baked == null) return items;
 		
-		// make sure there are some bodies
-		if (size > 0) {
-			// test for collisions via the broad-phase
-			List<BroadphasePair<Body, BodyFixture>> pairs = this.broadphaseDetector.detect(this.detectBroadphaseFilter);
-			int pSize = pairs.size();
-			boolean allow = true;
-			
-			// using the broad-phase results, test for narrow-phase
-			for (int i = 0; i < pSize; i++) {
-				BroadphasePair<Body, BodyFixture> pair = pairs.get(i);
-				
-				// get the bodies
-				Body body1 = pair.getCollidable1();
-				Body body2 = pair.getCollidable2();
-				BodyFixture fixture1 = pair.getFixture1();
-				BodyFixture fixture2 = pair.getFixture2();
-				
-				allow = true;
-				for (int j = 0; j < clSize; j++) {
-					CollisionListener cl = collisionListeners.get(j);
-					if (!cl.collision(body1, fixture1, body2, fixture2)) {
-						// if any collision listener returned false then skip this collision
-						// we must allow all the listeners to get notified first, then skip
-						// the collision
-						allow = false;
-					}
-				}
-				if (!allow) continue;
-				
-				// get their transforms
-				Transform transform1 = body1.getTransform();
-				Transform transform2 = body2.getTransform();
-				
-				Convex convex2 = fixture2.getShape();
-				Convex convex1 = fixture1.getShape();
-				
-				Penetration penetration = new Penetration();
-				// test the two convex shapes
-				if (this.narrowphaseDetector.detect(convex1, transform1, convex2, transform2, penetration)) {
-					// check for zero penetration
-					if (penetration.getDepth() == 0.0) {
-						// this should only happen if numerical error occurs
-						continue;
-					}
-					// perform post processing
-					if (this.narrowphasePostProcessor != null) {
-						this.narrowphasePostProcessor.process(convex1, transform1, convex2, transform2, penetration);
-					}
-					// notify of the narrow-phase collision
-					allow = true;
-					for (int j = 0; j < clSize; j++) {
-						CollisionListener cl = collisionListeners.get(j);
-						if (!cl.collision(body1, fixture1, body2, fixture2, penetration)) {
-							// if any collision listener returned false then skip this collision
-							// we must allow all the listeners to get notified first, then skip
-							// the collision
-							allow = false;
-						}
-					}
-					if (!allow) continue;
-					Manifold manifold = new Manifold();
-					// if there is penetration then find a contact manifold
-					// using the filled in penetration object
-					if (this.manifoldSolver.getManifold(penetration, convex1, transform1, convex2, transform2, manifold)) {
-						// check for zero points
-						if (manifold.getPoints().size() == 0) {
-							// this should only happen if numerical error occurs
-							continue;
-						}
-						// notify of the manifold solving result
-						allow = true;
-						for (int j = 0; j < clSize; j++) {
-							CollisionListener cl = collisionListeners.get(j);
-							if (!cl.collision(body1, fixture1, body2, fixture2, manifold)) {
-								// if any collision listener returned false then skip this collision
-								// we must allow all the listeners to get notified first, then skip
-								// the collision
-								allow = false;
-							}
-						}
-						if (!allow) continue;
-						// create a contact constraint
-						ContactConstraint contactConstraint = new ContactConstraint(body1, fixture1, 
-								                                                    body2, fixture2, 
-								                                                    manifold,
-								                                                    this.coefficientMixer.mixFriction(fixture1.getFriction(), fixture2.getFriction()),
-								                                                    this.coefficientMixer.mixRestitution(fixture1.getRestitution(), fixture2.getRestitution()));
-						
-						allow = true;
-						// notify of the created contact constraint
-						for (int j = 0; j < clSize; j++) {
-							CollisionListener cl = collisionListeners.get(j);
-							if (!cl.collision(contactConstraint)) {
-								// if any collision listener returned false then skip this collision
-								// we must allow all the listeners to get notified first, then skip
-								// the collision
-								allow = false;
-							}
-						}
-						if (!allow) continue;
-						
-						// add a contact edge to both bodies
-						ContactEdge contactEdge1 = new ContactEdge(body2, contactConstraint);
-						ContactEdge contactEdge2 = new ContactEdge(body1, contactConstraint);
-						body1.contacts.add(contactEdge1);
-						body2.contacts.add(contactEdge2);
-						// add the contact constraint to the contact manager
-						this.contactManager.queue(contactConstraint);
+		items = new ArrayList<BroadphaseItem<Body, BodyFixture>>(items);
+		if (baked != null) {
+			items.addAll(baked.detect(aabb, filter));
+		}
+		for (int i = 0; i < size; i++) {
+			items.addAll(this.terrains.get(i).getTree().detect(aabb, filter));
+		}
+		return items;
+	}
+	
+	/**
+	 * Returns the items in the broad-phase, in the tree of the baked {@link Body}s and in the trees of
+	 * the {@link Terrain}s whose {@link AABB}s intersect the given {@link Ray} and are allowed by the given filter.
+	 * @param ray the {@link Ray}
+	 * @param length the length of the ray; 0.0 for infinite length
+	 * @param filter the broad-phase filter
+	 * @return List&lt;{@link BroadphaseItem}&gt;
+	 * @see BroadphaseDetector#raycast(Ray, double, BroadphaseFilter)
+	 * @since 3.3.1
+	 */
+	private List<BroadphaseItem<Body, BodyFixture>> raycastBroadphase(Ray ray, double length, BroadphaseFilter<Body, BodyFixture> filter) {
+		List<BroadphaseItem<Body, BodyFixture>> items = this.broadphaseDetector.raycast(ray, length, filter);
+		StaticAABBTree<Body, BodyFixture> baked = this.getBakedTree();
+		int size = this.terrains.size();
+		if (size == 0 && baked == null) return items;
+		
+		items = new ArrayList<BroadphaseItem<Body, BodyFixture>>(items);
+		if (baked != null) {
+			items.addAll(baked.raycast(ray, length, filter));
+		}
+		for (int i = 0; i < size; i++) {
+			items.addAll(this.terrains.get(i).getTree().raycast(ray, length, filter));
+		}
+		return items;
+	}
+	
+	/**
+	 * Removes the {@link ContactEdge}s of the given sleeping or static {@link Body} with
+	 * {@link Body}s whose contacts are found again and queues the {@link ContactConstraint}s
+	 * of the remaining {@link ContactEdge}s with the {@link ContactManager}.
+	 * @param body the body
+	 * @see #isFreezable(Body)
+	 * @since 3.3.1
+	 */
+	private void freezeContacts(Body body) {
+		List<ContactEdge> contacts = body.contacts;
+		int size = contacts.size();
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			ContactEdge contactEdge = contacts.get(i);
+			ContactConstraint contactConstraint = contactEdge.interaction;
+			if (contactEdge.other.isFrozen()) {
+				contacts.set(n++, contactEdge);
+				// each contact constraint is on both bodies, queue it once
+				if (contactConstraint.getBody1() == body) {
+					this.contactManager.queue(contactConstraint);
+					// the contact constraint must outlive its generation
+					if (this.contactPoolingEnabled) {
+						this.contactConstraintPool.retain(contactConstraint);
 					}
 				}
+			} else if (this.contactPoolingEnabled) {
+				// release the references
+				contactEdge.other = null;
+				contactEdge.interaction = null;
+				this.contactEdges.add(contactEdge);
 			}
 		}
-		
-		// warm start the contact constraints
-		this.contactManager.updateAndNotify(this.getListeners(ContactListener.class), this.settings);
+		if (n < size) {
+			contacts.subList(n, size).clear();
+		}
 	}
 	
 	/**
@@ -846,6 +1969,10 @@ public class World implements Shiftable, DataContainer {
 	 * This method solves for the time of impact for each {@link Body} iteratively
 	 * and pairwise.
 	 * <p>
+	 * Only the {@link Body}s near each swept {@link Body}, as found by the 
+	 * {@link BroadphaseDetector}, are tested.  The {@link BroadphaseDetector} is
+	 * updated with the current positions of the {@link Body}s first.
+	 * <p>
 	 * The cases considered are dependent on the given collision detection mode.
 	 * <p>
 	 * Cases skipped (including the converse of the above):
@@ -868,6 +1995,43 @@ public class World implements Shiftable, DataContainer {
 		// check the CCD mode
 		boolean bulletsOnly = (mode == ContinuousDetectionMode.BULLETS_ONLY);
 		
+		double dt = this.step.getDeltaTime();
+		
+		// the broad-phase is used to find the bodies near each swept body so
+		// it must contain the current positions.  While sweeping, a moving body
+		// can be some distance from its AABB in the broad-phase, so find the
+		// largest of these distances for the moving bodies (the largest two so
+		// that a body can ignore its own) and for the moving non-dynamic bodies
+		double expansion1 = 0.0;
+		double expansion2 = 0.0;
+		double kinematicExpansion = 0.0;
+		Body expansionBody = null;
+		for (int i = 0; i < size; i++) {
+			Body body = this.bodies.get(i);
+			if (!body.isActive()) continue;
+			// sleeping bodies that weren't integrated this step haven't moved
+			if (body.isAsleep() && !body.isOnIsland()) continue;
+			if (body instanceof Terrain || body.isBaked()) continue;
+			this.broadphaseDetector.update(body);
+			
+			// only bodies that were integrated this step can have moved
+			if (!body.isOnIsland() || body.isStatic()) continue;
+			
+			double expansion = World.getTimeOfImpactExpansion(body, dt);
+			if (expansion > expansion1) {
+				expansion2 = expansion1;
+				expansion1 = expansion;
+				expansionBody = body;
+			} else if (expansion > expansion2) {
+				expansion2 = expansion;
+			}
+			if (!body.isDynamic() && expansion > kinematicExpansion) {
+				kinematicExpansion = expansion;
+			}
+		}
+		
+		List<Body> candidates = new ArrayList<Body>();
+		
 		// loop over all the bodies and find the minimum TOI for each
 		// dynamic body
 		for (int i = 0; i < size; i++) {
@@ -893,12 +2057,52 @@ public class World implements Shiftable, DataContainer {
 			// they will only be asleep after being stationary for a set
 			// time period
 			if (!body.isOnIsland() || body.isAsleep()) continue;
-
+			
+			// find the bodies near the swept body; bullets are tested against
+			// dynamic bodies so all moving bodies must be considered
+			double expansion = kinematicExpansion;
+			if (body.isBullet()) {
+				expansion = body == expansionBody ? expansion2 : expansion1;
+			}
+			AABB aabb = body.createSweptAABB();
+			aabb.expand(expansion * 2.0);
+			List<BroadphaseItem<Body, BodyFixture>> items = this.detectBroadphase(aabb, this.timeOfImpactBroadphaseFilter);
+			
+			// there's an item for each fixture, but we only need each body once
+			candidates.clear();
+			int iSize = items.size();
+			for (int j = 0; j < iSize; j++) {
+				Body other = items.get(j).getCollidable();
+				if (other != body && !candidates.contains(other)) {
+					candidates.add(other);
+				}
+			}
+			
 			// solve for time of impact
-			this.solveTOI(body, listeners);
+			this.solveTOI(body, candidates, listeners);
 		}
 	}
 	
+	/**
+	 * Returns the maximum distance the given moving {@link Body} can be from its
+	 * current {@link AABB} during time of impact detection.
+	 * <p>
+	 * Time of impact detection sweeps the body from its initial transform using its
+	 * velocity.  The body's center can be at most the distance from its initial center
+	 * to its current center plus the swept distance from its current center, and its 
+	 * fixtures are within the rotation disc radius of its center.
+	 * @param body the body
+	 * @param dt the elapsed time
+	 * @return double
+	 * @since 3.3.1
+	 */
+	private static double getTimeOfImpactExpansion(Body body, double dt) {
+		Vector2 center = body.getMass().getCenter();
+		Vector2 c0 = body.getInitialTransform().getTransformed(center);
+		Vector2 c1 = body.getTransform().getTransformed(center);
+		return body.getRotationDiscRadius() + c0.distance(c1) + body.getLinearVelocity().getMagnitude() * dt;
+	}
+	
 	/**
 	 * Solves the time of impact for the given {@link Body}.
 	 * <p>
@@ -914,12 +2118,28 @@ public class World implements Shiftable, DataContainer {
 	 * Then the {@link Body}s are position solved using the {@link TimeOfImpactSolver}
 	 * to force the {@link Body}s into collision.  This causes the discrete collision
 	 * detector to detect the collision on the next time step.
+	 * <p>
+	 * This method tests the given {@link Body} against all other {@link Body}s in
+	 * this {@link World}.
 	 * @param body1 the {@link Body}
 	 * @param listeners the list of {@link TimeOfImpactListener}s
 	 * @since 3.1.0
 	 */
 	protected void solveTOI(Body body1, List<TimeOfImpactListener> listeners) {
-		int size = this.bodies.size();
+		this.solveTOI(body1, this.bodies, listeners);
+	}
+	
+	/**
+	 * Solves the time of impact for the given {@link Body} against the given
+	 * candidate {@link Body}s.
+	 * @param body1 the {@link Body}
+	 * @param bodies the candidate {@link Body}s
+	 * @param listeners the list of {@link TimeOfImpactListener}s
+	 * @see #solveTOI(Body, List)
+	 * @since 3.3.1
+	 */
+	private void solveTOI(Body body1, List<Body> bodies, List<TimeOfImpactListener> listeners) {
+		int size = bodies.size();
 		
 		// generate a swept AABB for this body
 		AABB aabb1 = body1.createSweptAABB();
@@ -936,7 +2156,7 @@ public class World implements Shiftable, DataContainer {
 		// loop over all the other bodies to find the minimum TOI
 		for (int i = 0; i < size; i++) {
 			// get the other body
-			Body body2 = this.bodies.get(i);
+			Body body2 = bodies.get(i);
 
 			// skip this test if they are the same body
 			if (body1 == body2) continue;
@@ -961,7 +2181,9 @@ public class World implements Shiftable, DataContainer {
 
 			TimeOfImpact toi = new TimeOfImpact();
 			int fc1 = body1.getFixtureCount();
-			int fc2 = body2.getFixtureCount();
+			// only the fixtures of a terrain near the swept body can be hit
+			List<BodyFixture> fixtures2 = body2 instanceof Terrain ? ((Terrain)body2).getFixtures(aabb1) : body2.getFixtures();
+			int fc2 = fixtures2.size();
 			
 			// get the velocities for the time step since we want
 			// [t1, t2] to be bound to this time step
@@ -992,7 +2214,7 @@ public class World implements Shiftable, DataContainer {
 				if (f1.isSensor()) continue;
 				
 				for (int k = 0; k < fc2; k++) {
-					BodyFixture f2 = body2.getFixture(k);
+					BodyFixture f2 = fixtures2.get(k);
 					
 					// skip sensor fixtures
 					if (f2.isSensor()) continue;
@@ -1274,7 +2496,7 @@ public class World implements Shiftable, DataContainer {
 		RaycastResult result = null;
 		RaycastBroadphaseFilter bpFilter = new RaycastBroadphaseFilter(ignoreInactive, ignoreSensors, filter);
 		// filter using the broadphase first
-		List<BroadphaseItem<Body, BodyFixture>> items = this.broadphaseDetector.raycast(ray, maxLength, bpFilter);
+		List<BroadphaseItem<Body, BodyFixture>> items = this.raycastBroadphase(ray, maxLength, bpFilter);
 		// loop over the list of bodies testing each one
 		int size = items.size();
 		boolean found = false;
@@ -1729,7 +2951,7 @@ public class World implements Shiftable, DataContainer {
 		boolean allow = true;
 		AABBBroadphaseFilter bpFilter = new AABBBroadphaseFilter(ignoreInactive, ignoreSensors, filter);
 		// use the broadphase to filter first
-		List<BroadphaseItem<Body, BodyFixture>> items = this.broadphaseDetector.detect(aabb, bpFilter);
+		List<BroadphaseItem<Body, BodyFixture>> items = this.detectBroadphase(aabb, bpFilter);
 		// loop over the potential collisions
 		for (BroadphaseItem<Body, BodyFixture> item : items) {
 			Body body = item.getCollidable();
@@ -2021,7 +3243,7 @@ public class World implements Shiftable, DataContainer {
 		int dlSize = listeners.size();
 		
 		AABBBroadphaseFilter bpFilter = new AABBBroadphaseFilter(ignoreInactive, ignoreSensors, filter);
-		List<BroadphaseItem<Body, BodyFixture>> collisions = this.broadphaseDetector.detect(aabb, bpFilter);
+		List<BroadphaseItem<Body, BodyFixture>> collisions = this.detectBroadphase(aabb, bpFilter);
 		boolean found = false;
 		
 		int bSize = collisions.size();
@@ -2299,7 +3521,7 @@ public class World implements Shiftable, DataContainer {
 		AABB aabb = convex.createAABB(transform);
 		AABBBroadphaseFilter bpFilter = new AABBBroadphaseFilter(ignoreInactive, ignoreSensors, filter);
 		// test using the broadphase to rule out as many bodies as we can
-		List<BroadphaseItem<Body, BodyFixture>> items = this.broadphaseDetector.detect(aabb, bpFilter);
+		List<BroadphaseItem<Body, BodyFixture>> items = this.detectBroadphase(aabb, bpFilter);
 		// now perform a more accurate test
 		int bSize = items.size();
 		boolean found = false;
@@ -2659,6 +3881,8 @@ public class World implements Shiftable, DataContainer {
 		}
 		// update the broadphase
 		this.broadphaseDetector.shift(shift);
+		// the baked tree is built again when it's needed
+		this.bakedTree = null;
 		// update the bounds
 		if (this.bounds != null) {
 			this.bounds.shift(shift);
@@ -2686,7 +3910,11 @@ public class World implements Shiftable, DataContainer {
 		// set the world property on the body
 		body.world = this;
 		// add it to the broadphase
-		this.broadphaseDetector.add(body);
+		if (body instanceof Terrain) {
+			this.terrains.add((Terrain)body);
+		} else {
+			this.broadphaseDetector.add(body);
+		}
 	}
 	
 	/**
@@ -2816,7 +4044,15 @@ public class World implements Shiftable, DataContainer {
 			body.world = null;
 			
 			// remove the body from the broadphase
-			this.broadphaseDetector.remove(body);
+			if (body instanceof Terrain) {
+				this.terrains.remove(body);
+			} else if (body.isBaked()) {
+				body.setBaked(false);
+				this.bakedBodies.remove(body);
+				this.bakedTree = null;
+			} else {
+				this.broadphaseDetector.remove(body);
+			}
 			
 			// wake up any bodies connected to this body by a joint
 			// and destroy the joints and remove the edges
@@ -3082,6 +4318,12 @@ public class World implements Shiftable, DataContainer {
 		}
 		// clear all the broadphase bodies
 		this.broadphaseDetector.clear();
+		this.terrains.clear();
+		for (int i = 0; i < this.bakedBodies.size(); i++) {
+			this.bakedBodies.get(i).setBaked(false);
+		}
+		this.bakedBodies.clear();
+		this.bakedTree = null;
 		// clear all the joints
 		this.joints.clear();
 		// clear all the bodies
@@ -3112,6 +4354,66 @@ public class World implements Shiftable, DataContainer {
 		this.removeAllBodiesAndJoints(notify);
 	}
 	
+	/**
+	 * Bakes the static {@link Body}s of this {@link World} into its static layer.
+	 * <p>
+	 * The fixtures of the baked {@link Body}s are removed from the broad-phase and placed in an
+	 * immutable {@link StaticAABBTree} instead.  The tree is never updated; only the fixtures of the
+	 * other {@link Body}s query it, so the broad-phase doesn't have to update or test the static
+	 * {@link Body}s every step and pairs between two static {@link Body}s are never found.
+	 * <p>
+	 * A baked {@link Body} must not be moved, have its mass type changed or have its fixtures
+	 * changed.  To change one, call this method again or {@link #unbakeStaticBodies()} afterwards.
+	 * Removing a baked {@link Body} from the {@link World} is allowed.
+	 * <p>
+	 * {@link Terrain}s are not baked since they already keep their fixtures out of the broad-phase.
+	 * @see #unbakeStaticBodies()
+	 * @see Body#isBaked()
+	 * @since 3.3.1
+	 */
+	public void bakeStaticBodies() {
+		this.unbakeStaticBodies();
+		int size = this.bodies.size();
+		for (int i = 0; i < size; i++) {
+			Body body = this.bodies.get(i);
+			if (body.isStatic() && !(body instanceof Terrain)) {
+				this.broadphaseDetector.remove(body);
+				body.setBaked(true);
+				this.bakedBodies.add(body);
+			}
+		}
+		// build the tree now rather than during the next step
+		this.getBakedTree();
+	}
+	
+	/**
+	 * Moves the baked {@link Body}s of this {@link World} back into the broad-phase.
+	 * @see #bakeStaticBodies()
+	 * @since 3.3.1
+	 */
+	public void unbakeStaticBodies() {
+		int size = this.bakedBodies.size();
+		for (int i = 0; i < size; i++) {
+			Body body = this.bakedBodies.get(i);
+			body.setBaked(false);
+			// any fixtures added since baking were added to the broad-phase
+			this.broadphaseDetector.remove(body);
+			this.broadphaseDetector.add(body);
+		}
+		this.bakedBodies.clear();
+		this.bakedTree = null;
+	}
+	
+	/**
+	 * Returns the number of {@link Body}s baked into the static layer of this {@link World}.
+	 * @return int
+	 * @see #bakeStaticBodies()
+	 * @since 3.3.1
+	 */
+	public int getBakedBodyCount() {
+		return this.bakedBodies.size();
+	}
+	
 	/**
 	 * Removes all {@link Joint}s from this {@link World}.
 	 * <p>
@@ -3495,7 +4797,10 @@ public class World implements Shiftable, DataContainer {
 		// re-add all bodies to the broadphase
 		int size = this.bodies.size();
 		for (int i = 0; i < size; i++) {
-			this.broadphaseDetector.add(this.bodies.get(i));
+			Body body = this.bodies.get(i);
+			if (!(body instanceof Terrain) && !body.isBaked()) {
+				this.broadphaseDetector.add(body);
+			}
 		}
 	}
 	
@@ -3690,6 +4995,186 @@ public class World implements Shiftable, DataContainer {
 		return this.contactConstraintSolver;
 	}
 	
+	/**
+	 * Sets the {@link ExecutorService} used to solve the {@link Island}s of each time step
+	 * concurrently.
+	 * <p>
+	 * Islands are groups of interacting bodies, joints and contacts.  Since islands only share
+	 * static bodies, they can be solved independently.  When an executor is set, all islands are
+	 * built first and then submitted to the executor; the calling thread waits until all islands
+	 * have been solved.  A {@link java.util.concurrent.ForkJoinPool} or fixed thread pool are 
+	 * typical choices.  The executor is not shut down by this world.
+	 * <p>
+	 * Listener notification is not affected; all listeners are still notified on the thread
+	 * calling the update/step methods and in the same order.  Any {@link Joint}s must be safe to
+	 * use concurrently on different islands, which is the case for the joints provided.
+	 * <p>
+	 * The {@link ContactConstraintSolver} must also be safe to use concurrently, which is only known
+	 * for the {@link SequentialImpulses}, {@link BatchedImpulses} and {@link SubSteppingImpulses}
+	 * solvers.  With any other solver, including sub classes of those, the islands are solved 
+	 * serially on the calling thread even if an executor is set.
+	 * <p>
+	 * The default is null, solving all islands serially on the calling thread.
+	 * @param executor the executor; null to solve islands serially
+	 * @since 3.3.1
+	 */
+	public void setIslandExecutor(ExecutorService executor) {
+		this.islandExecutor = executor;
+	}
+	
+	/**
+	 * Returns the {@link ExecutorService} used to solve the {@link Island}s concurrently.
+	 * @return {@link ExecutorService}; null if islands are solved serially
+	 * @since 3.3.1
+	 * @see #setIslandExecutor(ExecutorService)
+	 */
+	public ExecutorService getIslandExecutor() {
+		return this.islandExecutor;
+	}
+	
+	/**
+	 * Sets the {@link ExecutorService} used to perform narrow-phase collision detection
+	 * concurrently.
+	 * <p>
+	 * When an executor is set, the broad-phase pairs of each collision detection pass are
+	 * partitioned into batches that are tested with the {@link NarrowphaseDetector} and 
+	 * {@link ManifoldSolver} concurrently.  The calling thread waits until all batches have
+	 * been tested.  When there are too few pairs to fill more than one batch the narrow-phase
+	 * is performed serially.
+	 * <p>
+	 * The {@link CollisionListener}s are still notified on the calling thread and the {@link ContactManager}
+	 * is updated serially, but the order of the notifications changes: the broad-phase notifications
+	 * of all the pairs come first, followed by the other notifications of each pair, in pair order.
+	 * The contact manifold for a pair is computed before the {@link CollisionListener}s are notified
+	 * of the {@link Penetration}, so changes they make to it are not used by the manifold.
+	 * The {@link NarrowphaseDetector}, {@link NarrowphasePostProcessor} and {@link ManifoldSolver}
+	 * must be safe to use concurrently, which is the case for those provided.
+	 * <p>
+	 * The same executor can be used for islands and the narrow-phase.  The executor is not 
+	 * shut down by this world.
+	 * <p>
+	 * The default is null, performing the narrow-phase serially on the calling thread.
+	 * @param executor the executor; null to perform the narrow-phase serially
+	 * @see #setIslandExecutor(ExecutorService)
+	 * @since 3.3.1
+	 */
+	public void setNarrowphaseExecutor(ExecutorService executor) {
+		this.narrowphaseExecutor = executor;
+	}
+	
+	/**
+	 * Returns the {@link ExecutorService} used to perform the narrow-phase concurrently.
+	 * @return {@link ExecutorService}; null if the narrow-phase is performed serially
+	 * @since 3.3.1
+	 * @see #setNarrowphaseExecutor(ExecutorService)
+	 */
+	public ExecutorService getNarrowphaseExecutor() {
+		return this.narrowphaseExecutor;
+	}
+	
+	/**
+	 * Sets the {@link ExecutorService} used to solve the constraints of large islands
+	 * concurrently.
+	 * <p>
+	 * Piles of bodies or crowds of jointed bodies often form a single large island that can't
+	 * benefit from {@link #setIslandExecutor(ExecutorService)}.  When an executor is set, the
+	 * {@link ContactConstraint}s and {@link Joint}s of islands with more than a few dozen
+	 * constraints are graph colored so that no two constraints of the same color share a body 
+	 * that can be moved.  Each color is then split into batches that are solved concurrently,
+	 * one color after the other, for every solver iteration.  The result doesn't depend on the 
+	 * number of threads or the order the batches complete in, but does differ from solving the
+	 * island serially since the constraints are solved in a different order.
+	 * <p>
+	 * When islands are also being solved concurrently, the constraints of each island are solved
+	 * serially unless there's only one island.  This avoids waiting on an executor from one of its
+	 * own threads, so the same executor can be used for both.  The executor isn't used with the
+	 * {@link org.dyn4j.dynamics.contact.SubSteppingContactConstraintSolver}s and takes precedence over the body state store.
+	 * <p>
+	 * The {@link ContactConstraintSolver} must be able to solve disjoint lists of constraints 
+	 * concurrently, which is only known for the {@link SequentialImpulses} and {@link BatchedImpulses}
+	 * solvers.  With any other solver, including sub classes of those, the constraints are solved
+	 * serially even if an executor is set.  The executor is not shut down by this world.
+	 * <p>
+	 * The default is null, solving the constraints of each island serially.
+	 * @param executor the executor; null to solve the constraints serially
+	 * @see #setIslandExecutor(ExecutorService)
+	 * @since 3.3.1
+	 */
+	public void setConstraintExecutor(ExecutorService executor) {
+		this.constraintExecutor = executor;
+	}
+	
+	/**
+	 * Returns the {@link ExecutorService} used to solve the constraints of large islands
+	 * concurrently.
+	 * @return {@link ExecutorService}; null if the constraints are solved serially
+	 * @since 3.3.1
+	 * @see #setConstraintExecutor(ExecutorService)
+	 */
+	public ExecutorService getConstraintExecutor() {
+		return this.constraintExecutor;
+	}
+	
+	/**
+	 * Sets whether contact related objects are reused across steps.
+	 * <p>
+	 * Collision detection creates a number of short-lived objects for each colliding pair
+	 * every step: {@link Penetration}s, {@link Manifold}s, {@link ContactConstraint}s and
+	 * {@link Contact}s.  For worlds with many contacts this can put pressure on the garbage 
+	 * collector.  When enabled, these objects are reused instead.
+	 * <p>
+	 * Because the objects are reused, the {@link Penetration}s, {@link Manifold}s, 
+	 * {@link ContactConstraint}s and {@link ContactPoint}s passed to the {@link CollisionListener}s
+	 * and {@link ContactListener}s, or returned from the {@link Body#getContacts(boolean)} method,
+	 * should not be retained past the step in which they were reported.  The {@link ContactConstraint}s
+	 * and {@link Contact}s are recycled one generation later: they remain valid until the detection
+	 * of the next step has been processed and are overwritten by the detection after that.  Copy any
+	 * values that need to be kept longer.  The {@link org.dyn4j.dynamics.contact.ContactConstraintId}s
+	 * can be retained.
+	 * <p>
+	 * The {@link ContactConstraint} pool assumes that the {@link ContactManager} does not retain
+	 * {@link ContactConstraint}s past the next call to 
+	 * {@link ContactManager#updateAndNotify(List, Settings)}, which is true for the provided
+	 * implementations.
+	 * <p>
+	 * Disabling pooling releases all pooled objects.
+	 * <p>
+	 * The default is false.
+	 * @param flag true if contact related objects should be reused
+	 * @see #getContactConstraintPool()
+	 * @since 3.3.1
+	 */
+	public void setContactPoolingEnabled(boolean flag) {
+		if (!flag) {
+			this.contactConstraintPool.clear();
+			this.contactEdges.clear();
+		}
+		this.contactPoolingEnabled = flag;
+	}
+	
+	/**
+	 * Returns true if contact related objects are reused across steps.
+	 * @return boolean
+	 * @see #setContactPoolingEnabled(boolean)
+	 * @since 3.3.1
+	 */
+	public boolean isContactPoolingEnabled() {
+		return this.contactPoolingEnabled;
+	}
+	
+	/**
+	 * Returns the pool of {@link ContactConstraint}s used when contact pooling is enabled.
+	 * <p>
+	 * The pool can be used to monitor the number of pooled {@link ContactConstraint}s
+	 * and the maximum number in use at one time.
+	 * @return {@link ContactConstraintPool}
+	 * @see #setContactPoolingEnabled(boolean)
+	 * @since 3.3.1
+	 */
+	public ContactConstraintPool getContactConstraintPool() {
+		return this.contactConstraintPool;
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.DataContainer#getUserData()
 	 */
@@ -3788,6 +5273,32 @@ public class World implements Shiftable, DataContainer {
 		return new JointIterator(this);
 	}
 	
+	/**
+	 * Sets the {@link StepStatistics} used to measure each time step.
+	 * <p>
+	 * Statistics are disabled by default.  Pass null to disable them.  The statistics of
+	 * the current time step can also be accessed from the {@link Step#getStatistics()}
+	 * method.
+	 * @param statistics the step statistics; null to disable
+	 * @see StepStatistics
+	 * @since 3.3.1
+	 */
+	public void setStepStatistics(StepStatistics statistics) {
+		this.step.statistics = statistics;
+	}
+	
+	/**
+	 * Returns the {@link StepStatistics} used to measure each time step.
+	 * <p>
+	 * Returns null if statistics are disabled.
+	 * @return {@link StepStatistics}
+	 * @see #setStepStatistics(StepStatistics)
+	 * @since 3.3.1
+	 */
+	public StepStatistics getStepStatistics() {
+		return this.step.statistics;
+	}
+	
 	/**
 	 * Returns the {@link Step} object used to advance
 	 * the simulation.
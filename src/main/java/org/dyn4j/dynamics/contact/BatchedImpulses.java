@@ -0,0 +1,806 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics.contact;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.BodyStateStore;
+import org.dyn4j.dynamics.Settings;
+import org.dyn4j.dynamics.Step;
+import org.dyn4j.geometry.Vector2;
+
+/**
+ * Represents an impulse based rigid {@link Body} physics collision resolver that solves the
+ * {@link ContactConstraint}s in batches.
+ * <p>
+ * When the {@link BodyStateStore} is enabled, the {@link ContactConstraint}s are colored so that
+ * no two {@link ContactConstraint}s in the same batch share a {@link Body} that can be moved by
+ * the solver.  The Jacobians, effective masses and accumulated impulses of each batch are packed
+ * into primitive arrays and each batch is solved lane by lane: the relative velocities of all
+ * the lanes are gathered, the impulses of all the lanes are computed and then applied to the
+ * {@link Body}s.  The lanes of a batch are independent, so the middle step is a straight loop
+ * over primitive arrays.
+ * <p>
+ * The warm starting, restitution and block solver are the same as {@link SequentialImpulses},
+ * only the order in which the {@link ContactConstraint}s are solved differs.  The position
+ * constraints are solved by {@link SequentialImpulses}.
+ * <p>
+ * When the {@link BodyStateStore} is not enabled, this solver solves the {@link ContactConstraint}s
+ * exactly as {@link SequentialImpulses}.
+ * <p>
+ * The packed arrays are kept per thread, so the same solver can be used to solve the islands of
+ * a {@link org.dyn4j.dynamics.World} concurrently.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ * @see Settings#setBodyStateStoreEnabled(boolean)
+ */
+public class BatchedImpulses extends SequentialImpulses {
+	/** The default capacity of the packed arrays */
+	private static final int DEFAULT_CAPACITY = 16;
+	
+	/** The maximum number of batches; {@link ContactConstraint}s that don't fit in any are solved one at a time */
+	private static final int MAXIMUM_BATCH_COUNT = 64;
+	
+	/** The maximum number of contacts per {@link ContactConstraint} */
+	private static final int MAXIMUM_CONTACT_COUNT = 2;
+	
+	/**
+	 * The packed state of the {@link ContactConstraint}s being solved by one thread.
+	 * <p>
+	 * Each thread gets its own workspace so that the islands of a {@link org.dyn4j.dynamics.World}
+	 * can be solved concurrently with the same solver.
+	 * @author William Bittle
+	 * @version 3.3.1
+	 * @since 3.3.1
+	 */
+	private static final class Workspace {
+		/** The number of {@link ContactConstraint}s that have been packed */
+		int size;
+		
+		/** The capacity of the packed arrays */
+		int capacity;
+		
+		/** The packed {@link ContactConstraint}s in batch order */
+		ContactConstraint[] constraints;
+		
+		/** The start of each batch and the end of the last */
+		int[] batches;
+		
+		/** The number of batches */
+		int batchCount;
+		
+		/** The colors used by each {@link BodyStateStore} slot */
+		long[] slotColors;
+		
+		/** The color of each {@link ContactConstraint} in list order */
+		int[] colors;
+		
+		/** The number of {@link ContactConstraint}s of each color */
+		int[] colorCounts;
+		
+		// per constraint
+		
+		/** The slot of the first {@link Body} */
+		int[] slots1;
+		
+		/** The slot of the second {@link Body} */
+		int[] slots2;
+		
+		/** The inverse mass of the first {@link Body} */
+		double[] invM1;
+		
+		/** The inverse mass of the second {@link Body} */
+		double[] invM2;
+		
+		/** The inverse inertia of the first {@link Body} */
+		double[] invI1;
+		
+		/** The inverse inertia of the second {@link Body} */
+		double[] invI2;
+		
+		/** The x component of the normal */
+		double[] nx;
+		
+		/** The y component of the normal */
+		double[] ny;
+		
+		/** The x component of the tangent */
+		double[] tx;
+		
+		/** The y component of the tangent */
+		double[] ty;
+		
+		/** The coefficient of friction */
+		double[] friction;
+		
+		/** The tangent speed */
+		double[] tangentSpeed;
+		
+		// per contact; the i-th contact of the k-th constraint is at i * capacity + k
+		
+		/** The angular part of the normal Jacobian of the first {@link Body}; r1 &times; n */
+		double[] rn1;
+		
+		/** The angular part of the normal Jacobian of the second {@link Body}; r2 &times; n */
+		double[] rn2;
+		
+		/** The angular part of the tangent Jacobian of the first {@link Body}; r1 &times; t */
+		double[] rt1;
+		
+		/** The angular part of the tangent Jacobian of the second {@link Body}; r2 &times; t */
+		double[] rt2;
+		
+		/** The normal effective mass; zero for unused contacts */
+		double[] massN;
+		
+		/** The tangent effective mass; zero for unused contacts */
+		double[] massT;
+		
+		/** The velocity bias */
+		double[] vb;
+		
+		/** The accumulated normal impulse */
+		double[] jn;
+		
+		/** The accumulated tangent impulse */
+		double[] jt;
+		
+		/** True if the two contacts are solved together by the block solver */
+		boolean[] block;
+		
+		/** The element 0, 0 of the block solver K matrix */
+		double[] k11;
+		
+		/** The elements 0, 1 and 1, 0 of the block solver K matrix */
+		double[] k12;
+		
+		/** The element 1, 1 of the block solver K matrix */
+		double[] k22;
+		
+		/** The element 0, 0 of the inverse of the block solver K matrix */
+		double[] i11;
+		
+		/** The elements 0, 1 and 1, 0 of the inverse of the block solver K matrix */
+		double[] i12;
+		
+		/** The element 1, 1 of the inverse of the block solver K matrix */
+		double[] i22;
+		
+		/** The per lane relative velocity and then impulse of the first contact */
+		double[] lanes1;
+		
+		/** The per lane relative velocity and then impulse of the second contact */
+		double[] lanes2;
+		
+		/**
+		 * Default constructor.
+		 */
+		Workspace() {
+			this.slotColors = new long[DEFAULT_CAPACITY];
+			this.colorCounts = new int[MAXIMUM_BATCH_COUNT + 1];
+			this.allocate(DEFAULT_CAPACITY);
+		}
+		
+		/**
+		 * Allocates the packed arrays.
+		 * @param capacity the number of {@link ContactConstraint}s
+		 */
+		void allocate(int capacity) {
+			int n = capacity * MAXIMUM_CONTACT_COUNT;
+			this.capacity = capacity;
+			this.constraints = new ContactConstraint[capacity];
+			this.batches = new int[capacity + MAXIMUM_BATCH_COUNT + 1];
+			this.colors = new int[capacity];
+			this.slots1 = new int[capacity];
+			this.slots2 = new int[capacity];
+			this.invM1 = new double[capacity];
+			this.invM2 = new double[capacity];
+			this.invI1 = new double[capacity];
+			this.invI2 = new double[capacity];
+			this.nx = new double[capacity];
+			this.ny = new double[capacity];
+			this.tx = new double[capacity];
+			this.ty = new double[capacity];
+			this.friction = new double[capacity];
+			this.tangentSpeed = new double[capacity];
+			this.rn1 = new double[n];
+			this.rn2 = new double[n];
+			this.rt1 = new double[n];
+			this.rt2 = new double[n];
+			this.massN = new double[n];
+			this.massT = new double[n];
+			this.vb = new double[n];
+			this.jn = new double[n];
+			this.jt = new double[n];
+			this.block = new boolean[capacity];
+			this.k11 = new double[capacity];
+			this.k12 = new double[capacity];
+			this.k22 = new double[capacity];
+			this.i11 = new double[capacity];
+			this.i12 = new double[capacity];
+			this.i22 = new double[capacity];
+			this.lanes1 = new double[capacity];
+			this.lanes2 = new double[capacity];
+		}
+	}
+	
+	/** The packed state used by each thread */
+	private final ThreadLocal<Workspace> workspaces = new ThreadLocal<Workspace>() {
+		@Override
+		protected Workspace initialValue() {
+			return new Workspace();
+		}
+	};
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.contact.SequentialImpulses#initialize(java.util.List, org.dyn4j.dynamics.BodyStateStore, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
+	 */
+	@Override
+	public void initialize(List<ContactConstraint> contactConstraints, BodyStateStore store, Step step, Settings settings) {
+		Workspace w = this.workspaces.get();
+		int size = contactConstraints.size();
+		
+		// make sure there's enough room
+		if (w.capacity < size) {
+			w.allocate(Math.max(size, w.capacity * 2));
+		}
+		if (w.slotColors.length < store.getSize()) {
+			w.slotColors = new long[Math.max(store.getSize(), w.slotColors.length * 2)];
+		}
+		
+		// color the constraints
+		this.color(w, contactConstraints, store);
+		
+		// pack the constraints in batch order
+		int[] offsets = w.colorCounts;
+		int offset = 0;
+		for (int c = 0; c <= MAXIMUM_BATCH_COUNT; c++) {
+			int count = offsets[c];
+			offsets[c] = offset;
+			offset += count;
+		}
+		w.size = offset;
+		
+		double restitutionVelocity = settings.getRestitutionVelocity();
+		for (int i = 0; i < size; i++) {
+			int color = w.colors[i];
+			if (color < 0) continue;
+			this.pack(w, offsets[color]++, i, contactConstraints.get(i), store, restitutionVelocity);
+		}
+		
+		// the offsets are now the ends of each color; every color is a batch
+		// except the last whose constraints are solved one at a time
+		int batchCount = 0;
+		int start = 0;
+		w.batches[0] = 0;
+		for (int c = 0; c < MAXIMUM_BATCH_COUNT; c++) {
+			if (offsets[c] > start) {
+				w.batches[++batchCount] = offsets[c];
+				start = offsets[c];
+			}
+		}
+		for (int k = start; k < w.size; k++) {
+			w.batches[++batchCount] = k + 1;
+		}
+		w.batchCount = batchCount;
+		
+		// perform warm starting
+		this.warmStart(contactConstraints, store, step, settings);
+	}
+	
+	/**
+	 * Assigns each {@link ContactConstraint} the lowest color that isn't already used by either
+	 * of its {@link Body}s.
+	 * <p>
+	 * {@link Body}s with infinite mass and inertia are never changed by the solver and so can be
+	 * shared by any number of {@link ContactConstraint}s in a batch.
+	 * @param w the workspace of the calling thread
+	 * @param contactConstraints the contact constraints
+	 * @param store the state of the {@link Body}s
+	 */
+	private void color(Workspace w, List<ContactConstraint> contactConstraints, BodyStateStore store) {
+		double[] invM = store.getInverseMass();
+		double[] invI = store.getInverseInertia();
+		int[] slots1 = store.getBody1Slots();
+		int[] slots2 = store.getBody2Slots();
+		
+		long[] used = w.slotColors;
+		Arrays.fill(used, 0, store.getSize(), 0L);
+		Arrays.fill(w.colorCounts, 0);
+		
+		int size = contactConstraints.size();
+		for (int i = 0; i < size; i++) {
+			ContactConstraint contactConstraint = contactConstraints.get(i);
+			if (contactConstraint.contacts.isEmpty()) {
+				w.colors[i] = -1;
+				continue;
+			}
+			
+			int s1 = slots1[i];
+			int s2 = slots2[i];
+			boolean d1 = invM[s1] > 0.0 || invI[s1] > 0.0;
+			boolean d2 = invM[s2] > 0.0 || invI[s2] > 0.0;
+			
+			long mask = 0L;
+			if (d1) mask |= used[s1];
+			if (d2) mask |= used[s2];
+			
+			// the lowest unused color; MAXIMUM_BATCH_COUNT if all are used
+			int color = Long.numberOfTrailingZeros(~mask);
+			if (color < MAXIMUM_BATCH_COUNT) {
+				long bit = 1L << color;
+				if (d1) used[s1] |= bit;
+				if (d2) used[s2] |= bit;
+			}
+			
+			w.colors[i] = color;
+			w.colorCounts[color]++;
+		}
+	}
+	
+	/**
+	 * Packs the given {@link ContactConstraint} at the given index.
+	 * @param w the workspace of the calling thread
+	 * @param k the packed index
+	 * @param i the index of the constraint in the list
+	 * @param contactConstraint the contact constraint
+	 * @param store the state of the {@link Body}s
+	 * @param restitutionVelocity the restitution velocity
+	 */
+	private void pack(Workspace w, int k, int i, ContactConstraint contactConstraint, BodyStateStore store, double restitutionVelocity) {
+		double[] x = store.getTranslationX();
+		double[] y = store.getTranslationY();
+		double[] cos = store.getCost();
+		double[] sin = store.getSint();
+		double[] cx = store.getCenterX();
+		double[] cy = store.getCenterY();
+		double[] vx = store.getVelocityX();
+		double[] vy = store.getVelocityY();
+		double[] av = store.getAngularVelocity();
+		double[] invM = store.getInverseMass();
+		double[] invI = store.getInverseInertia();
+		
+		int s1 = store.getBody1Slots()[i];
+		int s2 = store.getBody2Slots()[i];
+		
+		double invM1 = invM[s1];
+		double invM2 = invM[s2];
+		double invI1 = invI[s1];
+		double invI2 = invI[s2];
+		
+		Vector2 N = contactConstraint.normal;
+		Vector2 T = contactConstraint.tangent;
+		
+		w.constraints[k] = contactConstraint;
+		w.slots1[k] = s1;
+		w.slots2[k] = s2;
+		w.invM1[k] = invM1;
+		w.invM2[k] = invM2;
+		w.invI1[k] = invI1;
+		w.invI2[k] = invI2;
+		w.nx[k] = N.x;
+		w.ny[k] = N.y;
+		w.tx[k] = T.x;
+		w.ty[k] = T.y;
+		w.friction[k] = contactConstraint.friction;
+		w.tangentSpeed[k] = contactConstraint.tangentSpeed;
+		
+		// get the transformed centers of mass
+		double c1x = cos[s1] * cx[s1] - sin[s1] * cy[s1] + x[s1];
+		double c1y = sin[s1] * cx[s1] + cos[s1] * cy[s1] + y[s1];
+		double c2x = cos[s2] * cx[s2] - sin[s2] * cy[s2] + x[s2];
+		double c2y = sin[s2] * cx[s2] + cos[s2] * cy[s2] + y[s2];
+		
+		List<Contact> contacts = contactConstraint.contacts;
+		int cSize = contacts.size();
+		for (int j = 0; j < MAXIMUM_CONTACT_COUNT; j++) {
+			int o = j * w.capacity + k;
+			
+			// unused contacts have zero mass so their impulses are always zero
+			if (j >= cSize) {
+				w.rn1[o] = 0.0;
+				w.rn2[o] = 0.0;
+				w.rt1[o] = 0.0;
+				w.rt2[o] = 0.0;
+				w.massN[o] = 0.0;
+				w.massT[o] = 0.0;
+				w.vb[o] = 0.0;
+				w.jn[o] = 0.0;
+				w.jt[o] = 0.0;
+				continue;
+			}
+			
+			Contact contact = contacts.get(j);
+			
+			// get ra and rb
+			double r1x = contact.p.x - c1x;
+			double r1y = contact.p.y - c1y;
+			double r2x = contact.p.x - c2x;
+			double r2y = contact.p.y - c2y;
+			
+			// the angular parts of the Jacobians
+			double r1CrossN = r1x * N.y - r1y * N.x;
+			double r2CrossN = r2x * N.y - r2y * N.x;
+			double r1CrossT = r1x * T.y - r1y * T.x;
+			double r2CrossT = r2x * T.y - r2y * T.x;
+			w.rn1[o] = r1CrossN;
+			w.rn2[o] = r2CrossN;
+			w.rt1[o] = r1CrossT;
+			w.rt2[o] = r2CrossT;
+			
+			// the effective masses
+			w.massN[o] = 1.0 / (invM1 + invM2 + invI1 * r1CrossN * r1CrossN + invI2 * r2CrossN * r2CrossN);
+			w.massT[o] = 1.0 / (invM1 + invM2 + invI1 * r1CrossT * r1CrossT + invI2 * r2CrossT * r2CrossT);
+			
+			// find the relative velocity
+			double rvx = (-r1y * av[s1] + vx[s1]) - (-r2y * av[s2] + vx[s2]);
+			double rvy = (r1x * av[s1] + vy[s1]) - (r2x * av[s2] + vy[s2]);
+			
+			// project the relative velocity onto the penetration normal
+			double rvn = N.x * rvx + N.y * rvy;
+			
+			// set the velocity bias
+			double bias = 0.0;
+			// if its negative then the bodies are moving away from one another
+			if (rvn < -restitutionVelocity) {
+				// use the coefficient of elasticity
+				bias = -contactConstraint.restitution * rvn;
+			}
+			w.vb[o] = bias;
+			
+			w.jn[o] = contact.jn;
+			w.jt[o] = contact.jt;
+		}
+		
+		// does this contact have 2 points?
+		w.block[k] = false;
+		if (cSize == 2) {
+			// setup the block solver
+			this.packBlockSolver(w, k, contactConstraint);
+		}
+	}
+	
+	/**
+	 * Sets up the block solver for a packed {@link ContactConstraint} with two contacts.
+	 * <p>
+	 * If the system is ill conditioned, the shallowest contact is removed from the
+	 * contact constraint instead, exactly as in {@link SequentialImpulses}.
+	 * @param w the workspace of the calling thread
+	 * @param k the packed index
+	 * @param contactConstraint the contact constraint
+	 */
+	private void packBlockSolver(Workspace w, int k, ContactConstraint contactConstraint) {
+		int o1 = k;
+		int o2 = w.capacity + k;
+		
+		double invM = w.invM1[k] + w.invM2[k];
+		double invI1 = w.invI1[k];
+		double invI2 = w.invI2[k];
+		
+		// compute the K matrix for the constraints
+		double k11 = invM + invI1 * w.rn1[o1] * w.rn1[o1] + invI2 * w.rn2[o1] * w.rn2[o1];
+		double k12 = invM + invI1 * w.rn1[o1] * w.rn1[o2] + invI2 * w.rn2[o1] * w.rn2[o2];
+		double k22 = invM + invI1 * w.rn1[o2] * w.rn1[o2] + invI2 * w.rn2[o2] * w.rn2[o2];
+		double det = k11 * k22 - k12 * k12;
+		
+		// check the condition number of the matrix
+		final double maxCondition = 1000.0;
+		if (k11 * k11 < maxCondition * det) {
+			w.block[k] = true;
+			w.k11[k] = k11;
+			w.k12[k] = k12;
+			w.k22[k] = k22;
+			det = 1.0 / det;
+			w.i11[k] = det * k22;
+			w.i12[k] = -det * k12;
+			w.i22[k] = det * k11;
+			return;
+		}
+		
+		// otherwise the matrix is ill conditioned so keep only the deepest point
+		List<Contact> contacts = contactConstraint.contacts;
+		if (contacts.get(0).depth > contacts.get(1).depth) {
+			contacts.remove(1);
+		} else {
+			contacts.remove(0);
+			w.rn1[o1] = w.rn1[o2];
+			w.rn2[o1] = w.rn2[o2];
+			w.rt1[o1] = w.rt1[o2];
+			w.rt2[o1] = w.rt2[o2];
+			w.massN[o1] = w.massN[o2];
+			w.massT[o1] = w.massT[o2];
+			w.vb[o1] = w.vb[o2];
+			w.jn[o1] = w.jn[o2];
+			w.jt[o1] = w.jt[o2];
+		}
+		w.rn1[o2] = 0.0;
+		w.rn2[o2] = 0.0;
+		w.rt1[o2] = 0.0;
+		w.rt2[o2] = 0.0;
+		w.massN[o2] = 0.0;
+		w.massT[o2] = 0.0;
+		w.vb[o2] = 0.0;
+		w.jn[o2] = 0.0;
+		w.jt[o2] = 0.0;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.contact.SequentialImpulses#warmStart(java.util.List, org.dyn4j.dynamics.BodyStateStore, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
+	 */
+	@Override
+	protected void warmStart(List<ContactConstraint> contactConstraints, BodyStateStore store, Step step, Settings settings) {
+		Workspace w = this.workspaces.get();
+		
+		// pre divide for performance
+		double ratio = 1.0 / step.getDeltaTimeRatio();
+		
+		double[] vx = store.getVelocityX();
+		double[] vy = store.getVelocityY();
+		double[] av = store.getAngularVelocity();
+		
+		for (int j = 0; j < MAXIMUM_CONTACT_COUNT; j++) {
+			int base = j * w.capacity;
+			for (int k = 0; k < w.size; k++) {
+				int o = base + k;
+				
+				// scale the accumulated impulses by the delta time ratio
+				double jn = w.jn[o] * ratio;
+				double jt = w.jt[o] * ratio;
+				w.jn[o] = jn;
+				w.jt[o] = jt;
+				
+				// apply accumulated impulses to warm start the solver
+				double jx = w.nx[k] * jn + w.tx[k] * jt;
+				double jy = w.ny[k] * jn + w.ty[k] * jt;
+				
+				int s1 = w.slots1[k];
+				int s2 = w.slots2[k];
+				vx[s1] += jx * w.invM1[k];
+				vy[s1] += jy * w.invM1[k];
+				av[s1] += w.invI1[k] * (jn * w.rn1[o] + jt * w.rt1[o]);
+				vx[s2] -= jx * w.invM2[k];
+				vy[s2] -= jy * w.invM2[k];
+				av[s2] -= w.invI2[k] * (jn * w.rn2[o] + jt * w.rt2[o]);
+			}
+		}
+		
+		this.store(w);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.contact.SequentialImpulses#solveVelocityContraints(java.util.List, org.dyn4j.dynamics.BodyStateStore, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
+	 */
+	@Override
+	public void solveVelocityContraints(List<ContactConstraint> contactConstraints, BodyStateStore store, Step step, Settings settings) {
+		Workspace w = this.workspaces.get();
+		double[] vx = store.getVelocityX();
+		double[] vy = store.getVelocityY();
+		double[] av = store.getAngularVelocity();
+		
+		for (int b = 0; b < w.batchCount; b++) {
+			int start = w.batches[b];
+			int end = w.batches[b + 1];
+			
+			// solve the friction first so that the friction impulses are
+			// bounded by the normal impulses of the previous iteration
+			for (int j = 0; j < MAXIMUM_CONTACT_COUNT; j++) {
+				this.solveTangent(w, start, end, j * w.capacity, vx, vy, av);
+			}
+			this.solveNormal(w, start, end, vx, vy, av);
+		}
+		
+		this.store(w);
+	}
+	
+	/**
+	 * Solves the friction of one contact of each of the {@link ContactConstraint}s of a batch.
+	 * @param w the workspace of the calling thread
+	 * @param start the first constraint of the batch
+	 * @param end one past the last constraint of the batch
+	 * @param base the offset of the contact
+	 * @param vx the x component of the linear velocities
+	 * @param vy the y component of the linear velocities
+	 * @param av the angular velocities
+	 */
+	private void solveTangent(Workspace w, int start, int end, int base, double[] vx, double[] vy, double[] av) {
+		double[] lanes = w.lanes1;
+		
+		// gather the relative velocities along the tangent
+		for (int k = start; k < end; k++) {
+			int o = base + k;
+			int s1 = w.slots1[k];
+			int s2 = w.slots2[k];
+			lanes[k] = (vx[s1] - vx[s2]) * w.tx[k] + (vy[s1] - vy[s2]) * w.ty[k]
+			         + av[s1] * w.rt1[o] - av[s2] * w.rt2[o]
+			         - w.tangentSpeed[k];
+		}
+		
+		// compute and clamp the impulses
+		for (int k = start; k < end; k++) {
+			int o = base + k;
+			double j = -w.massT[o] * lanes[k];
+			// apply the coefficient of friction
+			double maxJt = w.friction[k] * w.jn[o];
+			// clamp the accumulated tangential impulse
+			double jt0 = w.jt[o];
+			double jt = Math.max(-maxJt, Math.min(jt0 + j, maxJt));
+			w.jt[o] = jt;
+			lanes[k] = jt - jt0;
+		}
+		
+		// apply the impulses
+		for (int k = start; k < end; k++) {
+			int o = base + k;
+			double j = lanes[k];
+			double jx = w.tx[k] * j;
+			double jy = w.ty[k] * j;
+			int s1 = w.slots1[k];
+			int s2 = w.slots2[k];
+			vx[s1] += jx * w.invM1[k];
+			vy[s1] += jy * w.invM1[k];
+			av[s1] += w.invI1[k] * j * w.rt1[o];
+			vx[s2] -= jx * w.invM2[k];
+			vy[s2] -= jy * w.invM2[k];
+			av[s2] -= w.invI2[k] * j * w.rt2[o];
+		}
+	}
+	
+	/**
+	 * Solves the non-penetration of the {@link ContactConstraint}s of a batch.
+	 * <p>
+	 * The two contacts of a {@link ContactConstraint} are solved together using the block
+	 * solver developed by Erin Catto and Dirk Gregorius (see Box2d and {@link SequentialImpulses}).
+	 * @param w the workspace of the calling thread
+	 * @param start the first constraint of the batch
+	 * @param end one past the last constraint of the batch
+	 * @param vx the x component of the linear velocities
+	 * @param vy the y component of the linear velocities
+	 * @param av the angular velocities
+	 */
+	private void solveNormal(Workspace w, int start, int end, double[] vx, double[] vy, double[] av) {
+		double[] lanes1 = w.lanes1;
+		double[] lanes2 = w.lanes2;
+		int base = w.capacity;
+		
+		// gather the relative velocities along the normal
+		for (int k = start; k < end; k++) {
+			int o1 = k;
+			int o2 = base + k;
+			int s1 = w.slots1[k];
+			int s2 = w.slots2[k];
+			double rvn = (vx[s1] - vx[s2]) * w.nx[k] + (vy[s1] - vy[s2]) * w.ny[k];
+			lanes1[k] = rvn + av[s1] * w.rn1[o1] - av[s2] * w.rn2[o1];
+			lanes2[k] = rvn + av[s1] * w.rn1[o2] - av[s2] * w.rn2[o2];
+		}
+		
+		// compute and clamp the impulses
+		for (int k = start; k < end; k++) {
+			int o1 = k;
+			int o2 = base + k;
+			
+			// the current accumulated impulses
+			double a1 = w.jn[o1];
+			double a2 = w.jn[o2];
+			double x1 = a1;
+			double x2 = a2;
+			
+			if (!w.block[k]) {
+				// calculate the impulse using the velocity bias
+				double j = -w.massN[o1] * (lanes1[k] - w.vb[o1]);
+				// clamp the accumulated impulse
+				x1 = Math.max(a1 + j, 0.0);
+			} else {
+				// vn = A * x + b' where b' = b - A * a (see SequentialImpulses)
+				double b1 = lanes1[k] - w.vb[o1] - (w.k11[k] * a1 + w.k12[k] * a2);
+				double b2 = lanes2[k] - w.vb[o2] - (w.k12[k] * a1 + w.k22[k] * a2);
+				
+				// Case 1: vn = 0
+				double c1 = -(w.i11[k] * b1 + w.i12[k] * b2);
+				double c2 = -(w.i12[k] * b1 + w.i22[k] * b2);
+				if (c1 >= 0.0 && c2 >= 0.0) {
+					x1 = c1;
+					x2 = c2;
+				} else {
+					// Case 2: vn1 = 0 and x2 = 0
+					c1 = -w.massN[o1] * b1;
+					if (c1 >= 0.0 && w.k12[k] * c1 + b2 >= 0.0) {
+						x1 = c1;
+						x2 = 0.0;
+					} else {
+						// Case 3: vn2 = 0 and x1 = 0
+						c2 = -w.massN[o2] * b2;
+						if (c2 >= 0.0 && w.k12[k] * c2 + b1 >= 0.0) {
+							x1 = 0.0;
+							x2 = c2;
+						} else if (b1 >= 0.0 && b2 >= 0.0) {
+							// Case 4: x1 = 0 and x2 = 0
+							x1 = 0.0;
+							x2 = 0.0;
+						}
+						// otherwise there's no solution; leave the impulses as they are
+					}
+				}
+			}
+			
+			w.jn[o1] = x1;
+			w.jn[o2] = x2;
+			lanes1[k] = x1 - a1;
+			lanes2[k] = x2 - a2;
+		}
+		
+		// apply the impulses
+		for (int k = start; k < end; k++) {
+			int o1 = k;
+			int o2 = base + k;
+			double d1 = lanes1[k];
+			double d2 = lanes2[k];
+			double j = d1 + d2;
+			double jx = w.nx[k] * j;
+			double jy = w.ny[k] * j;
+			int s1 = w.slots1[k];
+			int s2 = w.slots2[k];
+			vx[s1] += jx * w.invM1[k];
+			vy[s1] += jy * w.invM1[k];
+			av[s1] += w.invI1[k] * (d1 * w.rn1[o1] + d2 * w.rn1[o2]);
+			vx[s2] -= jx * w.invM2[k];
+			vy[s2] -= jy * w.invM2[k];
+			av[s2] -= w.invI2[k] * (d1 * w.rn2[o1] + d2 * w.rn2[o2]);
+		}
+	}
+	
+	/**
+	 * Copies the accumulated impulses back to the {@link Contact}s for reporting
+	 * and warm starting.
+	 * @param w the workspace of the calling thread
+	 */
+	private void store(Workspace w) {
+		for (int k = 0; k < w.size; k++) {
+			List<Contact> contacts = w.constraints[k].contacts;
+			int cSize = contacts.size();
+			for (int j = 0; j < cSize; j++) {
+				Contact contact = contacts.get(j);
+				int o = j * w.capacity + k;
+				contact.jn = w.jn[o];
+				contact.jt = w.jt[o];
+			}
+		}
+	}
+	
+	/**
+	 * Returns the number of batches the {@link ContactConstraint}s were split into
+	 * by the last call to {@link #initialize(List, BodyStateStore, Step, Settings)} on the
+	 * calling thread.
+	 * <p>
+	 * {@link ContactConstraint}s that couldn't be placed in a batch with others are
+	 * counted as a batch each.
+	 * @return int
+	 */
+	public int getBatchCount() {
+		return this.workspaces.get().batchCount;
+	}
+}
@@ -31,18 +31,18 @@ import org.dyn4j.geometry.Vector2;
 /**
  * Represents a contact point between two {@link Body} objects.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.1
  * @since 1.0.0
  */
 public final class Contact {
 	/** The manifold point id for warm starting */
-	final ManifoldPointId id;
+	ManifoldPointId id;
 	
 	/** The contact point in world space */
-	final Vector2 p;
+	Vector2 p;
 	
 	/** The contact penetration depth */
-	final double depth;
+	double depth;
 	
 	/** The contact point in {@link Body}1 space */
 	final Vector2 p1;
@@ -90,6 +90,29 @@ public final class Contact {
 		this.p2 = p2;
 	}
 	
+	/**
+	 * Reinitializes this {@link Contact} for reuse.
+	 * <p>
+	 * The local space points are left unchanged and should be set by the caller.
+	 * All accumulated impulses are reset.
+	 * @param id the manifold point id used for warm starting
+	 * @param point the world space collision point
+	 * @param depth the penetration depth of this point
+	 * @since 3.3.1
+	 */
+	void set(ManifoldPointId id, Vector2 point, double depth) {
+		this.id = id;
+		this.p = point;
+		this.depth = depth;
+		// r1 and r2 are kept so that the solver can reuse them
+		this.jn = 0.0;
+		this.jt = 0.0;
+		this.jp = 0.0;
+		this.massN = 0.0;
+		this.massT = 0.0;
+		this.vb = 0.0;
+	}
+	
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
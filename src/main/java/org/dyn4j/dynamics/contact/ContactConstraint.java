@@ -34,23 +34,34 @@ import org.dyn4j.dynamics.BodyFixture;
 import org.dyn4j.dynamics.Constraint;
 import org.dyn4j.geometry.Matrix22;
 import org.dyn4j.geometry.Shiftable;
+import org.dyn4j.geometry.Transform;
 import org.dyn4j.geometry.Vector2;
 
 /**
  * Represents a {@link Contact} constraint for each {@link Body} pair.  
  * @author William Bittle
- * @version 3.2.5
+ * @version 3.3.1
  * @since 1.0.0
  */
 public class ContactConstraint extends Constraint implements Shiftable {
+	/** 
+	 * The first {@link Body}
+	 * <p>
+	 * Hides the final field of {@link Constraint} since a pooled contact constraint is reused for other pairs.
+	 */
+	protected Body body1;
+	
+	/** The second {@link Body}; see {@link #body1} */
+	protected Body body2;
+	
 	/** The unique contact id */
-	protected final ContactConstraintId id;
+	protected ContactConstraintId id;
 	
 	/** The first {@link Body}'s {@link BodyFixture} */
-	protected final BodyFixture fixture1;
+	protected BodyFixture fixture1;
 	
 	/** The second {@link Body}'s {@link BodyFixture} */
-	protected final BodyFixture fixture2;
+	protected BodyFixture fixture2;
 	
 	/** The {@link Contact}s */
 	protected final List<Contact> contacts;
@@ -82,6 +93,12 @@ public class ContactConstraint extends Constraint implements Shiftable {
 	/** The inverse of the {@link #K} matrix */
 	Matrix22 invK;
 	
+	/** True if this contact constraint is kept past its {@link ContactConstraintPool} generation */
+	boolean retained;
+	
+	/** The index of this contact constraint in the last {@link ContactConstraintMap} it was stored in */
+	int index;
+	
 	/**
 	 * Full constructor.
 	 * @param body1 the first {@link Body}
@@ -94,6 +111,8 @@ public class ContactConstraint extends Constraint implements Shiftable {
 	 */
 	public ContactConstraint(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, Manifold manifold, double friction, double restitution) {
 		super(body1, body2);
+		this.body1 = body1;
+		this.body2 = body2;
 		// set the involved convex shapes
 		this.fixture1 = fixture1;
 		this.fixture2 = fixture2;
@@ -133,6 +152,90 @@ public class ContactConstraint extends Constraint implements Shiftable {
 		this.enabled = true;
 	}
 	
+	/**
+	 * Reinitializes this {@link ContactConstraint} for reuse.
+	 * <p>
+	 * The existing {@link Contact} objects and the tangent vector are reused.  A new
+	 * {@link ContactConstraintId} is always created since the id may be retained by 
+	 * the caller as an identifier for the contact.
+	 * @param body1 the first {@link Body}
+	 * @param fixture1 the first {@link Body}'s {@link BodyFixture}
+	 * @param body2 the second {@link Body}
+	 * @param fixture2 the second {@link Body}'s {@link BodyFixture}
+	 * @param manifold the contact {@link Manifold}
+	 * @param friction the friction for the contact constraint
+	 * @param restitution the restitution for the contact constraint
+	 * @see ContactConstraintPool
+	 * @since 3.3.1
+	 */
+	void set(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, Manifold manifold, double friction, double restitution) {
+		this.body1 = body1;
+		this.body2 = body2;
+		this.fixture1 = fixture1;
+		this.fixture2 = fixture2;
+		this.id = new ContactConstraintId(body1, fixture1, body2, fixture2);
+		// get the manifold points
+		List<ManifoldPoint> points = manifold.getPoints();
+		int mSize = points.size();
+		int cSize = this.contacts.size();
+		// remove any extra contacts
+		for (int l = cSize - 1; l >= mSize; l--) {
+			this.contacts.remove(l);
+		}
+		Transform transform1 = body1.getTransform();
+		Transform transform2 = body2.getTransform();
+		for (int l = 0; l < mSize; l++) {
+			// get the manifold point
+			ManifoldPoint point = points.get(l);
+			Vector2 p = point.getPoint();
+			if (l < cSize) {
+				// reuse the existing contact
+				Contact contact = this.contacts.get(l);
+				contact.set(point.getId(), p, point.getDepth());
+				transform1.getInverseTransformed(p, contact.p1);
+				transform2.getInverseTransformed(p, contact.p2);
+			} else {
+				// create a contact from the manifold point
+				this.contacts.add(new Contact(point.getId(), p, point.getDepth(), 
+						                      transform1.getInverseTransformed(p), 
+						                      transform2.getInverseTransformed(p)));
+			}
+		}
+		// set the normal
+		this.normal = manifold.getNormal();
+		// set the tangent
+		this.tangent.x = -this.normal.y;
+		this.tangent.y = this.normal.x;
+		// set coefficients
+		this.friction = friction;
+		this.restitution = restitution;
+		// set the sensor flag (if either fixture is a sensor then the
+		// contact constraint between the fixtures is a sensor)
+		this.sensor = fixture1.isSensor() || fixture2.isSensor();
+		// by default the tangent speed is zero
+		this.tangentSpeed = 0;
+		this.enabled = true;
+		this.K = null;
+		this.invK = null;
+	}
+	
+	/**
+	 * Releases the references held by this {@link ContactConstraint} so that
+	 * a pooled {@link ContactConstraint} doesn't prevent the bodies from being reclaimed.
+	 * <p>
+	 * The {@link Body}s this {@link ContactConstraint} was created with are still
+	 * referenced by {@link Constraint}.
+	 * @since 3.3.1
+	 */
+	void release() {
+		this.body1 = null;
+		this.body2 = null;
+		this.fixture1 = null;
+		this.fixture2 = null;
+		this.id = null;
+		this.normal = null;
+	}
+	
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2010-2016 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics.contact;
+
+import java.util.Arrays;
+
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.BodyFixture;
+
+/**
+ * Represents a set of {@link ContactConstraint}s that uses the {@link Body}s and
+ * {@link BodyFixture}s of the {@link ContactConstraint}s as the lookup key.
+ * <p>
+ * Two {@link ContactConstraint}s are considered the same if they are between the same
+ * {@link Body}s and {@link BodyFixture}s, in either order.  This is the same identity
+ * as defined by {@link ContactConstraintId}, but lookups use the compact integer ids of the 
+ * {@link Body}s and {@link BodyFixture}s to find candidates and compare references to
+ * confirm a match.  This avoids hashing and comparing the {@link java.util.UUID}s and the
+ * allocation of map entries.
+ * <p>
+ * The {@link ContactConstraint}s are stored densely and can be iterated by index using the
+ * {@link #size()} and {@link #get(int)} methods.  Removing a {@link ContactConstraint} moves 
+ * the last {@link ContactConstraint} into its place.
+ * <p>
+ * The stored {@link ContactConstraint}s can also be marked.  This is used to find the 
+ * {@link ContactConstraint}s that weren't updated when the map is updated in place.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+final class ContactConstraintMap {
+	/** The minimum size of the hash table; must be a power of two */
+	private static final int MINIMUM_TABLE_SIZE = 16;
+	
+	/** The stored {@link ContactConstraint}s */
+	private ContactConstraint[] values;
+	
+	/** The key of each stored {@link ContactConstraint} */
+	private long[] keys;
+	
+	/** The number of stored {@link ContactConstraint}s */
+	private int size;
+	
+	/** The open addressing hash table; holds the index of a value plus one or zero if empty */
+	private int[] table;
+	
+	/** The generation each stored {@link ContactConstraint} was last marked in */
+	private int[] marks;
+	
+	/** The current mark generation */
+	private int generation;
+	
+	/**
+	 * Full constructor.
+	 * @param initialCapacity the expected number of {@link ContactConstraint}s
+	 */
+	public ContactConstraintMap(int initialCapacity) {
+		int capacity = Math.max(initialCapacity, 1);
+		this.values = new ContactConstraint[capacity];
+		this.keys = new long[capacity];
+		this.size = 0;
+		this.table = new int[getTableSize(capacity)];
+		this.marks = new int[capacity];
+		this.generation = 1;
+	}
+	
+	/**
+	 * Returns the hash table size for the given number of values.
+	 * <p>
+	 * The table is kept at most half full.
+	 * @param capacity the number of values
+	 * @return int
+	 */
+	private static int getTableSize(int capacity) {
+		int n = MINIMUM_TABLE_SIZE;
+		while (n < capacity * 2) {
+			n <<= 1;
+		}
+		return n;
+	}
+	
+	/**
+	 * Returns the key for the given {@link ContactConstraint}.
+	 * <p>
+	 * The key is independent of the order of the {@link Body}s.
+	 * @param contactConstraint the {@link ContactConstraint}
+	 * @return long
+	 */
+	static long getKey(ContactConstraint contactConstraint) {
+		int h1 = contactConstraint.getBody1().getSequenceId() * 0x9E3779B9 + contactConstraint.fixture1.getSequenceId();
+		int h2 = contactConstraint.getBody2().getSequenceId() * 0x9E3779B9 + contactConstraint.fixture2.getSequenceId();
+		if (h1 > h2) {
+			int t = h1;
+			h1 = h2;
+			h2 = t;
+		}
+		return ((long)h1 << 32) | (h2 & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Returns true if the given {@link ContactConstraint}s are between the
+	 * same {@link Body}s and {@link BodyFixture}s.
+	 * @param cc1 the first {@link ContactConstraint}
+	 * @param cc2 the second {@link ContactConstraint}
+	 * @return boolean
+	 */
+	static boolean isSame(ContactConstraint cc1, ContactConstraint cc2) {
+		Body b11 = cc1.getBody1();
+		Body b12 = cc1.getBody2();
+		Body b21 = cc2.getBody1();
+		Body b22 = cc2.getBody2();
+		// the order of the objects doesn't matter
+		return (b11 == b21 && b12 == b22 && cc1.fixture1 == cc2.fixture1 && cc1.fixture2 == cc2.fixture2)
+			|| (b11 == b22 && b12 == b21 && cc1.fixture1 == cc2.fixture2 && cc1.fixture2 == cc2.fixture1);
+	}
+	
+	/**
+	 * Returns the home slot in the hash table of the given key.
+	 * @param key the key
+	 * @return int
+	 */
+	private int getSlot(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32)) & (this.table.length - 1);
+	}
+	
+	/**
+	 * Returns the hash table slot of the stored {@link ContactConstraint} that is the same as the
+	 * given {@link ContactConstraint} or the complement of the empty slot where it would be placed.
+	 * @param contactConstraint the {@link ContactConstraint}
+	 * @param key the key of the {@link ContactConstraint}
+	 * @return int
+	 */
+	private int find(ContactConstraint contactConstraint, long key) {
+		int mask = this.table.length - 1;
+		int slot = this.getSlot(key);
+		int entry;
+		while ((entry = this.table[slot]) != 0) {
+			int index = entry - 1;
+			if (this.keys[index] == key && isSame(this.values[index], contactConstraint)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return ~slot;
+	}
+	
+	/**
+	 * Returns the hash table slot that refers to the value at the given index.
+	 * @param index the index of the value
+	 * @return int
+	 */
+	private int findIndex(int index) {
+		int mask = this.table.length - 1;
+		int slot = this.getSlot(this.keys[index]);
+		while (this.table[slot] != index + 1) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+	
+	/**
+	 * Returns the stored {@link ContactConstraint} that is the same as the given 
+	 * {@link ContactConstraint} or null if there isn't one.
+	 * @param contactConstraint the {@link ContactConstraint}
+	 * @return {@link ContactConstraint}
+	 */
+	public ContactConstraint get(ContactConstraint contactConstraint) {
+		int slot = this.find(contactConstraint, getKey(contactConstraint));
+		if (slot < 0) return null;
+		return this.values[this.table[slot] - 1];
+	}
+	
+	/**
+	 * Returns the index of the stored {@link ContactConstraint} that is the same as the given
+	 * {@link ContactConstraint} or -1 if there isn't one.
+	 * <p>
+	 * Finding a stored {@link ContactConstraint} by itself doesn't require a lookup.
+	 * @param contactConstraint the {@link ContactConstraint}
+	 * @return int
+	 */
+	public int indexOf(ContactConstraint contactConstraint) {
+		int index = contactConstraint.index;
+		if (index < this.size && this.values[index] == contactConstraint) {
+			return index;
+		}
+		int slot = this.find(contactConstraint, getKey(contactConstraint));
+		if (slot < 0) return -1;
+		return this.table[slot] - 1;
+	}
+	
+	/**
+	 * Adds the given {@link ContactConstraint}, replacing the stored {@link ContactConstraint}
+	 * that is the same as the given {@link ContactConstraint}, if any.
+	 * @param contactConstraint the {@link ContactConstraint}
+	 * @return {@link ContactConstraint} the replaced {@link ContactConstraint} or null
+	 */
+	public ContactConstraint put(ContactConstraint contactConstraint) {
+		long key = getKey(contactConstraint);
+		int slot = this.find(contactConstraint, key);
+		if (slot >= 0) {
+			int index = this.table[slot] - 1;
+			ContactConstraint old = this.values[index];
+			this.values[index] = contactConstraint;
+			contactConstraint.index = index;
+			return old;
+		}
+		
+		// make sure there's room
+		if (this.size == this.values.length) {
+			int capacity = this.size * 2;
+			this.values = Arrays.copyOf(this.values, capacity);
+			this.keys = Arrays.copyOf(this.keys, capacity);
+			this.marks = Arrays.copyOf(this.marks, capacity);
+			int tableSize = getTableSize(capacity);
+			if (tableSize > this.table.length) {
+				this.rehash(tableSize);
+				slot = this.find(contactConstraint, key);
+			}
+		}
+		
+		int index = this.size++;
+		this.values[index] = contactConstraint;
+		this.keys[index] = key;
+		this.marks[index] = 0;
+		this.table[~slot] = index + 1;
+		contactConstraint.index = index;
+		return null;
+	}
+	
+	/**
+	 * Removes the stored {@link ContactConstraint} that is the same as the given 
+	 * {@link ContactConstraint}.
+	 * @param contactConstraint the {@link ContactConstraint}
+	 * @return {@link ContactConstraint} the removed {@link ContactConstraint} or null
+	 */
+	public ContactConstraint remove(ContactConstraint contactConstraint) {
+		int slot = this.find(contactConstraint, getKey(contactConstraint));
+		if (slot < 0) return null;
+		int index = this.table[slot] - 1;
+		ContactConstraint old = this.values[index];
+		this.removeSlot(slot);
+		this.removeValue(index);
+		return old;
+	}
+	
+	/**
+	 * Removes the {@link ContactConstraint} at the given index.
+	 * <p>
+	 * The last {@link ContactConstraint} is moved to the given index.
+	 * @param index the index
+	 * @return {@link ContactConstraint} the removed {@link ContactConstraint}
+	 * @throws IndexOutOfBoundsException if index is not in [0, {@link #size()})
+	 */
+	public ContactConstraint remove(int index) {
+		if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException();
+		ContactConstraint old = this.values[index];
+		this.removeSlot(this.findIndex(index));
+		this.removeValue(index);
+		return old;
+	}
+	
+	/**
+	 * Empties the given hash table slot and shifts back the entries following it
+	 * so that they can still be found.
+	 * @param slot the slot
+	 */
+	private void removeSlot(int slot) {
+		int[] table = this.table;
+		int mask = table.length - 1;
+		int i = slot;
+		int j = slot;
+		table[i] = 0;
+		while (true) {
+			j = (j + 1) & mask;
+			int entry = table[j];
+			if (entry == 0) return;
+			int k = this.getSlot(this.keys[entry - 1]);
+			// skip the entry if its home slot is cyclically in (i, j]
+			if (i <= j ? (i < k && k <= j) : (i < k || k <= j)) continue;
+			table[i] = entry;
+			table[j] = 0;
+			i = j;
+		}
+	}
+	
+	/**
+	 * Removes the value at the given index by moving the last value into its place.
+	 * <p>
+	 * The hash table entry of the given index must have been removed already.
+	 * @param index the index
+	 */
+	private void removeValue(int index) {
+		int last = --this.size;
+		if (index != last) {
+			// point the last value's table entry to its new index
+			this.table[this.findIndex(last)] = index + 1;
+			this.values[index] = this.values[last];
+			this.keys[index] = this.keys[last];
+			this.marks[index] = this.marks[last];
+			this.values[index].index = index;
+		}
+		this.values[last] = null;
+	}
+	
+	/**
+	 * Rebuilds the hash table using the given size.
+	 * @param tableSize the new table size; must be a power of two
+	 */
+	private void rehash(int tableSize) {
+		this.table = new int[tableSize];
+		int mask = tableSize - 1;
+		for (int i = 0; i < this.size; i++) {
+			int slot = this.getSlot(this.keys[i]);
+			while (this.table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			this.table[slot] = i + 1;
+		}
+	}
+	
+	/**
+	 * Returns the {@link ContactConstraint} at the given index.
+	 * @param index the index
+	 * @return {@link ContactConstraint}
+	 * @throws IndexOutOfBoundsException if index is not in [0, {@link #size()})
+	 */
+	public ContactConstraint get(int index) {
+		if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException();
+		return this.values[index];
+	}
+	
+	/**
+	 * Replaces the {@link ContactConstraint} at the given index with the given {@link ContactConstraint}.
+	 * <p>
+	 * The given {@link ContactConstraint} must be the same as the one it replaces.
+	 * @param index the index
+	 * @param contactConstraint the {@link ContactConstraint}
+	 * @throws IndexOutOfBoundsException if index is not in [0, {@link #size()})
+	 */
+	public void set(int index, ContactConstraint contactConstraint) {
+		if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException();
+		this.values[index] = contactConstraint;
+		contactConstraint.index = index;
+	}
+	
+	/**
+	 * Marks the {@link ContactConstraint} at the given index.
+	 * @param index the index
+	 */
+	public void mark(int index) {
+		this.marks[index] = this.generation;
+	}
+	
+	/**
+	 * Returns true if the {@link ContactConstraint} at the given index has been marked
+	 * since the last call to {@link #clearMarks()}.
+	 * @param index the index
+	 * @return boolean
+	 */
+	public boolean isMarked(int index) {
+		return this.marks[index] == this.generation;
+	}
+	
+	/**
+	 * Unmarks all the stored {@link ContactConstraint}s.
+	 */
+	public void clearMarks() {
+		this.generation++;
+		// start over when the generation wraps around
+		if (this.generation == 0) {
+			Arrays.fill(this.marks, 0);
+			this.generation = 1;
+		}
+	}
+	
+	/**
+	 * Returns the number of stored {@link ContactConstraint}s.
+	 * @return int
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Returns true if there are no stored {@link ContactConstraint}s.
+	 * @return boolean
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+	
+	/**
+	 * Removes all the {@link ContactConstraint}s.
+	 */
+	public void clear() {
+		if (this.size == 0) return;
+		// only clear the table entries that are in use
+		for (int i = 0; i < this.size; i++) {
+			this.table[this.findIndex(i)] = 0;
+			this.values[i] = null;
+		}
+		this.size = 0;
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2010-2016 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics.contact;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dyn4j.collision.manifold.Manifold;
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.dynamics.Settings;
+import org.dyn4j.resources.Messages;
+
+/**
+ * Represents a pool of {@link ContactConstraint}s that are reused across 
+ * simulation steps.
+ * <p>
+ * {@link ContactConstraint}s are obtained from the pool using the 
+ * {@link #getContactConstraint(Body, BodyFixture, Body, BodyFixture, Manifold, double, double)}
+ * method.  The {@link ContactConstraint}s obtained between two calls to the {@link #update()} 
+ * method form a generation.  Each generation is assumed to be in use until the next generation 
+ * has been processed by the {@link ContactManager}, after which it's returned to the pool.  In 
+ * other words, the {@link #update()} method should be called once after each 
+ * {@link ContactManager#updateAndNotify(List, Settings)} call.
+ * <p>
+ * Because the {@link ContactConstraint}s and their {@link Contact}s are reused, they, along with
+ * the {@link ContactPoint}s that refer to them, should not be retained past the step in which 
+ * they were reported.
+ * <p>
+ * A {@link ContactConstraint} that must outlive its generation, like the {@link ContactConstraint}s
+ * of sleeping {@link Body}s, is handed over using the {@link #retain(ContactConstraint)} method.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class ContactConstraintPool {
+	/** The {@link ContactConstraint}s available for reuse */
+	private final List<ContactConstraint> available;
+	
+	/** The {@link ContactConstraint}s obtained since the last update */
+	private List<ContactConstraint> current;
+	
+	/** The {@link ContactConstraint}s obtained before the last update */
+	private List<ContactConstraint> previous;
+	
+	/** The maximum number of {@link ContactConstraint}s in use at one time */
+	private int highWaterMark;
+	
+	/**
+	 * Default constructor.
+	 */
+	public ContactConstraintPool() {
+		this.available = new ArrayList<ContactConstraint>();
+		this.current = new ArrayList<ContactConstraint>();
+		this.previous = new ArrayList<ContactConstraint>();
+		this.highWaterMark = 0;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("ContactConstraintPool[Available=").append(this.available.size())
+		  .append("|InUse=").append(this.getInUseCount())
+		  .append("|HighWaterMark=").append(this.highWaterMark)
+		  .append("]");
+		return sb.toString();
+	}
+	
+	/**
+	 * Returns a {@link ContactConstraint} for the given bodies, fixtures and manifold.
+	 * <p>
+	 * A {@link ContactConstraint} is reused if one is available, otherwise a new one is created.
+	 * @param body1 the first {@link Body}
+	 * @param fixture1 the first {@link Body}'s {@link BodyFixture}
+	 * @param body2 the second {@link Body}
+	 * @param fixture2 the second {@link Body}'s {@link BodyFixture}
+	 * @param manifold the contact {@link Manifold}
+	 * @param friction the friction for the contact constraint
+	 * @param restitution the restitution for the contact constraint
+	 * @return {@link ContactConstraint}
+	 * @throws NullPointerException if body1 or body2 is null
+	 */
+	public ContactConstraint getContactConstraint(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, Manifold manifold, double friction, double restitution) {
+		ContactConstraint contactConstraint;
+		int size = this.available.size();
+		if (size > 0) {
+			// the bodies cannot be null
+			if (body1 == null) throw new NullPointerException(Messages.getString("dynamics.constraint.nullBody1"));
+			if (body2 == null) throw new NullPointerException(Messages.getString("dynamics.constraint.nullBody2"));
+			// remove from the end to avoid shifting
+			contactConstraint = this.available.remove(size - 1);
+			contactConstraint.set(body1, fixture1, body2, fixture2, manifold, friction, restitution);
+		} else {
+			contactConstraint = new ContactConstraint(body1, fixture1, body2, fixture2, manifold, friction, restitution);
+		}
+		this.current.add(contactConstraint);
+		
+		// track the maximum number in use
+		int inUse = this.current.size() + this.previous.size();
+		if (inUse > this.highWaterMark) {
+			this.highWaterMark = inUse;
+		}
+		
+		return contactConstraint;
+	}
+	
+	/**
+	 * Returns the {@link ContactConstraint}s obtained before the previous call to this
+	 * method to the pool and begins a new generation.
+	 */
+	public void update() {
+		int size = this.previous.size();
+		for (int i = 0; i < size; i++) {
+			ContactConstraint contactConstraint = this.previous.get(i);
+			// retained contact constraints are no longer tracked
+			if (contactConstraint.retained) continue;
+			contactConstraint.release();
+			this.available.add(contactConstraint);
+		}
+		this.previous.clear();
+		
+		// swap the lists so we can reuse them
+		List<ContactConstraint> temp = this.previous;
+		this.previous = this.current;
+		this.current = temp;
+	}
+	
+	/**
+	 * Retains the given {@link ContactConstraint} past its generation.
+	 * <p>
+	 * A retained {@link ContactConstraint} is never returned to the pool and is left to be
+	 * reclaimed once it's no longer referenced.  Retaining a {@link ContactConstraint} that
+	 * was not obtained from this pool, or that was already retained, has no effect.
+	 * @param contactConstraint the {@link ContactConstraint}
+	 * @since 3.3.1
+	 */
+	public void retain(ContactConstraint contactConstraint) {
+		contactConstraint.retained = true;
+	}
+	
+	/**
+	 * Removes all {@link ContactConstraint}s from this pool and resets the high water mark.
+	 * <p>
+	 * Any {@link ContactConstraint}s that are still in use will not be reused.
+	 */
+	public void clear() {
+		this.available.clear();
+		this.current.clear();
+		this.previous.clear();
+		this.highWaterMark = 0;
+	}
+	
+	/**
+	 * Returns the number of {@link ContactConstraint}s available for reuse.
+	 * @return int
+	 */
+	public int getAvailableCount() {
+		return this.available.size();
+	}
+	
+	/**
+	 * Returns the number of {@link ContactConstraint}s currently in use.
+	 * @return int
+	 */
+	public int getInUseCount() {
+		return this.current.size() + this.previous.size();
+	}
+	
+	/**
+	 * Returns the maximum number of {@link ContactConstraint}s that have been in use at one time.
+	 * <p>
+	 * This is also the total number of {@link ContactConstraint}s created by this pool
+	 * since it was created or last cleared.
+	 * @return int
+	 */
+	public int getHighWaterMark() {
+		return this.highWaterMark;
+	}
+}
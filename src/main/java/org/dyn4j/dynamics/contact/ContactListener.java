@@ -49,9 +49,15 @@ import org.dyn4j.dynamics.World;
  * the contact between the bodies will still be resolved even if the body has been removed.
  * If a body is removed you should check the remaining contacts for that body and return
  * false from the those as well.
+ * <p>
+ * When contact pooling is enabled, the {@link ContactPoint}s passed to these methods, and the
+ * {@link ContactConstraint}s and {@link Contact}s they were created from, are recycled one
+ * generation later.  They remain valid until the detection of the next step has been processed
+ * and are overwritten by the detection after that.  Copy any values that need to be kept longer.
  * @author William Bittle
- * @version 3.2.5
+ * @version 3.3.1
  * @since 1.0.0
+ * @see World#setContactPoolingEnabled(boolean)
  */
 public interface ContactListener extends Listener {
 	/**
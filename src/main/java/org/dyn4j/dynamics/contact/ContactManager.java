@@ -45,6 +45,10 @@ public interface ContactManager extends Shiftable {
 	 * <p>
 	 * The {@link #updateAndNotify(List, Settings)} method should be called after all {@link ContactConstraint}s
 	 * have been queued.
+	 * <p>
+	 * Queuing the same {@link ContactConstraint} that was added by the last update, rather than a new
+	 * one, signals that the {@link ContactConstraint} has not changed.  It's kept as is and no events
+	 * are reported for it.  This is used for the contacts of sleeping {@link Body}s.
 	 * @param constraint the {@link ContactConstraint}
 	 */
 	public void queue(ContactConstraint constraint);
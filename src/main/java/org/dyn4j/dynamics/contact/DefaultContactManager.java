@@ -25,10 +25,7 @@
 package org.dyn4j.dynamics.contact;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import org.dyn4j.collision.Collisions;
 import org.dyn4j.collision.manifold.ManifoldPointId;
@@ -43,7 +40,7 @@ import org.dyn4j.resources.Messages;
  * Represents the default contact manager that reports beginning, persisted, and
  * ending contacts and performs warm starting by default.
  * @author William Bittle
- * @version 3.3.0
+ * @version 3.3.1
  * @since 3.3.0
  */
 public class DefaultContactManager implements ContactManager, Shiftable {
@@ -51,14 +48,14 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 	private final List<ContactConstraint> constraintQueue;
 	
 	/** Map for fast look up of  {@link ContactConstraint}s */
-	private Map<ContactConstraintId, ContactConstraint> constraints;
-	
-	/** Another map that will be reused */
-	private Map<ContactConstraintId, ContactConstraint> constraints1;
+	private ContactConstraintMap constraints;
 	
 	/** True if warm starting is enabled */
 	private boolean warmStartingEnabled;
 	
+	/** The reusable flags for the persisted contacts of a {@link ContactConstraint} */
+	private boolean[] persisted;
+	
 	/**
 	 * Default constructor.
 	 */
@@ -83,13 +80,12 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 		int eSize = Collisions.getEstimatedCollisionPairs(initialCapacity.getBodyCount());
 		// initialize the members
 		this.constraintQueue = new ArrayList<ContactConstraint>(eSize);
-		// 0.75 = 3/4, we can garuantee that the hashmap will not need to be rehashed
-		// if we take capacity / load factor
-		// the default load factor is 0.75 according to the javadocs, but lets assign it to be sure
-		this.constraints = new HashMap<ContactConstraintId, ContactConstraint>(eSize * 4 / 3 + 1, 0.75f);
-		this.constraints1 = new HashMap<ContactConstraintId, ContactConstraint>(eSize * 4 / 3 + 1, 0.75f);
+		// the maps are keyed by the compact ids of the bodies and fixtures
+		this.constraints = new ContactConstraintMap(eSize);
 		// enabled by default
 		this.warmStartingEnabled = true;
+		// most manifolds have at most two points
+		this.persisted = new boolean[2];
 	}
 	
 	/* (non-Javadoc)
@@ -114,7 +110,7 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 	 */
 	public boolean end(ContactConstraint contactConstraint) {
 		// remove the contact from the cache
-		return this.constraints.remove(contactConstraint.id) != null;
+		return this.constraints.remove(contactConstraint) != null;
 	}
 		
 	/* (non-Javadoc)
@@ -122,9 +118,9 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 	 */
 	public void shift(Vector2 shift) {
 		// update all the contacts
-		Iterator<ContactConstraint> it = this.constraints.values().iterator();
-		while (it.hasNext()) {
-			ContactConstraint cc = it.next();
+		int size = this.constraints.size();
+		for (int i = 0; i < size; i++) {
+			ContactConstraint cc = this.constraints.get(i);
 			cc.shift(shift);
 		}
 	}
@@ -140,8 +136,10 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 		// get the warm start distance from the settings
 		double warmStartDistanceSquared = settings.getWarmStartDistanceSquared();
 		
-		// create a new map for the new contacts constraints
-		Map<ContactConstraintId, ContactConstraint> newMap = this.constraints1;
+		// the map is updated in place; the contact constraints that
+		// aren't marked by the end are the ones that were removed
+		ContactConstraintMap constraints = this.constraints;
+		constraints.clearMarks();
 		
 		// loop over the new contact constraints
 		// and attempt to persist contacts
@@ -155,17 +153,30 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 			int nsize = contacts.size();
 			
 			// get the old contact constraint
-			// doing a remove here will ensure that the remaining contact
-			// constraints in the map will be contacts that need to be notified of
-			// removal
-			oldContactConstraint = this.constraints.remove(newContactConstraint.id);
+			int index = constraints.indexOf(newContactConstraint);
+			if (index >= 0) {
+				oldContactConstraint = constraints.get(index);
+			}
+			
+			// the same contact constraint was queued again, so it
+			// hasn't changed; keep it as is without notification
+			if (oldContactConstraint == newContactConstraint) {
+				constraints.mark(index);
+				continue;
+			}
 			
 			// check if the contact constraint exists
 			if (oldContactConstraint != null) {
 				List<Contact> ocontacts = oldContactConstraint.contacts;
 				int osize = ocontacts.size();
-				// create an array for removed contacts
-				boolean[] persisted = new boolean[osize];
+				// reuse the array for removed contacts
+				if (this.persisted.length < osize) {
+					this.persisted = new boolean[osize];
+				}
+				boolean[] persisted = this.persisted;
+				for (int j = 0; j < osize; j++) {
+					persisted[j] = false;
+				}
 				// warm start the constraint
 				for (int j = nsize - 1; j >= 0; j--) {
 					// get the new contact
@@ -224,8 +235,7 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 				
 				// check for removed contacts
 				// if the contact was not persisted then it was removed
-				int rsize = persisted.length;
-				for (int j = 0; j < rsize; j++) {
+				for (int j = 0; j < osize; j++) {
 					// check the boolean array
 					if (!persisted[j]) {
 						// get the contact
@@ -260,43 +270,40 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 					}
 				}
 			}
-			// add the contact constraint to the map
+			// replace the old contact constraint or add the new one
 			if (newContactConstraint.contacts.size() > 0) {
-				newMap.put(newContactConstraint.id, newContactConstraint);
+				if (index >= 0) {
+					constraints.set(index, newContactConstraint);
+				} else {
+					constraints.put(newContactConstraint);
+					index = newContactConstraint.index;
+				}
+				constraints.mark(index);
+			} else if (index >= 0) {
+				// the end of its contacts were already notified above
+				constraints.remove(index);
 			}
 		}
 		
-		// check the map and its size
-		if (!this.constraints.isEmpty()) {
-			// now loop over the remaining contacts in the map to notify of any removed contacts
-			Iterator<ContactConstraint> icc = this.constraints.values().iterator();
-			while (icc.hasNext()) {
-				ContactConstraint contactConstraint = icc.next();
-				// loop over the contact points
-				int rsize = contactConstraint.contacts.size();
-				for (int i = 0; i < rsize; i++) {
-					// get the contact
-					Contact contact = contactConstraint.contacts.get(i);
-					// set the contact point values
-					ContactPoint point = new ContactPoint(contactConstraint, contact);
-					// call the listeners
-					for (int l = 0; l < lsize; l++) {
-						ContactListener listener = listeners.get(l);
-						listener.end(point);
-					}
+		// now loop over the contact constraints that weren't updated to notify 
+		// of any removed contacts; iterate backwards so we can remove
+		for (int j = constraints.size() - 1; j >= 0; j--) {
+			if (constraints.isMarked(j)) continue;
+			ContactConstraint contactConstraint = constraints.get(j);
+			// loop over the contact points
+			int rsize = contactConstraint.contacts.size();
+			for (int i = 0; i < rsize; i++) {
+				// get the contact
+				Contact contact = contactConstraint.contacts.get(i);
+				// set the contact point values
+				ContactPoint point = new ContactPoint(contactConstraint, contact);
+				// call the listeners
+				for (int l = 0; l < lsize; l++) {
+					ContactListener listener = listeners.get(l);
+					listener.end(point);
 				}
 			}
-		}
-		
-		// finally overwrite the contact constraint map with the new map
-		if (size > 0) {
-			// swap the maps so we can reuse
-			this.constraints.clear();
-			this.constraints1 = this.constraints;
-			this.constraints = newMap;
-		} else {
-			// if no contact constraints exist, just clear the old map
-			this.constraints.clear();
+			constraints.remove(j);
 		}
 		
 		this.constraintQueue.clear();
@@ -308,13 +315,21 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 	public void preSolveNotify(List<ContactListener> listeners) {
 		int lsize = listeners != null ? listeners.size() : 0;
 		
+		// nothing to do if there's no one to notify
+		if (lsize == 0) return;
+		
 		// loop through the list of contacts that were solved
-		Iterator<ContactConstraint> itContactConstraints = this.constraints.values().iterator();
-		while (itContactConstraints.hasNext()) {
+		// removing a contact constraint moves the last one into its place
+		// so only advance when the current one was kept
+		int i = 0;
+		while (i < this.constraints.size()) {
 			// get the contact constraint
-			ContactConstraint contactConstraint = itContactConstraints.next();
+			ContactConstraint contactConstraint = this.constraints.get(i);
 			// don't report preSolve of disabled contact constraints
-			if (!contactConstraint.enabled || contactConstraint.sensor) continue;
+			if (!contactConstraint.enabled || contactConstraint.sensor) {
+				i++;
+				continue;
+			}
 			// loop over the contacts
 			int csize = contactConstraint.contacts.size();
 			// iterate backwards so we can remove
@@ -340,7 +355,9 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 			// check if all the contacts were not allowed
 			if (contactConstraint.contacts.size() == 0) {
 				// remove the constraint
-				itContactConstraints.remove();
+				this.constraints.remove(i);
+			} else {
+				i++;
 			}
 		}
 	}
@@ -351,8 +368,13 @@ public class DefaultContactManager implements ContactManager, Shiftable {
 	public void postSolveNotify(List<ContactListener> listeners) {
 		int lsize = listeners != null ? listeners.size() : 0;
 		
+		// nothing to do if there's no one to notify
+		if (lsize == 0) return;
+		
 		// loop through the list of contacts that were solved
-		for (ContactConstraint contactConstraint : this.constraints.values()) {
+		int size = this.constraints.size();
+		for (int i = 0; i < size; i++) {
+			ContactConstraint contactConstraint = this.constraints.get(i);
 			// don't report postSolve of disabled contact constraints
 			if (!contactConstraint.enabled || contactConstraint.sensor) continue;
 			// loop over the contacts
@@ -28,51 +28,103 @@ import java.util.List;
 
 import org.dyn4j.Epsilon;
 import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.BodyStateStore;
 import org.dyn4j.dynamics.Settings;
 import org.dyn4j.dynamics.Step;
 import org.dyn4j.geometry.Interval;
-import org.dyn4j.geometry.Mass;
 import org.dyn4j.geometry.Matrix22;
-import org.dyn4j.geometry.Transform;
 import org.dyn4j.geometry.Vector2;
 
 /**
  * Represents an impulse based rigid {@link Body} physics collision resolver.
+ * <p>
+ * This solver can also solve the contact constraints using the packed state of a
+ * {@link BodyStateStore}.  Both ways share the same computations; when no store is given
+ * the state of the {@link Body}s of the contact constraints is copied into a store owned
+ * by the calling thread and written back once the computation is done.
  * @author William Bittle
- * @version 3.2.0
+ * @version 3.3.1
  * @since 3.2.0
  */
-public class SequentialImpulses implements ContactConstraintSolver {
+public class SequentialImpulses implements BodyStateContactConstraintSolver {
+	/** The store used by each thread when the state of the {@link Body}s is not given */
+	private final ThreadLocal<BodyStateStore> stores = new ThreadLocal<BodyStateStore>() {
+		@Override
+		protected BodyStateStore initialValue() {
+			return new BodyStateStore();
+		}
+	};
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.dynamics.contact.ContactConstraintSolver#initialize(java.util.List, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
 	 */
 	public void initialize(List<ContactConstraint> contactConstraints, Step step, Settings settings) {
+		BodyStateStore store = this.stores.get();
+		store.load(contactConstraints);
+		// the body state is only read
+		this.prepare(contactConstraints, store, settings);
+		store.clear();
+		
+		// perform warm starting
+		this.warmStart(contactConstraints, step, settings);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.contact.BodyStateContactConstraintSolver#initialize(java.util.List, org.dyn4j.dynamics.BodyStateStore, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
+	 */
+	public void initialize(List<ContactConstraint> contactConstraints, BodyStateStore store, Step step, Settings settings) {
+		this.prepare(contactConstraints, store, settings);
+		
+		// perform warm starting
+		this.warmStart(contactConstraints, store, step, settings);
+	}
+	
+	/**
+	 * Computes the vectors to the contact points, the effective masses and the
+	 * velocity biases of the given contact constraints.
+	 * @param contactConstraints the contact constraints
+	 * @param store the state of the {@link Body}s
+	 * @param settings the current settings
+	 * @since 3.3.1
+	 */
+	private void prepare(List<ContactConstraint> contactConstraints, BodyStateStore store, Settings settings) {
 		// get the restitution velocity from the settings object
 		double restitutionVelocity = settings.getRestitutionVelocity();
 		
+		// get the body state
+		double[] x = store.getTranslationX();
+		double[] y = store.getTranslationY();
+		double[] cos = store.getCost();
+		double[] sin = store.getSint();
+		double[] cx = store.getCenterX();
+		double[] cy = store.getCenterY();
+		double[] vx = store.getVelocityX();
+		double[] vy = store.getVelocityY();
+		double[] av = store.getAngularVelocity();
+		double[] invM = store.getInverseMass();
+		double[] invI = store.getInverseInertia();
+		int[] slots1 = store.getBody1Slots();
+		int[] slots2 = store.getBody2Slots();
+		
 		// loop through the contact constraints
 		int size = contactConstraints.size();
 		for (int i = 0; i < size; i++) {
 			ContactConstraint contactConstraint = contactConstraints.get(i);
 			
-			// get the bodies
-			Body b1 = contactConstraint.getBody1();
-			Body b2 = contactConstraint.getBody2();
-			// get the body transforms
-			Transform t1 = b1.getTransform();
-			Transform t2 = b2.getTransform();
-			// get the body masses
-			Mass m1 = b1.getMass();
-			Mass m2 = b2.getMass();
+			// get the body slots
+			int s1 = slots1[i];
+			int s2 = slots2[i];
 			
-			double invM1 = m1.getInverseMass();
-			double invM2 = m2.getInverseMass();
-			double invI1 = m1.getInverseInertia();
-			double invI2 = m2.getInverseInertia();
+			double invM1 = invM[s1];
+			double invM2 = invM[s2];
+			double invI1 = invI[s1];
+			double invI2 = invI[s2];
 			
 			// get the transformed centers of mass
-			Vector2 c1 = t1.getTransformed(m1.getCenter());
-			Vector2 c2 = t2.getTransformed(m2.getCenter());
+			double c1x = cos[s1] * cx[s1] - sin[s1] * cy[s1] + x[s1];
+			double c1y = sin[s1] * cx[s1] + cos[s1] * cy[s1] + y[s1];
+			double c2x = cos[s2] * cx[s2] - sin[s2] * cy[s2] + x[s2];
+			double c2y = sin[s2] * cx[s2] + cos[s2] * cy[s2] + y[s2];
 			
 			// get the contacts
 			List<Contact> contacts = contactConstraint.contacts;
@@ -89,17 +141,17 @@ public class SequentialImpulses implements ContactConstraintSolver {
 			for (int j = 0; j < cSize; j++) {
 				Contact contact = contacts.get(j);
 				
-				// get ra and rb
-				Vector2 r1 = c1.to(contact.p);
-				Vector2 r2 = c2.to(contact.p);
-				contact.r1 = r1;
-				contact.r2 = r2;
+				// get ra and rb (reusing the vectors of a recycled contact)
+				if (contact.r1 == null) contact.r1 = new Vector2();
+				if (contact.r2 == null) contact.r2 = new Vector2();
+				Vector2 r1 = contact.r1.set(contact.p.x - c1x, contact.p.y - c1y);
+				Vector2 r2 = contact.r2.set(contact.p.x - c2x, contact.p.y - c2y);
 				
 				// pre calculate the mass normal
 				double r1CrossN = r1.cross(N);
 				double r2CrossN = r2.cross(N);
 				contact.massN = 1.0 / (invM1 + invM2 + invI1 * r1CrossN * r1CrossN + invI2 * r2CrossN * r2CrossN);
-
+				
 				// pre calculate the mass tangent
 				double r1CrossT = r1.cross(T);
 				double r2CrossT = r2.cross(T);
@@ -109,66 +161,81 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				contact.vb = 0.0;
 				
 				// find the relative velocity
-				Vector2 lv1 = r1.cross(b1.getAngularVelocity()).add(b1.getLinearVelocity());
-				Vector2 lv2 = r2.cross(b2.getAngularVelocity()).add(b2.getLinearVelocity());
-				Vector2 rv = lv1.subtract(lv2);
+				double rvx = (-r1.y * av[s1] + vx[s1]) - (-r2.y * av[s2] + vx[s2]);
+				double rvy = (r1.x * av[s1] + vy[s1]) - (r2.x * av[s2] + vy[s2]);
 				
 				// project the relative velocity onto the penetration normal
-				double rvn = N.dot(rv);
+				double rvn = N.x * rvx + N.y * rvy;
 				// if its negative then the bodies are moving away from one another
 				if (rvn < -restitutionVelocity) {
 					// use the coefficient of elasticity
-					contact.vb += -contactConstraint.restitution * rvn; 
+					contact.vb += -contactConstraint.restitution * rvn;
 				}
 			}
 			
 			// does this contact have 2 points?
 			if (cSize == 2) {
 				// setup the block solver
-				Contact contact1 = contacts.get(0);
-				Contact contact2 = contacts.get(1);
-				
-				double rn1A = contact1.r1.cross(N);
-				double rn1B = contact1.r2.cross(N);
-				double rn2A = contact2.r1.cross(N);
-				double rn2B = contact2.r2.cross(N);
-				
-				// compute the K matrix for the constraints
-				Matrix22 K = new Matrix22();
-				K.m00 = invM1 + invM2 + invI1 * rn1A * rn1A + invI2 * rn1B * rn1B;
-				K.m01 = invM1 + invM2 + invI1 * rn1A * rn2A + invI2 * rn1B * rn2B;
-				K.m10 = K.m01;
-				K.m11 = invM1 + invM2 + invI1 * rn2A * rn2A + invI2 * rn2B * rn2B;
-				
-				// check the condition number of the matrix
-				final double maxCondition = 1000.0;
-				if (K.m00 * K.m00 < maxCondition * K.determinant()) {
-					// if the condition number is below the max then we can
-					// assume that we can invert K
-					contactConstraint.K = K;
-					contactConstraint.invK = K.getInverse();
-				} else {
-					// otherwise the matrix is ill conditioned
-					
-					// it looks like this will only be the case if the points are
-					// close to being the same point.  If they were the same point
-					// then the constraints would be redundant
-					// just choose one of the points as the point to solve
-					
-					// let's choose the deepest point
-					if (contact1.depth > contact2.depth) {
-						// then remove the second contact
-						contactConstraint.contacts.remove(1);
-					} else {
-						// then remove the first contact
-						contactConstraint.contacts.remove(0);
-					}
-				}
+				this.initializeBlockSolver(contactConstraint, invM1, invM2, invI1, invI2);
 			}
 		}
+	}
+	
+	/**
+	 * Sets up the block solver for a contact constraint with two contacts.
+	 * <p>
+	 * If the system is ill conditioned, the shallowest contact is removed
+	 * from the contact constraint instead.
+	 * @param contactConstraint the contact constraint
+	 * @param invM1 the inverse mass of the first body
+	 * @param invM2 the inverse mass of the second body
+	 * @param invI1 the inverse inertia of the first body
+	 * @param invI2 the inverse inertia of the second body
+	 * @since 3.3.1
+	 */
+	private void initializeBlockSolver(ContactConstraint contactConstraint, double invM1, double invM2, double invI1, double invI2) {
+		List<Contact> contacts = contactConstraint.contacts;
+		Vector2 N = contactConstraint.normal;
 		
-		// perform warm starting
-		this.warmStart(contactConstraints, step, settings);
+		Contact contact1 = contacts.get(0);
+		Contact contact2 = contacts.get(1);
+		
+		double rn1A = contact1.r1.cross(N);
+		double rn1B = contact1.r2.cross(N);
+		double rn2A = contact2.r1.cross(N);
+		double rn2B = contact2.r2.cross(N);
+		
+		// compute the K matrix for the constraints
+		Matrix22 K = new Matrix22();
+		K.m00 = invM1 + invM2 + invI1 * rn1A * rn1A + invI2 * rn1B * rn1B;
+		K.m01 = invM1 + invM2 + invI1 * rn1A * rn2A + invI2 * rn1B * rn2B;
+		K.m10 = K.m01;
+		K.m11 = invM1 + invM2 + invI1 * rn2A * rn2A + invI2 * rn2B * rn2B;
+		
+		// check the condition number of the matrix
+		final double maxCondition = 1000.0;
+		if (K.m00 * K.m00 < maxCondition * K.determinant()) {
+			// if the condition number is below the max then we can
+			// assume that we can invert K
+			contactConstraint.K = K;
+			contactConstraint.invK = K.getInverse();
+		} else {
+			// otherwise the matrix is ill conditioned
+			
+			// it looks like this will only be the case if the points are
+			// close to being the same point.  If they were the same point
+			// then the constraints would be redundant
+			// just choose one of the points as the point to solve
+			
+			// let's choose the deepest point
+			if (contact1.depth > contact2.depth) {
+				// then remove the second contact
+				contactConstraint.contacts.remove(1);
+			} else {
+				// then remove the first contact
+				contactConstraint.contacts.remove(0);
+			}
+		}
 	}
 	
 	/**
@@ -178,9 +245,43 @@ public class SequentialImpulses implements ContactConstraintSolver {
 	 * @param settings the current settings
 	 */
 	protected void warmStart(List<ContactConstraint> contactConstraints, Step step, Settings settings) {
+		BodyStateStore store = this.stores.get();
+		store.load(contactConstraints);
+		this.applyAccumulatedImpulses(contactConstraints, store, step);
+		store.writeBack();
+		store.clear();
+	}
+	
+	/**
+	 * Performs warm-starting of the contact constraints using the given {@link BodyStateStore}.
+	 * @param contactConstraints the contact constraints to solve
+	 * @param store the state of the {@link Body}s
+	 * @param step the time step information
+	 * @param settings the current settings
+	 * @since 3.3.1
+	 */
+	protected void warmStart(List<ContactConstraint> contactConstraints, BodyStateStore store, Step step, Settings settings) {
+		this.applyAccumulatedImpulses(contactConstraints, store, step);
+	}
+	
+	/**
+	 * Scales the accumulated impulses of the given contact constraints by the
+	 * delta time ratio and applies them to the {@link Body}s.
+	 * @param contactConstraints the contact constraints
+	 * @param store the state of the {@link Body}s
+	 * @param step the time step information
+	 * @since 3.3.1
+	 */
+	private void applyAccumulatedImpulses(List<ContactConstraint> contactConstraints, BodyStateStore store, Step step) {
 		// pre divide for performance
 		double ratio = 1.0 / step.getDeltaTimeRatio();
 		
+		// get the body state
+		double[] invM = store.getInverseMass();
+		double[] invI = store.getInverseInertia();
+		int[] slots1 = store.getBody1Slots();
+		int[] slots2 = store.getBody2Slots();
+		
 		// get the size
 		int size = contactConstraints.size();
 		
@@ -188,17 +289,14 @@ public class SequentialImpulses implements ContactConstraintSolver {
 		for (int i = 0; i < size; i++) {
 			ContactConstraint contactConstraint = contactConstraints.get(i);
 			
-			// get the bodies
-			Body b1 = contactConstraint.getBody1();
-			Body b2 = contactConstraint.getBody2();
-			// get the body masses
-			Mass m1 = b1.getMass();
-			Mass m2 = b2.getMass();
+			// get the body slots
+			int s1 = slots1[i];
+			int s2 = slots2[i];
 			
-			double invM1 = m1.getInverseMass();
-			double invM2 = m2.getInverseMass();
-			double invI1 = m1.getInverseInertia();
-			double invI2 = m2.getInverseInertia();
+			double invM1 = invM[s1];
+			double invM2 = invM[s2];
+			double invI1 = invI[s1];
+			double invI2 = invI[s2];
 			
 			// get the penetration axis
 			Vector2 N = contactConstraint.normal;
@@ -206,7 +304,7 @@ public class SequentialImpulses implements ContactConstraintSolver {
 			Vector2 T = contactConstraint.tangent;
 			
 			// get the contacts and contact size
-			List<Contact> contacts = contactConstraint.getContacts();
+			List<Contact> contacts = contactConstraint.contacts;
 			int cSize = contacts.size();
 			if (cSize == 0) continue;
 			
@@ -218,39 +316,92 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				contact.jt *= ratio;
 				
 				// apply accumulated impulses to warm start the solver
-
-//				Vector2 J = N.product(contact.jn).add(T.product(contact.jt));
-				Vector2 J = new Vector2(N.x * contact.jn + T.x * contact.jt, N.y * contact.jn + T.y * contact.jt);
-//				b1.getVelocity().add(J.product(invM1));
-				b1.getLinearVelocity().add(J.x * invM1, J.y * invM1);
-				b1.setAngularVelocity(b1.getAngularVelocity() + invI1 * contact.r1.cross(J));
-//				b2.getVelocity().subtract(J.product(invM2));
-				b2.getLinearVelocity().subtract(J.x * invM2, J.y * invM2);
-				b2.setAngularVelocity(b2.getAngularVelocity() - invI2 * contact.r2.cross(J));
+				double jx = N.x * contact.jn + T.x * contact.jt;
+				double jy = N.y * contact.jn + T.y * contact.jt;
+				
+				this.applyImpulse(store, s1, s2, invM1, invM2, invI1, invI2, contact.r1, contact.r2, jx, jy);
 			}
 		}
 	}
 	
+	/**
+	 * Applies the given impulse to the {@link Body}s in the given slots.
+	 * <p>
+	 * The impulse is added to the first {@link Body} and subtracted from the second.
+	 * @param store the state of the {@link Body}s
+	 * @param s1 the slot of the first {@link Body}
+	 * @param s2 the slot of the second {@link Body}
+	 * @param invM1 the inverse mass of the first {@link Body}
+	 * @param invM2 the inverse mass of the second {@link Body}
+	 * @param invI1 the inverse inertia of the first {@link Body}
+	 * @param invI2 the inverse inertia of the second {@link Body}
+	 * @param r1 the vector from the center of mass of the first {@link Body} to the contact
+	 * @param r2 the vector from the center of mass of the second {@link Body} to the contact
+	 * @param jx the x component of the impulse
+	 * @param jy the y component of the impulse
+	 * @since 3.3.1
+	 */
+	private void applyImpulse(BodyStateStore store, int s1, int s2, double invM1, double invM2, double invI1, double invI2, Vector2 r1, Vector2 r2, double jx, double jy) {
+		double[] vx = store.getVelocityX();
+		double[] vy = store.getVelocityY();
+		double[] av = store.getAngularVelocity();
+		
+		vx[s1] += jx * invM1;
+		vy[s1] += jy * invM1;
+		av[s1] = av[s1] + invI1 * (r1.x * jy - r1.y * jx);
+		vx[s2] -= jx * invM2;
+		vy[s2] -= jy * invM2;
+		av[s2] = av[s2] - invI2 * (r2.x * jy - r2.y * jx);
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.dynamics.contact.ContactConstraintSolver#solveVelocityContraints(java.util.List, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
 	 */
 	public void solveVelocityContraints(List<ContactConstraint> contactConstraints, Step step, Settings settings) {
+		BodyStateStore store = this.stores.get();
+		store.load(contactConstraints);
+		this.solveVelocity(contactConstraints, store);
+		store.writeBack();
+		store.clear();
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.contact.BodyStateContactConstraintSolver#solveVelocityContraints(java.util.List, org.dyn4j.dynamics.BodyStateStore, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
+	 */
+	public void solveVelocityContraints(List<ContactConstraint> contactConstraints, BodyStateStore store, Step step, Settings settings) {
+		this.solveVelocity(contactConstraints, store);
+	}
+	
+	/**
+	 * Performs one iteration of the velocity solver over the given contact constraints.
+	 * @param contactConstraints the contact constraints
+	 * @param store the state of the {@link Body}s
+	 * @since 3.3.1
+	 */
+	private void solveVelocity(List<ContactConstraint> contactConstraints, BodyStateStore store) {
+		// get the body state
+		double[] vx = store.getVelocityX();
+		double[] vy = store.getVelocityY();
+		double[] av = store.getAngularVelocity();
+		double[] invM = store.getInverseMass();
+		double[] invI = store.getInverseInertia();
+		int[] slots1 = store.getBody1Slots();
+		int[] slots2 = store.getBody2Slots();
+		
 		// loop through the contact constraints
 		int size = contactConstraints.size();
 		for (int i = 0; i < size; i++) {
 			ContactConstraint contactConstraint = contactConstraints.get(i);
-			// get the bodies
-			Body b1 = contactConstraint.getBody1();
-			Body b2 = contactConstraint.getBody2();
-			// get the masses
-			Mass m1 = b1.getMass();
-			Mass m2 = b2.getMass();
 			
-			double invM1 = m1.getInverseMass();
-			double invM2 = m2.getInverseMass();
-			double invI1 = m1.getInverseInertia();
-			double invI2 = m2.getInverseInertia();
-
+			// get the body slots
+			int s1 = slots1[i];
+			int s2 = slots2[i];
+			
+			double invM1 = invM[s1];
+			double invM2 = invM[s2];
+			double invI1 = invI[s1];
+			double invI2 = invI[s2];
+			
 			// get the contact list
 			List<Contact> contacts = contactConstraint.contacts;
 			int cSize = contacts.size();
@@ -271,12 +422,11 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				Vector2 r2 = contact.r2;
 				
 				// get the relative velocity
-				Vector2 lv1 = r1.cross(b1.getAngularVelocity()).add(b1.getLinearVelocity());
-				Vector2 lv2 = r2.cross(b2.getAngularVelocity()).add(b2.getLinearVelocity());
-				Vector2 rv = lv1.subtract(lv2);
+				double rvx = (-r1.y * av[s1] + vx[s1]) - (-r2.y * av[s2] + vx[s2]);
+				double rvy = (r1.x * av[s1] + vy[s1]) - (r2.x * av[s2] + vy[s2]);
 				
 				// project the relative velocity onto the tangent normal
-				double rvt = T.dot(rv) - tangentSpeed;
+				double rvt = (T.x * rvx + T.y * rvy) - tangentSpeed;
 				// calculate the tangential impulse
 				double jt = contact.massT * (-rvt);
 				
@@ -288,15 +438,7 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				jt = contact.jt - Jt0;
 				
 				// apply to the bodies immediately
-
-//				Vector2 J = T.product(jt);
-				Vector2 J = new Vector2(T.x * jt, T.y * jt);
-//				b1.getVelocity().add(J.product(invM1));
-				b1.getLinearVelocity().add(J.x * invM1, J.y * invM1);
-				b1.setAngularVelocity(b1.getAngularVelocity() + invI1 * r1.cross(J));
-//				b2.getVelocity().subtract(J.product(invM2));
-				b2.getLinearVelocity().subtract(J.x * invM2, J.y * invM2);
-				b2.setAngularVelocity(b2.getAngularVelocity() - invI2 * r2.cross(J));
+				this.applyImpulse(store, s1, s2, invM1, invM2, invI1, invI2, r1, r2, T.x * jt, T.y * jt);
 			}
 			
 			// evalutate the normal impulse
@@ -311,12 +453,11 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				Vector2 r2 = contact.r2;
 				
 				// get the relative velocity
-				Vector2 lv1 = r1.cross(b1.getAngularVelocity()).add(b1.getLinearVelocity());
-				Vector2 lv2 = r2.cross(b2.getAngularVelocity()).add(b2.getLinearVelocity());
-				Vector2 rv = lv1.subtract(lv2);
+				double rvx = (-r1.y * av[s1] + vx[s1]) - (-r2.y * av[s2] + vx[s2]);
+				double rvy = (r1.x * av[s1] + vy[s1]) - (r2.x * av[s2] + vy[s2]);
 				
 				// project the relative velocity onto the penetration normal
-				double rvn = N.dot(rv);
+				double rvn = N.x * rvx + N.y * rvy;
 				
 				// calculate the impulse using the velocity bias
 				double j = -contact.massN * (rvn - contact.vb);
@@ -326,16 +467,7 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				contact.jn = Math.max(j0 + j, 0.0);
 				j = contact.jn - j0;
 				
-				// only update the bodies after processing all the contacts
-				
-//				Vector2 J = N.product(j);
-				Vector2 J = new Vector2(N.x * j, N.y * j);
-//				b1.getVelocity().add(J.product(invM1));
-				b1.getLinearVelocity().add(J.x * invM1, J.y * invM1);
-				b1.setAngularVelocity(b1.getAngularVelocity() + invI1 * r1.cross(J));
-//				b2.getVelocity().subtract(J.product(invM2));
-				b2.getLinearVelocity().subtract(J.x * invM2, J.y * invM2);
-				b2.setAngularVelocity(b2.getAngularVelocity() - invI2 * r2.cross(J));
+				this.applyImpulse(store, s1, s2, invM1, invM2, invI1, invI2, r1, r2, N.x * j, N.y * j);
 			} else {
 				// if its 2 then solve the contacts simultaneously using a mini-LCP
 				
@@ -351,14 +483,14 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				// implies that we must have in any solution either vn_i = 0 or x_i = 0. So for the 2D contact problem the cases
 				// vn1 = 0 and vn2 = 0, x1 = 0 and x2 = 0, x1 = 0 and vn2 = 0, x2 = 0 and vn1 = 0 need to be tested. The first valid
 				// solution that satisfies the problem is chosen.
-				// 
+				//
 				// In order to account for the accumulated impulse 'a' (because of the iterative nature of the solver which only requires
 				// that the accumulated impulse is clamped and not the incremental impulse) we change the impulse variable (x_i).
 				//
 				// Substitute:
-				// 
+				//
 				// x = a + d
-				// 
+				//
 				// a := old total impulse
 				// x := new total impulse
 				// d := incremental impulse
@@ -380,182 +512,98 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				Vector2 r12 = contact2.r1;
 				Vector2 r22 = contact2.r2;
 				
-				Vector2 v1 = b1.getLinearVelocity();
-				Vector2 v2 = b2.getLinearVelocity();
-				double av1 = b1.getAngularVelocity();
-				double av2 = b2.getAngularVelocity();
+				Matrix22 K = contactConstraint.K;
+				Matrix22 invK = contactConstraint.invK;
 				
-				// create a vector containing the current accumulated impulses
-				Vector2 a = new Vector2(contact1.jn, contact2.jn);
+				double v1x = vx[s1];
+				double v1y = vy[s1];
+				double v2x = vx[s2];
+				double v2y = vy[s2];
+				double av1 = av[s1];
+				double av2 = av[s2];
+				
+				// the current accumulated impulses
+				double ax = contact1.jn;
+				double ay = contact2.jn;
 				
 				// get the relative velocity at both contacts
-//				Vector2 lv11 = contact1.r1.cross(b1.getAngularVelocity()).add(b1.getVelocity());
-//				Vector2 lv21 = contact1.r2.cross(b2.getAngularVelocity()).add(b2.getVelocity());
-//				Vector2 rv1 = lv11.subtract(lv21);
-				// inline the computation
-				Vector2 rv1 = new Vector2();
-				rv1.x = -r11.y * av1 + v1.x + r21.y * av2 - v2.x;
-				rv1.y =  r11.x * av1 + v1.y - r21.x * av2 - v2.y;
-				
-//				Vector2 lv12 = contact2.r1.cross(b1.getAngularVelocity()).add(b1.getVelocity());
-//				Vector2 lv22 = contact2.r2.cross(b2.getAngularVelocity()).add(b2.getVelocity());
-//				Vector2 rv2 = lv12.subtract(lv22);
-				// inline the computation
-				Vector2 rv2 = new Vector2();
-				rv2.x = -r12.y * av1 + v1.x + r22.y * av2 - v2.x;
-				rv2.y =  r12.x * av1 + v1.y - r22.x * av2 - v2.y; 
+				double rv1x = -r11.y * av1 + v1x + r21.y * av2 - v2x;
+				double rv1y =  r11.x * av1 + v1y - r21.x * av2 - v2y;
+				double rv2x = -r12.y * av1 + v1x + r22.y * av2 - v2x;
+				double rv2y =  r12.x * av1 + v1y - r22.x * av2 - v2y;
 				
 				// compute the relative velocities along the collision normal
-				double rvn1 = N.dot(rv1);
-				double rvn2 = N.dot(rv2);
+				double rvn1 = N.x * rv1x + N.y * rv1y;
+				double rvn2 = N.x * rv2x + N.y * rv2y;
 				
-				// create the b vector
-				Vector2 b = new Vector2();
-				b.x = rvn1 - contact1.vb;
-				b.y = rvn2 - contact2.vb;
-				b.subtract(contactConstraint.K.product(a));
+				// compute b' = b - A * a
+				double bx = rvn1 - contact1.vb;
+				double by = rvn2 - contact2.vb;
+				bx -= K.m00 * ax + K.m01 * ay;
+				by -= K.m10 * ax + K.m11 * ay;
 				
-				for (;;) {
-					//
-					// Case 1: vn = 0
-					//
-					// 0 = A * x + b'
-					//
-					// Solve for x:
-					//
-					// x = - inv(A) * b'
-					//
-					Vector2 x = contactConstraint.invK.product(b).negate();
-
-					if (x.x >= 0.0f && x.y >= 0.0f)
-					{
-						// find the incremental impulse
-						Vector2 d = x.difference(a);
-
-						// apply the incremental impulse
-						Vector2 J1 = N.product(d.x);
-						Vector2 J2 = N.product(d.y);
-						
-						//v1.add(J1.sum(J2).multiply(invM1));
-						v1.add((J1.x + J2.x) * invM1, (J1.y + J2.y) * invM1);
-						b1.setAngularVelocity(av1 + invI1 * (r11.cross(J1) + r12.cross(J2)));
-						v2.subtract((J1.x + J2.x) * invM2, (J1.y + J2.y) * invM2);
-						b2.setAngularVelocity(av2 - invI2 * (r21.cross(J1) + r22.cross(J2)));
-
-						// set the new accumulated impulse
-						contact1.jn = x.x;
-						contact2.jn = x.y;
-						
-						break;
-					}
-
-					//
+				// Case 1: vn = 0
+				//
+				// 0 = A * x + b'
+				//
+				// Solve for x:
+				//
+				// x = - inv(A) * b'
+				double xx = -(invK.m00 * bx + invK.m01 * by);
+				double xy = -(invK.m10 * bx + invK.m11 * by);
+				if (!(xx >= 0.0f && xy >= 0.0f)) {
 					// Case 2: vn1 = 0 and x2 = 0
 					//
-					//   0 = a11 * x1 + a12 * 0 + b1' 
+					//   0 = a11 * x1 + a12 * 0 + b1'
 					// vn2 = a21 * x1 + a22 * 0 + b2'
-					//
-					
-					x.x = -contact1.massN * b.x;
-					x.y = 0.0;
-					rvn1 = 0.0;
-					rvn2 = contactConstraint.K.m10 * x.x + b.y;
-
-					if (x.x >= 0.0f && rvn2 >= 0.0f)
-					{
-						// find the incremental impulse
-						Vector2 d = x.difference(a);
-
-						// apply the incremental impulse
-						Vector2 J1 = N.product(d.x);
-						Vector2 J2 = N.product(d.y);
-						
-						//v1.add(J1.sum(J2).multiply(invM1));
-						v1.add((J1.x + J2.x) * invM1, (J1.y + J2.y) * invM1);
-						b1.setAngularVelocity(av1 + invI1 * (r11.cross(J1) + r12.cross(J2)));
-						//v2.subtract(J1.sum(J2).multiply(invM2));
-						v2.subtract((J1.x + J2.x) * invM2, (J1.y + J2.y) * invM2);
-						b2.setAngularVelocity(av2 - invI2 * (r21.cross(J1) + r22.cross(J2)));
-						
-						// set the new incremental impulse
-						contact1.jn = x.x;
-						contact2.jn = x.y;
-						
-						break;
-					}
-
-
-					//
-					// Case 3: vn2 = 0 and x1 = 0
-					//
-					// vn1 = a11 * 0 + a12 * x2 + b1' 
-					//   0 = a21 * 0 + a22 * x2 + b2'
-					//
-					
-					x.x = 0.0;
-					x.y = -contact2.massN * b.y;
-					rvn1 = contactConstraint.K.m01 * x.y + b.x;
-					rvn2 = 0.0;
-
-					if (x.y >= 0.0f && rvn1 >= 0.0f)
-					{
-						// find the incremental impulse
-						Vector2 d = x.difference(a);
-
-						// apply the incremental impulse
-						Vector2 J1 = N.product(d.x);
-						Vector2 J2 = N.product(d.y);
-						
-						//v1.add(J1.sum(J2).multiply(invM1));
-						v1.add((J1.x + J2.x) * invM1, (J1.y + J2.y) * invM1);
-						b1.setAngularVelocity(av1 + invI1 * (r11.cross(J1) + r12.cross(J2)));
-						//v2.subtract(J1.sum(J2).multiply(invM2));
-						v2.subtract((J1.x + J2.x) * invM2, (J1.y + J2.y) * invM2);
-						b2.setAngularVelocity(av2 - invI2 * (r21.cross(J1) + r22.cross(J2)));
-						
-						// set the new incremental impulse
-						contact1.jn = x.x;
-						contact2.jn = x.y;
-						
-						break;
+					xx = -contact1.massN * bx;
+					xy = 0.0;
+					rvn2 = K.m10 * xx + by;
+					if (!(xx >= 0.0f && rvn2 >= 0.0f)) {
+						// Case 3: vn2 = 0 and x1 = 0
+						//
+						// vn1 = a11 * 0 + a12 * x2 + b1'
+						//   0 = a21 * 0 + a22 * x2 + b2'
+						xx = 0.0;
+						xy = -contact2.massN * by;
+						rvn1 = K.m01 * xy + bx;
+						if (!(xy >= 0.0f && rvn1 >= 0.0f)) {
+							// Case 4: x1 = 0 and x2 = 0
+							//
+							// vn1 = b1
+							// vn2 = b2;
+							xx = 0.0f;
+							xy = 0.0f;
+							rvn1 = bx;
+							rvn2 = by;
+							if (!(rvn1 >= 0.0f && rvn2 >= 0.0f)) {
+								// No solution, give up. This is hit sometimes, but it doesn't seem to matter.
+								continue;
+							}
+						}
 					}
-
-					//
-					// Case 4: x1 = 0 and x2 = 0
-					// 
-					// vn1 = b1
-					// vn2 = b2;
-					x.x = 0.0f;
-					x.y = 0.0f;
-					rvn1 = b.x;
-					rvn2 = b.y;
-
-					if (rvn1 >= 0.0f && rvn2 >= 0.0f )
-					{
-						// find the incremental impulse
-						Vector2 d = x.difference(a);
-
-						// apply the incremental impulse
-						Vector2 J1 = N.product(d.x);
-						Vector2 J2 = N.product(d.y);
-						
-						//v1.add(J1.sum(J2).multiply(invM1));
-						v1.add((J1.x + J2.x) * invM1, (J1.y + J2.y) * invM1);
-						b1.setAngularVelocity(av1 + invI1 * (r11.cross(J1) + r12.cross(J2)));
-						//v2.subtract(J1.sum(J2).multiply(invM2));
-						v2.subtract((J1.x + J2.x) * invM2, (J1.y + J2.y) * invM2);
-						b2.setAngularVelocity(av2 - invI2 * (r21.cross(J1) + r22.cross(J2)));
-						
-						// set the new incremental impulse
-						contact1.jn = x.x;
-						contact2.jn = x.y;
-						
-						break;
-					}
-					
-					// No solution, give up. This is hit sometimes, but it doesn't seem to matter.
-					break;
 				}
+				
+				// find the incremental impulse
+				double dx = xx - ax;
+				double dy = xy - ay;
+				
+				// apply the incremental impulse
+				double j1x = N.x * dx;
+				double j1y = N.y * dx;
+				double j2x = N.x * dy;
+				double j2y = N.y * dy;
+				
+				vx[s1] = v1x + (j1x + j2x) * invM1;
+				vy[s1] = v1y + (j1y + j2y) * invM1;
+				av[s1] = av1 + invI1 * ((r11.x * j1y - r11.y * j1x) + (r12.x * j2y - r12.y * j2x));
+				vx[s2] = v2x - (j1x + j2x) * invM2;
+				vy[s2] = v2y - (j1y + j2y) * invM2;
+				av[s2] = av2 - invI2 * ((r21.x * j1y - r21.y * j1x) + (r22.x * j2y - r22.y * j2x));
+				
+				// set the new accumulated impulse
+				contact1.jn = xx;
+				contact2.jn = xy;
 			}
 		}
 	}
@@ -567,6 +615,33 @@ public class SequentialImpulses implements ContactConstraintSolver {
 		// immediately return true if there are no contact constraints to solve
 		if (contactConstraints.isEmpty()) return true;
 		
+		BodyStateStore store = this.stores.get();
+		store.load(contactConstraints);
+		boolean solved = this.solvePosition(contactConstraints, store, settings);
+		store.writeBack();
+		store.clear();
+		return solved;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.contact.BodyStateContactConstraintSolver#solvePositionContraints(java.util.List, org.dyn4j.dynamics.BodyStateStore, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
+	 */
+	public boolean solvePositionContraints(List<ContactConstraint> contactConstraints, BodyStateStore store, Step step, Settings settings) {
+		// immediately return true if there are no contact constraints to solve
+		if (contactConstraints.isEmpty()) return true;
+		
+		return this.solvePosition(contactConstraints, store, settings);
+	}
+	
+	/**
+	 * Performs one iteration of the position solver over the given contact constraints.
+	 * @param contactConstraints the contact constraints
+	 * @param store the state of the {@link Body}s
+	 * @param settings the current settings
+	 * @return boolean true if the contact constraints were solved within tolerance
+	 * @since 3.3.1
+	 */
+	private boolean solvePosition(List<ContactConstraint> contactConstraints, BodyStateStore store, Settings settings) {
 		// track the minimum separation
 		double minSeparation = 0.0;
 		
@@ -576,23 +651,30 @@ public class SequentialImpulses implements ContactConstraintSolver {
 		double allowedPenetration = settings.getLinearTolerance();
 		double baumgarte = settings.getBaumgarte();
 		
+		// get the body state
+		double[] x = store.getTranslationX();
+		double[] y = store.getTranslationY();
+		double[] cos = store.getCost();
+		double[] sin = store.getSint();
+		double[] cx = store.getCenterX();
+		double[] cy = store.getCenterY();
+		double[] mass = store.getMass();
+		double[] invM = store.getInverseMass();
+		double[] invI = store.getInverseInertia();
+		int[] slots1 = store.getBody1Slots();
+		int[] slots2 = store.getBody2Slots();
+		
 		// loop through the contact constraints
 		int size = contactConstraints.size();
 		for (int i = 0; i < size; i++) {
 			ContactConstraint contactConstraint = contactConstraints.get(i);
 			
-			// get the bodies
-			Body b1 = contactConstraint.getBody1();
-			Body b2 = contactConstraint.getBody2();
-			// get their transforms
-			Transform t1 = b1.getTransform();
-			Transform t2 = b2.getTransform();
-			// get the masses
-			Mass m1 = b1.getMass();
-			Mass m2 = b2.getMass();
+			// get the body slots
+			int s1 = slots1[i];
+			int s2 = slots2[i];
 			
-			double mass1 = m1.getMass();
-			double mass2 = m2.getMass();
+			double mass1 = mass[s1];
+			double mass2 = mass[s2];
 			
 			// get the contact list
 			List<Contact> contacts = contactConstraint.contacts;
@@ -603,43 +685,48 @@ public class SequentialImpulses implements ContactConstraintSolver {
 			Vector2 N = contactConstraint.normal;
 			
 			// could be 1 or 0 if one object has infinite mass
-			double invMass1 = mass1 * m1.getInverseMass();
-			double invI1 = mass1 * m1.getInverseInertia();
+			double invMass1 = mass1 * invM[s1];
+			double invI1 = mass1 * invI[s1];
 			// could be 1 or 0 if one object has infinite mass
-			double invMass2 = mass2 * m2.getInverseMass();
-			double invI2 = mass2 * m2.getInverseInertia();
+			double invMass2 = mass2 * invM[s2];
+			double invI2 = mass2 * invI[s2];
 			
 			// solve normal constraints
 			for (int k = 0; k < cSize; k++) {
 				Contact contact = contacts.get(k);
 				
 				// get the world centers of mass
-				Vector2 c1 = t1.getTransformed(m1.getCenter());
-				Vector2 c2 = t2.getTransformed(m2.getCenter());
-
+				double c1x = cos[s1] * cx[s1] - sin[s1] * cy[s1] + x[s1];
+				double c1y = sin[s1] * cx[s1] + cos[s1] * cy[s1] + y[s1];
+				double c2x = cos[s2] * cx[s2] - sin[s2] * cy[s2] + x[s2];
+				double c2y = sin[s2] * cx[s2] + cos[s2] * cy[s2] + y[s2];
+				
 				// get r1 and r2
-				Vector2 r1 = contact.p1.difference(m1.getCenter());
-				t1.transformR(r1);
-				Vector2 r2 = contact.p2.difference(m2.getCenter());
-				t2.transformR(r2);
+				double d1x = contact.p1.x - cx[s1];
+				double d1y = contact.p1.y - cy[s1];
+				double r1x = cos[s1] * d1x - sin[s1] * d1y;
+				double r1y = sin[s1] * d1x + cos[s1] * d1y;
+				double d2x = contact.p2.x - cx[s2];
+				double d2y = contact.p2.y - cy[s2];
+				double r2x = cos[s2] * d2x - sin[s2] * d2y;
+				double r2y = sin[s2] * d2x + cos[s2] * d2y;
 				
 				// get the world contact points
-				Vector2 p1 = c1.sum(r1);
-				Vector2 p2 = c2.sum(r2);
-				Vector2 dp = p1.subtract(p2);
-
+				double dpx = (c1x + r1x) - (c2x + r2x);
+				double dpy = (c1y + r1y) - (c2y + r2y);
+				
 				// estimate the current penetration
-				double penetration = dp.dot(N) - contact.depth;
-
+				double penetration = (dpx * N.x + dpy * N.y) - contact.depth;
+				
 				// track the maximum error
 				minSeparation = Math.min(minSeparation, penetration);
-
+				
 				// allow for penetration to avoid jitter
 				double cp = baumgarte * Interval.clamp(penetration + allowedPenetration, -maxLinearCorrection, 0.0);
-
+				
 				// compute the position impulse
-				double rn1 = r1.cross(N);
-				double rn2 = r2.cross(N);
+				double rn1 = r1x * N.y - r1y * N.x;
+				double rn2 = r2x * N.y - r2y * N.x;
 				double K = invMass1 + invMass2 + invI1 * rn1 * rn1 + invI2 * rn2 * rn2;
 				
 				double jp = 0.0;
@@ -651,15 +738,16 @@ public class SequentialImpulses implements ContactConstraintSolver {
 				double jp0 = contact.jp;
 				contact.jp = Math.max(jp0 + jp, 0.0);
 				jp = contact.jp - jp0;
-
-				Vector2 J = N.product(jp);
-
+				
+				double jx = N.x * jp;
+				double jy = N.y * jp;
+				
 				// translate and rotate the objects
-				b1.translate(J.product(invMass1));
-				b1.rotate(invI1 * r1.cross(J), c1.x, c1.y);
+				store.translate(s1, jx * invMass1, jy * invMass1);
+				store.rotate(s1, invI1 * (r1x * jy - r1y * jx), c1x, c1y);
 				
-				b2.translate(J.product(-invMass2));
-				b2.rotate(-invI2 * r2.cross(J), c2.x, c2.y);
+				store.translate(s2, jx * -invMass2, jy * -invMass2);
+				store.rotate(s2, -invI2 * (r2x * jy - r2y * jx), c2x, c2y);
 			}
 		}
 		// check if the minimum separation between all objects is still
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics.contact;
+
+import java.util.List;
+
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.Settings;
+import org.dyn4j.dynamics.Step;
+
+/**
+ * Represents a {@link ContactConstraintSolver} that advances each time step in a number of
+ * smaller sub-steps.
+ * <p>
+ * Instead of performing all the velocity iterations and then all the position iterations once per
+ * time step, the {@link Body}s are integrated in {@link #getSubStepCount()} sub-steps and the
+ * constraints are solved once per sub-step (temporal Gauss-Seidel).  The penetration is corrected
+ * using a velocity bias during each sub-step which is then removed by a relaxation iteration.
+ * <p>
+ * When a solver of this type is used, the time step is solved as follows:
+ * <ol>
+ * <li>The {@link #initialize(List, Step, Settings)} method is called once with the full time step.
+ * It must prepare the constraints but not warm start them.</li>
+ * <li>For each sub-step, after integrating the velocities:
+ * <ol>
+ * <li>{@link #warmStart(List, Step, Settings)}</li>
+ * <li>{@link #solveVelocityContraints(List, Step, Settings)}; with the velocity bias</li>
+ * <li>the positions are integrated</li>
+ * <li>{@link #relaxVelocityContraints(List, Step, Settings)}; without the velocity bias</li>
+ * </ol></li>
+ * <li>{@link #applyRestitution(List, Step, Settings)} is called once with the full time step.</li>
+ * <li>{@link #solvePositionContraints(List, Step, Settings)} is called once with the full time step
+ * to determine whether the constraints are solved.  Since the positions have already been corrected
+ * during the sub-steps, this method is not required to modify the positions.</li>
+ * </ol>
+ * The {@link Step} passed during the sub-steps is a sub-step whose delta time is the time step's
+ * delta time divided by the number of sub-steps.
+ * <p>
+ * The velocity and position iteration counts in the {@link Settings} are not used.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ * @see SubSteppingImpulses
+ */
+public interface SubSteppingContactConstraintSolver extends ContactConstraintSolver {
+	/**
+	 * Returns the number of sub-steps performed each time step.
+	 * @return int
+	 */
+	public int getSubStepCount();
+	
+	/**
+	 * Applies the accumulated impulses of the {@link ContactConstraint}s at the beginning of a sub-step.
+	 * @param contactConstraints the contact constraints to solve
+	 * @param step the sub-step information
+	 * @param settings the current settings
+	 */
+	public void warmStart(List<ContactConstraint> contactConstraints, Step step, Settings settings);
+	
+	/**
+	 * Solves the {@link ContactConstraint}s on the velocity level without the velocity bias used
+	 * to correct penetration.
+	 * @param contactConstraints the contact constraints to solve
+	 * @param step the sub-step information
+	 * @param settings the current settings
+	 */
+	public void relaxVelocityContraints(List<ContactConstraint> contactConstraints, Step step, Settings settings);
+	
+	/**
+	 * Applies restitution to the {@link ContactConstraint}s after all the sub-steps have been performed.
+	 * @param contactConstraints the contact constraints to solve
+	 * @param step the time step information
+	 * @param settings the current settings
+	 */
+	public void applyRestitution(List<ContactConstraint> contactConstraints, Step step, Settings settings);
+}
@@ -0,0 +1,545 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics.contact;
+
+import java.util.List;
+
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.Settings;
+import org.dyn4j.dynamics.Step;
+import org.dyn4j.geometry.Mass;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.resources.Messages;
+
+/**
+ * Represents an impulse based rigid {@link Body} physics collision resolver that advances each
+ * time step in a number of sub-steps.
+ * <p>
+ * Each sub-step integrates the velocities, warm starts and solves the contacts once, integrates
+ * the positions and then solves the contacts once more without the penetration correction
+ * (relaxation).  Penetration is corrected using a soft constraint whose stiffness is given by the
+ * contact frequency and damping ratio and whose correction velocity is limited by the maximum
+ * correction velocity.  Restitution is applied once after all the sub-steps.
+ * <p>
+ * Solving the constraints once per sub-step converges much faster than solving them many times
+ * per time step, particularly for tall stacks and large mass ratios; four sub-steps typically
+ * give better stability than {@link SequentialImpulses} with ten velocity iterations.  The 
+ * velocity and position iteration counts of the {@link Settings} are not used.
+ * <p>
+ * The accumulated impulses of this solver are per sub-step and so are not interchangeable with
+ * those of {@link SequentialImpulses}.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ * @see SubSteppingContactConstraintSolver
+ */
+public class SubSteppingImpulses implements SubSteppingContactConstraintSolver {
+	/** The default number of sub-steps */
+	public static final int DEFAULT_SUB_STEP_COUNT = 4;
+	
+	/** The default contact frequency in hertz */
+	public static final double DEFAULT_CONTACT_FREQUENCY = 60.0;
+	
+	/** The default contact damping ratio */
+	public static final double DEFAULT_CONTACT_DAMPING_RATIO = 10.0;
+	
+	/** The default maximum penetration correction velocity in meters / second */
+	public static final double DEFAULT_MAXIMUM_CORRECTION_VELOCITY = 3.0;
+	
+	/** The number of sub-steps */
+	private int subStepCount;
+	
+	/** The contact frequency in hertz */
+	private double contactFrequency;
+	
+	/** The contact damping ratio */
+	private double contactDampingRatio;
+	
+	/** The maximum penetration correction velocity */
+	private double maximumCorrectionVelocity;
+	
+	/**
+	 * Default constructor.
+	 * <p>
+	 * Uses the {@link #DEFAULT_SUB_STEP_COUNT}.
+	 */
+	public SubSteppingImpulses() {
+		this(DEFAULT_SUB_STEP_COUNT);
+	}
+	
+	/**
+	 * Minimal constructor.
+	 * @param subStepCount the number of sub-steps
+	 * @throws IllegalArgumentException if subStepCount is less than 1
+	 */
+	public SubSteppingImpulses(int subStepCount) {
+		if (subStepCount < 1) throw new IllegalArgumentException(Messages.getString("dynamics.contact.subStepping.invalidSubStepCount"));
+		this.subStepCount = subStepCount;
+		this.contactFrequency = DEFAULT_CONTACT_FREQUENCY;
+		this.contactDampingRatio = DEFAULT_CONTACT_DAMPING_RATIO;
+		this.maximumCorrectionVelocity = DEFAULT_MAXIMUM_CORRECTION_VELOCITY;
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.contact.ContactConstraintSolver#initialize(java.util.List, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
+	 */
+	public void initialize(List<ContactConstraint> contactConstraints, Step step, Settings settings) {
+		// get the restitution velocity from the settings object
+		double restitutionVelocity = settings.getRestitutionVelocity();
+		
+		// loop through the contact constraints
+		int size = contactConstraints.size();
+		for (int i = 0; i < size; i++) {
+			ContactConstraint contactConstraint = contactConstraints.get(i);
+			
+			// get the bodies
+			Body b1 = contactConstraint.getBody1();
+			Body b2 = contactConstraint.getBody2();
+			// get the body transforms
+			Transform t1 = b1.getTransform();
+			Transform t2 = b2.getTransform();
+			// get the body masses
+			Mass m1 = b1.getMass();
+			Mass m2 = b2.getMass();
+			
+			double invM1 = m1.getInverseMass();
+			double invM2 = m2.getInverseMass();
+			double invI1 = m1.getInverseInertia();
+			double invI2 = m2.getInverseInertia();
+			
+			// get the transformed centers of mass
+			Vector2 c1 = t1.getTransformed(m1.getCenter());
+			Vector2 c2 = t2.getTransformed(m2.getCenter());
+			
+			// get the contacts
+			List<Contact> contacts = contactConstraint.contacts;
+			int cSize = contacts.size();
+			
+			// get the penetration axis and tangent
+			Vector2 N = contactConstraint.normal;
+			Vector2 T = contactConstraint.tangent;
+			
+			// loop through the contact points
+			for (int j = 0; j < cSize; j++) {
+				Contact contact = contacts.get(j);
+				
+				// the anchors are fixed for the whole time step
+				Vector2 r1 = c1.to(contact.p);
+				Vector2 r2 = c2.to(contact.p);
+				contact.r1 = r1;
+				contact.r2 = r2;
+				
+				// pre calculate the mass normal
+				double r1CrossN = r1.cross(N);
+				double r2CrossN = r2.cross(N);
+				contact.massN = 1.0 / (invM1 + invM2 + invI1 * r1CrossN * r1CrossN + invI2 * r2CrossN * r2CrossN);
+
+				// pre calculate the mass tangent
+				double r1CrossT = r1.cross(T);
+				double r2CrossT = r2.cross(T);
+				contact.massT = 1.0 / (invM1 + invM2 + invI1 * r1CrossT * r1CrossT + invI2 * r2CrossT * r2CrossT);
+				
+				// the velocity bias holds the restitution velocity which
+				// is applied after the sub-steps
+				contact.vb = 0.0;
+				
+				// find the relative velocity
+				double rvx = (-r1.y * b1.getAngularVelocity() + b1.getLinearVelocity().x) - (-r2.y * b2.getAngularVelocity() + b2.getLinearVelocity().x);
+				double rvy = (r1.x * b1.getAngularVelocity() + b1.getLinearVelocity().y) - (r2.x * b2.getAngularVelocity() + b2.getLinearVelocity().y);
+				
+				// project the relative velocity onto the penetration normal
+				double rvn = N.x * rvx + N.y * rvy;
+				// if its negative then the bodies are moving away from one another
+				if (rvn < -restitutionVelocity) {
+					// use the coefficient of elasticity
+					contact.vb = -contactConstraint.restitution * rvn;
+				}
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.contact.SubSteppingContactConstraintSolver#warmStart(java.util.List, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
+	 */
+	public void warmStart(List<ContactConstraint> contactConstraints, Step step, Settings settings) {
+		// pre divide for performance
+		double ratio = 1.0 / step.getDeltaTimeRatio();
+		
+		int size = contactConstraints.size();
+		for (int i = 0; i < size; i++) {
+			ContactConstraint contactConstraint = contactConstraints.get(i);
+			
+			// get the bodies
+			Body b1 = contactConstraint.getBody1();
+			Body b2 = contactConstraint.getBody2();
+			Mass m1 = b1.getMass();
+			Mass m2 = b2.getMass();
+			
+			double invM1 = m1.getInverseMass();
+			double invM2 = m2.getInverseMass();
+			double invI1 = m1.getInverseInertia();
+			double invI2 = m2.getInverseInertia();
+			
+			Vector2 N = contactConstraint.normal;
+			Vector2 T = contactConstraint.tangent;
+			
+			List<Contact> contacts = contactConstraint.contacts;
+			int cSize = contacts.size();
+			for (int j = 0; j < cSize; j++) {
+				Contact contact = contacts.get(j);
+				
+				// scale the accumulated impulses by the delta time ratio
+				contact.jn *= ratio;
+				contact.jt *= ratio;
+				
+				double jx = N.x * contact.jn + T.x * contact.jt;
+				double jy = N.y * contact.jn + T.y * contact.jt;
+				SubSteppingImpulses.applyImpulse(b1, b2, invM1, invM2, invI1, invI2, contact.r1, contact.r2, jx, jy);
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.contact.ContactConstraintSolver#solveVelocityContraints(java.util.List, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
+	 */
+	public void solveVelocityContraints(List<ContactConstraint> contactConstraints, Step step, Settings settings) {
+		this.solveVelocityContraints(contactConstraints, step, settings, true);
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.contact.SubSteppingContactConstraintSolver#relaxVelocityContraints(java.util.List, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
+	 */
+	public void relaxVelocityContraints(List<ContactConstraint> contactConstraints, Step step, Settings settings) {
+		this.solveVelocityContraints(contactConstraints, step, settings, false);
+	}
+	
+	/**
+	 * Solves the {@link ContactConstraint}s on the velocity level.
+	 * <p>
+	 * The current separation of each contact is computed from the current positions of the {@link Body}s.
+	 * Contacts that have separated are allowed to approach by the separation.  When the bias is used,
+	 * penetrating contacts are pushed apart using a soft constraint.
+	 * @param contactConstraints the contact constraints to solve
+	 * @param step the sub-step information
+	 * @param settings the current settings
+	 * @param useBias true if the penetration should be corrected
+	 */
+	private void solveVelocityContraints(List<ContactConstraint> contactConstraints, Step step, Settings settings, boolean useBias) {
+		double invdt = step.getInverseDeltaTime();
+		double dt = step.getDeltaTime();
+		double allowedPenetration = settings.getLinearTolerance();
+		
+		// compute the soft constraint coefficients; the frequency is limited
+		// so that the constraint remains stable for the sub-step
+		double hz = Math.min(this.contactFrequency, 0.25 * invdt);
+		double omega = 2.0 * Math.PI * hz;
+		double a1 = 2.0 * this.contactDampingRatio + dt * omega;
+		double a2 = dt * omega * a1;
+		double a3 = 1.0 / (1.0 + a2);
+		double biasRate = omega / a1;
+		double softMassScale = a2 * a3;
+		double softImpulseScale = a3;
+		
+		int size = contactConstraints.size();
+		for (int i = 0; i < size; i++) {
+			ContactConstraint contactConstraint = contactConstraints.get(i);
+			
+			// get the bodies
+			Body b1 = contactConstraint.getBody1();
+			Body b2 = contactConstraint.getBody2();
+			Transform t1 = b1.getTransform();
+			Transform t2 = b2.getTransform();
+			Mass m1 = b1.getMass();
+			Mass m2 = b2.getMass();
+			
+			double invM1 = m1.getInverseMass();
+			double invM2 = m2.getInverseMass();
+			double invI1 = m1.getInverseInertia();
+			double invI2 = m2.getInverseInertia();
+			
+			Vector2 v1 = b1.getLinearVelocity();
+			Vector2 v2 = b2.getLinearVelocity();
+			
+			Vector2 N = contactConstraint.normal;
+			Vector2 T = contactConstraint.tangent;
+			
+			List<Contact> contacts = contactConstraint.contacts;
+			int cSize = contacts.size();
+			
+			// solve the normal constraints first so that the friction
+			// uses the most up to date normal impulses
+			for (int k = 0; k < cSize; k++) {
+				Contact contact = contacts.get(k);
+				
+				Vector2 r1 = contact.r1;
+				Vector2 r2 = contact.r2;
+				
+				// compute the current separation; negative if penetrating
+				double dx = t1.getTransformedX(contact.p1) - t2.getTransformedX(contact.p2);
+				double dy = t1.getTransformedY(contact.p1) - t2.getTransformedY(contact.p2);
+				double separation = dx * N.x + dy * N.y - contact.depth;
+				
+				double target = 0.0;
+				double massScale = 1.0;
+				double impulseScale = 0.0;
+				if (separation > 0.0) {
+					// allow the bodies to approach until they touch
+					target = -separation * invdt;
+				} else if (useBias) {
+					// push the bodies apart
+					target = Math.min(-biasRate * Math.min(separation + allowedPenetration, 0.0), this.maximumCorrectionVelocity);
+					massScale = softMassScale;
+					impulseScale = softImpulseScale;
+				}
+				
+				double w1 = b1.getAngularVelocity();
+				double w2 = b2.getAngularVelocity();
+				double rvx = (-r1.y * w1 + v1.x) - (-r2.y * w2 + v2.x);
+				double rvy = (r1.x * w1 + v1.y) - (r2.x * w2 + v2.y);
+				double rvn = N.x * rvx + N.y * rvy;
+				
+				double j = -contact.massN * massScale * (rvn - target) - impulseScale * contact.jn;
+				
+				// clamp the accumulated impulse
+				double j0 = contact.jn;
+				contact.jn = Math.max(j0 + j, 0.0);
+				j = contact.jn - j0;
+				
+				SubSteppingImpulses.applyImpulse(b1, b2, invM1, invM2, invI1, invI2, r1, r2, N.x * j, N.y * j);
+			}
+			
+			// solve the friction constraints
+			double tangentSpeed = contactConstraint.tangentSpeed;
+			for (int k = 0; k < cSize; k++) {
+				Contact contact = contacts.get(k);
+				
+				Vector2 r1 = contact.r1;
+				Vector2 r2 = contact.r2;
+				
+				double w1 = b1.getAngularVelocity();
+				double w2 = b2.getAngularVelocity();
+				double rvx = (-r1.y * w1 + v1.x) - (-r2.y * w2 + v2.x);
+				double rvy = (r1.x * w1 + v1.y) - (r2.x * w2 + v2.y);
+				
+				double rvt = (T.x * rvx + T.y * rvy) - tangentSpeed;
+				double jt = contact.massT * (-rvt);
+				
+				// clamp the accumulated impulse by the friction cone
+				double maxJt = contactConstraint.friction * contact.jn;
+				double jt0 = contact.jt;
+				contact.jt = Math.max(-maxJt, Math.min(jt0 + jt, maxJt));
+				jt = contact.jt - jt0;
+				
+				SubSteppingImpulses.applyImpulse(b1, b2, invM1, invM2, invI1, invI2, r1, r2, T.x * jt, T.y * jt);
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.contact.SubSteppingContactConstraintSolver#applyRestitution(java.util.List, org.dyn4j.dynamics.Step, org.dyn4j.dynamics.Settings)
+	 */
+	public void applyRestitution(List<ContactConstraint> contactConstraints, Step step, Settings settings) {
+		int size = contactConstraints.size();
+		for (int i = 0; i < size; i++) {
+			ContactConstraint contactConstraint = contactConstraints.get(i);
+			if (contactConstraint.restitution == 0.0) continue;
+			
+			// get the bodies
+			Body b1 = contactConstraint.getBody1();
+			Body b2 = contactConstraint.getBody2();
+			Mass m1 = b1.getMass();
+			Mass m2 = b2.getMass();
+			
+			double invM1 = m1.getInverseMass();
+			double invM2 = m2.getInverseMass();
+			double invI1 = m1.getInverseInertia();
+			double invI2 = m2.getInverseInertia();
+			
+			Vector2 v1 = b1.getLinearVelocity();
+			Vector2 v2 = b2.getLinearVelocity();
+			
+			Vector2 N = contactConstraint.normal;
+			
+			List<Contact> contacts = contactConstraint.contacts;
+			int cSize = contacts.size();
+			for (int k = 0; k < cSize; k++) {
+				Contact contact = contacts.get(k);
+				// skip contacts that weren't approaching or that separated
+				if (contact.vb == 0.0 || contact.jn == 0.0) continue;
+				
+				Vector2 r1 = contact.r1;
+				Vector2 r2 = contact.r2;
+				
+				double w1 = b1.getAngularVelocity();
+				double w2 = b2.getAngularVelocity();
+				double rvx = (-r1.y * w1 + v1.x) - (-r2.y * w2 + v2.x);
+				double rvy = (r1.x * w1 + v1.y) - (r2.x * w2 + v2.y);
+				double rvn = N.x * rvx + N.y * rvy;
+				
+				double j = -contact.massN * (rvn - contact.vb);
+				
+				// clamp the accumulated impulse
+				double j0 = contact.jn;
+				contact.jn = Math.max(j0 + j, 0.0);
+				j = contact.jn - j0;
+				
+				SubSteppingImpulses.applyImpulse(b1, b2, invM1, invM2, invI1, invI2, r1, r2, N.x * j, N.y * j);
+			}
+		}
+	}
+	
+	/**
+	 * Returns true if the penetration of all the contacts is within three times the linear tolerance.
+	 * <p>
+	 * The positions are corrected during the sub-steps so this method does not modify them.
+	 * @param contactConstraints the contact constraints to solve
+	 * @param step the time step information
+	 * @param settings the current settings
+	 * @return boolean
+	 */
+	public boolean solvePositionContraints(List<ContactConstraint> contactConstraints, Step step, Settings settings) {
+		double minSeparation = 0.0;
+		
+		int size = contactConstraints.size();
+		for (int i = 0; i < size; i++) {
+			ContactConstraint contactConstraint = contactConstraints.get(i);
+			
+			Transform t1 = contactConstraint.getBody1().getTransform();
+			Transform t2 = contactConstraint.getBody2().getTransform();
+			Vector2 N = contactConstraint.normal;
+			
+			List<Contact> contacts = contactConstraint.contacts;
+			int cSize = contacts.size();
+			for (int k = 0; k < cSize; k++) {
+				Contact contact = contacts.get(k);
+				double dx = t1.getTransformedX(contact.p1) - t2.getTransformedX(contact.p2);
+				double dy = t1.getTransformedY(contact.p1) - t2.getTransformedY(contact.p2);
+				double separation = dx * N.x + dy * N.y - contact.depth;
+				minSeparation = Math.min(minSeparation, separation);
+			}
+		}
+		
+		return minSeparation >= -3.0 * settings.getLinearTolerance();
+	}
+	
+	/**
+	 * Applies the given impulse to the given {@link Body}s.
+	 * <p>
+	 * The impulse is added to the first {@link Body} and subtracted from the second.
+	 * @param b1 the first {@link Body}
+	 * @param b2 the second {@link Body}
+	 * @param invM1 the inverse mass of the first {@link Body}
+	 * @param invM2 the inverse mass of the second {@link Body}
+	 * @param invI1 the inverse inertia of the first {@link Body}
+	 * @param invI2 the inverse inertia of the second {@link Body}
+	 * @param r1 the vector from the center of mass of the first {@link Body} to the contact
+	 * @param r2 the vector from the center of mass of the second {@link Body} to the contact
+	 * @param jx the x component of the impulse
+	 * @param jy the y component of the impulse
+	 */
+	private static void applyImpulse(Body b1, Body b2, double invM1, double invM2, double invI1, double invI2, Vector2 r1, Vector2 r2, double jx, double jy) {
+		b1.getLinearVelocity().add(jx * invM1, jy * invM1);
+		b1.setAngularVelocity(b1.getAngularVelocity() + invI1 * (r1.x * jy - r1.y * jx));
+		b2.getLinearVelocity().subtract(jx * invM2, jy * invM2);
+		b2.setAngularVelocity(b2.getAngularVelocity() - invI2 * (r2.x * jy - r2.y * jx));
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.dyn4j.dynamics.contact.SubSteppingContactConstraintSolver#getSubStepCount()
+	 */
+	public int getSubStepCount() {
+		return this.subStepCount;
+	}
+	
+	/**
+	 * Sets the number of sub-steps performed each time step.
+	 * @param subStepCount the number of sub-steps
+	 * @throws IllegalArgumentException if subStepCount is less than 1
+	 */
+	public void setSubStepCount(int subStepCount) {
+		if (subStepCount < 1) throw new IllegalArgumentException(Messages.getString("dynamics.contact.subStepping.invalidSubStepCount"));
+		this.subStepCount = subStepCount;
+	}
+	
+	/**
+	 * Returns the contact frequency in hertz.
+	 * @return double
+	 */
+	public double getContactFrequency() {
+		return this.contactFrequency;
+	}
+	
+	/**
+	 * Sets the contact frequency in hertz.
+	 * <p>
+	 * The frequency determines how stiff the penetration correction is.  It is limited
+	 * to a quarter of the sub-step frequency for stability.
+	 * @param frequency the frequency in hertz
+	 * @throws IllegalArgumentException if frequency is less than or equal to zero
+	 */
+	public void setContactFrequency(double frequency) {
+		if (frequency <= 0.0) throw new IllegalArgumentException(Messages.getString("dynamics.contact.subStepping.invalidFrequency"));
+		this.contactFrequency = frequency;
+	}
+	
+	/**
+	 * Returns the contact damping ratio.
+	 * @return double
+	 */
+	public double getContactDampingRatio() {
+		return this.contactDampingRatio;
+	}
+	
+	/**
+	 * Sets the contact damping ratio.
+	 * <p>
+	 * Larger values reduce the overshoot of the penetration correction.
+	 * @param dampingRatio the damping ratio
+	 * @throws IllegalArgumentException if dampingRatio is negative
+	 */
+	public void setContactDampingRatio(double dampingRatio) {
+		if (dampingRatio < 0.0) throw new IllegalArgumentException(Messages.getString("dynamics.contact.subStepping.invalidDampingRatio"));
+		this.contactDampingRatio = dampingRatio;
+	}
+	
+	/**
+	 * Returns the maximum velocity used to correct penetration in meters / second.
+	 * @return double
+	 */
+	public double getMaximumCorrectionVelocity() {
+		return this.maximumCorrectionVelocity;
+	}
+	
+	/**
+	 * Sets the maximum velocity used to correct penetration.
+	 * @param velocity the maximum velocity in meters / second
+	 * @throws IllegalArgumentException if velocity is negative
+	 */
+	public void setMaximumCorrectionVelocity(double velocity) {
+		if (velocity < 0.0) throw new IllegalArgumentException(Messages.getString("dynamics.contact.subStepping.invalidMaximumCorrectionVelocity"));
+		this.maximumCorrectionVelocity = velocity;
+	}
+}
@@ -37,17 +37,125 @@ import org.dyn4j.resources.Messages;
  * A {@link Polygon} must also be {@link Convex} and have counter-clockwise winding of points.
  * <p>
  * A polygon cannot have coincident vertices.
+ * <p>
+ * The world space vertices and normals for the last {@link Transform} used can be kept by enabling
+ * the world space cache with {@link #setWorldSpaceCacheEnabled(boolean)}.  This avoids transforming
+ * all the vertices again when the same {@link Polygon} is queried many times with the same 
+ * {@link Transform}, like during a simulation step, turning the farthest point, farthest feature, 
+ * projection, axes and {@link AABB} queries into array lookups.  The cache is keyed by the values of the
+ * {@link Transform} so it doesn't need to be invalidated when a {@link Transform} changes.  It should
+ * not be enabled for a {@link Polygon} shared by {@link Shape}s with different {@link Transform}s since
+ * every switch would rebuild the cache.
  * @author William Bittle
  * @version 3.3.1
  * @since 1.0.0
  */
 public class Polygon extends AbstractShape implements Convex, Wound, Shape, Transformable, DataContainer {
+	/** The minimum number of vertices for the farthest vertex to be found by hill climbing */
+	static final int HILL_CLIMBING_MINIMUM_VERTICES = 8;
+	
+	/** The minimum sine of the angle between adjacent edge normals for the farthest vertex to be found by hill climbing */
+	private static final double HILL_CLIMBING_MINIMUM_TURN = 1.0e-6;
+	
 	/** The polygon vertices */
 	final Vector2[] vertices;
 	
 	/** The polygon normals */
 	final Vector2[] normals;
 	
+	/** True if the farthest vertex is found by hill climbing */
+	private final boolean hillClimbing;
+	
+	/** 
+	 * The index of the last farthest vertex; the start of the next hill climb.
+	 * <p>
+	 * This is only a hint and is read and written without synchronization.  Threads querying the same
+	 * {@link Polygon} may overwrite each other's hint, but any index is a valid start so this only
+	 * costs a longer climb, never a wrong result.
+	 */
+	private int lastFarthestVertex;
+	
+	/** True if the world space vertices and normals should be kept */
+	private boolean worldSpaceCacheEnabled;
+	
+	/** The world space vertices and normals for the last {@link Transform}; null if not computed */
+	private WorldSpace worldSpace;
+	
+	/**
+	 * Represents the vertices and normals of a {@link Polygon} transformed by a {@link Transform}.
+	 * <p>
+	 * Instances are immutable once created so that they can be shared between threads
+	 * without synchronization.
+	 * @author William Bittle
+	 * @version 3.3.1
+	 * @since 3.3.1
+	 */
+	private static final class WorldSpace {
+		/** The cosine of the rotation of the transform */
+		final double cost;
+		
+		/** The sine of the rotation of the transform */
+		final double sint;
+		
+		/** The x translation of the transform */
+		final double x;
+		
+		/** The y translation of the transform */
+		final double y;
+		
+		/** The x coordinates of the vertices */
+		final double[] vx;
+		
+		/** The y coordinates of the vertices */
+		final double[] vy;
+		
+		/** The x components of the normals */
+		final double[] nx;
+		
+		/** The y components of the normals */
+		final double[] ny;
+		
+		/**
+		 * Full constructor.
+		 * @param vertices the local vertices
+		 * @param normals the local normals
+		 * @param transform the transform
+		 */
+		WorldSpace(Vector2[] vertices, Vector2[] normals, Transform transform) {
+			this.cost = transform.cost;
+			this.sint = transform.sint;
+			this.x = transform.x;
+			this.y = transform.y;
+			
+			int size = vertices.length;
+			this.vx = new double[size];
+			this.vy = new double[size];
+			this.nx = new double[size];
+			this.ny = new double[size];
+			for (int i = 0; i < size; i++) {
+				Vector2 v = vertices[i];
+				Vector2 n = normals[i];
+				// same as Transform.getTransformed and Transform.getTransformedR
+				this.vx[i] = this.cost * v.x - this.sint * v.y + this.x;
+				this.vy[i] = this.sint * v.x + this.cost * v.y + this.y;
+				this.nx[i] = this.cost * n.x - this.sint * n.y;
+				this.ny[i] = this.sint * n.x + this.cost * n.y;
+			}
+		}
+		
+		/**
+		 * Returns true if this was computed for the given transform.
+		 * @param transform the transform
+		 * @return boolean
+		 */
+		boolean isFor(Transform transform) {
+			return this.cost == transform.cost && 
+				   this.sint == transform.sint && 
+				   this.x == transform.x && 
+				   this.y == transform.y;
+		}
+	}
+	
 	/**
 	 * Full constructor for sub classes.
 	 * @param center the center
@@ -59,6 +167,7 @@ public class Polygon extends AbstractShape implements Convex, Wound, Shape, Tran
 		super(center, radius);
 		this.vertices = vertices;
 		this.normals = normals;
+		this.hillClimbing = isHillClimbingSupported(normals);
 	}
 	
 	/**
@@ -77,6 +186,33 @@ public class Polygon extends AbstractShape implements Convex, Wound, Shape, Tran
 		this.vertices = vertices;
 		// create the normals
 		this.normals = Geometry.getCounterClockwiseEdgeNormals(vertices);
+		this.hillClimbing = isHillClimbingSupported(this.normals);
+	}
+	
+	/**
+	 * Returns true if the farthest vertex of a polygon with the given normals can be
+	 * found by hill climbing.
+	 * <p>
+	 * Hill climbing requires enough vertices to be faster than testing all of them
+	 * and a strictly convex polygon, without colinear vertices, so that it can't stop 
+	 * on a flat run of vertices.
+	 * @param normals the edge normals of the polygon
+	 * @return boolean
+	 */
+	private static boolean isHillClimbingSupported(Vector2[] normals) {
+		int size = normals.length;
+		if (size < HILL_CLIMBING_MINIMUM_VERTICES) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			Vector2 n0 = normals[i == 0 ? size - 1 : i - 1];
+			Vector2 n1 = normals[i];
+			// sub classes may not use the normals
+			if (n0 == null || n1 == null || n0.cross(n1) <= HILL_CLIMBING_MINIMUM_TURN) {
+				return false;
+			}
+		}
+		return true;
 	}
 	
 	/**
@@ -203,6 +339,74 @@ public class Polygon extends AbstractShape implements Convex, Wound, Shape, Tran
 		return Geometry.getRotationRadius(center, this.vertices);
 	}
 	
+	/**
+	 * Returns true if the world space vertices and normals for the last {@link Transform} are kept.
+	 * @return boolean
+	 * @since 3.3.1
+	 * @see #setWorldSpaceCacheEnabled(boolean)
+	 */
+	public boolean isWorldSpaceCacheEnabled() {
+		return this.worldSpaceCacheEnabled;
+	}
+	
+	/**
+	 * Toggles keeping the world space vertices and normals for the last {@link Transform}.
+	 * <p>
+	 * The cache is emptied by this method and when this {@link Polygon} is rotated or translated.
+	 * If the vertices returned by {@link #getVertices()} are modified directly, this method must
+	 * be called to empty the cache.
+	 * @param flag true if the world space vertices and normals should be kept
+	 * @since 3.3.1
+	 */
+	public void setWorldSpaceCacheEnabled(boolean flag) {
+		this.worldSpaceCacheEnabled = flag;
+		this.worldSpace = null;
+	}
+	
+	/**
+	 * Returns the world space vertices and normals for the given {@link Transform}, computing
+	 * them if the cache doesn't hold them.
+	 * <p>
+	 * Returns null if the cache is disabled.
+	 * @param transform the {@link Transform}
+	 * @return {@link WorldSpace}
+	 */
+	private WorldSpace getWorldSpace(Transform transform) {
+		if (!this.worldSpaceCacheEnabled) {
+			return null;
+		}
+		// read the field once; another thread may replace it
+		WorldSpace worldSpace = this.worldSpace;
+		if (worldSpace == null || !worldSpace.isFor(transform)) {
+			worldSpace = new WorldSpace(this.vertices, this.normals, transform);
+			this.worldSpace = worldSpace;
+		}
+		return worldSpace;
+	}
+	
+	/**
+	 * Returns the world space vertices and normals for the given {@link Transform} if the
+	 * cache already holds them.
+	 * <p>
+	 * Returns null if the cache is disabled or was computed for another {@link Transform}.
+	 * <p>
+	 * Used by the farthest point and feature queries when hill climbing, which only test a
+	 * few vertices and so shouldn't pay for transforming all of them.
+	 * @param transform the {@link Transform}
+	 * @return {@link WorldSpace}
+	 */
+	private WorldSpace getCurrentWorldSpace(Transform transform) {
+		if (!this.worldSpaceCacheEnabled) {
+			return null;
+		}
+		// read the field once; another thread may replace it
+		WorldSpace worldSpace = this.worldSpace;
+		if (worldSpace == null || !worldSpace.isFor(transform)) {
+			return null;
+		}
+		return worldSpace;
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.dyn4j.geometry.Convex#getAxes(java.util.List, org.dyn4j.geometry.Transform)
 	 */
@@ -216,6 +420,29 @@ public class Polygon extends AbstractShape implements Convex, Wound, Shape, Tran
 		// plus the closest point to each focus
 		Vector2[] axes = new Vector2[size + fociSize];
 		int n = 0;
+		WorldSpace worldSpace = this.getWorldSpace(transform);
+		if (worldSpace != null) {
+			// use the cached world space normals and vertices
+			for (int i = 0; i < size; i++) {
+				axes[n++] = new Vector2(worldSpace.nx[i], worldSpace.ny[i]);
+			}
+			for (int i = 0; i < fociSize; i++) {
+				Vector2 f = foci[i];
+				int index = 0;
+				double d = f.distanceSquared(worldSpace.vx[0], worldSpace.vy[0]);
+				for (int j = 1; j < size; j++) {
+					double dt = f.distanceSquared(worldSpace.vx[j], worldSpace.vy[j]);
+					if (dt < d) {
+						index = j;
+						d = dt;
+					}
+				}
+				Vector2 axis = f.to(worldSpace.vx[index], worldSpace.vy[index]);
+				axis.normalize();
+				axes[n++] = axis;
+			}
+			return axes;
+		}
 		// loop over the edge normals and put them into world space
 		for (int i = 0; i < size; i++) {
 			// create references to the current points
@@ -320,6 +547,7 @@ public class Polygon extends AbstractShape implements Convex, Wound, Shape, Tran
 			this.vertices[i].rotate(cos, sin, x, y);
 			this.normals[i].rotate(cos, sin);
 		}
+		this.worldSpace = null;
 	}
 
 	/* (non-Javadoc)
@@ -332,6 +560,7 @@ public class Polygon extends AbstractShape implements Convex, Wound, Shape, Tran
 		for (int i = 0; i < size; i++) {
 			this.vertices[i].add(x, y);
 		}
+		this.worldSpace = null;
 	}
 	
 	/* (non-Javadoc)
@@ -339,7 +568,24 @@ public class Polygon extends AbstractShape implements Convex, Wound, Shape, Tran
 	 */
 	@Override
 	public Interval project(Vector2 vector, Transform transform) {
-		//System.out.println(1);
+		WorldSpace worldSpace = this.getWorldSpace(transform);
+		if (worldSpace != null) {
+			double[] vx = worldSpace.vx;
+			double[] vy = worldSpace.vy;
+			double min = vector.x * vx[0] + vector.y * vy[0];
+			double max = min;
+			int size = vx.length;
+			for (int i = 1; i < size; i++) {
+				double v = vector.x * vx[i] + vector.y * vy[i];
+				if (v < min) {
+					min = v;
+				} else if (v > max) {
+					max = v;
+				}
+			}
+			return new Interval(min, max);
+		}
+		
 		double v = 0.0;
     	// get the first point
 		Vector2 p = transform.getTransformed(this.vertices[0]);
@@ -367,48 +613,49 @@ public class Polygon extends AbstractShape implements Convex, Wound, Shape, Tran
 	 */
 	@Override
 	public EdgeFeature getFarthestFeature(Vector2 vector, Transform transform) {
-		// transform the normal into local space
-		Vector2 localn = transform.getInverseTransformedR(vector);
-		
-		double max = localn.dot(this.vertices[0]);
-		int index = 0;
-		// find the vertex on the polygon that is further along on the penetration axis
+		WorldSpace worldSpace = this.getFarthestWorldSpace(transform);
 		int count = this.vertices.length;
-		for (int i = 1; i < count; i++) {
-			// get the current vertex
-			Vector2 v = this.vertices[i];
-			// get the scalar projection of v onto axis
-			double projection = localn.dot(v);
-			// keep the maximum projection point
-			if (projection > max) {
-				// set the new maximum
-				max = projection;
-				// save the index
-				index = i;
-			}
-		}
 		
-		Vector2 maximum = new Vector2(this.vertices[index]);
+		int index;
+		double leftN;
+		double rightN;
+		if (worldSpace != null) {
+			// find the vertex on the polygon that is further along on the penetration axis
+			index = this.getFarthestVertex(vector.x, vector.y, worldSpace);
+			
+			// once we have the point of maximum
+			// see which edge is most perpendicular
+			int l = index == 0 ? count - 1 : index - 1;
+			leftN = vector.x * worldSpace.nx[l] + vector.y * worldSpace.ny[l];
+			rightN = vector.x * worldSpace.nx[index] + vector.y * worldSpace.ny[index];
+		} else {
+			// transform the normal into local space
+			Vector2 localn = transform.getInverseTransformedR(vector);
+			
+			// find the vertex on the polygon that is further along on the penetration axis
+			index = this.getFarthestVertex(localn.x, localn.y, null);
+			
+			// once we have the point of maximum
+			// see which edge is most perpendicular
+			leftN = this.normals[index == 0 ? count - 1 : index - 1].dot(localn);
+			rightN = this.normals[index].dot(localn);
+		}
 		
-		// once we have the point of maximum
-		// see which edge is most perpendicular
-		Vector2 leftN = this.normals[index == 0 ? count - 1 : index - 1];
-		Vector2 rightN = this.normals[index];
 		// create the maximum point for the feature (transform the maximum into world space)
-		transform.transform(maximum);
+		Vector2 maximum = this.getTransformed(index, transform, worldSpace);
 		PointFeature vm = new PointFeature(maximum, index);
 		// is the left or right edge more perpendicular?
-		if (leftN.dot(localn) < rightN.dot(localn)) {
+		if (leftN < rightN) {
 			int l = index + 1 == count ? 0 : index + 1;
 			
-			Vector2 left = transform.getTransformed(this.vertices[l]);
+			Vector2 left = this.getTransformed(l, transform, worldSpace);
 			PointFeature vl = new PointFeature(left, l);
 			// make sure the edge is the right winding
 			return new EdgeFeature(vm, vl, vm, maximum.to(left), index + 1);
 		} else {
 			int r = index - 1 < 0 ? count - 1 : index - 1;
 			
-			Vector2 right = transform.getTransformed(this.vertices[r]);
+			Vector2 right = this.getTransformed(r, transform, worldSpace);
 			PointFeature vr = new PointFeature(right, r);
 			// make sure the edge is the right winding
 			return new EdgeFeature(vr, vm, vm, right.to(maximum), index);
@@ -420,20 +667,143 @@ public class Polygon extends AbstractShape implements Convex, Wound, Shape, Tran
 	 */
 	@Override
 	public Vector2 getFarthestPoint(Vector2 vector, Transform transform) {
-		// transform the normal into local space
-		Vector2 localn = transform.getInverseTransformedR(vector);
+		WorldSpace worldSpace = this.getFarthestWorldSpace(transform);
+		
+		int index;
+		if (worldSpace != null) {
+			// find the farthest vertex along the axis using the world space vertices
+			index = this.getFarthestVertex(vector.x, vector.y, worldSpace);
+		} else {
+			// transform the normal into local space
+			Vector2 localn = transform.getInverseTransformedR(vector);
+			
+			// find the farthest vertex along the axis
+			index = this.getFarthestVertex(localn.x, localn.y, null);
+		}
+		
+		// transform the point into world space and return
+		return this.getTransformed(index, transform, worldSpace);
+	}
+	
+	/**
+	 * Returns the world space vertices and normals to use for the farthest point and feature
+	 * queries or null if they should be done in local space.
+	 * <p>
+	 * When hill climbing, the cache is only used if it already holds the given {@link Transform}
+	 * so that a few vertex tests don't trigger transforming all the vertices.
+	 * @param transform the {@link Transform}
+	 * @return {@link WorldSpace}
+	 */
+	private WorldSpace getFarthestWorldSpace(Transform transform) {
+		if (this.hillClimbing) {
+			return this.getCurrentWorldSpace(transform);
+		}
+		return this.getWorldSpace(transform);
+	}
+	
+	/**
+	 * Returns the projection of the given vertex onto the given vector.
+	 * <p>
+	 * Uses the given world space vertices if not null, otherwise the local vertices.
+	 * @param x the x component of the vector
+	 * @param y the y component of the vector
+	 * @param index the index of the vertex
+	 * @param worldSpace the world space vertices; can be null
+	 * @return double
+	 */
+	private double project(double x, double y, int index, WorldSpace worldSpace) {
+		if (worldSpace != null) {
+			return x * worldSpace.vx[index] + y * worldSpace.vy[index];
+		}
+		Vector2 v = this.vertices[index];
+		return x * v.x + y * v.y;
+	}
+	
+	/**
+	 * Returns the given vertex in world space, using the given world space cache if not null.
+	 * @param index the index of the vertex
+	 * @param transform the {@link Transform}
+	 * @param worldSpace the world space vertices; can be null
+	 * @return {@link Vector2}
+	 */
+	private Vector2 getTransformed(int index, Transform transform, WorldSpace worldSpace) {
+		if (worldSpace != null) {
+			return new Vector2(worldSpace.vx[index], worldSpace.vy[index]);
+		}
+		return transform.getTransformed(this.vertices[index]);
+	}
+	
+	/**
+	 * Returns the index of the farthest vertex along the given vector.
+	 * <p>
+	 * The vector is in world coordinates if the world space vertices are given, otherwise
+	 * it's in local coordinates.
+	 * <p>
+	 * {@link Polygon}s with {@link #HILL_CLIMBING_MINIMUM_VERTICES} or more vertices that are strictly 
+	 * convex walk from the vertex found by the last call towards the vertices farther along the vector
+	 * until neither neighbor is farther.  Since the projections of the vertices of a convex polygon onto
+	 * a vector increase and then decrease around it, this is the farthest vertex, and when the direction
+	 * changes little between calls, like during {@link org.dyn4j.collision.narrowphase.Gjk} iterations or
+	 * between simulation steps, only a few vertices are tested.
+	 * <p>
+	 * If two vertices have the same projection, all the vertices are tested so that the result is always
+	 * the first farthest vertex.
+	 * @param x the x component of the vector
+	 * @param y the y component of the vector
+	 * @param worldSpace the world space vertices; null to use the local vertices
+	 * @return int
+	 */
+	private int getFarthestVertex(double x, double y, WorldSpace worldSpace) {
+		int size = this.vertices.length;
+		
+		if (this.hillClimbing) {
+			// start from the last farthest vertex (a racy hint, any index works)
+			int index = this.lastFarthestVertex;
+			if (index < 0 || index >= size) index = 0;
+			double max = this.project(x, y, index, worldSpace);
+			
+			// find the direction to climb in
+			int next = index + 1 == size ? 0 : index + 1;
+			int prev = index == 0 ? size - 1 : index - 1;
+			double pn = this.project(x, y, next, worldSpace);
+			double pp = this.project(x, y, prev, worldSpace);
+			int step = 0;
+			boolean tie = false;
+			if (pn > max) {
+				step = 1;
+			} else if (pp > max) {
+				step = -1;
+				next = prev;
+				pn = pp;
+			} else {
+				tie = pn == max || pp == max;
+			}
+			
+			// climb while the neighbor is farther
+			while (step != 0 && pn > max) {
+				index = next;
+				max = pn;
+				next = index + step;
+				if (next == size) next = 0;
+				else if (next < 0) next = size - 1;
+				pn = this.project(x, y, next, worldSpace);
+			}
+			
+			// use the vertex unless there's a tie
+			if (!tie && pn != max) {
+				this.lastFarthestVertex = index;
+				return index;
+			}
+		}
 		
 		// set the farthest point to the first one
 		int index = 0;
 		// prime the projection amount
-		double max = localn.dot(this.vertices[0]);
+		double max = this.project(x, y, 0, worldSpace);
 		// loop through the rest of the vertices to find a further point along the axis
-		int size = this.vertices.length;
 		for (int i = 1; i < size; i++) {
-			// get the current vertex
-			Vector2 v = this.vertices[i];
 			// project the vertex onto the axis
-			double projection = localn.dot(v);
+			double projection = this.project(x, y, i, worldSpace);
 			// check to see if the projection is greater than the last
 			if (projection > max) {
 				// otherwise this point is the farthest so far so clear the array and add it
@@ -442,9 +812,7 @@ public class Polygon extends AbstractShape implements Convex, Wound, Shape, Tran
 				max = projection;
 			}
 		}
-		
-		// transform the point into world space and return
-		return transform.getTransformed(this.vertices[index]);
+		return index;
 	}
 	
 	/**
@@ -533,6 +901,30 @@ public class Polygon extends AbstractShape implements Convex, Wound, Shape, Tran
 	 */
 	@Override
 	public AABB createAABB(Transform transform) {
+		WorldSpace worldSpace = this.getWorldSpace(transform);
+		if (worldSpace != null) {
+			double[] vx = worldSpace.vx;
+			double[] vy = worldSpace.vy;
+			double minX = vx[0];
+			double maxX = vx[0];
+			double minY = vy[0];
+			double maxY = vy[0];
+			int size = vx.length;
+			for (int i = 1; i < size; i++) {
+				if (vx[i] < minX) {
+					minX = vx[i];
+				} else if (vx[i] > maxX) {
+					maxX = vx[i];
+				}
+				if (vy[i] < minY) {
+					minY = vy[i];
+				} else if (vy[i] > maxY) {
+					maxY = vy[i];
+				}
+			}
+			return new AABB(minX, minY, maxX, maxY);
+		}
+		
 		// get the first point
 		Vector2 p = transform.getTransformed(this.vertices[0]);
 		// project the point onto the vector
@@ -35,6 +35,9 @@ import org.dyn4j.resources.Messages;
  * @since 1.0.0
  */
 public class Transform implements Transformable {
+	/** The maximum difference of the squared length of a rotation given to {@link #set(double, double, double, double)} from one before it's normalized */
+	private static final double ROTATION_TOLERANCE = 1.0e-9;
+	
 	/**
 	 * An immutable identity transform.
 	 * <p>
@@ -95,6 +98,13 @@ public class Transform implements Transformable {
 			throw new UnsupportedOperationException(Messages.getString("geometry.transform.immutable"));
 		}
 		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.geometry.Transform#set(double, double, double, double)
+		 */
+		public final void set(double cost, double sint, double x, double y) {
+			throw new UnsupportedOperationException(Messages.getString("geometry.transform.immutable"));
+		}
+		
 		/* (non-Javadoc)
 		 * @see org.dyn4j.geometry.Transform#setTranslation(double, double)
 		 */
@@ -221,6 +231,10 @@ public class Transform implements Transformable {
 	 */
 	@Override
 	public void rotate(double theta, double x, double y) {
+		// a zero rotation is the identity; this keeps bodies with infinite
+		// inertia exactly where they are when the solvers apply zero corrections
+		if (theta == 0.0) return;
+		
 		// pre-compute cos/sin of the given angle
 		double cos = Math.cos(theta);
 		double sin = Math.sin(theta);
@@ -284,6 +298,34 @@ public class Transform implements Transformable {
 		this.y = transform.y;
 	}
 	
+	/**
+	 * Sets this {@link Transform} to the given raw values.
+	 * <p>
+	 * The cosine and sine are expected to be the values of a rotation previously obtained
+	 * from {@link #getCost()} and {@link #getSint()}.  Such values are stored as is so that
+	 * the transform can be stored elsewhere and restored exactly.  Otherwise they are
+	 * normalized so that this {@link Transform} remains a rotation.
+	 * @param cost the cosine of the rotation angle
+	 * @param sint the sine of the rotation angle
+	 * @param x the x translation
+	 * @param y the y translation
+	 * @throws IllegalArgumentException if cost and sint are both zero or aren't finite
+	 * @since 3.3.1
+	 */
+	public void set(double cost, double sint, double x, double y) {
+		double l2 = cost * cost + sint * sint;
+		if (!(Math.abs(l2 - 1.0) <= ROTATION_TOLERANCE)) {
+			if (!(l2 > 0.0) || Double.isInfinite(l2)) throw new IllegalArgumentException(Messages.getString("geometry.transform.invalidRotation"));
+			double l = Math.sqrt(l2);
+			cost /= l;
+			sint /= l;
+		}
+		this.cost = cost;
+		this.sint = sint;
+		this.x = x;
+		this.y = y;
+	}
+	
 	/**
 	 * Sets this {@link Transform} to the identity.
 	 */
@@ -601,6 +643,24 @@ public class Transform implements Transformable {
 		return t;
 	}
 	
+	/**
+	 * Returns the cosine of the rotation angle.
+	 * @return double
+	 * @since 3.3.1
+	 */
+	public double getCost() {
+		return this.cost;
+	}
+	
+	/**
+	 * Returns the sine of the rotation angle.
+	 * @return double
+	 * @since 3.3.1
+	 */
+	public double getSint() {
+		return this.sint;
+	}
+	
 	/**
 	 * Returns the values stored in this transform.
 	 * <p>
@@ -24,16 +24,25 @@
  */
 package org.dyn4j.collision;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import junit.framework.TestCase;
 
 import org.dyn4j.collision.broadphase.AbstractBroadphaseDetector;
 import org.dyn4j.collision.broadphase.BroadphaseDetector;
+import org.dyn4j.collision.broadphase.BroadphaseFilter;
+import org.dyn4j.collision.broadphase.BroadphaseFilterAdapter;
 import org.dyn4j.collision.broadphase.BroadphaseItem;
 import org.dyn4j.collision.broadphase.BroadphasePair;
 import org.dyn4j.collision.broadphase.DynamicAABBTree;
+import org.dyn4j.collision.broadphase.FlatDynamicAABBTree;
 import org.dyn4j.collision.broadphase.Sap;
+import org.dyn4j.collision.broadphase.SpatialHashGrid;
+import org.dyn4j.collision.broadphase.StaticAABBTree;
 import org.dyn4j.geometry.AABB;
 import org.dyn4j.geometry.Geometry;
 import org.dyn4j.geometry.Ray;
@@ -44,7 +53,7 @@ import org.junit.Test;
 /**
  * Class used to test the {@link BroadphaseDetector} methods.
  * @author William Bittle
- * @version 3.1.0
+ * @version 3.3.1
  * @since 3.0.0
  */
 public class BroadphaseTest {
@@ -54,6 +63,12 @@ public class BroadphaseTest {
 	/** The dynamic aabb algorithm */
 	protected DynamicAABBTree<CollidableTest, Fixture> dyn = new DynamicAABBTree<CollidableTest, Fixture>();
 	
+	/** The flat dynamic aabb algorithm */
+	protected FlatDynamicAABBTree<CollidableTest, Fixture> flat = new FlatDynamicAABBTree<CollidableTest, Fixture>();
+	
+	/** The spatial hash grid algorithm */
+	protected SpatialHashGrid<CollidableTest, Fixture> grid = new SpatialHashGrid<CollidableTest, Fixture>();
+	
 	/**
 	 * Sets up for each test method.
 	 */
@@ -62,6 +77,8 @@ public class BroadphaseTest {
 		// clear the broadphases
 		this.sap.clear();
 		this.dyn.clear();
+		this.flat.clear();
+		this.grid.clear();
 	}
 	
 	/**
@@ -74,14 +91,20 @@ public class BroadphaseTest {
 		// make sure its not there first
 		TestCase.assertFalse(this.sap.contains(ct));
 		TestCase.assertFalse(this.dyn.contains(ct));
+		TestCase.assertFalse(this.flat.contains(ct));
+		TestCase.assertFalse(this.grid.contains(ct));
 		
 		// add the item to the broadphases
 		this.sap.add(ct);
 		this.dyn.add(ct);
+		this.flat.add(ct);
+		this.grid.add(ct);
 		
 		// make sure they are there
 		TestCase.assertTrue(this.sap.contains(ct));
 		TestCase.assertTrue(this.dyn.contains(ct));
+		TestCase.assertTrue(this.flat.contains(ct));
+		TestCase.assertTrue(this.grid.contains(ct));
 	}
 	
 	/**
@@ -95,24 +118,38 @@ public class BroadphaseTest {
 		// make sure its not there first
 		TestCase.assertFalse(this.sap.contains(ct));
 		TestCase.assertFalse(this.dyn.contains(ct));
+		TestCase.assertFalse(this.flat.contains(ct));
+		TestCase.assertFalse(this.grid.contains(ct));
 		
 		// add the item to the broadphases
 		this.sap.add(ct);
 		this.dyn.add(ct);
+		this.flat.add(ct);
+		this.grid.add(ct);
 		
 		// make sure they are there
 		TestCase.assertTrue(this.sap.contains(ct));
 		TestCase.assertTrue(this.dyn.contains(ct));
+		TestCase.assertTrue(this.flat.contains(ct));
+		TestCase.assertTrue(this.grid.contains(ct));
 		TestCase.assertTrue(this.sap.contains(ct, ct.getFixture(0)));
 		TestCase.assertTrue(this.dyn.contains(ct, ct.getFixture(0)));
+		TestCase.assertTrue(this.flat.contains(ct, ct.getFixture(0)));
+		TestCase.assertTrue(this.grid.contains(ct, ct.getFixture(0)));
 		
 		this.sap.remove(ct, ct.getFixture(1));
 		this.dyn.remove(ct, ct.getFixture(1));
+		this.flat.remove(ct, ct.getFixture(1));
+		this.grid.remove(ct, ct.getFixture(1));
 		
 		TestCase.assertFalse(this.sap.contains(ct));
 		TestCase.assertFalse(this.dyn.contains(ct));
+		TestCase.assertFalse(this.flat.contains(ct));
+		TestCase.assertFalse(this.grid.contains(ct));
 		TestCase.assertTrue(this.sap.contains(ct, ct.getFixture(0)));
 		TestCase.assertTrue(this.dyn.contains(ct, ct.getFixture(0)));
+		TestCase.assertTrue(this.flat.contains(ct, ct.getFixture(0)));
+		TestCase.assertTrue(this.grid.contains(ct, ct.getFixture(0)));
 	}
 	
 	/**
@@ -128,25 +165,41 @@ public class BroadphaseTest {
 		this.sap.add(ct1);
 		this.sap.add(ct2);
 		this.dyn.add(ct1);
+		this.flat.add(ct1);
+		this.grid.add(ct1);
 		this.dyn.add(ct2);
+		this.flat.add(ct2);
+		this.grid.add(ct2);
 		
 		// make sure they are there
 		TestCase.assertTrue(this.sap.contains(ct1));
 		TestCase.assertTrue(this.sap.contains(ct2));
 		TestCase.assertTrue(this.dyn.contains(ct1));
+		TestCase.assertTrue(this.flat.contains(ct1));
+		TestCase.assertTrue(this.grid.contains(ct1));
 		TestCase.assertTrue(this.dyn.contains(ct2));
+		TestCase.assertTrue(this.flat.contains(ct2));
+		TestCase.assertTrue(this.grid.contains(ct2));
 		
 		// then remove them from the broadphases
 		this.sap.remove(ct1);
 		this.dyn.remove(ct1);
+		this.flat.remove(ct1);
+		this.grid.remove(ct1);
 		
 		// make sure they aren't there any more
 		TestCase.assertFalse(this.sap.contains(ct1));
 		TestCase.assertFalse(this.dyn.contains(ct1));
+		TestCase.assertFalse(this.flat.contains(ct1));
+		TestCase.assertFalse(this.grid.contains(ct1));
 		TestCase.assertFalse(this.sap.contains(ct1, ct1.getFixture(0)));
 		TestCase.assertFalse(this.dyn.contains(ct1, ct1.getFixture(0)));
+		TestCase.assertFalse(this.flat.contains(ct1, ct1.getFixture(0)));
+		TestCase.assertFalse(this.grid.contains(ct1, ct1.getFixture(0)));
 		TestCase.assertFalse(this.sap.contains(ct1, ct1.getFixture(1)));
 		TestCase.assertFalse(this.dyn.contains(ct1, ct1.getFixture(1)));
+		TestCase.assertFalse(this.flat.contains(ct1, ct1.getFixture(1)));
+		TestCase.assertFalse(this.grid.contains(ct1, ct1.getFixture(1)));
 	}
 	
 	/**
@@ -160,22 +213,36 @@ public class BroadphaseTest {
 		// add the item to the broadphases
 		this.sap.add(ct);
 		this.dyn.add(ct);
+		this.flat.add(ct);
+		this.grid.add(ct);
 		
 		// make sure they are there
 		TestCase.assertTrue(this.sap.contains(ct));
 		TestCase.assertTrue(this.dyn.contains(ct));
+		TestCase.assertTrue(this.flat.contains(ct));
+		TestCase.assertTrue(this.grid.contains(ct));
 		TestCase.assertTrue(this.sap.contains(ct, ct.getFixture(0)));
 		TestCase.assertTrue(this.dyn.contains(ct, ct.getFixture(0)));
+		TestCase.assertTrue(this.flat.contains(ct, ct.getFixture(0)));
+		TestCase.assertTrue(this.grid.contains(ct, ct.getFixture(0)));
 		
 		this.sap.remove(ct, ct.getFixture(1));
 		this.dyn.remove(ct, ct.getFixture(1));
+		this.flat.remove(ct, ct.getFixture(1));
+		this.grid.remove(ct, ct.getFixture(1));
 		
 		TestCase.assertFalse(this.sap.contains(ct));
 		TestCase.assertFalse(this.dyn.contains(ct));
+		TestCase.assertFalse(this.flat.contains(ct));
+		TestCase.assertFalse(this.grid.contains(ct));
 		TestCase.assertFalse(this.sap.contains(ct, ct.getFixture(1)));
 		TestCase.assertFalse(this.dyn.contains(ct, ct.getFixture(1)));
+		TestCase.assertFalse(this.flat.contains(ct, ct.getFixture(1)));
+		TestCase.assertFalse(this.grid.contains(ct, ct.getFixture(1)));
 		TestCase.assertTrue(this.sap.contains(ct, ct.getFixture(0)));
 		TestCase.assertTrue(this.dyn.contains(ct, ct.getFixture(0)));
+		TestCase.assertTrue(this.flat.contains(ct, ct.getFixture(0)));
+		TestCase.assertTrue(this.grid.contains(ct, ct.getFixture(0)));
 	}
 		
 	/**
@@ -244,17 +311,25 @@ public class BroadphaseTest {
 		// add the item to the broadphases
 		this.sap.add(ct);
 		this.dyn.add(ct);
+		this.flat.add(ct);
+		this.grid.add(ct);
 		
 		TestCase.assertEquals(1, this.sap.size());
 		TestCase.assertEquals(1, this.dyn.size());
+		TestCase.assertEquals(1, this.flat.size());
+		TestCase.assertEquals(1, this.grid.size());
 		
 		// clear all the broadphases
 		this.sap.clear();
 		this.dyn.clear();
+		this.flat.clear();
+		this.grid.clear();
 		
 		// check for the aabb
 		TestCase.assertEquals(0, this.sap.size());
 		TestCase.assertEquals(0, this.dyn.size());
+		TestCase.assertEquals(0, this.flat.size());
+		TestCase.assertEquals(0, this.grid.size());
 	}
 	
 	/**
@@ -267,15 +342,21 @@ public class BroadphaseTest {
 		// add the item to the broadphases
 		this.sap.add(ct);
 		this.dyn.add(ct);
+		this.flat.add(ct);
+		this.grid.add(ct);
 		
 		AABB aabbSap = this.sap.getAABB(ct);
 		AABB aabbDyn = this.dyn.getAABB(ct);
+		AABB aabbFlat = this.flat.getAABB(ct);
+		AABB aabbGrid = this.grid.getAABB(ct);
 		
 		AABB aabb = ct.createAABB();
 		// don't forget that the aabb is expanded
 		aabb.expand(BroadphaseDetector.DEFAULT_AABB_EXPANSION);
 		TestCase.assertTrue(isEqual(aabbSap, aabb));
 		TestCase.assertTrue(isEqual(aabbDyn, aabb));
+		TestCase.assertTrue(isEqual(aabbFlat, aabb));
+		TestCase.assertTrue(isEqual(aabbGrid, aabb));
 	}
 	
 	/**
@@ -330,11 +411,17 @@ public class BroadphaseTest {
 		// add the items to the broadphases
 		this.sap.add(ct1); this.sap.add(ct2); this.sap.add(ct3); this.sap.add(ct4);
 		this.dyn.add(ct1); this.dyn.add(ct2); this.dyn.add(ct3); this.dyn.add(ct4);
+		this.flat.add(ct1); this.flat.add(ct2); this.flat.add(ct3); this.flat.add(ct4);
+		this.grid.add(ct1); this.grid.add(ct2); this.grid.add(ct3); this.grid.add(ct4);
 		
 		List<BroadphasePair<CollidableTest, Fixture>> pairs = this.sap.detect();
 		TestCase.assertEquals(1, pairs.size());
 		pairs = this.dyn.detect();
 		TestCase.assertEquals(1, pairs.size());
+		pairs = this.flat.detect();
+		TestCase.assertEquals(1, pairs.size());
+		pairs = this.grid.detect();
+		TestCase.assertEquals(1, pairs.size());
 	}
 	
 	/**
@@ -355,6 +442,8 @@ public class BroadphaseTest {
 		// add the items to the broadphases
 		this.sap.add(ct1); this.sap.add(ct2); this.sap.add(ct3); this.sap.add(ct4);
 		this.dyn.add(ct1); this.dyn.add(ct2); this.dyn.add(ct3); this.dyn.add(ct4);
+		this.flat.add(ct1); this.flat.add(ct2); this.flat.add(ct3); this.flat.add(ct4);
+		this.grid.add(ct1); this.grid.add(ct2); this.grid.add(ct3); this.grid.add(ct4);
 		
 		// this aabb should include:
 		// ct3 and ct4
@@ -369,6 +458,14 @@ public class BroadphaseTest {
 		TestCase.assertEquals(2, list.size());
 		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct3, ct3.getFixture(0))));
 		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct4, ct4.getFixture(0))));
+		list = this.flat.detect(aabb);
+		TestCase.assertEquals(2, list.size());
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct3, ct3.getFixture(0))));
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct4, ct4.getFixture(0))));
+		list = this.grid.detect(aabb);
+		TestCase.assertEquals(2, list.size());
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct3, ct3.getFixture(0))));
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct4, ct4.getFixture(0))));
 		
 		// should include:
 		// ct2, ct3, and ct4
@@ -384,6 +481,16 @@ public class BroadphaseTest {
 		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct2, ct2.getFixture(0))));
 		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct3, ct3.getFixture(0))));
 		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct4, ct4.getFixture(0))));
+		list = this.flat.detect(aabb);
+		TestCase.assertEquals(3, list.size());
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct2, ct2.getFixture(0))));
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct3, ct3.getFixture(0))));
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct4, ct4.getFixture(0))));
+		list = this.grid.detect(aabb);
+		TestCase.assertEquals(3, list.size());
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct2, ct2.getFixture(0))));
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct3, ct3.getFixture(0))));
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct4, ct4.getFixture(0))));
 	}
 	
 	/**
@@ -404,6 +511,8 @@ public class BroadphaseTest {
 		// add the items to the broadphases
 		this.sap.add(ct1); this.sap.add(ct2); this.sap.add(ct3); this.sap.add(ct4);
 		this.dyn.add(ct1); this.dyn.add(ct2); this.dyn.add(ct3); this.dyn.add(ct4);
+		this.flat.add(ct1); this.flat.add(ct2); this.flat.add(ct3); this.flat.add(ct4);
+		this.grid.add(ct1); this.grid.add(ct2); this.grid.add(ct3); this.grid.add(ct4);
 		
 		List<BroadphaseItem<CollidableTest, Fixture>> list;
 		
@@ -416,6 +525,10 @@ public class BroadphaseTest {
 		TestCase.assertEquals(0, list.size());
 		list = this.dyn.raycast(r, l);
 		TestCase.assertEquals(0, list.size());
+		list = this.flat.raycast(r, l);
+		TestCase.assertEquals(0, list.size());
+		list = this.grid.raycast(r, l);
+		TestCase.assertEquals(0, list.size());
 		
 		// try a different ray
 		r = new Ray(new Vector2(-3.0, 0.75), new Vector2(1.0, 0.0));
@@ -429,6 +542,16 @@ public class BroadphaseTest {
 		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct1, ct1.getFixture(0))));
 		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct2, ct2.getFixture(0))));
 		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct4, ct4.getFixture(0))));
+		list = this.flat.raycast(r, l);
+		TestCase.assertEquals(3, list.size());
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct1, ct1.getFixture(0))));
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct2, ct2.getFixture(0))));
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct4, ct4.getFixture(0))));
+		list = this.grid.raycast(r, l);
+		TestCase.assertEquals(3, list.size());
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct1, ct1.getFixture(0))));
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct2, ct2.getFixture(0))));
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct4, ct4.getFixture(0))));
 		
 		// try one more ray
 		r = new Ray(new Vector2(-3.0, -2.0), new Vector2(1.0, 2.0).getNormalized());
@@ -440,6 +563,14 @@ public class BroadphaseTest {
 		TestCase.assertEquals(2, list.size());
 		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct1, ct1.getFixture(0))));
 		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct2, ct2.getFixture(0))));
+		list = this.flat.raycast(r, l);
+		TestCase.assertEquals(2, list.size());
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct1, ct1.getFixture(0))));
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct2, ct2.getFixture(0))));
+		list = this.grid.raycast(r, l);
+		TestCase.assertEquals(2, list.size());
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct1, ct1.getFixture(0))));
+		TestCase.assertTrue(list.contains(new BroadphaseItem<CollidableTest, Fixture>(ct2, ct2.getFixture(0))));
 	}
 	
 	/**
@@ -450,12 +581,18 @@ public class BroadphaseTest {
 		// test the default
 		TestCase.assertEquals(BroadphaseDetector.DEFAULT_AABB_EXPANSION, this.sap.getAABBExpansion());
 		TestCase.assertEquals(BroadphaseDetector.DEFAULT_AABB_EXPANSION, this.dyn.getAABBExpansion());
+		TestCase.assertEquals(BroadphaseDetector.DEFAULT_AABB_EXPANSION, this.flat.getAABBExpansion());
+		TestCase.assertEquals(BroadphaseDetector.DEFAULT_AABB_EXPANSION, this.grid.getAABBExpansion());
 		
 		// test changing the expansion
 		this.sap.setAABBExpansion(0.3);
 		this.dyn.setAABBExpansion(0.3);
+		this.flat.setAABBExpansion(0.3);
+		this.grid.setAABBExpansion(0.3);
 		TestCase.assertEquals(0.3, this.sap.getAABBExpansion());
 		TestCase.assertEquals(0.3, this.dyn.getAABBExpansion());
+		TestCase.assertEquals(0.3, this.flat.getAABBExpansion());
+		TestCase.assertEquals(0.3, this.grid.getAABBExpansion());
 		
 		// test the new expansion value
 		CollidableTest ct = new CollidableTest(Geometry.createCircle(1.0));
@@ -463,15 +600,21 @@ public class BroadphaseTest {
 		// add the item to the broadphases
 		this.sap.add(ct);
 		this.dyn.add(ct);
+		this.flat.add(ct);
+		this.grid.add(ct);
 		
 		AABB aabbSap = this.sap.getAABB(ct);
 		AABB aabbDyn = this.dyn.getAABB(ct);
+		AABB aabbFlat = this.flat.getAABB(ct);
+		AABB aabbGrid = this.grid.getAABB(ct);
 		
 		AABB aabb = ct.createAABB();
 		// don't forget that the aabb is expanded
 		aabb.expand(0.3);
 		TestCase.assertTrue(isEqual(aabbSap, aabb));
 		TestCase.assertTrue(isEqual(aabbDyn, aabb));
+		TestCase.assertTrue(isEqual(aabbFlat, aabb));
+		TestCase.assertTrue(isEqual(aabbGrid, aabb));
 	}
 	
 	/**
@@ -492,23 +635,35 @@ public class BroadphaseTest {
 		// add the items to the broadphases
 		this.sap.add(ct1); this.sap.add(ct2); this.sap.add(ct3); this.sap.add(ct4);
 		this.dyn.add(ct1); this.dyn.add(ct2); this.dyn.add(ct3); this.dyn.add(ct4);
+		this.flat.add(ct1); this.flat.add(ct2); this.flat.add(ct3); this.flat.add(ct4);
+		this.grid.add(ct1); this.grid.add(ct2); this.grid.add(ct3); this.grid.add(ct4);
 		
 		// perform a detect on the whole broadphase
 		List<BroadphasePair<CollidableTest, Fixture>> pairs = this.sap.detect();
 		TestCase.assertEquals(1, pairs.size());
 		pairs = this.dyn.detect();
 		TestCase.assertEquals(1, pairs.size());
+		pairs = this.flat.detect();
+		TestCase.assertEquals(1, pairs.size());
+		pairs = this.grid.detect();
+		TestCase.assertEquals(1, pairs.size());
 		
 		// shift the broadphases
 		Vector2 shift = new Vector2(1.0, -2.0);
 		this.sap.shift(shift);
 		this.dyn.shift(shift);
+		this.flat.shift(shift);
+		this.grid.shift(shift);
 		
 		// the number of pairs detected should be identical
 		pairs = this.sap.detect();
 		TestCase.assertEquals(1, pairs.size());
 		pairs = this.dyn.detect();
 		TestCase.assertEquals(1, pairs.size());
+		pairs = this.flat.detect();
+		TestCase.assertEquals(1, pairs.size());
+		pairs = this.grid.detect();
+		TestCase.assertEquals(1, pairs.size());
 	}
 	
 	/**
@@ -526,4 +681,398 @@ public class BroadphaseTest {
 	public void DynamicAABBTreeNegativeInitialCapacity() {
 		new DynamicAABBTree<CollidableTest, Fixture>(-10);
 	}
+	
+	/**
+	 * Tests creating a FlatDynamicAABBTree detector using a negative capacity.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void FlatDynamicAABBTreeNegativeInitialCapacity() {
+		new FlatDynamicAABBTree<CollidableTest, Fixture>(-10);
+	}
+	
+	/**
+	 * Tests the update method of the {@link FlatDynamicAABBTree} which returns
+	 * a new AABB from the getAABB method.
+	 */
+	@Test
+	public void updateFlat() {
+		CollidableTest ct = new CollidableTest(Geometry.createCircle(1.0));
+		Fixture f = ct.getFixture(0);
+		
+		this.flat.add(ct);
+		AABB aabb = this.flat.getAABB(ct, f);
+		
+		// move the collidable a bit
+		ct.translate(0.05, 0.0);
+		this.flat.update(ct, f);
+		
+		// the aabb should not have been updated because of the expansion code
+		TestCase.assertTrue(isEqual(aabb, this.flat.getAABB(ct, f)));
+		
+		// move the collidable enough to update the aabb
+		ct.translate(0.5, 0.0);
+		this.flat.update(ct);
+		
+		AABB expected = ct.createAABB();
+		expected.expand(BroadphaseDetector.DEFAULT_AABB_EXPANSION);
+		TestCase.assertTrue(isEqual(expected, this.flat.getAABB(ct, f)));
+		TestCase.assertEquals(1, this.flat.size());
+	}
+	
+	/**
+	 * Tests that the {@link FlatDynamicAABBTree} produces the same results in the
+	 * same order as the {@link DynamicAABBTree} while adding, moving and removing
+	 * many collidables.
+	 */
+	@Test
+	public void flatMatchesDynamicAABBTree() {
+		Random random = new Random(3);
+		List<CollidableTest> collidables = new ArrayList<CollidableTest>();
+		for (int i = 0; i < 200; i++) {
+			CollidableTest ct = new CollidableTest(Geometry.createCircle(0.2 + random.nextDouble()));
+			if (i % 5 == 0) {
+				ct.addFixture(Geometry.createRectangle(1.0, 0.5));
+			}
+			ct.translate(random.nextDouble() * 40.0 - 20.0, random.nextDouble() * 40.0 - 20.0);
+			collidables.add(ct);
+			this.dyn.add(ct);
+			this.flat.add(ct);
+		}
+		
+		for (int step = 0; step < 20; step++) {
+			// move some of the collidables
+			for (CollidableTest ct : collidables) {
+				if (random.nextBoolean()) {
+					ct.translate(random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+					this.dyn.update(ct);
+					this.flat.update(ct);
+				}
+			}
+			
+			// remove and add a few
+			for (int i = 0; i < 5; i++) {
+				CollidableTest ct = collidables.get(random.nextInt(collidables.size()));
+				if (this.dyn.contains(ct)) {
+					this.dyn.remove(ct);
+					this.flat.remove(ct);
+				} else {
+					this.dyn.add(ct);
+					this.flat.add(ct);
+				}
+			}
+			
+			TestCase.assertEquals(this.dyn.size(), this.flat.size());
+			
+			List<BroadphasePair<CollidableTest, Fixture>> pairs1 = this.dyn.detect();
+			List<BroadphasePair<CollidableTest, Fixture>> pairs2 = this.flat.detect();
+			TestCase.assertEquals(pairs1.size(), pairs2.size());
+			for (int i = 0; i < pairs1.size(); i++) {
+				BroadphasePair<CollidableTest, Fixture> p1 = pairs1.get(i);
+				BroadphasePair<CollidableTest, Fixture> p2 = pairs2.get(i);
+				TestCase.assertSame(p1.getCollidable1(), p2.getCollidable1());
+				TestCase.assertSame(p1.getFixture1(), p2.getFixture1());
+				TestCase.assertSame(p1.getCollidable2(), p2.getCollidable2());
+				TestCase.assertSame(p1.getFixture2(), p2.getFixture2());
+			}
+			
+			AABB aabb = new AABB(-5.0, -5.0, 5.0, 5.0);
+			TestCase.assertEquals(this.dyn.detect(aabb), this.flat.detect(aabb));
+			
+			Ray ray = new Ray(new Vector2(-20.0, random.nextDouble() * 10.0 - 5.0), new Vector2(1.0, 0.1).getNormalized());
+			TestCase.assertEquals(this.dyn.raycast(ray, 0.0), this.flat.raycast(ray, 0.0));
+		}
+		
+		// shifting should keep the results the same
+		Vector2 shift = new Vector2(3.0, -1.0);
+		this.dyn.shift(shift);
+		this.flat.shift(shift);
+		TestCase.assertEquals(this.dyn.detect().size(), this.flat.detect().size());
+		TestCase.assertEquals(this.dyn.detect(new AABB(-2.0, -6.0, 8.0, 4.0)), this.flat.detect(new AABB(-2.0, -6.0, 8.0, 4.0)));
+		
+		// clearing and refilling should reuse the nodes
+		this.flat.clear();
+		TestCase.assertEquals(0, this.flat.size());
+		TestCase.assertEquals(0, this.flat.detect().size());
+		for (CollidableTest ct : collidables) {
+			this.flat.add(ct);
+		}
+		TestCase.assertTrue(this.flat.contains(collidables.get(0)));
+	}
+	
+	/**
+	 * Tests that the incremental mode of the {@link DynamicAABBTree} finds the
+	 * same pairs as the default mode while adding, moving and removing collidables.
+	 */
+	@Test
+	public void incremental() {
+		DynamicAABBTree<CollidableTest, Fixture> inc = new DynamicAABBTree<CollidableTest, Fixture>();
+		TestCase.assertFalse(inc.isIncrementalEnabled());
+		
+		Random random = new Random(5);
+		List<CollidableTest> collidables = new ArrayList<CollidableTest>();
+		for (int i = 0; i < 150; i++) {
+			CollidableTest ct = new CollidableTest(Geometry.createCircle(0.2 + random.nextDouble()));
+			if (i % 4 == 0) {
+				ct.addFixture(Geometry.createRectangle(1.0, 0.5));
+			}
+			ct.translate(random.nextDouble() * 30.0 - 15.0, random.nextDouble() * 30.0 - 15.0);
+			collidables.add(ct);
+			this.dyn.add(ct);
+			inc.add(ct);
+		}
+		
+		// enabling after the collidables were added should find all the pairs
+		inc.setIncrementalEnabled(true);
+		TestCase.assertTrue(inc.isIncrementalEnabled());
+		
+		for (int step = 0; step < 20; step++) {
+			assertSamePairs(this.dyn.detect(), inc.detect());
+			
+			// move a few of the collidables
+			for (CollidableTest ct : collidables) {
+				if (random.nextInt(10) == 0) {
+					ct.translate(random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+					this.dyn.update(ct);
+					inc.update(ct);
+				}
+			}
+			
+			// remove and add a few
+			for (int i = 0; i < 3; i++) {
+				CollidableTest ct = collidables.get(random.nextInt(collidables.size()));
+				if (this.dyn.contains(ct)) {
+					this.dyn.remove(ct);
+					inc.remove(ct);
+				} else {
+					this.dyn.add(ct);
+					inc.add(ct);
+				}
+			}
+		}
+		
+		// calling detect again without changes returns the same pairs
+		assertSamePairs(inc.detect(), inc.detect());
+		
+		// the filter is still applied to all pairs
+		final CollidableTest excluded = collidables.get(0);
+		BroadphaseFilter<CollidableTest, Fixture> filter = new BroadphaseFilterAdapter<CollidableTest, Fixture>() {
+			@Override
+			public boolean isAllowed(CollidableTest collidable1, Fixture fixture1, CollidableTest collidable2, Fixture fixture2) {
+				return collidable1 != excluded && collidable2 != excluded;
+			}
+		};
+		assertSamePairs(this.dyn.detect(filter), inc.detect(filter));
+		
+		inc.clear();
+		TestCase.assertEquals(0, inc.detect().size());
+	}
+	
+	/**
+	 * Asserts that the given lists contain the same pairs ignoring order.
+	 * @param expected the expected pairs
+	 * @param actual the actual pairs
+	 */
+	private void assertSamePairs(List<BroadphasePair<CollidableTest, Fixture>> expected, List<BroadphasePair<CollidableTest, Fixture>> actual) {
+		TestCase.assertEquals(expected.size(), actual.size());
+		Set<BroadphasePair<CollidableTest, Fixture>> set = new HashSet<BroadphasePair<CollidableTest, Fixture>>(actual);
+		for (BroadphasePair<CollidableTest, Fixture> pair : expected) {
+			BroadphasePair<CollidableTest, Fixture> reversed = new BroadphasePair<CollidableTest, Fixture>(
+					pair.getCollidable2(), pair.getFixture2(), pair.getCollidable1(), pair.getFixture1());
+			TestCase.assertTrue(set.contains(pair) || set.contains(reversed));
+		}
+	}
+	
+	/**
+	 * Tests creating a SpatialHashGrid detector using a negative capacity.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void SpatialHashGridNegativeInitialCapacity() {
+		new SpatialHashGrid<CollidableTest, Fixture>(1.0, -10);
+	}
+	
+	/**
+	 * Tests creating a SpatialHashGrid detector using an invalid cell size.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void SpatialHashGridInvalidCellSize() {
+		new SpatialHashGrid<CollidableTest, Fixture>(0.0);
+	}
+	
+	/**
+	 * Tests setting an invalid cell size on a SpatialHashGrid detector.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void SpatialHashGridSetInvalidCellSize() {
+		this.grid.setCellSize(-1.0);
+	}
+	
+	/**
+	 * Tests that the {@link SpatialHashGrid} finds the same pairs and items as the
+	 * {@link DynamicAABBTree} while adding, moving and removing collidables of
+	 * different sizes.
+	 */
+	@Test
+	public void gridMatchesDynamicAABBTree() {
+		Random random = new Random(7);
+		List<CollidableTest> collidables = new ArrayList<CollidableTest>();
+		for (int i = 0; i < 150; i++) {
+			CollidableTest ct = new CollidableTest(Geometry.createCircle(0.1 + random.nextDouble() * 0.8));
+			if (i % 6 == 0) {
+				ct.addFixture(Geometry.createRectangle(2.5, 0.5));
+			}
+			ct.translate(random.nextDouble() * 30.0 - 15.0, random.nextDouble() * 30.0 - 15.0);
+			collidables.add(ct);
+		}
+		// a few large collidables that span many cells
+		CollidableTest ground = new CollidableTest(Geometry.createRectangle(40.0, 1.0));
+		ground.translate(0.0, -3.0);
+		collidables.add(ground);
+		CollidableTest wall = new CollidableTest(Geometry.createRectangle(1.0, 40.0));
+		wall.translate(2.0, 0.0);
+		collidables.add(wall);
+		for (CollidableTest ct : collidables) {
+			this.dyn.add(ct);
+			this.grid.add(ct);
+		}
+		
+		for (int step = 0; step < 20; step++) {
+			assertSamePairs(this.dyn.detect(), this.grid.detect());
+			
+			AABB aabb = new AABB(-4.0 + step, -4.0, 4.0 + step, 3.0);
+			assertSameItems(this.dyn.detect(aabb), this.grid.detect(aabb));
+			aabb = new AABB(-100.0, -100.0, 100.0, 100.0);
+			assertSameItems(this.dyn.detect(aabb), this.grid.detect(aabb));
+			
+			Ray ray = new Ray(new Vector2(-20.0, random.nextDouble() * 10.0 - 5.0), new Vector2(1.0, random.nextDouble() - 0.5).getNormalized());
+			assertSameItems(this.dyn.raycast(ray, 0.0), this.grid.raycast(ray, 0.0));
+			ray = new Ray(new Vector2(random.nextDouble() * 4.0, 20.0), new Vector2(0.0, -1.0));
+			assertSameItems(this.dyn.raycast(ray, 30.0), this.grid.raycast(ray, 30.0));
+			ray = new Ray(new Vector2(random.nextDouble() - 0.5, random.nextDouble() - 0.5), new Vector2(-1.0, -2.0).getNormalized());
+			assertSameItems(this.dyn.raycast(ray, 5.0), this.grid.raycast(ray, 5.0));
+			
+			// move some of the collidables
+			for (CollidableTest ct : collidables) {
+				if (random.nextInt(3) == 0) {
+					ct.translate(random.nextDouble() * 2.0 - 1.0, random.nextDouble() * 2.0 - 1.0);
+					this.dyn.update(ct);
+					this.grid.update(ct);
+				}
+			}
+			
+			// remove and add a few
+			for (int i = 0; i < 5; i++) {
+				CollidableTest ct = collidables.get(random.nextInt(collidables.size()));
+				if (this.dyn.contains(ct)) {
+					this.dyn.remove(ct);
+					this.grid.remove(ct);
+				} else {
+					this.dyn.add(ct);
+					this.grid.add(ct);
+				}
+			}
+			TestCase.assertEquals(this.dyn.size(), this.grid.size());
+		}
+		
+		// shifting keeps the results the same
+		Vector2 shift = new Vector2(0.3, -7.2);
+		this.dyn.shift(shift);
+		this.grid.shift(shift);
+		assertSamePairs(this.dyn.detect(), this.grid.detect());
+		
+		// changing the cell size keeps the results the same
+		this.grid.setCellSize(3.0);
+		TestCase.assertEquals(3.0, this.grid.getCellSize());
+		assertSamePairs(this.dyn.detect(), this.grid.detect());
+		AABB aabb = new AABB(-5.0, -5.0, 5.0, 5.0);
+		assertSameItems(this.dyn.detect(aabb), this.grid.detect(aabb));
+	}
+	
+	/**
+	 * Tests that the {@link StaticAABBTree} finds the same items as a {@link DynamicAABBTree}
+	 * without {@link AABB} expansion.
+	 */
+	@Test
+	public void staticMatchesDynamicAABBTree() {
+		this.dyn.setAABBExpansion(0.0);
+		
+		Random random = new Random(11);
+		List<CollidableTest> collidables = new ArrayList<CollidableTest>();
+		for (int i = 0; i < 300; i++) {
+			CollidableTest ct = new CollidableTest(Geometry.createCircle(0.1 + random.nextDouble() * 0.8));
+			if (i % 5 == 0) {
+				ct.addFixture(Geometry.createRectangle(2.5, 0.5));
+			}
+			// some collidables share the same position
+			if (i % 7 != 0) {
+				ct.translate(random.nextDouble() * 30.0 - 15.0, random.nextDouble() * 30.0 - 15.0);
+			}
+			collidables.add(ct);
+		}
+		CollidableTest ground = new CollidableTest(Geometry.createRectangle(40.0, 1.0));
+		ground.translate(0.0, -3.0);
+		collidables.add(ground);
+		for (CollidableTest ct : collidables) {
+			this.dyn.add(ct);
+		}
+		
+		StaticAABBTree<CollidableTest, Fixture> tree = new StaticAABBTree<CollidableTest, Fixture>(collidables);
+		TestCase.assertEquals(this.dyn.size(), tree.size());
+		AABB bounds = tree.getAABB();
+		for (CollidableTest ct : collidables) {
+			TestCase.assertTrue(bounds.contains(ct.createAABB()));
+		}
+		
+		for (int i = 0; i < 50; i++) {
+			double x = random.nextDouble() * 30.0 - 15.0;
+			double y = random.nextDouble() * 30.0 - 15.0;
+			AABB aabb = new AABB(x, y, x + random.nextDouble() * 5.0, y + random.nextDouble() * 5.0);
+			assertSameItems(this.dyn.detect(aabb), tree.detect(aabb));
+			
+			Ray ray = new Ray(new Vector2(-20.0, random.nextDouble() * 10.0 - 5.0), new Vector2(1.0, random.nextDouble() - 0.5).getNormalized());
+			assertSameItems(this.dyn.raycast(ray, 0.0), tree.raycast(ray, 0.0));
+			ray = new Ray(new Vector2(x, 20.0), new Vector2(0.0, -1.0));
+			assertSameItems(this.dyn.raycast(ray, 30.0), tree.raycast(ray, 30.0));
+		}
+		AABB aabb = new AABB(-100.0, -100.0, 100.0, 100.0);
+		assertSameItems(this.dyn.detect(aabb), tree.detect(aabb));
+		
+		// the filter is used
+		BroadphaseFilter<CollidableTest, Fixture> filter = new BroadphaseFilterAdapter<CollidableTest, Fixture>() {
+			@Override
+			public boolean isAllowed(AABB aabb, CollidableTest collidable, Fixture fixture) {
+				return collidable.getFixtureCount() > 1;
+			}
+		};
+		assertSameItems(this.dyn.detect(aabb, filter), tree.detect(aabb, filter));
+		
+		// the tree doesn't follow the collidables
+		ground.translate(0.0, 50.0);
+		TestCase.assertTrue(tree.detect(new AABB(-1.0, 46.0, 1.0, 48.0)).isEmpty());
+		TestCase.assertTrue(tree.detect(new AABB(-1.0, -3.0, 1.0, -3.0)).contains(new BroadphaseItem<CollidableTest, Fixture>(ground, ground.getFixture(0))));
+		
+		// an empty tree
+		tree = new StaticAABBTree<CollidableTest, Fixture>(new ArrayList<CollidableTest>());
+		TestCase.assertEquals(0, tree.size());
+		TestCase.assertNull(tree.getAABB());
+		TestCase.assertTrue(tree.detect(aabb).isEmpty());
+		TestCase.assertTrue(tree.raycast(new Ray(new Vector2(1.0, 0.0)), 0.0).isEmpty());
+	}
+	
+	/**
+	 * Tests creating a StaticAABBTree from a null list.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void StaticAABBTreeNullList() {
+		new StaticAABBTree<CollidableTest, Fixture>(null);
+	}
+	
+	/**
+	 * Asserts that the given lists contain the same items ignoring order.
+	 * @param expected the expected items
+	 * @param actual the actual items
+	 */
+	private void assertSameItems(List<BroadphaseItem<CollidableTest, Fixture>> expected, List<BroadphaseItem<CollidableTest, Fixture>> actual) {
+		TestCase.assertEquals(expected.size(), actual.size());
+		TestCase.assertEquals(new HashSet<BroadphaseItem<CollidableTest, Fixture>>(expected), new HashSet<BroadphaseItem<CollidableTest, Fixture>>(actual));
+	}
 }
@@ -320,6 +320,36 @@ public class ConservativeAdvancementTest {
 		TestCase.assertFalse(collision);
 	}
 	
+	/**
+	 * Tests the time of impact computation when the distance
+	 * computations are warm started.
+	 */
+	@Test
+	public void simplexCache() {
+		TestCase.assertFalse(this.detector.isSimplexCacheEnabled());
+		
+		Transform t1 = new Transform();
+		t1.translate(0.0, 1.5);
+		Vector2 dp1 = new Vector2(0.3, -2.0);
+		double da1 = Math.toRadians(30.0);
+		
+		TimeOfImpact expected = new TimeOfImpact();
+		TestCase.assertTrue(this.detector.getTimeOfImpact(this.c1, t1, dp1, da1, this.c2, Transform.IDENTITY, new Vector2(), 0.0, 0.0, 1.0, expected));
+		
+		this.detector.setSimplexCacheEnabled(true);
+		TestCase.assertTrue(this.detector.isSimplexCacheEnabled());
+		TimeOfImpact toi = new TimeOfImpact();
+		TestCase.assertTrue(this.detector.getTimeOfImpact(this.c1, t1, dp1, da1, this.c2, Transform.IDENTITY, new Vector2(), 0.0, 0.0, 1.0, toi));
+		
+		// the results are within the tolerance of the root finder
+		TestCase.assertEquals(expected.getTime(), toi.getTime(), 1.0e-6);
+		TestCase.assertEquals(expected.getSeparation().getDistance(), toi.getSeparation().getDistance(), 1.0e-6);
+		
+		// no collision
+		dp1.set(0.3, -0.5);
+		TestCase.assertFalse(this.detector.getTimeOfImpact(this.c1, t1, dp1, da1, this.c2, Transform.IDENTITY, new Vector2(), 0.0, 0.0, 1.0, toi));
+	}
+	
 	/**
 	 * Tests the set distance detector method.
 	 */
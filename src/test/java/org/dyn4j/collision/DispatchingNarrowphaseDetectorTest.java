@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.collision.narrowphase.DispatchingNarrowphaseDetector;
+import org.dyn4j.collision.narrowphase.Gjk;
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.collision.narrowphase.Sat;
+import org.dyn4j.collision.narrowphase.SeparatingAxisCache;
+import org.dyn4j.geometry.Capsule;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link DispatchingNarrowphaseDetector} class.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class DispatchingNarrowphaseDetectorTest {
+	/** The shapes; one of each dispatched type and one that isn't */
+	private static final Convex[] SHAPES = new Convex[] {
+		Geometry.createCircle(0.5),
+		Geometry.createUnitCirclePolygon(5, 0.5),
+		Geometry.createRectangle(1.0, 0.5),
+		Geometry.createEquilateralTriangle(1.0),
+		Geometry.createCapsule(1.0, 0.4),
+		Geometry.createEllipse(1.0, 0.5)
+	};
+	
+	/**
+	 * Tests the successful creation of the detector.
+	 */
+	@Test
+	public void createSuccess() {
+		DispatchingNarrowphaseDetector detector = new DispatchingNarrowphaseDetector();
+		TestCase.assertTrue(detector.getFallbackNarrowphaseDetector() instanceof Gjk);
+		
+		Sat sat = new Sat();
+		detector = new DispatchingNarrowphaseDetector(sat);
+		TestCase.assertSame(sat, detector.getFallbackNarrowphaseDetector());
+	}
+	
+	/**
+	 * Tests the creation of the detector with a null fallback detector.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void createNullFallback() {
+		new DispatchingNarrowphaseDetector(null);
+	}
+	
+	/**
+	 * Tests that the results match {@link Gjk}'s for all pairs of shapes.
+	 */
+	@Test
+	public void matchesGjk() {
+		DispatchingNarrowphaseDetector detector = new DispatchingNarrowphaseDetector();
+		Gjk gjk = new Gjk();
+		
+		for (int i = 0; i < SHAPES.length; i++) {
+			for (int j = 0; j < SHAPES.length; j++) {
+				// start at 1 to avoid the symmetric configurations where either normal is valid
+				for (int k = 1; k < 50; k++) {
+					Transform t1 = new Transform();
+					t1.rotate(k * 0.41);
+					Transform t2 = new Transform();
+					t2.rotate(k * 0.23);
+					t2.translate(Math.cos(k * 0.7) * (0.2 + k * 0.02), Math.sin(k * 0.7) * (0.2 + k * 0.02));
+					
+					Penetration expected = new Penetration();
+					Penetration actual = new Penetration();
+					boolean collision = gjk.detect(SHAPES[i], t1, SHAPES[j], t2, expected);
+					
+					TestCase.assertEquals(collision, detector.detect(SHAPES[i], t1, SHAPES[j], t2));
+					TestCase.assertEquals(collision, detector.detect(SHAPES[i], t1, SHAPES[j], t2, actual));
+					if (collision) {
+						TestCase.assertEquals(expected.getDepth(), actual.getDepth(), 1.0e-6);
+						TestCase.assertEquals(1.0, actual.getNormal().getMagnitude(), 1.0e-8);
+						TestCase.assertTrue(expected.getNormal().dot(actual.getNormal()) > 0.999);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tests that swapping the shapes only negates the normal.
+	 */
+	@Test
+	public void flipped() {
+		DispatchingNarrowphaseDetector detector = new DispatchingNarrowphaseDetector();
+		Transform t1 = new Transform();
+		Transform t2 = new Transform();
+		t2.rotate(0.3);
+		t2.translate(0.6, 0.25);
+		
+		for (int i = 0; i < SHAPES.length; i++) {
+			for (int j = 0; j < SHAPES.length; j++) {
+				Penetration p1 = new Penetration();
+				Penetration p2 = new Penetration();
+				TestCase.assertTrue(detector.detect(SHAPES[i], t1, SHAPES[j], t2, p1));
+				TestCase.assertTrue(detector.detect(SHAPES[j], t2, SHAPES[i], t1, p2));
+				TestCase.assertEquals(p1.getDepth(), p2.getDepth(), 1.0e-6);
+				TestCase.assertEquals(-1.0, p1.getNormal().dot(p2.getNormal()), 1.0e-6);
+			}
+		}
+	}
+	
+	/**
+	 * Tests that capsules whose inner segments intersect are handled by the fallback detector.
+	 */
+	@Test
+	public void fallback() {
+		DispatchingNarrowphaseDetector detector = new DispatchingNarrowphaseDetector();
+		Gjk gjk = new Gjk();
+		Capsule capsule = Geometry.createCapsule(2.0, 0.5);
+		Transform t2 = new Transform();
+		t2.rotate(Math.toRadians(90));
+		
+		Penetration expected = new Penetration();
+		Penetration actual = new Penetration();
+		TestCase.assertTrue(gjk.detect(capsule, Transform.IDENTITY, capsule, t2, expected));
+		TestCase.assertTrue(detector.detect(capsule, Transform.IDENTITY, capsule, t2, actual));
+		TestCase.assertEquals(expected.getDepth(), actual.getDepth(), 1.0e-8);
+		TestCase.assertEquals(expected.getNormal().x, actual.getNormal().x, 1.0e-8);
+		TestCase.assertEquals(expected.getNormal().y, actual.getNormal().y, 1.0e-8);
+		
+		// a circle centered on the inner segment
+		Penetration penetration = new Penetration();
+		TestCase.assertTrue(detector.detect(capsule, Transform.IDENTITY, Geometry.createCircle(0.1), Transform.IDENTITY, penetration));
+		TestCase.assertTrue(penetration.getDepth() > 0.0);
+	}
+	
+	/**
+	 * Tests that a stale penetration doesn't affect the result.
+	 */
+	@Test
+	public void reusedPenetration() {
+		DispatchingNarrowphaseDetector detector = new DispatchingNarrowphaseDetector();
+		Capsule capsule = Geometry.createCapsule(2.0, 0.5);
+		Transform t2 = new Transform();
+		t2.translate(0.0, 0.25);
+		
+		Penetration penetration = new Penetration(new Vector2(1.0, 0.0), 5.0);
+		TestCase.assertTrue(detector.detect(capsule, Transform.IDENTITY, capsule, t2, penetration));
+		TestCase.assertEquals(0.25, penetration.getDepth(), 1.0e-8);
+		TestCase.assertEquals(0.0, penetration.getNormal().x, 1.0e-8);
+		TestCase.assertEquals(1.0, penetration.getNormal().y, 1.0e-8);
+	}
+	
+	/**
+	 * Tests that the separating axis cache is used for polygon pairs and ignored for the others.
+	 */
+	@Test
+	public void separatingAxisCache() {
+		DispatchingNarrowphaseDetector detector = new DispatchingNarrowphaseDetector();
+		Convex box = Geometry.createSquare(1.0);
+		Transform t2 = new Transform();
+		t2.translate(3.0, 0.0);
+		
+		// separated polygons store the separating axis
+		SeparatingAxisCache cache = new SeparatingAxisCache();
+		TestCase.assertFalse(detector.detect(box, Transform.IDENTITY, box, t2, cache));
+		TestCase.assertTrue(cache.isValid());
+		int index = cache.getIndex();
+		TestCase.assertFalse(detector.detect(box, Transform.IDENTITY, box, t2, new Penetration(), cache));
+		TestCase.assertEquals(index, cache.getIndex());
+		
+		// penetrating polygons store the axis of minimum penetration with the same result
+		t2.translate(-2.5, 0.1);
+		Penetration expected = new Penetration();
+		Penetration actual = new Penetration();
+		TestCase.assertTrue(detector.detect(box, Transform.IDENTITY, box, t2, expected));
+		TestCase.assertTrue(detector.detect(box, Transform.IDENTITY, box, t2, actual, cache));
+		TestCase.assertTrue(cache.isValid());
+		TestCase.assertEquals(expected.getDepth(), actual.getDepth());
+		TestCase.assertEquals(expected.getNormal(), actual.getNormal());
+		
+		// other pairs ignore it
+		SeparatingAxisCache other = new SeparatingAxisCache();
+		Convex circle = Geometry.createCircle(0.5);
+		TestCase.assertTrue(detector.detect(circle, Transform.IDENTITY, circle, t2, new Penetration(), other));
+		Transform t3 = new Transform();
+		t3.translate(5.0, 0.0);
+		TestCase.assertFalse(detector.detect(circle, Transform.IDENTITY, box, t3, other));
+		TestCase.assertFalse(other.isValid());
+	}
+}
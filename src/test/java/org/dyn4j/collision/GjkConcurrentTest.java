@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.collision.narrowphase.Gjk;
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.collision.narrowphase.Separation;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Transform;
+import org.junit.Test;
+
+/**
+ * Test case for using the same {@link Gjk} instance from multiple threads.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class GjkConcurrentTest {
+	/** The number of tests performed by each thread */
+	private static final int COUNT = 2000;
+	
+	/** The shapes */
+	private static final Convex[] SHAPES = new Convex[] {
+		Geometry.createUnitCirclePolygon(5, 0.5),
+		Geometry.createSquare(1.0),
+		Geometry.createEllipse(1.0, 0.5),
+		Geometry.createCapsule(1.0, 0.4)
+	};
+	
+	/**
+	 * Returns the results of the detection and distance methods for a sequence of 
+	 * shapes and transforms.
+	 * @param gjk the detector
+	 * @return double[]
+	 */
+	private static double[] run(Gjk gjk) {
+		double[] results = new double[COUNT * 2];
+		for (int i = 0; i < COUNT; i++) {
+			Convex c1 = SHAPES[i % SHAPES.length];
+			Convex c2 = SHAPES[(i / SHAPES.length) % SHAPES.length];
+			Transform t1 = new Transform();
+			t1.rotate(i * 0.37);
+			t1.translate(Math.cos(i * 0.11) * 1.2, Math.sin(i * 0.13) * 1.2);
+			
+			Penetration penetration = new Penetration();
+			if (gjk.detect(c1, t1, c2, Transform.IDENTITY, penetration)) {
+				results[i * 2] = penetration.getDepth();
+			}
+			Separation separation = new Separation();
+			if (gjk.distance(c1, t1, c2, Transform.IDENTITY, separation)) {
+				results[i * 2 + 1] = separation.getDistance();
+			}
+		}
+		return results;
+	}
+	
+	/**
+	 * Tests that the results are the same whether or not other threads use the detector.
+	 * @throws Exception if the test fails
+	 */
+	@Test
+	public void concurrent() throws Exception {
+		final Gjk gjk = new Gjk();
+		double[] expected = run(gjk);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Callable<double[]>> tasks = new ArrayList<Callable<double[]>>();
+			for (int i = 0; i < 4; i++) {
+				tasks.add(new Callable<double[]>() {
+					@Override
+					public double[] call() {
+						return run(gjk);
+					}
+				});
+			}
+			for (Future<double[]> future : executor.invokeAll(tasks)) {
+				double[] results = future.get();
+				for (int i = 0; i < expected.length; i++) {
+					TestCase.assertEquals(expected[i], results[i]);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.collision.narrowphase.Gjk;
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.collision.narrowphase.Separation;
+import org.dyn4j.collision.narrowphase.SimplexCache;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for warm starting {@link Gjk} using a {@link SimplexCache}.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class GjkSimplexCacheTest {
+	/** The detector */
+	private Gjk gjk;
+	
+	/** The first shape */
+	private Convex c1;
+	
+	/** The second shape */
+	private Convex c2;
+	
+	/**
+	 * Sets up the test.
+	 */
+	@Before
+	public void setup() {
+		this.gjk = new Gjk();
+		this.c1 = Geometry.createUnitCirclePolygon(7, 0.5);
+		this.c2 = Geometry.createRectangle(2.0, 0.5);
+	}
+	
+	/**
+	 * Tests the simplex cache methods.
+	 */
+	@Test
+	public void cache() {
+		SimplexCache cache = new SimplexCache();
+		Transform t = new Transform();
+		t.rotate(Math.toRadians(90.0));
+		TestCase.assertFalse(cache.isValid());
+		TestCase.assertNull(cache.getDirection(t));
+		
+		// the direction follows the rotation of the first transform
+		cache.setDirection(new Vector2(0.0, 1.0), t);
+		TestCase.assertTrue(cache.isValid());
+		Vector2 d = cache.getDirection(Transform.IDENTITY);
+		TestCase.assertEquals(1.0, d.x, 1.0e-8);
+		TestCase.assertEquals(0.0, d.y, 1.0e-8);
+		d = cache.getDirection(t);
+		TestCase.assertEquals(0.0, d.x, 1.0e-8);
+		TestCase.assertEquals(1.0, d.y, 1.0e-8);
+		
+		// a zero direction empties it
+		cache.setDirection(new Vector2(), t);
+		TestCase.assertFalse(cache.isValid());
+		
+		cache.setDirection(new Vector2(0.0, 1.0), t);
+		cache.clear();
+		TestCase.assertFalse(cache.isValid());
+	}
+	
+	/**
+	 * Tests that a warm started detection finds the same results as a cold one 
+	 * while moving the first shape through the second.
+	 */
+	@Test
+	public void detect() {
+		SimplexCache cache = new SimplexCache();
+		Transform t1 = new Transform();
+		Transform t2 = new Transform();
+		t2.rotate(Math.toRadians(15.0));
+		
+		boolean separated = false;
+		boolean overlapped = false;
+		for (int i = 0; i <= 100; i++) {
+			t1.setTranslation(-2.0 + i * 0.04, 0.6 - i * 0.004);
+			t1.rotate(Math.toRadians(2.0));
+			
+			Penetration expected = new Penetration();
+			Penetration penetration = new Penetration();
+			boolean collision = this.gjk.detect(this.c1, t1, this.c2, t2, expected);
+			TestCase.assertEquals(collision, this.gjk.detect(this.c1, t1, this.c2, t2, penetration, cache));
+			TestCase.assertEquals(collision, this.gjk.detect(this.c1, t1, this.c2, t2, cache));
+			if (collision) {
+				overlapped = true;
+				TestCase.assertEquals(expected.getDepth(), penetration.getDepth(), 1.0e-6);
+				TestCase.assertEquals(expected.getNormal().x, penetration.getNormal().x, 1.0e-6);
+				TestCase.assertEquals(expected.getNormal().y, penetration.getNormal().y, 1.0e-6);
+			} else {
+				separated = true;
+				// the last direction is a separating axis
+				TestCase.assertTrue(cache.isValid());
+			}
+		}
+		TestCase.assertTrue(separated);
+		TestCase.assertTrue(overlapped);
+	}
+	
+	/**
+	 * Tests that a warm started distance computation finds the same results as a cold one 
+	 * while moving the first shape around the second.
+	 */
+	@Test
+	public void distance() {
+		SimplexCache cache = new SimplexCache();
+		Transform t1 = new Transform();
+		Transform t2 = new Transform();
+		
+		for (int i = 0; i <= 90; i++) {
+			double a = Math.toRadians(i * 4.0);
+			t1.setTranslation(Math.cos(a) * 1.5, Math.sin(a) * 1.5);
+			t1.rotate(Math.toRadians(3.0));
+			
+			Separation expected = new Separation();
+			Separation separation = new Separation();
+			boolean separated = this.gjk.distance(this.c1, t1, this.c2, t2, expected);
+			TestCase.assertEquals(separated, this.gjk.distance(this.c1, t1, this.c2, t2, separation, cache));
+			if (separated) {
+				TestCase.assertTrue(cache.isValid());
+				TestCase.assertEquals(expected.getDistance(), separation.getDistance(), 1.0e-6);
+				TestCase.assertEquals(expected.getNormal().x, separation.getNormal().x, 1.0e-6);
+				TestCase.assertEquals(expected.getNormal().y, separation.getNormal().y, 1.0e-6);
+			} else {
+				// overlapping shapes empty the cache
+				TestCase.assertFalse(cache.isValid());
+			}
+		}
+		
+		// a stale cache only costs iterations
+		cache.setDirection(new Vector2(-1.0, 0.0), Transform.IDENTITY);
+		t1.setTranslation(3.0, 0.0);
+		Separation expected = new Separation();
+		Separation separation = new Separation();
+		TestCase.assertTrue(this.gjk.distance(this.c1, t1, this.c2, t2, expected));
+		TestCase.assertTrue(this.gjk.distance(this.c1, t1, this.c2, t2, separation, cache));
+		TestCase.assertEquals(expected.getDistance(), separation.getDistance(), 1.0e-6);
+	}
+}
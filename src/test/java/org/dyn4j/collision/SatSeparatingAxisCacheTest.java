@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.collision;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.collision.narrowphase.Sat;
+import org.dyn4j.collision.narrowphase.SeparatingAxisCache;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Transform;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for testing the last separating axis first in {@link Sat} using a {@link SeparatingAxisCache}.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class SatSeparatingAxisCacheTest {
+	/** The detector */
+	private Sat sat;
+	
+	/** The shapes */
+	private Convex[] shapes;
+	
+	/**
+	 * Sets up the test.
+	 */
+	@Before
+	public void setup() {
+		this.sat = new Sat();
+		this.shapes = new Convex[] {
+			Geometry.createUnitCirclePolygon(7, 0.5),
+			Geometry.createRectangle(2.0, 0.5),
+			Geometry.createEquilateralTriangle(1.0),
+			Geometry.createCircle(0.5),
+			Geometry.createCapsule(1.0, 0.4)
+		};
+	}
+	
+	/**
+	 * Tests the separating axis cache methods.
+	 */
+	@Test
+	public void cache() {
+		SeparatingAxisCache cache = new SeparatingAxisCache();
+		TestCase.assertFalse(cache.isValid());
+		TestCase.assertEquals(-1, cache.getIndex());
+		
+		cache.setIndex(3);
+		TestCase.assertTrue(cache.isValid());
+		TestCase.assertEquals(3, cache.getIndex());
+		
+		// a negative index empties it
+		cache.setIndex(-5);
+		TestCase.assertFalse(cache.isValid());
+		TestCase.assertEquals(-1, cache.getIndex());
+		
+		cache.setIndex(1);
+		cache.clear();
+		TestCase.assertFalse(cache.isValid());
+	}
+	
+	/**
+	 * Tests that a detection using the cache finds exactly the same results as one 
+	 * without while moving the first shape through the second.
+	 */
+	@Test
+	public void detect() {
+		for (int i = 0; i < this.shapes.length; i++) {
+			for (int j = 0; j < this.shapes.length; j++) {
+				this.detect(this.shapes[i], this.shapes[j]);
+			}
+		}
+	}
+	
+	/**
+	 * Moves the first shape through the second comparing the results with and without the cache.
+	 * @param c1 the first shape
+	 * @param c2 the second shape
+	 */
+	private void detect(Convex c1, Convex c2) {
+		SeparatingAxisCache cache = new SeparatingAxisCache();
+		Transform t1 = new Transform();
+		Transform t2 = new Transform();
+		t2.rotate(Math.toRadians(15.0));
+		
+		boolean separated = false;
+		boolean overlapped = false;
+		for (int i = 0; i <= 100; i++) {
+			t1.setTranslation(-2.0 + i * 0.04, 0.6 - i * 0.004);
+			t1.rotate(Math.toRadians(2.0));
+			
+			Penetration expected = new Penetration();
+			Penetration penetration = new Penetration();
+			boolean collision = this.sat.detect(c1, t1, c2, t2, expected);
+			TestCase.assertEquals(collision, this.sat.detect(c1, t1, c2, t2, penetration, cache));
+			TestCase.assertEquals(collision, this.sat.detect(c1, t1, c2, t2, cache));
+			if (collision) {
+				overlapped = true;
+				TestCase.assertEquals(expected.getDepth(), penetration.getDepth());
+				TestCase.assertEquals(expected.getNormal(), penetration.getNormal());
+			} else {
+				separated = true;
+			}
+			// the separating or minimum penetration axis is stored, except for two circles
+			TestCase.assertEquals(c1 != this.shapes[3] || c2 != this.shapes[3], cache.isValid());
+		}
+		TestCase.assertTrue(separated);
+		TestCase.assertTrue(overlapped);
+	}
+	
+	/**
+	 * Tests that the separating axis is tested first and that a stale cache doesn't change the results.
+	 */
+	@Test
+	public void stale() {
+		SeparatingAxisCache cache = new SeparatingAxisCache();
+		Convex c1 = this.shapes[1];
+		Convex c2 = this.shapes[0];
+		Transform t1 = new Transform();
+		Transform t2 = new Transform();
+		t2.translate(0.0, 2.0);
+		
+		// separated along the second normal of the rectangle
+		TestCase.assertFalse(this.sat.detect(c1, t1, c2, t2, cache));
+		TestCase.assertEquals(1, cache.getIndex());
+		
+		// still separated along the same axis
+		t2.translate(0.5, 0.0);
+		TestCase.assertFalse(this.sat.detect(c1, t1, c2, t2, new Penetration(), cache));
+		TestCase.assertEquals(1, cache.getIndex());
+		
+		// indices that don't exist or don't separate are ignored
+		t2.setTranslation(0.0, 0.5);
+		Penetration expected = new Penetration();
+		TestCase.assertTrue(this.sat.detect(c1, t1, c2, t2, expected));
+		for (int i = 0; i < 20; i++) {
+			cache.setIndex(i);
+			Penetration penetration = new Penetration();
+			TestCase.assertTrue(this.sat.detect(c1, t1, c2, t2, penetration, cache));
+			TestCase.assertEquals(expected.getDepth(), penetration.getDepth());
+			TestCase.assertEquals(expected.getNormal(), penetration.getNormal());
+		}
+	}
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.dynamics.contact.BatchedImpulses;
+import org.dyn4j.dynamics.contact.SequentialImpulses;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link BatchedImpulses} class.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class BatchedImpulsesTest {
+	/**
+	 * Returns a new world with a static ground.
+	 * @param bodyStateStore true if the body state store should be enabled
+	 * @return {@link World}
+	 */
+	private static World createWorld(boolean bodyStateStore) {
+		World world = new World();
+		world.getSettings().setAutoSleepingEnabled(false);
+		world.getSettings().setBodyStateStoreEnabled(bodyStateStore);
+		
+		Body ground = new Body();
+		ground.addFixture(Geometry.createRectangle(40.0, 1.0));
+		ground.setMass(MassType.INFINITE);
+		ground.translate(0.0, -0.5);
+		world.addBody(ground);
+		
+		return world;
+	}
+	
+	/**
+	 * Adds a column of boxes to the given world.
+	 * @param world the world
+	 * @param x the x coordinate of the column
+	 * @param height the number of boxes
+	 */
+	private static void addStack(World world, double x, int height) {
+		for (int i = 0; i < height; i++) {
+			Body box = new Body();
+			box.addFixture(Geometry.createSquare(1.0), 1.0, 0.6, 0.0);
+			box.setMass(MassType.NORMAL);
+			box.translate(x, 0.5 + i);
+			world.addBody(box);
+		}
+	}
+	
+	/**
+	 * Tests that constraints sharing a body are placed in different batches.
+	 */
+	@Test
+	public void batches() {
+		World world = createWorld(true);
+		BatchedImpulses solver = new BatchedImpulses();
+		world.setContactConstraintSolver(solver);
+		
+		// three boxes on the ground: ground-1, 1-2 and 2-3
+		addStack(world, 0.0, 3);
+		world.step(10);
+		
+		// ground-1 and 2-3 can be solved together, 1-2 can't
+		TestCase.assertEquals(2, solver.getBatchCount());
+		
+		// two separate stacks only share the static ground
+		world = createWorld(true);
+		solver = new BatchedImpulses();
+		world.setContactConstraintSolver(solver);
+		addStack(world, -5.0, 3);
+		addStack(world, 5.0, 3);
+		world.step(10);
+		
+		TestCase.assertEquals(2, solver.getBatchCount());
+	}
+	
+	/**
+	 * Tests that independent contacts give the same result as {@link SequentialImpulses}.
+	 */
+	@Test
+	public void independentContacts() {
+		World w1 = createWorld(true);
+		World w2 = createWorld(true);
+		w2.setContactConstraintSolver(new BatchedImpulses());
+		
+		// a row of separate circles with some horizontal velocity
+		for (int i = 0; i < 10; i++) {
+			for (World world : new World[] { w1, w2 }) {
+				Body circle = new Body();
+				circle.addFixture(Geometry.createCircle(0.5), 1.0, 0.4, 0.2);
+				circle.setMass(MassType.NORMAL);
+				circle.translate(i * 2.0 - 10.0, 0.5 + i * 0.1);
+				circle.setLinearVelocity(i * 0.1, 0.0);
+				world.addBody(circle);
+			}
+		}
+		
+		for (int i = 0; i < 120; i++) {
+			w1.step(1);
+			w2.step(1);
+		}
+		
+		for (int i = 1; i < w1.getBodyCount(); i++) {
+			Body b1 = w1.getBody(i);
+			Body b2 = w2.getBody(i);
+			TestCase.assertEquals(b1.getWorldCenter().x, b2.getWorldCenter().x, 1.0e-8);
+			TestCase.assertEquals(b1.getWorldCenter().y, b2.getWorldCenter().y, 1.0e-8);
+			TestCase.assertEquals(b1.getTransform().getRotation(), b2.getTransform().getRotation(), 1.0e-8);
+		}
+	}
+	
+	/**
+	 * Tests that a stack of boxes comes to rest without toppling.
+	 */
+	@Test
+	public void stack() {
+		World world = createWorld(true);
+		world.setContactConstraintSolver(new BatchedImpulses());
+		
+		int height = 10;
+		addStack(world, 0.0, height);
+		
+		for (int i = 0; i < 300; i++) {
+			world.step(1);
+		}
+		
+		for (int i = 1; i <= height; i++) {
+			Body box = world.getBody(i);
+			Vector2 c = box.getWorldCenter();
+			TestCase.assertEquals(0.0, c.x, 0.05);
+			TestCase.assertEquals(0.5 + (i - 1), c.y, 0.1);
+			TestCase.assertEquals(0.0, box.getLinearVelocity().getMagnitude(), 0.05);
+		}
+	}
+	
+	/**
+	 * Tests that solving islands concurrently with one solver gives the same result
+	 * as solving them serially.
+	 */
+	@Test
+	public void islandExecutor() {
+		World serial = createWorld(true);
+		World parallel = createWorld(true);
+		serial.setContactConstraintSolver(new BatchedImpulses());
+		parallel.setContactConstraintSolver(new BatchedImpulses());
+		
+		// many separate stacks, each an island, on a wide floor
+		for (World world : new World[] { serial, parallel }) {
+			Body floor = new Body();
+			floor.addFixture(Geometry.createRectangle(200.0, 1.0));
+			floor.setMass(MassType.INFINITE);
+			floor.translate(0.0, -0.5);
+			world.addBody(floor);
+			for (int i = 0; i < 40; i++) {
+				double x = 25.0 + i * 3.0 - 60.0;
+				for (int j = 0; j < 5; j++) {
+					Body box = new Body();
+					box.addFixture(Geometry.createSquare(1.0), 1.0, 0.6, 0.0);
+					box.setMass(MassType.NORMAL);
+					box.translate(x + j * 0.05 * (i % 3), 0.5 + j * 1.02);
+					world.addBody(box);
+				}
+			}
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			parallel.setIslandExecutor(executor);
+			for (int i = 0; i < 200; i++) {
+				serial.step(1);
+				parallel.step(1);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		
+		int n = serial.getBodyCount();
+		for (int i = 0; i < n; i++) {
+			Body b1 = serial.getBody(i);
+			Body b2 = parallel.getBody(i);
+			TestCase.assertEquals(b1.getTransform().getTranslationX(), b2.getTransform().getTranslationX());
+			TestCase.assertEquals(b1.getTransform().getTranslationY(), b2.getTransform().getTranslationY());
+			TestCase.assertEquals(b1.getTransform().getRotation(), b2.getTransform().getRotation());
+			TestCase.assertEquals(b1.getLinearVelocity().x, b2.getLinearVelocity().x);
+			TestCase.assertEquals(b1.getLinearVelocity().y, b2.getLinearVelocity().y);
+		}
+	}
+	
+	/**
+	 * Tests that the solver behaves exactly as {@link SequentialImpulses} without the
+	 * body state store.
+	 */
+	@Test
+	public void withoutBodyStateStore() {
+		World w1 = createWorld(false);
+		World w2 = createWorld(false);
+		w2.setContactConstraintSolver(new BatchedImpulses());
+		addStack(w1, 0.0, 5);
+		addStack(w2, 0.0, 5);
+		
+		for (int i = 0; i < 60; i++) {
+			w1.step(1);
+			w2.step(1);
+		}
+		
+		for (int i = 1; i < w1.getBodyCount(); i++) {
+			Body b1 = w1.getBody(i);
+			Body b2 = w2.getBody(i);
+			TestCase.assertEquals(b1.getTransform().getTranslationX(), b2.getTransform().getTranslationX());
+			TestCase.assertEquals(b1.getTransform().getTranslationY(), b2.getTransform().getTranslationY());
+			TestCase.assertEquals(b1.getLinearVelocity().y, b2.getLinearVelocity().y);
+		}
+	}
+}
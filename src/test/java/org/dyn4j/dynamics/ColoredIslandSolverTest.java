@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.dynamics.contact.ContactConstraint;
+import org.dyn4j.dynamics.joint.Joint;
+import org.dyn4j.dynamics.joint.RevoluteJoint;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link ColoredIslandSolver} class and {@link World#setConstraintExecutor(ExecutorService)}.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class ColoredIslandSolverTest {
+	/**
+	 * Returns a new world containing a single large island: a pyramid of boxes with
+	 * a chain of links hanging from the top box.
+	 * @return {@link World}
+	 */
+	private static World createWorld() {
+		World world = new World();
+		world.getSettings().setAutoSleepingEnabled(false);
+		
+		Body ground = new Body();
+		ground.addFixture(Geometry.createRectangle(40.0, 1.0));
+		ground.setMass(MassType.INFINITE);
+		ground.translate(0.0, -0.5);
+		world.addBody(ground);
+		
+		int rows = 12;
+		Body top = null;
+		for (int row = 0; row < rows; row++) {
+			int count = rows - row;
+			for (int i = 0; i < count; i++) {
+				Body box = new Body();
+				box.addFixture(Geometry.createSquare(1.0));
+				box.setMass(MassType.NORMAL);
+				box.translate(-count * 0.5 + 0.5 + i, 0.5 + row);
+				world.addBody(box);
+				top = box;
+			}
+		}
+		
+		Body previous = top;
+		for (int i = 0; i < 5; i++) {
+			Body link = new Body();
+			link.addFixture(Geometry.createRectangle(0.5, 0.1));
+			link.setMass(MassType.NORMAL);
+			link.translate(0.25 + i * 0.5, rows - 0.5);
+			world.addBody(link);
+			world.addJoint(new RevoluteJoint(previous, link, new Vector2(i * 0.5, rows - 0.5)));
+			previous = link;
+		}
+		
+		return world;
+	}
+	
+	/**
+	 * Steps the given world with the given number of threads.
+	 * @param world the world
+	 * @param threads the number of threads; zero to solve serially
+	 * @param steps the number of steps
+	 */
+	private static void step(World world, int threads, int steps) {
+		ExecutorService executor = threads > 0 ? Executors.newFixedThreadPool(threads) : null;
+		try {
+			world.setConstraintExecutor(executor);
+			world.step(steps);
+		} finally {
+			if (executor != null) executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Tests the coloring of the constraints of an island.
+	 */
+	@Test
+	public void color() {
+		World world = createWorld();
+		world.step(10);
+		
+		// build the island by hand
+		Island island = new Island();
+		for (int i = 0; i < world.getBodyCount(); i++) {
+			island.add(world.getBody(i));
+		}
+		for (int i = 0; i < world.getJointCount(); i++) {
+			island.add(world.getJoint(i));
+		}
+		Set<ContactConstraint> contactConstraints = Collections.newSetFromMap(new IdentityHashMap<ContactConstraint, Boolean>());
+		for (int i = 0; i < world.getBodyCount(); i++) {
+			for (ContactEdge edge : world.getBody(i).contacts) {
+				if (contactConstraints.add(edge.interaction)) {
+					island.add(edge.interaction);
+				}
+			}
+		}
+		
+		// no two constraints of the same color share a dynamic body
+		ColoredIslandSolver colored = new ColoredIslandSolver();
+		colored.color(island);
+		List<List<Joint>> joints = colored.getJoints();
+		TestCase.assertTrue(colored.getColorCount() > 1);
+		TestCase.assertTrue(colored.getColorCount() <= ColoredIslandSolver.MAXIMUM_COLOR_COUNT);
+		for (int c = 0; c < colored.getColorCount(); c++) {
+			Set<Body> bodies = new HashSet<Body>();
+			int count = 0;
+			for (Joint joint : joints.get(c)) {
+				count += add(bodies, joint.getBody1(), joint.getBody2());
+			}
+			for (ContactConstraint contactConstraint : colored.getContactConstraints().get(c)) {
+				count += add(bodies, contactConstraint.getBody1(), contactConstraint.getBody2());
+			}
+			TestCase.assertEquals(count, bodies.size());
+		}
+		
+		colored.clear();
+		TestCase.assertEquals(0, colored.getColorCount());
+	}
+	
+	/**
+	 * Adds the dynamic bodies to the given set.
+	 * @param bodies the set
+	 * @param body1 the first body
+	 * @param body2 the second body
+	 * @return int the number of dynamic bodies
+	 */
+	private static int add(Set<Body> bodies, Body body1, Body body2) {
+		int count = 0;
+		if (!body1.getMass().isInfinite()) {
+			bodies.add(body1);
+			count++;
+		}
+		if (!body2.getMass().isInfinite()) {
+			bodies.add(body2);
+			count++;
+		}
+		return count;
+	}
+	
+	/**
+	 * Tests that the result is the same for any number of threads.
+	 */
+	@Test
+	public void deterministic() {
+		World w1 = createWorld();
+		World w2 = createWorld();
+		World w4 = createWorld();
+		
+		step(w1, 1, 60);
+		step(w2, 2, 60);
+		step(w4, 4, 60);
+		
+		for (int i = 0; i < w1.getBodyCount(); i++) {
+			Body b1 = w1.getBody(i);
+			Body b2 = w2.getBody(i);
+			Body b4 = w4.getBody(i);
+			TestCase.assertEquals(b1.getTransform().getTranslationX(), b2.getTransform().getTranslationX());
+			TestCase.assertEquals(b1.getTransform().getTranslationY(), b2.getTransform().getTranslationY());
+			TestCase.assertEquals(b1.getTransform().getRotation(), b2.getTransform().getRotation());
+			TestCase.assertEquals(b1.getTransform().getTranslationX(), b4.getTransform().getTranslationX());
+			TestCase.assertEquals(b1.getTransform().getTranslationY(), b4.getTransform().getTranslationY());
+			TestCase.assertEquals(b1.getTransform().getRotation(), b4.getTransform().getRotation());
+		}
+	}
+	
+	/**
+	 * Tests that the pyramid stays standing when solved concurrently.
+	 */
+	@Test
+	public void stable() {
+		World serial = createWorld();
+		World parallel = createWorld();
+		
+		step(serial, 0, 120);
+		step(parallel, 4, 120);
+		
+		// compare the boxes; the swinging chain is too sensitive to the solve order
+		for (int i = 0; i < serial.getBodyCount() - 5; i++) {
+			Vector2 c1 = serial.getBody(i).getWorldCenter();
+			Vector2 c2 = parallel.getBody(i).getWorldCenter();
+			TestCase.assertEquals(c1.x, c2.x, 0.05);
+			TestCase.assertEquals(c1.y, c2.y, 0.05);
+		}
+	}
+	
+	/**
+	 * Tests using the same executor for the islands and the constraints.
+	 */
+	@Test
+	public void sameExecutor() {
+		World world = createWorld();
+		
+		// add a second island
+		Body box = new Body();
+		box.addFixture(Geometry.createSquare(1.0));
+		box.setMass(MassType.NORMAL);
+		box.translate(15.0, 0.5);
+		world.addBody(box);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			world.setIslandExecutor(executor);
+			world.setConstraintExecutor(executor);
+			world.step(30);
+		} finally {
+			executor.shutdown();
+		}
+		
+		TestCase.assertEquals(0.5, box.getWorldCenter().y, 0.05);
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2010-2016 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.collision.manifold.ClippingManifoldSolver;
+import org.dyn4j.collision.manifold.Manifold;
+import org.dyn4j.collision.narrowphase.Gjk;
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.dynamics.contact.Contact;
+import org.dyn4j.dynamics.contact.ContactConstraint;
+import org.dyn4j.dynamics.contact.ContactConstraintPool;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Used to test the {@link ContactConstraintPool} class.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class ContactConstraintPoolTest {
+	/** The first body */
+	private Body body1;
+	
+	/** The second body */
+	private Body body2;
+	
+	/** The manifold between the bodies */
+	private Manifold manifold;
+	
+	/**
+	 * Sets up two overlapping bodies and their manifold.
+	 */
+	@Before
+	public void setup() {
+		this.body1 = new Body();
+		this.body1.addFixture(Geometry.createUnitCirclePolygon(5, 1.0));
+		this.body1.setMass(MassType.NORMAL);
+		
+		this.body2 = new Body();
+		this.body2.addFixture(Geometry.createUnitCirclePolygon(5, 1.0));
+		this.body2.setMass(MassType.NORMAL);
+		this.body2.translate(1.5, 0.0);
+		
+		Penetration penetration = new Penetration();
+		new Gjk().detect(this.body1.getFixture(0).getShape(), this.body1.getTransform(), this.body2.getFixture(0).getShape(), this.body2.getTransform(), penetration);
+		this.manifold = new Manifold();
+		new ClippingManifoldSolver().getManifold(penetration, this.body1.getFixture(0).getShape(), this.body1.getTransform(), this.body2.getFixture(0).getShape(), this.body2.getTransform(), this.manifold);
+		TestCase.assertFalse(this.manifold.getPoints().isEmpty());
+	}
+	
+	/**
+	 * Returns a contact constraint from the given pool.
+	 * @param pool the pool
+	 * @return {@link ContactConstraint}
+	 */
+	private ContactConstraint get(ContactConstraintPool pool) {
+		return pool.getContactConstraint(this.body1, this.body1.getFixture(0), this.body2, this.body2.getFixture(0), this.manifold, 0.5, 0.1);
+	}
+	
+	/**
+	 * Tests that contact constraints are only reused after two updates.
+	 */
+	@Test
+	public void reuse() {
+		ContactConstraintPool pool = new ContactConstraintPool();
+		
+		ContactConstraint cc1 = this.get(pool);
+		ContactConstraint cc2 = this.get(pool);
+		TestCase.assertEquals(2, pool.getInUseCount());
+		TestCase.assertEquals(0, pool.getAvailableCount());
+		TestCase.assertEquals(2, pool.getHighWaterMark());
+		
+		// the first generation is still in use
+		pool.update();
+		TestCase.assertEquals(2, pool.getInUseCount());
+		TestCase.assertEquals(0, pool.getAvailableCount());
+		ContactConstraint cc3 = this.get(pool);
+		TestCase.assertNotSame(cc1, cc3);
+		TestCase.assertNotSame(cc2, cc3);
+		TestCase.assertEquals(3, pool.getHighWaterMark());
+		
+		// the first generation can be reused
+		pool.update();
+		TestCase.assertEquals(1, pool.getInUseCount());
+		TestCase.assertEquals(2, pool.getAvailableCount());
+		ContactConstraint cc4 = this.get(pool);
+		TestCase.assertTrue(cc4 == cc1 || cc4 == cc2);
+		TestCase.assertEquals(2, pool.getInUseCount());
+		TestCase.assertEquals(1, pool.getAvailableCount());
+		TestCase.assertEquals(3, pool.getHighWaterMark());
+		
+		pool.clear();
+		TestCase.assertEquals(0, pool.getInUseCount());
+		TestCase.assertEquals(0, pool.getAvailableCount());
+		TestCase.assertEquals(0, pool.getHighWaterMark());
+	}
+	
+	/**
+	 * Tests that a reused contact constraint is fully reinitialized.
+	 */
+	@Test
+	public void reinitialize() {
+		ContactConstraintPool pool = new ContactConstraintPool();
+		
+		ContactConstraint cc1 = this.get(pool);
+		cc1.setEnabled(false);
+		cc1.setSensor(true);
+		cc1.setTangentSpeed(2.0);
+		
+		pool.update();
+		pool.update();
+		
+		ContactConstraint cc2 = pool.getContactConstraint(this.body2, this.body2.getFixture(0), this.body1, this.body1.getFixture(0), this.manifold, 0.2, 0.3);
+		ContactConstraint cc3 = new ContactConstraint(this.body2, this.body2.getFixture(0), this.body1, this.body1.getFixture(0), this.manifold, 0.2, 0.3);
+		TestCase.assertSame(cc1, cc2);
+		TestCase.assertSame(this.body2, cc2.getBody1());
+		TestCase.assertSame(this.body1, cc2.getBody2());
+		TestCase.assertEquals(cc3.getId(), cc2.getId());
+		TestCase.assertTrue(cc2.isEnabled());
+		TestCase.assertFalse(cc2.isSensor());
+		TestCase.assertEquals(0.0, cc2.getTangentSpeed());
+		TestCase.assertEquals(0.2, cc2.getFriction());
+		TestCase.assertEquals(0.3, cc2.getRestitution());
+		TestCase.assertEquals(cc3.getTangent(), cc2.getTangent());
+		TestCase.assertEquals(cc3.getContacts().size(), cc2.getContacts().size());
+		for (int i = 0; i < cc3.getContacts().size(); i++) {
+			Contact c2 = cc2.getContacts().get(i);
+			Contact c3 = cc3.getContacts().get(i);
+			TestCase.assertEquals(c3.getPoint(), c2.getPoint());
+			TestCase.assertEquals(c3.getDepth(), c2.getDepth());
+			TestCase.assertEquals(0.0, c2.getNormalImpulse());
+			TestCase.assertEquals(0.0, c2.getTangentialImpulse());
+		}
+	}
+	
+	/**
+	 * Tests the pool with null bodies.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void getNullBody() {
+		ContactConstraintPool pool = new ContactConstraintPool();
+		this.get(pool);
+		pool.update();
+		pool.update();
+		pool.getContactConstraint(null, this.body1.getFixture(0), this.body2, this.body2.getFixture(0), this.manifold, 0.5, 0.1);
+	}
+	
+	/**
+	 * Tests that retained contact constraints are not reused.
+	 */
+	@Test
+	public void retain() {
+		ContactConstraintPool pool = new ContactConstraintPool();
+		
+		ContactConstraint cc1 = this.get(pool);
+		ContactConstraint cc2 = this.get(pool);
+		pool.update();
+		pool.retain(cc1);
+		pool.update();
+		
+		// only the other one is available
+		TestCase.assertEquals(1, pool.getAvailableCount());
+		TestCase.assertEquals(0, pool.getInUseCount());
+		TestCase.assertSame(this.body1, cc1.getBody1());
+		TestCase.assertSame(this.body2, cc1.getBody2());
+		TestCase.assertSame(cc2, this.get(pool));
+		TestCase.assertNotSame(cc1, this.get(pool));
+	}
+}
@@ -408,4 +408,142 @@ public class ContactManagerTest {
 	public void createSuccessNullCapacity() {
 		new DefaultContactManager(null);
 	}
+	
+	/**
+	 * Creates a contact constraint with one contact between the given bodies and fixtures.
+	 * @param b1 the first body
+	 * @param f1 the first body's fixture
+	 * @param b2 the second body
+	 * @param f2 the second body's fixture
+	 * @return {@link ContactConstraint}
+	 */
+	private static ContactConstraint createContactConstraint(Body b1, BodyFixture f1, Body b2, BodyFixture f2) {
+		List<ManifoldPoint> points = new ArrayList<ManifoldPoint>(1);
+		points.add(new ManifoldPoint(ManifoldPointId.DISTANCE, new Vector2(), 1.0));
+		return new ContactConstraint(b1, f1, b2, f2, new Manifold(points, new Vector2(1.0, 0.0)), 0, 0);
+	}
+	
+	/**
+	 * Tests the persistence of many contact constraints, including ones between
+	 * bodies sharing the same fixture and ones reported in the opposite order.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void persistMany() {
+		final int n = 40;
+		final Body[] bodies = new Body[n];
+		BodyFixture[] fixtures = new BodyFixture[n];
+		BodyFixture shared = new BodyFixture(Geometry.createCircle(1.0));
+		for (int i = 0; i < n; i++) {
+			bodies[i] = new Body();
+			fixtures[i] = new BodyFixture(Geometry.createCircle(1.0));
+		}
+		
+		CMTContactListener listener = new CMTContactListener();
+		List<ContactListener> listeners = new ArrayList<ContactListener>();
+		listeners.add(listener);
+		Settings settings = new Settings();
+		
+		ContactManager cm = new DefaultContactManager();
+		// every pair of bodies, plus a contact using the shared fixture for
+		// neighboring bodies which only differs from another by the bodies
+		int count = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				cm.queue(createContactConstraint(bodies[i], fixtures[i], bodies[j], fixtures[j]));
+				count++;
+			}
+			if (i + 1 < n) {
+				cm.queue(createContactConstraint(bodies[i], shared, bodies[i + 1], shared));
+				count++;
+			}
+		}
+		cm.updateAndNotify(listeners, settings);
+		TestCase.assertEquals(count, cm.getContactCount());
+		TestCase.assertEquals(count, listener.added);
+		TestCase.assertEquals(0, listener.persisted);
+		listener.clear();
+		
+		// queue only the pairs of bodies with even indices with the bodies reversed
+		int kept = 0;
+		for (int i = 0; i < n; i += 2) {
+			for (int j = i + 2; j < n; j += 2) {
+				cm.queue(createContactConstraint(bodies[j], fixtures[j], bodies[i], fixtures[i]));
+				kept++;
+			}
+		}
+		// and one new contact
+		cm.queue(createContactConstraint(bodies[0], shared, bodies[2], shared));
+		cm.updateAndNotify(listeners, settings);
+		TestCase.assertEquals(kept + 1, cm.getContactCount());
+		TestCase.assertEquals(kept, listener.persisted);
+		TestCase.assertEquals(1, listener.added);
+		TestCase.assertEquals(count - kept, listener.removed);
+		listener.clear();
+		
+		// ending a contact removes it
+		TestCase.assertTrue(cm.end(createContactConstraint(bodies[2], fixtures[2], bodies[0], fixtures[0])));
+		TestCase.assertFalse(cm.end(createContactConstraint(bodies[2], fixtures[2], bodies[0], fixtures[0])));
+		TestCase.assertFalse(cm.end(createContactConstraint(bodies[1], fixtures[1], bodies[0], fixtures[0])));
+		TestCase.assertEquals(kept, cm.getContactCount());
+		
+		// disallowing contacts in pre-solve removes them
+		List<ContactListener> preSolve = new ArrayList<ContactListener>();
+		preSolve.add(new ContactAdapter() {
+			@Override
+			public boolean preSolve(ContactPoint point) {
+				return point.getBody1() != bodies[4] && point.getBody2() != bodies[4];
+			}
+		});
+		cm.preSolveNotify(preSolve);
+		int remaining = cm.getContactCount();
+		// bodies[4] was in contact with the other 19 even bodies
+		TestCase.assertEquals(kept - 19, remaining);
+		cm.postSolveNotify(listeners);
+		TestCase.assertEquals(remaining, listener.postSolve);
+	}
+	
+	/**
+	 * Tests that queuing the same contact constraint again keeps it without notification.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void requeue() {
+		Body b1 = new Body();
+		Body b2 = new Body();
+		BodyFixture f1 = new BodyFixture(Geometry.createCircle(1.0));
+		BodyFixture f2 = new BodyFixture(Geometry.createCircle(1.0));
+		ContactConstraint cc = createContactConstraint(b1, f1, b2, f2);
+		
+		CMTContactListener listener = new CMTContactListener();
+		List<ContactListener> listeners = new ArrayList<ContactListener>();
+		listeners.add(listener);
+		Settings settings = new Settings();
+		
+		ContactManager cm = new DefaultContactManager();
+		cm.queue(cc);
+		cm.updateAndNotify(listeners, settings);
+		TestCase.assertEquals(1, listener.added);
+		listener.clear();
+		
+		for (int i = 0; i < 3; i++) {
+			cm.queue(cc);
+			cm.updateAndNotify(listeners, settings);
+			TestCase.assertEquals(1, cm.getContactCount());
+			TestCase.assertEquals(0, listener.added);
+			TestCase.assertEquals(0, listener.persisted);
+			TestCase.assertEquals(0, listener.removed);
+		}
+		
+		// a new contact constraint between the same fixtures is persisted
+		cm.queue(createContactConstraint(b1, f1, b2, f2));
+		cm.updateAndNotify(listeners, settings);
+		TestCase.assertEquals(1, cm.getContactCount());
+		TestCase.assertEquals(1, listener.persisted);
+		
+		// and no longer queuing it removes it
+		cm.updateAndNotify(listeners, settings);
+		TestCase.assertEquals(0, cm.getContactCount());
+		TestCase.assertEquals(1, listener.removed);
+	}
 }
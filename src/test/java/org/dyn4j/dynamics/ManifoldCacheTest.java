@@ -0,0 +1,617 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.collision.manifold.ClippingManifoldSolver;
+import org.dyn4j.collision.manifold.Manifold;
+import org.dyn4j.collision.manifold.ManifoldPoint;
+import org.dyn4j.collision.narrowphase.DispatchingNarrowphaseDetector;
+import org.dyn4j.collision.narrowphase.FallbackNarrowphaseDetector;
+import org.dyn4j.collision.narrowphase.Gjk;
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.collision.narrowphase.Sat;
+import org.dyn4j.collision.narrowphase.SeparatingAxisCache;
+import org.dyn4j.collision.narrowphase.SimplexCache;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link ManifoldCache} class.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class ManifoldCacheTest {
+	/** The linear tolerance used */
+	private static final double LINEAR_TOLERANCE = 0.01;
+	
+	/** The angular tolerance used */
+	private static final double ANGULAR_TOLERANCE = Math.toRadians(1.0);
+	
+	/** The cache */
+	private ManifoldCache cache;
+	
+	/** The first body; a box resting on the second */
+	private Body body1;
+	
+	/** The second body; the ground */
+	private Body body2;
+	
+	/**
+	 * Sets up the bodies and the cache.
+	 */
+	@Before
+	public void setup() {
+		this.cache = new ManifoldCache(1);
+		
+		this.body1 = new Body();
+		this.body1.addFixture(Geometry.createSquare(1.0));
+		this.body1.setMass(MassType.NORMAL);
+		this.body1.translate(0.0, 0.99);
+		
+		this.body2 = new Body();
+		this.body2.addFixture(Geometry.createRectangle(10.0, 1.0));
+		this.body2.setMass(MassType.INFINITE);
+		this.body2.translate(0.0, 0.0);
+	}
+	
+	/**
+	 * Detects the bodies and stores the result in the cache.
+	 * @return {@link Manifold}
+	 */
+	private Manifold put() {
+		Penetration penetration = new Penetration();
+		Manifold manifold = new Manifold();
+		TestCase.assertTrue(new Gjk().detect(
+				this.body1.getFixture(0).getShape(), this.body1.getTransform(), 
+				this.body2.getFixture(0).getShape(), this.body2.getTransform(), penetration));
+		Vector2 normal = penetration.getNormal().copy();
+		TestCase.assertTrue(new ClippingManifoldSolver().getManifold(penetration, 
+				this.body1.getFixture(0).getShape(), this.body1.getTransform(), 
+				this.body2.getFixture(0).getShape(), this.body2.getTransform(), manifold));
+		this.cache.put(this.body1, this.body1.getFixture(0), this.body2, this.body2.getFixture(0), normal, penetration.getDepth(), manifold);
+		return manifold;
+	}
+	
+	/**
+	 * Looks up the cached result of the bodies.
+	 * @param penetration the penetration to fill in
+	 * @param manifold the manifold to fill in
+	 * @return boolean
+	 */
+	private boolean get(Penetration penetration, Manifold manifold) {
+		return this.cache.get(this.body1, this.body1.getFixture(0), this.body2, this.body2.getFixture(0), LINEAR_TOLERANCE, ANGULAR_TOLERANCE, penetration, manifold);
+	}
+	
+	/**
+	 * Tests reusing a manifold when the bodies haven't moved.
+	 */
+	@Test
+	public void getUnmoved() {
+		Penetration penetration = new Penetration();
+		Manifold manifold = new Manifold();
+		TestCase.assertFalse(this.get(penetration, manifold));
+		
+		Manifold expected = this.put();
+		TestCase.assertEquals(1, this.cache.size());
+		TestCase.assertTrue(this.get(penetration, manifold));
+		
+		TestCase.assertEquals(0.01, penetration.getDepth(), 1.0e-8);
+		TestCase.assertEquals(expected.getNormal().x, manifold.getNormal().x, 1.0e-8);
+		TestCase.assertEquals(expected.getNormal().y, manifold.getNormal().y, 1.0e-8);
+		TestCase.assertEquals(expected.getPoints().size(), manifold.getPoints().size());
+		for (int i = 0; i < expected.getPoints().size(); i++) {
+			ManifoldPoint e = expected.getPoints().get(i);
+			ManifoldPoint a = manifold.getPoints().get(i);
+			TestCase.assertSame(e.getId(), a.getId());
+			TestCase.assertEquals(e.getDepth(), a.getDepth(), 1.0e-8);
+			TestCase.assertEquals(e.getPoint().x, a.getPoint().x, 1.0e-8);
+			TestCase.assertEquals(e.getPoint().y, a.getPoint().y, 1.0e-8);
+		}
+	}
+	
+	/**
+	 * Tests re-projecting a manifold when the bodies moved less than the tolerances.
+	 */
+	@Test
+	public void getReprojected() {
+		this.put();
+		
+		// move the box up along the normal and sideways
+		this.body1.translate(0.004, 0.005);
+		this.body2.rotateAboutCenter(Math.toRadians(0.1));
+		this.body1.rotate(Math.toRadians(0.1), this.body2.getWorldCenter());
+		
+		Penetration penetration = new Penetration();
+		Manifold manifold = new Manifold();
+		TestCase.assertTrue(this.get(penetration, manifold));
+		
+		// the depths are reduced by the motion along the normal
+		TestCase.assertEquals(0.005, penetration.getDepth(), 1.0e-6);
+		for (ManifoldPoint mp : manifold.getPoints()) {
+			TestCase.assertEquals(0.005, mp.getDepth(), 1.0e-6);
+		}
+		// the normals follow the first body
+		Vector2 n = penetration.getNormal();
+		TestCase.assertEquals(1.0, n.getMagnitude(), 1.0e-8);
+		TestCase.assertEquals(Math.toRadians(-89.9), n.getDirection(), 1.0e-8);
+		
+		// compare to a new detection; the points may be on either surface
+		Manifold expected = this.put();
+		TestCase.assertEquals(expected.getPoints().size(), manifold.getPoints().size());
+		for (int i = 0; i < expected.getPoints().size(); i++) {
+			ManifoldPoint e = expected.getPoints().get(i);
+			ManifoldPoint a = manifold.getPoints().get(i);
+			TestCase.assertEquals(e.getDepth(), a.getDepth(), 1.0e-6);
+			TestCase.assertEquals(e.getPoint().x, a.getPoint().x, LINEAR_TOLERANCE);
+			TestCase.assertEquals(e.getPoint().y, a.getPoint().y, LINEAR_TOLERANCE);
+		}
+	}
+	
+	/**
+	 * Tests that the cached manifold isn't used when the bodies moved more than the tolerances.
+	 */
+	@Test
+	public void getMoved() {
+		Penetration penetration = new Penetration();
+		Manifold manifold = new Manifold();
+		
+		this.put();
+		this.body1.translate(0.011, 0.0);
+		TestCase.assertFalse(this.get(penetration, manifold));
+		TestCase.assertNull(manifold.getNormal());
+		
+		// moving them both is fine
+		this.body2.translate(0.011, 0.0);
+		TestCase.assertTrue(this.get(penetration, manifold));
+		
+		this.body1.rotateAboutCenter(Math.toRadians(1.1));
+		TestCase.assertFalse(this.get(penetration, manifold));
+		this.body1.rotateAboutCenter(Math.toRadians(-1.1));
+		TestCase.assertTrue(this.get(penetration, manifold));
+		
+		// separating the bodies within the tolerance
+		this.body1.translate(0.0, 0.005);
+		this.put();
+		this.body1.translate(0.0, 0.006);
+		TestCase.assertFalse(this.get(penetration, manifold));
+	}
+	
+	/**
+	 * Tests that pairs are ordered.
+	 */
+	@Test
+	public void getReversed() {
+		this.put();
+		TestCase.assertFalse(this.cache.get(this.body2, this.body2.getFixture(0), this.body1, this.body1.getFixture(0), LINEAR_TOLERANCE, ANGULAR_TOLERANCE, new Penetration(), new Manifold()));
+	}
+	
+	/**
+	 * Tests the removal of unused entries.
+	 */
+	@Test
+	public void update() {
+		this.put();
+		this.cache.update();
+		TestCase.assertEquals(1, this.cache.size());
+		
+		// used entries are kept
+		TestCase.assertTrue(this.get(new Penetration(), new Manifold()));
+		this.cache.update();
+		TestCase.assertEquals(1, this.cache.size());
+		
+		// a failed lookup doesn't keep the entry
+		this.body1.translate(1.0, 0.0);
+		TestCase.assertFalse(this.get(new Penetration(), new Manifold()));
+		this.cache.update();
+		TestCase.assertEquals(0, this.cache.size());
+		
+		// the entries are reused
+		this.put();
+		TestCase.assertEquals(1, this.cache.size());
+		this.cache.clear();
+		TestCase.assertEquals(0, this.cache.size());
+		TestCase.assertFalse(this.get(new Penetration(), new Manifold()));
+	}
+	
+	/**
+	 * Tests the growth of the cache.
+	 */
+	@Test
+	public void grow() {
+		Body[] bodies = new Body[40];
+		for (int i = 0; i < bodies.length; i++) {
+			bodies[i] = new Body();
+			bodies[i].addFixture(Geometry.createSquare(1.0));
+			bodies[i].translate(i * 0.9, 0.0);
+		}
+		Manifold manifold = this.put();
+		Vector2 normal = new Vector2(0.0, -1.0);
+		for (int i = 1; i < bodies.length; i++) {
+			this.cache.put(bodies[i - 1], bodies[i - 1].getFixture(0), bodies[i], bodies[i].getFixture(0), normal, 0.1, manifold);
+		}
+		TestCase.assertEquals(bodies.length, this.cache.size());
+		for (int i = 1; i < bodies.length; i++) {
+			TestCase.assertTrue(this.cache.get(bodies[i - 1], bodies[i - 1].getFixture(0), bodies[i], bodies[i].getFixture(0), LINEAR_TOLERANCE, ANGULAR_TOLERANCE, new Penetration(), new Manifold()));
+		}
+		TestCase.assertTrue(this.get(new Penetration(), new Manifold()));
+	}
+	
+	/**
+	 * Tests the simplex caches of the entries.
+	 */
+	@Test
+	public void simplexCache() {
+		Body body1 = this.body1;
+		Body body2 = this.body2;
+		SimplexCache simplex = this.cache.getSimplexCache(body1, body1.getFixture(0), body2, body2.getFixture(0));
+		TestCase.assertNotNull(simplex);
+		TestCase.assertFalse(simplex.isValid());
+		TestCase.assertEquals(1, this.cache.size());
+		
+		// an entry without a manifold can't be used
+		TestCase.assertFalse(this.get(new Penetration(), new Manifold()));
+		
+		// the entry is kept while the simplex cache is used
+		this.cache.update();
+		TestCase.assertSame(simplex, this.cache.getSimplexCache(body1, body1.getFixture(0), body2, body2.getFixture(0)));
+		this.cache.update();
+		TestCase.assertEquals(1, this.cache.size());
+		
+		// the manifold is stored in the same entry
+		this.put();
+		TestCase.assertEquals(1, this.cache.size());
+		TestCase.assertTrue(this.get(new Penetration(), new Manifold()));
+		TestCase.assertSame(simplex, this.cache.getSimplexCache(body1, body1.getFixture(0), body2, body2.getFixture(0)));
+		
+		// storing an empty manifold removes the manifold but keeps the entry
+		this.cache.put(body1, body1.getFixture(0), body2, body2.getFixture(0), new Vector2(0.0, -1.0), 0.01, new Manifold());
+		TestCase.assertFalse(this.get(new Penetration(), new Manifold()));
+		this.cache.update();
+		TestCase.assertEquals(1, this.cache.size());
+		
+		// unused entries are removed
+		this.cache.update();
+		TestCase.assertEquals(0, this.cache.size());
+	}
+	
+	/**
+	 * Tests the separating axis caches of the entries.
+	 */
+	@Test
+	public void separatingAxisCache() {
+		Body body1 = this.body1;
+		Body body2 = this.body2;
+		SeparatingAxisCache axis = this.cache.getSeparatingAxisCache(body1, body1.getFixture(0), body2, body2.getFixture(0));
+		TestCase.assertNotNull(axis);
+		TestCase.assertFalse(axis.isValid());
+		TestCase.assertEquals(1, this.cache.size());
+		
+		// the simplex cache is in the same entry
+		SimplexCache simplex = this.cache.getSimplexCache(body1, body1.getFixture(0), body2, body2.getFixture(0));
+		TestCase.assertNotNull(simplex);
+		TestCase.assertEquals(1, this.cache.size());
+		
+		// the entry is kept while the separating axis cache is used
+		axis.setIndex(2);
+		this.cache.update();
+		TestCase.assertSame(axis, this.cache.getSeparatingAxisCache(body1, body1.getFixture(0), body2, body2.getFixture(0)));
+		TestCase.assertEquals(2, axis.getIndex());
+		this.cache.update();
+		TestCase.assertEquals(1, this.cache.size());
+		
+		// unused entries are removed and reused entries are emptied
+		this.cache.update();
+		TestCase.assertEquals(0, this.cache.size());
+		TestCase.assertFalse(this.cache.getSeparatingAxisCache(body1, body1.getFixture(0), body2, body2.getFixture(0)).isValid());
+	}
+	
+	/**
+	 * Returns a new world with a stack of boxes resting on the ground.
+	 * @param cache true if the manifold cache should be enabled
+	 * @return {@link World}
+	 */
+	private static World createWorld(boolean cache) {
+		return createWorld(cache, false);
+	}
+	
+	/**
+	 * Returns a new world with a stack of boxes resting on the ground.
+	 * @param cache true if the manifold cache should be enabled
+	 * @param simplex true if the simplex cache should be enabled
+	 * @return {@link World}
+	 */
+	private static World createWorld(boolean cache, boolean simplex) {
+		World world = new World();
+		world.getSettings().setAutoSleepingEnabled(false);
+		world.getSettings().setManifoldCacheEnabled(cache);
+		world.getSettings().setSimplexCacheEnabled(simplex);
+		
+		Body ground = new Body();
+		ground.addFixture(Geometry.createRectangle(20.0, 1.0));
+		ground.setMass(MassType.INFINITE);
+		world.addBody(ground);
+		
+		for (int j = 0; j < 5; j++) {
+			Body box = new Body();
+			box.addFixture(Geometry.createSquare(1.0));
+			box.setMass(MassType.NORMAL);
+			box.translate(0.0, 1.0 + j * 1.0);
+			world.addBody(box);
+		}
+		
+		return world;
+	}
+	
+	/**
+	 * Tests reusing the manifolds of a resting stack.
+	 */
+	@Test
+	public void world() {
+		World world = createWorld(true);
+		World expected = createWorld(false);
+		StepStatistics statistics = new StepStatistics();
+		world.setStepStatistics(statistics);
+		
+		int hits = 0;
+		for (int i = 0; i < 300; i++) {
+			world.step(1);
+			expected.step(1);
+			hits += statistics.getManifoldCacheHitCount();
+			TestCase.assertEquals(expected.getContactManager().getContactCount(), statistics.getContactConstraintCount());
+		}
+		TestCase.assertTrue(hits > 0);
+		
+		// the stack is resting in the same place
+		for (int i = 1; i < world.getBodyCount(); i++) {
+			Vector2 p = world.getBody(i).getWorldCenter();
+			Vector2 e = expected.getBody(i).getWorldCenter();
+			TestCase.assertEquals(e.x, p.x, 1.0e-2);
+			TestCase.assertEquals(e.y, p.y, 1.0e-2);
+		}
+		
+		// an update clears the cache
+		world.setUpdateRequired(true);
+		world.step(1);
+		TestCase.assertEquals(0, statistics.getManifoldCacheHitCount());
+		
+		// disabling it
+		world.getSettings().setManifoldCacheEnabled(false);
+		world.step(1);
+		TestCase.assertEquals(0, statistics.getManifoldCacheHitCount());
+	}
+	
+	/**
+	 * Tests warm starting the narrow-phase of a resting stack.
+	 */
+	@Test
+	public void worldSimplexCache() {
+		World world = createWorld(false, true);
+		World expected = createWorld(false, false);
+		StepStatistics statistics = new StepStatistics();
+		world.setStepStatistics(statistics);
+		
+		for (int i = 0; i < 300; i++) {
+			world.step(1);
+			expected.step(1);
+			TestCase.assertEquals(expected.getContactManager().getContactCount(), statistics.getContactConstraintCount());
+			TestCase.assertEquals(0, statistics.getManifoldCacheHitCount());
+		}
+		
+		// the stack is resting in the same place
+		for (int i = 1; i < world.getBodyCount(); i++) {
+			Vector2 p = world.getBody(i).getWorldCenter();
+			Vector2 e = expected.getBody(i).getWorldCenter();
+			TestCase.assertEquals(e.x, p.x, 1.0e-2);
+			TestCase.assertEquals(e.y, p.y, 1.0e-2);
+		}
+		
+		// both caches together
+		world.getSettings().setManifoldCacheEnabled(true);
+		int hits = 0;
+		for (int i = 0; i < 10; i++) {
+			world.step(1);
+			hits += statistics.getManifoldCacheHitCount();
+		}
+		TestCase.assertTrue(hits > 0);
+	}
+	
+	/**
+	 * A {@link Sat} that counts the detections given a non-empty {@link SeparatingAxisCache}.
+	 */
+	private static final class CountingSat extends Sat {
+		/** The number of detections given a non-empty cache */
+		private int hits;
+		
+		/** The number of detections given a cache */
+		private int calls;
+		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.collision.narrowphase.Sat#detect(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.collision.narrowphase.Penetration, org.dyn4j.collision.narrowphase.SeparatingAxisCache)
+		 */
+		@Override
+		public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration, SeparatingAxisCache cache) {
+			if (cache != null) {
+				this.calls++;
+				if (cache.isValid()) this.hits++;
+			}
+			return super.detect(convex1, transform1, convex2, transform2, penetration, cache);
+		}
+	}
+	
+	/**
+	 * A {@link DispatchingNarrowphaseDetector} that counts the detections given a non-empty {@link SeparatingAxisCache}.
+	 */
+	private static final class CountingDispatchingNarrowphaseDetector extends DispatchingNarrowphaseDetector {
+		/** The number of detections given a non-empty cache */
+		private int hits;
+		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.collision.narrowphase.DispatchingNarrowphaseDetector#detect(org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.geometry.Convex, org.dyn4j.geometry.Transform, org.dyn4j.collision.narrowphase.Penetration, org.dyn4j.collision.narrowphase.SeparatingAxisCache)
+		 */
+		@Override
+		public boolean detect(Convex convex1, Transform transform1, Convex convex2, Transform transform2, Penetration penetration, SeparatingAxisCache cache) {
+			if (cache != null && cache.isValid()) this.hits++;
+			return super.detect(convex1, transform1, convex2, transform2, penetration, cache);
+		}
+	}
+	
+	/**
+	 * Tests testing the last separating axis first when using the {@link DispatchingNarrowphaseDetector}.
+	 */
+	@Test
+	public void worldDispatchingSeparatingAxisCache() {
+		World world = createWorld(false);
+		CountingDispatchingNarrowphaseDetector detector = new CountingDispatchingNarrowphaseDetector();
+		world.setNarrowphaseDetector(detector);
+		world.getSettings().setSeparatingAxisCacheEnabled(true);
+		World expected = createWorld(false);
+		expected.setNarrowphaseDetector(new DispatchingNarrowphaseDetector());
+		
+		for (int i = 0; i < 300; i++) {
+			world.step(1);
+			expected.step(1);
+		}
+		
+		// the pairs start from their last axis
+		TestCase.assertTrue(detector.hits > 0);
+		
+		// the results are the same
+		for (int i = 1; i < world.getBodyCount(); i++) {
+			TestCase.assertEquals(expected.getBody(i).getWorldCenter(), world.getBody(i).getWorldCenter());
+		}
+	}
+	
+	/**
+	 * Tests testing the last separating axis first when using {@link Sat}.
+	 */
+	@Test
+	public void worldSeparatingAxisCache() {
+		World world = createWorld(false);
+		CountingSat sat = new CountingSat();
+		world.setNarrowphaseDetector(sat);
+		// the same detector without the cache
+		World expected = createWorld(false);
+		expected.setNarrowphaseDetector(new FallbackNarrowphaseDetector(new Sat(), new Gjk()));
+		
+		// it's not used unless enabled
+		world.step(1);
+		expected.step(1);
+		TestCase.assertEquals(0, sat.calls);
+		
+		world.getSettings().setSeparatingAxisCacheEnabled(true);
+		for (int i = 1; i < 300; i++) {
+			world.step(1);
+			expected.step(1);
+		}
+		
+		// the pairs start from their last axis
+		TestCase.assertTrue(sat.calls > 0);
+		TestCase.assertTrue(sat.hits > 0);
+		
+		// the results are the same
+		for (int i = 1; i < world.getBodyCount(); i++) {
+			TestCase.assertEquals(expected.getBody(i).getWorldCenter(), world.getBody(i).getWorldCenter());
+		}
+	}
+	
+	/**
+	 * Tests reusing the manifolds when performing the narrow-phase concurrently.
+	 */
+	@Test
+	public void concurrent() {
+		this.concurrent(true, false, false);
+		this.concurrent(true, true, false);
+		this.concurrent(false, true, false);
+		this.concurrent(false, false, true);
+	}
+	
+	/**
+	 * Compares performing the narrow-phase concurrently and serially.
+	 * @param cache true if the manifold cache should be enabled
+	 * @param simplex true if the simplex cache should be enabled
+	 * @param sat true if {@link Sat} should be used
+	 */
+	private void concurrent(boolean cache, boolean simplex, boolean sat) {
+		World world = createWorld(cache, simplex);
+		World expected = createWorld(cache, simplex);
+		if (sat) {
+			world.setNarrowphaseDetector(new Sat());
+			expected.setNarrowphaseDetector(new Sat());
+			world.getSettings().setSeparatingAxisCacheEnabled(true);
+			expected.getSettings().setSeparatingAxisCacheEnabled(true);
+		}
+		
+		// add enough pairs for the narrow-phase to be split
+		for (int i = 0; i < 24; i++) {
+			double x = -9.0 + i * 0.75;
+			// skip the stack
+			if (Math.abs(x) < 1.0) continue;
+			for (int j = 0; j < 7; j++) {
+				Body box = new Body();
+				box.addFixture(Geometry.createSquare(0.5));
+				box.setMass(MassType.NORMAL);
+				box.translate(x, 0.75 + j * 0.5);
+				world.addBody(box);
+				box = new Body();
+				box.addFixture(Geometry.createSquare(0.5));
+				box.setMass(MassType.NORMAL);
+				box.translate(x, 0.75 + j * 0.5);
+				expected.addBody(box);
+			}
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			world.setNarrowphaseExecutor(executor);
+			StepStatistics statistics = new StepStatistics();
+			world.setStepStatistics(statistics);
+			StepStatistics es = new StepStatistics();
+			expected.setStepStatistics(es);
+			for (int i = 0; i < 100; i++) {
+				world.step(1);
+				expected.step(1);
+				TestCase.assertEquals(es.getManifoldCacheHitCount(), statistics.getManifoldCacheHitCount());
+				TestCase.assertEquals(es.getContactConstraintCount(), statistics.getContactConstraintCount());
+			}
+			// the results are the same as when performed serially
+			for (int i = 1; i < world.getBodyCount(); i++) {
+				TestCase.assertEquals(expected.getBody(i).getWorldCenter(), world.getBody(i).getWorldCenter());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
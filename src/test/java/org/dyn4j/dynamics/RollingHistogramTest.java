@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+/**
+ * Test case for the {@link RollingHistogram} class.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class RollingHistogramTest {
+	/**
+	 * Tests the successful creation of a histogram.
+	 */
+	@Test
+	public void createSuccess() {
+		RollingHistogram h = new RollingHistogram(10);
+		TestCase.assertEquals(10, h.getCapacity());
+		TestCase.assertEquals(0, h.getCount());
+		TestCase.assertEquals(0, h.getMinimum());
+		TestCase.assertEquals(0, h.getMaximum());
+		TestCase.assertEquals(0, h.getLatest());
+		TestCase.assertEquals(0.0, h.getMean());
+		TestCase.assertEquals(0, h.getPercentile(0.5));
+		TestCase.assertEquals(0, h.getSamples().length);
+	}
+	
+	/**
+	 * Tests the failed creation of a histogram with a zero capacity.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void createZeroCapacity() {
+		new RollingHistogram(0);
+	}
+	
+	/**
+	 * Tests the failed creation of a histogram with a negative capacity.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void createNegativeCapacity() {
+		new RollingHistogram(-1);
+	}
+	
+	/**
+	 * Tests the statistics before the histogram is full.
+	 */
+	@Test
+	public void partial() {
+		RollingHistogram h = new RollingHistogram(10);
+		h.add(5);
+		h.add(1);
+		h.add(3);
+		TestCase.assertEquals(3, h.getCount());
+		TestCase.assertEquals(1, h.getMinimum());
+		TestCase.assertEquals(5, h.getMaximum());
+		TestCase.assertEquals(3, h.getLatest());
+		TestCase.assertEquals(3.0, h.getMean(), 1.0e-9);
+		TestCase.assertEquals(3, h.getPercentile(0.5));
+		TestCase.assertEquals(1, h.getPercentile(0.0));
+		TestCase.assertEquals(5, h.getPercentile(1.0));
+		
+		long[] samples = h.getSamples();
+		TestCase.assertEquals(3, samples.length);
+		TestCase.assertEquals(5, samples[0]);
+		TestCase.assertEquals(1, samples[1]);
+		TestCase.assertEquals(3, samples[2]);
+	}
+	
+	/**
+	 * Tests that the oldest samples are replaced once full.
+	 */
+	@Test
+	public void rolling() {
+		RollingHistogram h = new RollingHistogram(4);
+		for (int i = 1; i <= 10; i++) {
+			h.add(i);
+		}
+		TestCase.assertEquals(4, h.getCount());
+		TestCase.assertEquals(7, h.getMinimum());
+		TestCase.assertEquals(10, h.getMaximum());
+		TestCase.assertEquals(10, h.getLatest());
+		TestCase.assertEquals(8.5, h.getMean(), 1.0e-9);
+		
+		long[] samples = h.getSamples();
+		TestCase.assertEquals(4, samples.length);
+		for (int i = 0; i < 4; i++) {
+			TestCase.assertEquals(7 + i, samples[i]);
+		}
+		
+		// the sorted samples must be updated after adding
+		h.add(0);
+		TestCase.assertEquals(0, h.getMinimum());
+		TestCase.assertEquals(10, h.getMaximum());
+		TestCase.assertEquals(0, h.getLatest());
+	}
+	
+	/**
+	 * Tests the nearest-rank percentiles.
+	 */
+	@Test
+	public void percentile() {
+		RollingHistogram h = new RollingHistogram(100);
+		// add in reverse to make sure they are sorted
+		for (int i = 100; i >= 1; i--) {
+			h.add(i);
+		}
+		TestCase.assertEquals(50, h.getPercentile(0.5));
+		TestCase.assertEquals(90, h.getPercentile(0.9));
+		TestCase.assertEquals(99, h.getPercentile(0.99));
+		TestCase.assertEquals(100, h.getPercentile(0.999));
+		TestCase.assertEquals(1, h.getPercentile(0.001));
+	}
+	
+	/**
+	 * Tests a percentile greater than one.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void percentileGreaterThanOne() {
+		new RollingHistogram(1).getPercentile(1.1);
+	}
+	
+	/**
+	 * Tests a negative percentile.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void percentileNegative() {
+		new RollingHistogram(1).getPercentile(-0.1);
+	}
+	
+	/**
+	 * Tests a NaN percentile.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void percentileNaN() {
+		new RollingHistogram(1).getPercentile(Double.NaN);
+	}
+	
+	/**
+	 * Tests the bucket counts.
+	 */
+	@Test
+	public void counts() {
+		RollingHistogram h = new RollingHistogram(10);
+		long[] values = new long[] {1, 2, 3, 10, 11, 50, 100, 101, 1000, 2};
+		for (long value : values) {
+			h.add(value);
+		}
+		
+		int[] counts = h.getCounts(2, 10, 100);
+		TestCase.assertEquals(4, counts.length);
+		TestCase.assertEquals(3, counts[0]);
+		TestCase.assertEquals(2, counts[1]);
+		TestCase.assertEquals(3, counts[2]);
+		TestCase.assertEquals(2, counts[3]);
+		
+		// no bounds puts everything in one bucket
+		counts = h.getCounts();
+		TestCase.assertEquals(1, counts.length);
+		TestCase.assertEquals(10, counts[0]);
+	}
+	
+	/**
+	 * Tests the clear method.
+	 */
+	@Test
+	public void clear() {
+		RollingHistogram h = new RollingHistogram(3);
+		h.add(4);
+		h.add(5);
+		h.clear();
+		TestCase.assertEquals(0, h.getCount());
+		TestCase.assertEquals(0, h.getMaximum());
+		
+		h.add(7);
+		TestCase.assertEquals(1, h.getCount());
+		TestCase.assertEquals(7, h.getMinimum());
+		TestCase.assertEquals(7, h.getMaximum());
+		TestCase.assertEquals(7, h.getSamples()[0]);
+	}
+}
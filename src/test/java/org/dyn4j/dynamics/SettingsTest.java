@@ -363,4 +363,71 @@ public class SettingsTest {
 		settings.setContinuousDetectionMode(ContinuousDetectionMode.NONE);
 		TestCase.assertEquals(ContinuousDetectionMode.NONE, settings.getContinuousDetectionMode());
 	}
+	
+	/**
+	 * Tests the set manifold cache linear tolerance method.
+	 */
+	@Test
+	public void setValidManifoldCacheLinearTolerance() {
+		TestCase.assertFalse(settings.isManifoldCacheEnabled());
+		settings.setManifoldCacheLinearTolerance(0.0);
+		TestCase.assertEquals(0.0, settings.getManifoldCacheLinearTolerance());
+		settings.setManifoldCacheLinearTolerance(0.01);
+		TestCase.assertEquals(0.01, settings.getManifoldCacheLinearTolerance());
+		settings.reset();
+		TestCase.assertEquals(Settings.DEFAULT_MANIFOLD_CACHE_LINEAR_TOLERANCE, settings.getManifoldCacheLinearTolerance());
+	}
+	
+	/**
+	 * Tests the set manifold cache linear tolerance method passing a negative value.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void setNegativeManifoldCacheLinearTolerance() {
+		settings.setManifoldCacheLinearTolerance(-0.01);
+	}
+	
+	/**
+	 * Tests the set manifold cache angular tolerance method.
+	 */
+	@Test
+	public void setValidManifoldCacheAngularTolerance() {
+		settings.setManifoldCacheAngularTolerance(0.0);
+		TestCase.assertEquals(0.0, settings.getManifoldCacheAngularTolerance());
+		settings.setManifoldCacheAngularTolerance(0.1);
+		TestCase.assertEquals(0.1, settings.getManifoldCacheAngularTolerance());
+		settings.reset();
+		TestCase.assertEquals(Settings.DEFAULT_MANIFOLD_CACHE_ANGULAR_TOLERANCE, settings.getManifoldCacheAngularTolerance());
+	}
+	
+	/**
+	 * Tests the set manifold cache angular tolerance method passing a negative value.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void setNegativeManifoldCacheAngularTolerance() {
+		settings.setManifoldCacheAngularTolerance(-0.1);
+	}
+	
+	/**
+	 * Tests the set simplex cache enabled method.
+	 */
+	@Test
+	public void setSimplexCacheEnabled() {
+		TestCase.assertFalse(settings.isSimplexCacheEnabled());
+		settings.setSimplexCacheEnabled(true);
+		TestCase.assertTrue(settings.isSimplexCacheEnabled());
+		settings.reset();
+		TestCase.assertFalse(settings.isSimplexCacheEnabled());
+	}
+	
+	/**
+	 * Tests the set separating axis cache enabled method.
+	 */
+	@Test
+	public void setSeparatingAxisCacheEnabled() {
+		TestCase.assertFalse(settings.isSeparatingAxisCacheEnabled());
+		settings.setSeparatingAxisCacheEnabled(true);
+		TestCase.assertTrue(settings.isSeparatingAxisCacheEnabled());
+		settings.reset();
+		TestCase.assertFalse(settings.isSeparatingAxisCacheEnabled());
+	}
 }
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link StepStatistics} class.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class StepStatisticsTest {
+	/**
+	 * Returns a new world with two separate stacks of boxes resting on the ground.
+	 * @return {@link World}
+	 */
+	private static World createWorld() {
+		World world = new World();
+		
+		Body ground = new Body();
+		ground.addFixture(Geometry.createRectangle(20.0, 1.0));
+		ground.setMass(MassType.INFINITE);
+		world.addBody(ground);
+		
+		for (int i = 0; i < 2; i++) {
+			for (int j = 0; j < 3; j++) {
+				Body box = new Body();
+				box.addFixture(Geometry.createSquare(1.0));
+				box.setMass(MassType.NORMAL);
+				box.translate(i * 5.0 - 2.5, 1.0 + j * 1.0);
+				world.addBody(box);
+			}
+		}
+		
+		return world;
+	}
+	
+	/**
+	 * Tests the successful creation of the statistics.
+	 */
+	@Test
+	public void createSuccess() {
+		StepStatistics s = new StepStatistics();
+		TestCase.assertEquals(0, s.getHistorySize());
+		TestCase.assertNull(s.getHistogram(StepPhase.STEP));
+		
+		s = new StepStatistics(60);
+		TestCase.assertEquals(60, s.getHistorySize());
+		for (StepPhase phase : StepPhase.values()) {
+			TestCase.assertNotNull(s.getHistogram(phase));
+			TestCase.assertEquals(60, s.getHistogram(phase).getCapacity());
+			TestCase.assertEquals(0, s.getTime(phase));
+		}
+		
+		TestCase.assertNotNull(s.toString());
+	}
+	
+	/**
+	 * Tests the failed creation of the statistics with a negative history size.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void createNegativeHistorySize() {
+		new StepStatistics(-1);
+	}
+	
+	/**
+	 * Tests that statistics are disabled by default.
+	 */
+	@Test
+	public void disabled() {
+		World world = createWorld();
+		TestCase.assertNull(world.getStepStatistics());
+		TestCase.assertNull(world.getStep().getStatistics());
+		world.step(2);
+		TestCase.assertNull(world.getStep().getStatistics());
+	}
+	
+	/**
+	 * Tests the collection of statistics when stepping the world.
+	 */
+	@Test
+	public void collect() {
+		World world = createWorld();
+		StepStatistics s = new StepStatistics(10);
+		world.setStepStatistics(s);
+		TestCase.assertSame(s, world.getStepStatistics());
+		TestCase.assertSame(s, world.getStep().getStatistics());
+		
+		// let the boxes come to rest on each other, but not sleep
+		world.step(10);
+		
+		// ground-box, box-box and box-box for each stack
+		TestCase.assertEquals(6, s.getPairCount());
+		TestCase.assertEquals(6, s.getCollisionCount());
+		TestCase.assertEquals(6, s.getContactConstraintCount());
+		TestCase.assertEquals(2, s.getIslandCount());
+		
+		TestCase.assertTrue(s.getTime(StepPhase.STEP) > 0);
+		TestCase.assertTrue(s.getTime(StepPhase.VELOCITY_SOLVE) > 0);
+		TestCase.assertTrue(s.getTime(StepPhase.POSITION_SOLVE) > 0);
+		TestCase.assertTrue(s.getTime(StepPhase.NARROWPHASE) > 0);
+		TestCase.assertTrue(s.getTime(StepPhase.MANIFOLD) > 0);
+		// CCD is enabled by default
+		TestCase.assertTrue(s.getTime(StepPhase.CONTINUOUS) > 0);
+		
+		// the serial phases must be within the step
+		long sum = 0;
+		for (StepPhase phase : StepPhase.values()) {
+			if (phase != StepPhase.STEP) {
+				sum += s.getTime(phase);
+			}
+		}
+		TestCase.assertTrue(sum <= s.getTime(StepPhase.STEP));
+		
+		// the history contains the times of each step
+		RollingHistogram h = s.getHistogram(StepPhase.STEP);
+		TestCase.assertEquals(10, h.getCount());
+		TestCase.assertEquals(s.getTime(StepPhase.STEP), h.getLatest());
+		
+		// clearing resets everything
+		s.clear();
+		TestCase.assertEquals(0, s.getPairCount());
+		TestCase.assertEquals(0, s.getTime(StepPhase.STEP));
+		TestCase.assertEquals(0, h.getCount());
+		
+		// disabling stops the collection
+		world.setStepStatistics(null);
+		world.step(1);
+		TestCase.assertNull(world.getStep().getStatistics());
+		TestCase.assertEquals(0, s.getTime(StepPhase.STEP));
+	}
+	
+	/**
+	 * Tests that the statistics are complete when the step listeners are notified
+	 * of the end of the step.
+	 */
+	@Test
+	public void listener() {
+		World world = createWorld();
+		world.setStepStatistics(new StepStatistics(5));
+		
+		final long[] times = new long[2];
+		world.addListener(new StepAdapter() {
+			@Override
+			public void end(Step step, World world) {
+				StepStatistics s = step.getStatistics();
+				times[0] = s.getTime(StepPhase.STEP);
+				times[1] = s.getHistogram(StepPhase.STEP).getLatest();
+			}
+		});
+		
+		world.step(1);
+		TestCase.assertTrue(times[0] > 0);
+		TestCase.assertEquals(times[0], times[1]);
+	}
+	
+	/**
+	 * Tests the collection of statistics when the islands and narrow-phase
+	 * are performed concurrently.
+	 */
+	@Test
+	public void concurrent() {
+		World world = createWorld();
+		// keep the boxes awake so that they're detected in the last step
+		world.getSettings().setAutoSleepingEnabled(false);
+		// add enough boxes to use the concurrent narrow-phase
+		for (int i = 0; i < 100; i++) {
+			Body box = new Body();
+			box.addFixture(Geometry.createSquare(0.5));
+			box.setMass(MassType.NORMAL);
+			box.translate((i % 10) * 0.6 - 3.0, 10.0 + (i / 10) * 0.6);
+			world.addBody(box);
+		}
+		StepStatistics s = new StepStatistics();
+		world.setStepStatistics(s);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			world.setIslandExecutor(executor);
+			world.setNarrowphaseExecutor(executor);
+			
+			world.step(60);
+			
+			TestCase.assertTrue(s.getPairCount() > 128);
+			TestCase.assertTrue(s.getCollisionCount() > 0);
+			TestCase.assertTrue(s.getContactConstraintCount() > 0);
+			TestCase.assertTrue(s.getIslandCount() > 0);
+			TestCase.assertTrue(s.getTime(StepPhase.NARROWPHASE) > 0);
+			TestCase.assertTrue(s.getTime(StepPhase.VELOCITY_SOLVE) > 0);
+			TestCase.assertTrue(s.getTime(StepPhase.ISLAND_BUILD) > 0);
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
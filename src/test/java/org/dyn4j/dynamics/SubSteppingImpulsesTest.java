@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.dynamics.contact.SubSteppingImpulses;
+import org.dyn4j.dynamics.joint.RevoluteJoint;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link SubSteppingImpulses} class.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class SubSteppingImpulsesTest {
+	/**
+	 * Returns a new world using the given solver with a static ground.
+	 * @param solver the contact constraint solver
+	 * @return {@link World}
+	 */
+	private static World createWorld(SubSteppingImpulses solver) {
+		World world = new World();
+		world.setContactConstraintSolver(solver);
+		world.getSettings().setAutoSleepingEnabled(false);
+		
+		Body ground = new Body();
+		ground.addFixture(Geometry.createRectangle(20.0, 1.0));
+		ground.setMass(MassType.INFINITE);
+		ground.translate(0.0, -0.5);
+		world.addBody(ground);
+		
+		return world;
+	}
+	
+	/**
+	 * Tests the successful creation of the solver.
+	 */
+	@Test
+	public void createSuccess() {
+		SubSteppingImpulses solver = new SubSteppingImpulses();
+		TestCase.assertEquals(SubSteppingImpulses.DEFAULT_SUB_STEP_COUNT, solver.getSubStepCount());
+		TestCase.assertEquals(SubSteppingImpulses.DEFAULT_CONTACT_FREQUENCY, solver.getContactFrequency());
+		TestCase.assertEquals(SubSteppingImpulses.DEFAULT_CONTACT_DAMPING_RATIO, solver.getContactDampingRatio());
+		TestCase.assertEquals(SubSteppingImpulses.DEFAULT_MAXIMUM_CORRECTION_VELOCITY, solver.getMaximumCorrectionVelocity());
+		
+		solver = new SubSteppingImpulses(8);
+		TestCase.assertEquals(8, solver.getSubStepCount());
+	}
+	
+	/**
+	 * Tests the failed creation of the solver with zero sub-steps.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void createZeroSubSteps() {
+		new SubSteppingImpulses(0);
+	}
+	
+	/**
+	 * Tests the set methods.
+	 */
+	@Test
+	public void setSuccess() {
+		SubSteppingImpulses solver = new SubSteppingImpulses();
+		
+		solver.setSubStepCount(1);
+		TestCase.assertEquals(1, solver.getSubStepCount());
+		
+		solver.setContactFrequency(15.0);
+		TestCase.assertEquals(15.0, solver.getContactFrequency());
+		
+		solver.setContactDampingRatio(0.0);
+		TestCase.assertEquals(0.0, solver.getContactDampingRatio());
+		
+		solver.setMaximumCorrectionVelocity(0.0);
+		TestCase.assertEquals(0.0, solver.getMaximumCorrectionVelocity());
+	}
+	
+	/**
+	 * Tests setting the sub-step count to zero.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void setZeroSubStepCount() {
+		new SubSteppingImpulses().setSubStepCount(0);
+	}
+	
+	/**
+	 * Tests setting a zero contact frequency.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void setZeroContactFrequency() {
+		new SubSteppingImpulses().setContactFrequency(0.0);
+	}
+	
+	/**
+	 * Tests setting a negative damping ratio.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void setNegativeDampingRatio() {
+		new SubSteppingImpulses().setContactDampingRatio(-1.0);
+	}
+	
+	/**
+	 * Tests setting a negative maximum correction velocity.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void setNegativeMaximumCorrectionVelocity() {
+		new SubSteppingImpulses().setMaximumCorrectionVelocity(-1.0);
+	}
+	
+	/**
+	 * Tests that a stack of boxes comes to rest without toppling.
+	 */
+	@Test
+	public void stack() {
+		World world = createWorld(new SubSteppingImpulses());
+		
+		int height = 10;
+		for (int i = 0; i < height; i++) {
+			Body box = new Body();
+			box.addFixture(Geometry.createSquare(1.0), 1.0, 0.6, 0.0);
+			box.setMass(MassType.NORMAL);
+			box.translate(0.0, 0.5 + i);
+			world.addBody(box);
+		}
+		
+		for (int i = 0; i < 300; i++) {
+			world.step(1);
+		}
+		
+		for (int i = 1; i <= height; i++) {
+			Body box = world.getBody(i);
+			Vector2 c = box.getWorldCenter();
+			TestCase.assertEquals(0.0, c.x, 0.05);
+			TestCase.assertEquals(0.5 + (i - 1), c.y, 0.1);
+			TestCase.assertEquals(0.0, box.getLinearVelocity().getMagnitude(), 0.05);
+		}
+	}
+	
+	/**
+	 * Tests that restitution is applied.
+	 */
+	@Test
+	public void restitution() {
+		World world = createWorld(new SubSteppingImpulses());
+		
+		Body ball = new Body();
+		ball.addFixture(Geometry.createCircle(0.5), 1.0, 0.0, 1.0);
+		ball.setMass(MassType.NORMAL);
+		ball.translate(0.0, 3.0);
+		world.addBody(ball);
+		
+		// fall until the ball bounces
+		boolean bounced = false;
+		for (int i = 0; i < 120 && !bounced; i++) {
+			world.step(1);
+			bounced = ball.getLinearVelocity().y > 0.0;
+		}
+		
+		TestCase.assertTrue(bounced);
+		// the ball hit the ground at roughly 7 m/s
+		TestCase.assertTrue(ball.getLinearVelocity().y > 5.0);
+	}
+	
+	/**
+	 * Tests that joints are solved along with the contacts.
+	 */
+	@Test
+	public void joints() {
+		World world = createWorld(new SubSteppingImpulses());
+		
+		Body anchor = new Body();
+		anchor.addFixture(Geometry.createCircle(0.1));
+		anchor.setMass(MassType.INFINITE);
+		anchor.translate(0.0, 10.0);
+		world.addBody(anchor);
+		
+		Body previous = anchor;
+		for (int i = 0; i < 5; i++) {
+			Body link = new Body();
+			link.addFixture(Geometry.createRectangle(1.0, 0.2));
+			link.setMass(MassType.NORMAL);
+			link.translate(0.5 + i, 10.0);
+			world.addBody(link);
+			world.addJoint(new RevoluteJoint(previous, link, new Vector2(i, 10.0)));
+			previous = link;
+		}
+		
+		for (int i = 0; i < 120; i++) {
+			world.step(1);
+		}
+		
+		// the links should still be connected
+		for (int i = 0; i < world.getJointCount(); i++) {
+			RevoluteJoint joint = (RevoluteJoint)world.getJoint(i);
+			TestCase.assertEquals(0.0, joint.getAnchor1().distance(joint.getAnchor2()), 0.01);
+		}
+		// and hanging below the anchor
+		TestCase.assertTrue(previous.getWorldCenter().y < 10.0);
+	}
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2010-2017 William Bittle  http://www.dyn4j.org/
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted 
+ * provided that the following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions 
+ *     and the following disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions 
+ *     and the following disclaimer in the documentation and/or other materials provided with the 
+ *     distribution.
+ *   * Neither the name of dyn4j nor the names of its contributors may be used to endorse or 
+ *     promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR 
+ * IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND 
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, 
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER 
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT 
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.dyn4j.dynamics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.dyn4j.collision.broadphase.DynamicAABBTree;
+import org.dyn4j.dynamics.contact.ContactPoint;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Geometry;
+import org.dyn4j.geometry.Link;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Transform;
+import org.dyn4j.geometry.Vector2;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test case for the {@link Terrain} class.
+ * @author William Bittle
+ * @version 3.3.1
+ * @since 3.3.1
+ */
+public class TerrainTest {
+	/** The number of vertices of the terrain */
+	private static final int COUNT = 2001;
+	
+	/** The vertices of the terrain */
+	private Vector2[] vertices;
+	
+	/** The links of the terrain */
+	private List<Link> links;
+	
+	/**
+	 * Creates a gently rolling chain of links from x = -100 to x = 100.
+	 */
+	@Before
+	public void setup() {
+		this.vertices = new Vector2[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			double x = -100.0 + i * 0.1;
+			this.vertices[i] = new Vector2(x, Math.sin(x * 0.05) * 2.0);
+		}
+		this.links = Geometry.createLinks(this.vertices, false);
+	}
+	
+	/**
+	 * Tests creating a terrain.
+	 */
+	@Test
+	public void create() {
+		Terrain terrain = new Terrain(this.links);
+		TestCase.assertEquals(COUNT - 1, terrain.getFixtureCount());
+		TestCase.assertTrue(terrain.isStatic());
+		TestCase.assertSame(this.links.get(10), terrain.getFixture(10).getShape());
+		
+		// the tree's bounds are the bounds of the fixtures
+		Body body = new Body();
+		for (Link link : this.links) {
+			body.addFixture(link);
+		}
+		AABB expected = body.createAABB();
+		AABB aabb = terrain.createAABB();
+		TestCase.assertEquals(expected.getMinX(), aabb.getMinX());
+		TestCase.assertEquals(expected.getMinY(), aabb.getMinY());
+		TestCase.assertEquals(expected.getMaxX(), aabb.getMaxX());
+		TestCase.assertEquals(expected.getMaxY(), aabb.getMaxY());
+		
+		// an empty terrain
+		terrain = new Terrain(new ArrayList<Convex>());
+		TestCase.assertEquals(0, terrain.getFixtureCount());
+		TestCase.assertNotNull(terrain.createAABB());
+	}
+	
+	/**
+	 * Tests creating a terrain with a null list.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void createNullList() {
+		new Terrain(null);
+	}
+	
+	/**
+	 * Tests creating a terrain with a null shape.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void createNullShape() {
+		List<Convex> shapes = new ArrayList<Convex>();
+		shapes.add(Geometry.createSquare(1.0));
+		shapes.add(null);
+		new Terrain(shapes);
+	}
+	
+	/**
+	 * Tests adding a fixture to a terrain.
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void addFixture() {
+		Terrain terrain = new Terrain(this.links);
+		terrain.addFixture(Geometry.createSquare(1.0));
+	}
+	
+	/**
+	 * Tests removing a fixture from a terrain.
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void removeFixture() {
+		Terrain terrain = new Terrain(this.links);
+		terrain.removeFixture(0);
+	}
+	
+	/**
+	 * Tests removing all the fixtures from a terrain.
+	 */
+	@Test
+	public void removeAllFixtures() {
+		Terrain terrain = new Terrain(this.links);
+		AABB aabb = new AABB(-100.0, -100.0, 100.0, 100.0);
+		TestCase.assertFalse(terrain.getFixtures(aabb).isEmpty());
+		
+		List<BodyFixture> fixtures = terrain.removeAllFixtures();
+		TestCase.assertEquals(this.links.size(), fixtures.size());
+		for (int i = 0; i < fixtures.size(); i++) {
+			TestCase.assertSame(this.links.get(i), fixtures.get(i).getShape());
+		}
+		TestCase.assertEquals(0, terrain.getFixtureCount());
+		TestCase.assertTrue(terrain.getFixtures(aabb).isEmpty());
+		TestCase.assertNotNull(terrain.createAABB());
+		
+		// the fixtures still can't be added
+		try {
+			terrain.addFixture(Geometry.createSquare(1.0));
+			TestCase.fail();
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+	
+	/**
+	 * Tests removing all the fixtures from a terrain in a world.
+	 */
+	@Test
+	public void removeAllFixturesInWorld() {
+		World world = new World();
+		Terrain terrain = new Terrain(this.links);
+		world.addBody(terrain);
+		
+		Body box = new Body();
+		box.addFixture(Geometry.createSquare(1.0));
+		box.setMass(MassType.NORMAL);
+		box.translate(0.0, 0.45);
+		world.addBody(box);
+		
+		world.step(1);
+		TestCase.assertTrue(box.isInContact(terrain));
+		
+		terrain.removeAllFixtures();
+		world.step(1);
+		TestCase.assertFalse(box.isInContact(terrain));
+	}
+	
+	/**
+	 * Tests querying the fixtures of a terrain and moving it.
+	 */
+	@Test
+	public void getFixtures() {
+		Terrain terrain = new Terrain(this.links);
+		
+		AABB aabb = new AABB(-0.05, -1.0, 0.05, 1.0);
+		List<BodyFixture> fixtures = terrain.getFixtures(aabb);
+		List<BodyFixture> expected = new ArrayList<BodyFixture>();
+		for (BodyFixture fixture : terrain.getFixtures()) {
+			if (fixture.getShape().createAABB(terrain.getTransform()).overlaps(aabb)) {
+				expected.add(fixture);
+			}
+		}
+		TestCase.assertEquals(2, expected.size());
+		TestCase.assertEquals(expected.size(), fixtures.size());
+		TestCase.assertTrue(fixtures.containsAll(expected));
+		
+		// the tree follows the terrain
+		double maxY = terrain.createAABB().getMaxY();
+		terrain.translate(0.0, 10.0);
+		TestCase.assertTrue(terrain.getFixtures(aabb).isEmpty());
+		TestCase.assertEquals(2, terrain.getFixtures(aabb.getTranslated(new Vector2(0.0, 10.0))).size());
+		TestCase.assertEquals(maxY + 10.0, terrain.createAABB().getMaxY(), 1.0e-9);
+	}
+	
+	/**
+	 * Tests that the fixtures of a terrain are not added to the broad-phase, but are
+	 * still found by the world's queries.
+	 */
+	@Test
+	public void worldQueries() {
+		World world = new World();
+		Terrain terrain = new Terrain(this.links);
+		world.addBody(terrain);
+		TestCase.assertEquals(1, world.getBodyCount());
+		TestCase.assertEquals(0, world.getBroadphaseDetector().size());
+		
+		// raycast
+		List<RaycastResult> results = new ArrayList<RaycastResult>();
+		TestCase.assertTrue(world.raycast(new Vector2(10.0, 10.0), new Vector2(10.0, -10.0), false, false, results));
+		TestCase.assertEquals(1, results.size());
+		TestCase.assertSame(terrain, results.get(0).getBody());
+		TestCase.assertEquals(Math.sin(0.5) * 2.0, results.get(0).getRaycast().getPoint().y, 1.0e-3);
+		
+		// detect
+		List<DetectResult> detected = new ArrayList<DetectResult>();
+		TestCase.assertTrue(world.detect(new AABB(-0.05, -1.0, 0.05, 1.0), detected));
+		TestCase.assertEquals(2, detected.size());
+		detected.clear();
+		TestCase.assertTrue(world.detect(Geometry.createCircle(0.5), new Transform(), null, false, false, false, detected));
+		TestCase.assertFalse(detected.isEmpty());
+		
+		// convex cast
+		List<ConvexCastResult> casts = new ArrayList<ConvexCastResult>();
+		Transform tx = new Transform();
+		tx.translate(20.0, 10.0);
+		TestCase.assertTrue(world.convexCast(Geometry.createCircle(0.5), tx, new Vector2(0.0, -20.0), false, false, casts));
+		TestCase.assertSame(terrain, casts.get(0).getBody());
+		
+		// removing the terrain removes it from the queries
+		TestCase.assertTrue(world.removeBody(terrain));
+		results.clear();
+		TestCase.assertFalse(world.raycast(new Vector2(10.0, 10.0), new Vector2(10.0, -10.0), false, false, results));
+		
+		// re-adding the terrain after changing the broad-phase keeps it out of the broad-phase
+		world.addBody(terrain);
+		world.setBroadphaseDetector(new DynamicAABBTree<Body, BodyFixture>());
+		TestCase.assertEquals(0, world.getBroadphaseDetector().size());
+		results.clear();
+		TestCase.assertTrue(world.raycast(new Vector2(10.0, 10.0), new Vector2(10.0, -10.0), false, false, results));
+		
+		world.removeAllBodies();
+		results.clear();
+		TestCase.assertFalse(world.raycast(new Vector2(10.0, 10.0), new Vector2(10.0, -10.0), false, false, results));
+	}
+	
+	/**
+	 * Tests that bodies come to rest on a terrain like they do on a static body
+	 * with the same fixtures and only have contacts with the links under them.
+	 */
+	@Test
+	public void rest() {
+		World world1 = new World();
+		Terrain terrain = new Terrain(this.links);
+		world1.addBody(terrain);
+		
+		World world2 = new World();
+		Body ground = new Body();
+		for (Link link : Geometry.createLinks(this.vertices, false)) {
+			ground.addFixture(link);
+		}
+		ground.setMass(MassType.INFINITE);
+		world2.addBody(ground);
+		
+		List<Body> bodies1 = new ArrayList<Body>();
+		List<Body> bodies2 = new ArrayList<Body>();
+		for (int i = 0; i < 10; i++) {
+			double x = -45.0 + i * 10.0;
+			Body body1 = new Body();
+			body1.addFixture(Geometry.createSquare(1.0));
+			body1.setMass(MassType.NORMAL);
+			body1.translate(x, 5.0);
+			world1.addBody(body1);
+			bodies1.add(body1);
+			
+			Body body2 = new Body();
+			body2.addFixture(Geometry.createSquare(1.0));
+			body2.setMass(MassType.NORMAL);
+			body2.translate(x, 5.0);
+			world2.addBody(body2);
+			bodies2.add(body2);
+		}
+		
+		world1.step(300);
+		world2.step(300);
+		
+		for (int i = 0; i < 10; i++) {
+			Body body1 = bodies1.get(i);
+			Body body2 = bodies2.get(i);
+			Vector2 c1 = body1.getWorldCenter();
+			Vector2 c2 = body2.getWorldCenter();
+			// the contacts may be solved in a different order so a
+			// box that tumbles down the slope can land a little apart
+			TestCase.assertEquals(c2.x, c1.x, 0.5);
+			TestCase.assertEquals(c2.y, c1.y, 0.1);
+			
+			// resting on the terrain
+			TestCase.assertTrue(c1.y > Math.sin(c1.x * 0.05) * 2.0);
+			TestCase.assertTrue(body1.isInContact(terrain));
+			
+			// only with the links under the body
+			List<ContactPoint> contacts = body1.getContacts(false);
+			TestCase.assertFalse(contacts.isEmpty());
+			for (ContactPoint cp : contacts) {
+				TestCase.assertTrue(Math.abs(cp.getPoint().x - c1.x) < 1.0);
+			}
+		}
+	}
+	
+	/**
+	 * Tests that a fast body doesn't pass through a terrain.
+	 */
+	@Test
+	public void timeOfImpact() {
+		World world = new World();
+		Terrain terrain = new Terrain(this.links);
+		world.addBody(terrain);
+		
+		Body body = new Body();
+		body.addFixture(Geometry.createCircle(0.1));
+		body.setMass(MassType.NORMAL);
+		body.translate(30.0, 4.0);
+		body.setLinearVelocity(0.0, -400.0);
+		body.setBullet(true);
+		world.addBody(body);
+		
+		for (int i = 0; i < 10; i++) {
+			world.step(1);
+			TestCase.assertTrue(body.getWorldCenter().y > Math.sin(1.5) * 2.0 - 0.1);
+		}
+	}
+}
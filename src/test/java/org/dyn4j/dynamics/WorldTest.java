@@ -25,8 +25,11 @@
 package org.dyn4j.dynamics;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.dyn4j.Listener;
 import org.dyn4j.collision.AxisAlignedBounds;
@@ -38,16 +41,23 @@ import org.dyn4j.collision.broadphase.Sap;
 import org.dyn4j.collision.continuous.ConservativeAdvancement;
 import org.dyn4j.collision.continuous.TimeOfImpactDetector;
 import org.dyn4j.collision.manifold.ClippingManifoldSolver;
+import org.dyn4j.collision.manifold.Manifold;
 import org.dyn4j.collision.manifold.ManifoldSolver;
 import org.dyn4j.collision.narrowphase.Gjk;
 import org.dyn4j.collision.narrowphase.NarrowphaseDetector;
+import org.dyn4j.collision.narrowphase.Penetration;
+import org.dyn4j.dynamics.contact.BatchedImpulses;
 import org.dyn4j.dynamics.contact.ContactAdapter;
 import org.dyn4j.dynamics.contact.ContactConstraint;
+import org.dyn4j.dynamics.contact.ContactConstraintPool;
 import org.dyn4j.dynamics.contact.ContactPoint;
 import org.dyn4j.dynamics.contact.SequentialImpulses;
+import org.dyn4j.dynamics.contact.SubSteppingImpulses;
 import org.dyn4j.dynamics.joint.AngleJoint;
 import org.dyn4j.dynamics.joint.DistanceJoint;
 import org.dyn4j.dynamics.joint.Joint;
+import org.dyn4j.dynamics.joint.RevoluteJoint;
+import org.dyn4j.geometry.AABB;
 import org.dyn4j.geometry.Circle;
 import org.dyn4j.geometry.Convex;
 import org.dyn4j.geometry.Geometry;
@@ -1075,4 +1085,845 @@ public class WorldTest {
 		
 		world.step(1);
 	}
+	
+	/**
+	 * Adds a static floor and a number of separate box stacks to the given world.
+	 * @param world the world
+	 * @param stacks the number of stacks
+	 */
+	private static void addStacks(World world, int stacks) {
+		Body floor = new Body();
+		floor.addFixture(Geometry.createRectangle(stacks * 4.0, 1.0));
+		floor.setMass(MassType.INFINITE);
+		world.addBody(floor);
+		
+		for (int i = 0; i < stacks; i++) {
+			double x = (i - stacks * 0.5) * 4.0;
+			for (int j = 0; j < 5; j++) {
+				Body box = new Body();
+				box.addFixture(Geometry.createSquare(1.0));
+				box.translate(x + j * 0.05, 1.0 + j * 1.05);
+				box.setMass(MassType.NORMAL);
+				world.addBody(box);
+			}
+		}
+	}
+	
+	/**
+	 * Tests that solving islands concurrently produces the same result
+	 * as solving them serially.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void islandExecutor() {
+		World serial = new World();
+		World parallel = new World();
+		addStacks(serial, 8);
+		addStacks(parallel, 8);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			parallel.setIslandExecutor(executor);
+			TestCase.assertSame(executor, parallel.getIslandExecutor());
+			
+			for (int i = 0; i < 300; i++) {
+				serial.step(1);
+				parallel.step(1);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		
+		int n = serial.getBodyCount();
+		for (int i = 0; i < n; i++) {
+			Body b1 = serial.getBody(i);
+			Body b2 = parallel.getBody(i);
+			TestCase.assertEquals(b1.getTransform().getTranslationX(), b2.getTransform().getTranslationX());
+			TestCase.assertEquals(b1.getTransform().getTranslationY(), b2.getTransform().getTranslationY());
+			TestCase.assertEquals(b1.getTransform().getRotation(), b2.getTransform().getRotation());
+			TestCase.assertEquals(b1.isAsleep(), b2.isAsleep());
+		}
+		
+		// the stacks should have come to rest
+		TestCase.assertTrue(parallel.getBody(n - 1).isAsleep());
+		
+		parallel.setIslandExecutor(null);
+		TestCase.assertNull(parallel.getIslandExecutor());
+	}
+	
+	/**
+	 * Tests that a solver that isn't known to be safe to use concurrently is only
+	 * used on the calling thread, even when executors are set.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void islandExecutorUnsafeSolver() {
+		TestCase.assertTrue(World.isConcurrencySafe(new SequentialImpulses()));
+		TestCase.assertTrue(World.isConcurrencySafe(new BatchedImpulses()));
+		TestCase.assertTrue(World.isConcurrencySafe(new SubSteppingImpulses()));
+		
+		final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+		SequentialImpulses solver = new SequentialImpulses() {
+			@Override
+			public void initialize(List<ContactConstraint> contactConstraints, Step step, Settings settings) {
+				threads.add(Thread.currentThread());
+				super.initialize(contactConstraints, step, settings);
+			}
+			@Override
+			public void solveVelocityContraints(List<ContactConstraint> contactConstraints, Step step, Settings settings) {
+				threads.add(Thread.currentThread());
+				super.solveVelocityContraints(contactConstraints, step, settings);
+			}
+		};
+		TestCase.assertFalse(World.isConcurrencySafe(solver));
+		
+		World world = new World();
+		world.setContactConstraintSolver(solver);
+		addStacks(world, 8);
+		// a block of boxes large enough for its constraints to be solved concurrently
+		for (int i = 0; i < 10; i++) {
+			for (int j = 0; j < 10; j++) {
+				Body box = new Body();
+				box.addFixture(Geometry.createSquare(1.0));
+				box.translate(40.0 + i * 1.0, 1.0 + j * 1.0);
+				box.setMass(MassType.NORMAL);
+				world.addBody(box);
+			}
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			world.setIslandExecutor(executor);
+			world.setConstraintExecutor(executor);
+			world.step(10);
+		} finally {
+			executor.shutdown();
+		}
+		
+		TestCase.assertFalse(threads.isEmpty());
+		for (Thread thread : threads) {
+			TestCase.assertSame(Thread.currentThread(), thread);
+		}
+	}
+	
+	/**
+	 * Tests that performing the narrow-phase concurrently produces the same
+	 * result as performing it serially.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void narrowphaseExecutor() {
+		World serial = new World();
+		World parallel = new World();
+		// enough stacks to produce multiple batches of pairs
+		addStacks(serial, 40);
+		addStacks(parallel, 40);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			parallel.setNarrowphaseExecutor(executor);
+			TestCase.assertSame(executor, parallel.getNarrowphaseExecutor());
+			
+			for (int i = 0; i < 100; i++) {
+				serial.step(1);
+				parallel.step(1);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		
+		int n = serial.getBodyCount();
+		for (int i = 0; i < n; i++) {
+			Body b1 = serial.getBody(i);
+			Body b2 = parallel.getBody(i);
+			TestCase.assertEquals(b1.getTransform().getTranslationX(), b2.getTransform().getTranslationX());
+			TestCase.assertEquals(b1.getTransform().getTranslationY(), b2.getTransform().getTranslationY());
+			TestCase.assertEquals(b1.getTransform().getRotation(), b2.getTransform().getRotation());
+			TestCase.assertEquals(b1.getContacts(false).size(), b2.getContacts(false).size());
+		}
+		
+		// the boxes should be in contact
+		TestCase.assertFalse(parallel.getBody(1).getContacts(false).isEmpty());
+		
+		parallel.setNarrowphaseExecutor(null);
+		TestCase.assertNull(parallel.getNarrowphaseExecutor());
+	}
+	
+	/**
+	 * A collision listener that records the order of the notifications and the manifold normals.
+	 * @author William Bittle
+	 * @version 3.3.1
+	 * @since 3.3.1
+	 */
+	private static class OrderListener extends CollisionAdapter {
+		/** The notifications; b for broad-phase, n for narrow-phase followed by the body indices */
+		final List<String> events = new ArrayList<String>();
+		
+		/** The normals of the manifolds */
+		final List<Vector2> normals = new ArrayList<Vector2>();
+		
+		/** True if the penetration normal should be rotated by the narrow-phase notification */
+		final boolean modify;
+		
+		/**
+		 * Full constructor.
+		 * @param modify true if the penetration normal should be rotated
+		 */
+		OrderListener(boolean modify) {
+			this.modify = modify;
+		}
+		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.dynamics.CollisionAdapter#collision(org.dyn4j.dynamics.Body, org.dyn4j.dynamics.BodyFixture, org.dyn4j.dynamics.Body, org.dyn4j.dynamics.BodyFixture)
+		 */
+		@Override
+		public boolean collision(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2) {
+			this.events.add("b" + body1.getUserData() + "-" + body2.getUserData());
+			return true;
+		}
+		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.dynamics.CollisionAdapter#collision(org.dyn4j.dynamics.Body, org.dyn4j.dynamics.BodyFixture, org.dyn4j.dynamics.Body, org.dyn4j.dynamics.BodyFixture, org.dyn4j.collision.narrowphase.Penetration)
+		 */
+		@Override
+		public boolean collision(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, Penetration penetration) {
+			this.events.add("n" + body1.getUserData() + "-" + body2.getUserData());
+			if (this.modify) {
+				penetration.setNormal(penetration.getNormal().getLeftHandOrthogonalVector());
+			}
+			return true;
+		}
+		
+		/* (non-Javadoc)
+		 * @see org.dyn4j.dynamics.CollisionAdapter#collision(org.dyn4j.dynamics.Body, org.dyn4j.dynamics.BodyFixture, org.dyn4j.dynamics.Body, org.dyn4j.dynamics.BodyFixture, org.dyn4j.collision.manifold.Manifold)
+		 */
+		@Override
+		public boolean collision(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2, Manifold manifold) {
+			this.normals.add(manifold.getNormal().copy());
+			return true;
+		}
+	}
+	
+	/**
+	 * Returns a new world with a floor and a number of stacks of overlapping boxes.
+	 * <p>
+	 * The user data of each {@link Body} is its index.
+	 * @param listener the collision listener to add
+	 * @return {@link World}
+	 */
+	private static World createOverlappingStacks(CollisionListener listener) {
+		World world = new World();
+		Body floor = new Body();
+		floor.addFixture(Geometry.createRectangle(200.0, 1.0));
+		floor.setMass(MassType.INFINITE);
+		floor.translate(0.0, -0.5);
+		world.addBody(floor);
+		for (int i = 0; i < 40; i++) {
+			for (int j = 0; j < 4; j++) {
+				Body box = new Body();
+				box.addFixture(Geometry.createSquare(1.0));
+				box.translate(i * 2.0 - 40.0, 0.45 + j * 0.95);
+				box.setMass(MassType.NORMAL);
+				world.addBody(box);
+			}
+		}
+		for (int i = 0; i < world.getBodyCount(); i++) {
+			world.getBody(i).setUserData(i);
+		}
+		world.addListener(listener);
+		return world;
+	}
+	
+	/**
+	 * Tests the order of the {@link CollisionListener} notifications when the narrow-phase
+	 * is performed concurrently and that changes to the {@link Penetration} aren't used.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void narrowphaseExecutorListeners() {
+		OrderListener reference = new OrderListener(false);
+		OrderListener serial = new OrderListener(true);
+		OrderListener parallel = new OrderListener(true);
+		World w1 = createOverlappingStacks(reference);
+		World w2 = createOverlappingStacks(serial);
+		World w3 = createOverlappingStacks(parallel);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			w3.setNarrowphaseExecutor(executor);
+			w1.step(1);
+			w2.step(1);
+			w3.step(1);
+		} finally {
+			executor.shutdown();
+		}
+		
+		// serially the notifications of each pair are interleaved
+		List<String> events = serial.events;
+		TestCase.assertTrue(events.get(0).startsWith("b"));
+		TestCase.assertTrue(events.get(1).startsWith("n"));
+		
+		// concurrently all the broad-phase notifications of a detection come
+		// first, then the narrow-phase notifications, both in pair order
+		List<String> expected = new ArrayList<String>();
+		List<String> broadphase = new ArrayList<String>();
+		List<String> narrowphase = new ArrayList<String>();
+		String first = events.get(0);
+		for (int i = 0; i <= events.size(); i++) {
+			// the same first pair starts each detection of the step
+			if (i == events.size() || (i > 0 && first.equals(events.get(i)))) {
+				expected.addAll(broadphase);
+				expected.addAll(narrowphase);
+				broadphase.clear();
+				narrowphase.clear();
+			}
+			if (i == events.size()) break;
+			String event = events.get(i);
+			if (event.startsWith("b")) {
+				broadphase.add(event);
+			} else {
+				narrowphase.add(event);
+			}
+		}
+		TestCase.assertEquals(expected, parallel.events);
+		
+		// changes to the penetration are used serially but not concurrently
+		TestCase.assertEquals(reference.normals.size(), parallel.normals.size());
+		TestCase.assertEquals(reference.normals, parallel.normals);
+		TestCase.assertFalse(reference.normals.equals(serial.normals));
+	}
+	
+	/**
+	 * A world that tests every body during time of impact detection.
+	 * @author William Bittle
+	 * @version 3.3.1
+	 * @since 3.3.1
+	 */
+	private static class ExhaustiveTOIWorld extends World {
+		/* (non-Javadoc)
+		 * @see org.dyn4j.dynamics.World#solveTOI(org.dyn4j.dynamics.ContinuousDetectionMode)
+		 */
+		@Override
+		protected void solveTOI(ContinuousDetectionMode mode) {
+			List<TimeOfImpactListener> listeners = this.getListeners(TimeOfImpactListener.class);
+			for (int i = 0; i < this.getBodyCount(); i++) {
+				Body body = this.getBody(i);
+				if (mode == ContinuousDetectionMode.BULLETS_ONLY && !body.isBullet()) continue;
+				if (body.getMass().isInfinite()) continue;
+				if (!body.isOnIsland() || body.isAsleep()) continue;
+				this.solveTOI(body, listeners);
+			}
+		}
+	}
+	
+	/**
+	 * Adds fast moving bodies and thin walls to the given world.
+	 * @param world the world
+	 */
+	private static void addBullets(World world) {
+		world.setGravity(World.ZERO_GRAVITY);
+		
+		// a row of thin walls
+		for (int i = 0; i < 10; i++) {
+			Body wall = new Body();
+			wall.addFixture(Geometry.createRectangle(0.05, 2.0));
+			wall.setMass(MassType.INFINITE);
+			wall.translate(10.0, i * 3.0);
+			world.addBody(wall);
+		}
+		
+		// a fast moving kinematic body
+		Body kinematic = new Body();
+		kinematic.addFixture(Geometry.createRectangle(0.05, 2.0));
+		kinematic.setMass(MassType.INFINITE);
+		kinematic.translate(-20.0, 30.0);
+		kinematic.setLinearVelocity(600.0, 0.0);
+		world.addBody(kinematic);
+		
+		// bullets moving toward the walls
+		for (int i = 0; i < 11; i++) {
+			Body bullet = new Body();
+			bullet.addFixture(Geometry.createCircle(0.1));
+			bullet.setMass(MassType.NORMAL);
+			bullet.setBullet(i % 2 == 0);
+			bullet.translate(0.0, i * 3.0);
+			bullet.setLinearVelocity(400.0, 0.0);
+			world.addBody(bullet);
+		}
+		
+		// a pair of bullets moving toward each other
+		Body b1 = new Body();
+		b1.addFixture(Geometry.createSquare(0.1));
+		b1.setMass(MassType.NORMAL);
+		b1.setBullet(true);
+		b1.translate(-5.0, -5.0);
+		b1.setLinearVelocity(300.0, 0.0);
+		world.addBody(b1);
+		
+		Body b2 = new Body();
+		b2.addFixture(Geometry.createSquare(0.1));
+		b2.setMass(MassType.NORMAL);
+		b2.setBullet(true);
+		b2.translate(5.0, -5.0);
+		b2.setLinearVelocity(-300.0, 0.0);
+		b2.setAngularVelocity(50.0);
+		world.addBody(b2);
+	}
+	
+	/**
+	 * Tests that using the broad-phase to find the bodies near each swept body
+	 * produces the same result as testing every body.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void solveTOIBroadphase() {
+		for (ContinuousDetectionMode mode : ContinuousDetectionMode.values()) {
+			World pruned = new World();
+			World exhaustive = new ExhaustiveTOIWorld();
+			pruned.getSettings().setContinuousDetectionMode(mode);
+			exhaustive.getSettings().setContinuousDetectionMode(mode);
+			addBullets(pruned);
+			addBullets(exhaustive);
+			
+			for (int i = 0; i < 30; i++) {
+				pruned.step(1);
+				exhaustive.step(1);
+			}
+			
+			int n = pruned.getBodyCount();
+			for (int i = 0; i < n; i++) {
+				Body b1 = pruned.getBody(i);
+				Body b2 = exhaustive.getBody(i);
+				TestCase.assertEquals(b2.getTransform().getTranslationX(), b1.getTransform().getTranslationX());
+				TestCase.assertEquals(b2.getTransform().getTranslationY(), b1.getTransform().getTranslationY());
+				TestCase.assertEquals(b2.getTransform().getRotation(), b1.getTransform().getRotation());
+			}
+			
+			if (mode != ContinuousDetectionMode.NONE) {
+				// the bullets shouldn't pass through the walls
+				for (int i = 0; i < 10; i++) {
+					Body bullet = pruned.getBody(11 + i);
+					if (mode == ContinuousDetectionMode.ALL || bullet.isBullet()) {
+						TestCase.assertTrue(bullet.getTransform().getTranslationX() < 10.0);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tests that reusing contact related objects produces the same result
+	 * as creating them every step.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void contactPooling() {
+		World normal = new World();
+		World pooled = new World();
+		World pooledParallel = new World();
+		addStacks(normal, 40);
+		addStacks(pooled, 40);
+		addStacks(pooledParallel, 40);
+		
+		TestCase.assertFalse(pooled.isContactPoolingEnabled());
+		pooled.setContactPoolingEnabled(true);
+		pooledParallel.setContactPoolingEnabled(true);
+		TestCase.assertTrue(pooled.isContactPoolingEnabled());
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			pooledParallel.setNarrowphaseExecutor(executor);
+			for (int i = 0; i < 100; i++) {
+				normal.step(1);
+				pooled.step(1);
+				pooledParallel.step(1);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		
+		int n = normal.getBodyCount();
+		for (int i = 0; i < n; i++) {
+			Body b1 = normal.getBody(i);
+			Body b2 = pooled.getBody(i);
+			Body b3 = pooledParallel.getBody(i);
+			TestCase.assertEquals(b1.getTransform().getTranslationX(), b2.getTransform().getTranslationX());
+			TestCase.assertEquals(b1.getTransform().getTranslationY(), b2.getTransform().getTranslationY());
+			TestCase.assertEquals(b1.getTransform().getRotation(), b2.getTransform().getRotation());
+			TestCase.assertEquals(b1.getTransform().getTranslationX(), b3.getTransform().getTranslationX());
+			TestCase.assertEquals(b1.getTransform().getTranslationY(), b3.getTransform().getTranslationY());
+			TestCase.assertEquals(b1.getTransform().getRotation(), b3.getTransform().getRotation());
+			TestCase.assertEquals(b1.getContacts(false).size(), b2.getContacts(false).size());
+		}
+		
+		// the contact constraints should be reused
+		ContactConstraintPool pool = pooled.getContactConstraintPool();
+		int contacts = pooled.getContactManager().getContactCount();
+		TestCase.assertTrue(contacts > 0);
+		TestCase.assertTrue(pool.getInUseCount() >= contacts);
+		TestCase.assertTrue(pool.getAvailableCount() > 0);
+		TestCase.assertTrue(pool.getHighWaterMark() >= pool.getInUseCount());
+		
+		// disabling releases the pooled objects
+		pooled.setContactPoolingEnabled(false);
+		TestCase.assertEquals(0, pool.getAvailableCount());
+		TestCase.assertEquals(0, pool.getHighWaterMark());
+		pooled.step(1);
+		TestCase.assertEquals(0, pool.getInUseCount());
+		
+		// normal worlds don't use the pool
+		TestCase.assertEquals(0, normal.getContactConstraintPool().getHighWaterMark());
+	}
+	
+	/**
+	 * Adds a chain of bodies connected by revolute joints hanging from a static
+	 * body and a kinematic body pushing through the given world.
+	 * @param world the world
+	 */
+	private static void addChainAndKinematic(World world) {
+		Body anchor = new Body();
+		anchor.addFixture(Geometry.createSquare(0.5));
+		anchor.translate(0.0, 20.0);
+		anchor.setMass(MassType.INFINITE);
+		world.addBody(anchor);
+		
+		Body previous = anchor;
+		for (int i = 0; i < 8; i++) {
+			Body link = new Body();
+			link.addFixture(Geometry.createRectangle(1.0, 0.25));
+			link.translate(0.75 + i * 1.0, 20.0);
+			link.setMass(MassType.NORMAL);
+			world.addBody(link);
+			world.addJoint(new RevoluteJoint(previous, link, new Vector2(0.25 + i * 1.0, 20.0)));
+			previous = link;
+		}
+		
+		Body kinematic = new Body();
+		kinematic.addFixture(Geometry.createCircle(0.5));
+		kinematic.translate(-30.0, 1.6);
+		kinematic.setMass(MassType.INFINITE);
+		kinematic.setLinearVelocity(4.0, 0.0);
+		kinematic.setAngularVelocity(1.0);
+		world.addBody(kinematic);
+	}
+	
+	/**
+	 * Tests that solving islands using the packed body state store produces exactly
+	 * the same result as solving them using the bodies directly.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void bodyStateStore() {
+		World normal = new World();
+		World packed = new World();
+		World packedParallel = new World();
+		addStacks(normal, 20);
+		addStacks(packed, 20);
+		addStacks(packedParallel, 20);
+		addChainAndKinematic(normal);
+		addChainAndKinematic(packed);
+		addChainAndKinematic(packedParallel);
+		
+		TestCase.assertFalse(packed.getSettings().isBodyStateStoreEnabled());
+		packed.getSettings().setBodyStateStoreEnabled(true);
+		packedParallel.getSettings().setBodyStateStoreEnabled(true);
+		TestCase.assertTrue(packed.getSettings().isBodyStateStoreEnabled());
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			packedParallel.setIslandExecutor(executor);
+			for (int i = 0; i < 200; i++) {
+				normal.step(1);
+				packed.step(1);
+				packedParallel.step(1);
+			}
+		} finally {
+			executor.shutdown();
+		}
+		
+		int n = normal.getBodyCount();
+		for (int i = 0; i < n; i++) {
+			Body b1 = normal.getBody(i);
+			for (World world : new World[] { packed, packedParallel }) {
+				Body b2 = world.getBody(i);
+				TestCase.assertEquals(b1.getTransform().getTranslationX(), b2.getTransform().getTranslationX());
+				TestCase.assertEquals(b1.getTransform().getTranslationY(), b2.getTransform().getTranslationY());
+				TestCase.assertEquals(b1.getTransform().getCost(), b2.getTransform().getCost());
+				TestCase.assertEquals(b1.getTransform().getSint(), b2.getTransform().getSint());
+				TestCase.assertEquals(b1.getLinearVelocity().x, b2.getLinearVelocity().x);
+				TestCase.assertEquals(b1.getLinearVelocity().y, b2.getLinearVelocity().y);
+				TestCase.assertEquals(b1.getAngularVelocity(), b2.getAngularVelocity());
+				TestCase.assertEquals(b1.isAsleep(), b2.isAsleep());
+			}
+		}
+		
+		// make sure the scene actually moved
+		TestCase.assertTrue(normal.getBody(n - 1).getTransform().getTranslationX() > -30.0);
+		TestCase.assertTrue(normal.getBody(n - 2).getTransform().getTranslationY() < 20.0);
+	}
+	
+	/**
+	 * Tests that a woken body's kept contacts are solved on the next step.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void wakeKeptContacts() {
+		World world = new World();
+		world.setGravity(World.ZERO_GRAVITY);
+		Body floor = new Body();
+		floor.addFixture(Geometry.createRectangle(10.0, 1.0));
+		floor.setMass(MassType.INFINITE);
+		world.addBody(floor);
+		// a box resting on the floor within the linear slop never moves
+		// so it goes to sleep in the same step its contact was solved
+		Body box = new Body();
+		box.addFixture(Geometry.createSquare(1.0));
+		box.setMass(MassType.NORMAL);
+		box.translate(0.0, 0.999);
+		world.addBody(box);
+		
+		world.step(100);
+		TestCase.assertTrue(box.isAsleep());
+		TestCase.assertTrue(box.isInContact(floor));
+		
+		// the kept contact must be solved once the box is woken
+		box.setAsleep(false);
+		box.setLinearVelocity(0.0, -1.0);
+		world.step(1);
+		TestCase.assertTrue(box.getLinearVelocity().y > -0.5);
+		TestCase.assertTrue(box.getWorldCenter().y > 0.99);
+	}
+	
+	/**
+	 * Tests that the kept contacts of a sleeping body are detected again when the body
+	 * or the static body it rests on is moved without waking it.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void moveKeptContacts() {
+		this.moveKeptContacts(false, false);
+		this.moveKeptContacts(false, true);
+		this.moveKeptContacts(true, false);
+		this.moveKeptContacts(true, true);
+	}
+	
+	/**
+	 * Moves a sleeping box or the static floor it rests on apart and makes sure the contact ends.
+	 * @param moveFloor true if the floor should be moved rather than the box
+	 * @param pooling true if contact pooling should be enabled
+	 */
+	private void moveKeptContacts(boolean moveFloor, boolean pooling) {
+		World world = new World();
+		world.setContactPoolingEnabled(pooling);
+		Body floor = new Body();
+		floor.addFixture(Geometry.createRectangle(10.0, 1.0));
+		floor.setMass(MassType.INFINITE);
+		world.addBody(floor);
+		Body box = new Body();
+		box.addFixture(Geometry.createSquare(1.0));
+		box.setMass(MassType.NORMAL);
+		box.translate(0.0, 0.999);
+		world.addBody(box);
+		
+		final int[] events = new int[2];
+		world.addListener(new ContactAdapter() {
+			@Override
+			public boolean begin(ContactPoint point) {
+				events[0]++;
+				return true;
+			}
+			@Override
+			public void end(ContactPoint point) {
+				events[1]++;
+			}
+		});
+		
+		world.step(100);
+		TestCase.assertTrue(box.isAsleep());
+		TestCase.assertTrue(box.isInContact(floor));
+		
+		// move them apart without waking the box
+		if (moveFloor) {
+			floor.translate(0.0, -5.0);
+		} else {
+			box.translate(0.0, 5.0);
+		}
+		events[1] = 0;
+		world.step(1);
+		TestCase.assertTrue(box.isAsleep());
+		TestCase.assertFalse(box.isInContact(floor));
+		TestCase.assertTrue(events[1] > 0);
+		TestCase.assertEquals(0, world.getContactManager().getContactCount());
+		
+		// and back together again
+		if (moveFloor) {
+			floor.translate(0.0, 5.0);
+		} else {
+			box.translate(0.0, -5.0);
+		}
+		events[0] = 0;
+		world.step(1);
+		TestCase.assertTrue(box.isInContact(floor));
+		TestCase.assertTrue(events[0] > 0);
+	}
+	
+	/**
+	 * Tests that the contacts of sleeping bodies are kept without being detected again
+	 * until the bodies are woken up.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void sleepingContacts() {
+		this.sleepingContacts(false);
+		this.sleepingContacts(true);
+	}
+	
+	/**
+	 * Tests that the contacts of sleeping bodies are kept with or without contact pooling.
+	 * @param pooling true if contact pooling should be enabled
+	 */
+	private void sleepingContacts(boolean pooling) {
+		World world = new World();
+		world.setContactPoolingEnabled(pooling);
+		addStacks(world, 2);
+		
+		final int[] collisions = new int[1];
+		world.addListener(new CollisionAdapter() {
+			@Override
+			public boolean collision(Body body1, BodyFixture fixture1, Body body2, BodyFixture fixture2) {
+				collisions[0]++;
+				return true;
+			}
+		});
+		
+		world.step(300);
+		int n = world.getBodyCount();
+		for (int i = 1; i < n; i++) {
+			TestCase.assertTrue(world.getBody(i).isAsleep());
+		}
+		
+		// save the contact constraints of the boxes
+		List<ContactConstraint> saved = new ArrayList<ContactConstraint>();
+		for (int i = 1; i < n; i++) {
+			Body body = world.getBody(i);
+			TestCase.assertFalse(body.contacts.isEmpty());
+			for (ContactEdge edge : body.contacts) {
+				saved.add(edge.interaction);
+			}
+		}
+		int count = world.getContactManager().getContactCount();
+		
+		// nothing is detected while asleep
+		collisions[0] = 0;
+		world.step(10);
+		TestCase.assertEquals(0, collisions[0]);
+		TestCase.assertEquals(count, world.getContactManager().getContactCount());
+		int k = 0;
+		for (int i = 1; i < n; i++) {
+			Body body = world.getBody(i);
+			for (ContactEdge edge : body.contacts) {
+				ContactConstraint cc = saved.get(k++);
+				TestCase.assertSame(cc, edge.interaction);
+				// make sure it wasn't reused
+				TestCase.assertTrue(cc.getBody1() == body || cc.getBody2() == body);
+			}
+		}
+		TestCase.assertEquals(saved.size(), k);
+		
+		// waking the top box of the first stack wakes the stack
+		world.getBody(5).setAsleep(false);
+		world.step(1);
+		TestCase.assertTrue(collisions[0] > 0);
+		TestCase.assertEquals(count, world.getContactManager().getContactCount());
+		k = 0;
+		for (int i = 1; i < n; i++) {
+			Body body = world.getBody(i);
+			for (ContactEdge edge : body.contacts) {
+				ContactConstraint cc = saved.get(k++);
+				if (i <= 5) {
+					TestCase.assertFalse(body.isAsleep());
+					TestCase.assertNotSame(cc, edge.interaction);
+				} else {
+					TestCase.assertTrue(body.isAsleep());
+					TestCase.assertSame(cc, edge.interaction);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tests baking the static bodies into the static layer.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void bakeStaticBodies() {
+		World world = new World();
+		Body ground = new Body();
+		ground.addFixture(Geometry.createRectangle(20.0, 1.0));
+		ground.setMass(MassType.INFINITE);
+		world.addBody(ground);
+		Body wall = new Body();
+		wall.addFixture(Geometry.createRectangle(1.0, 10.0));
+		wall.setMass(MassType.INFINITE);
+		wall.translate(10.0, 5.0);
+		world.addBody(wall);
+		Body box = new Body();
+		box.addFixture(Geometry.createSquare(1.0));
+		box.setMass(MassType.NORMAL);
+		box.translate(0.0, 2.0);
+		world.addBody(box);
+		
+		world.bakeStaticBodies();
+		TestCase.assertEquals(2, world.getBakedBodyCount());
+		TestCase.assertTrue(ground.isBaked());
+		TestCase.assertTrue(wall.isBaked());
+		TestCase.assertFalse(box.isBaked());
+		// only the box is left in the broad-phase
+		TestCase.assertEquals(1, world.getBroadphaseDetector().size());
+		TestCase.assertFalse(world.getBroadphaseDetector().contains(ground));
+		
+		// baking again doesn't add them twice
+		world.bakeStaticBodies();
+		TestCase.assertEquals(2, world.getBakedBodyCount());
+		TestCase.assertEquals(1, world.getBroadphaseDetector().size());
+		
+		// the baked bodies are still found by the queries
+		List<RaycastResult> results = new ArrayList<RaycastResult>();
+		TestCase.assertTrue(world.raycast(new Vector2(5.0, 10.0), new Vector2(5.0, -10.0), false, false, results));
+		TestCase.assertEquals(1, results.size());
+		TestCase.assertSame(ground, results.get(0).getBody());
+		List<DetectResult> detects = new ArrayList<DetectResult>();
+		TestCase.assertTrue(world.detect(new AABB(9.0, 4.0, 11.0, 6.0), false, false, detects));
+		TestCase.assertEquals(1, detects.size());
+		TestCase.assertSame(wall, detects.get(0).getBody());
+		
+		// the box comes to rest on the ground
+		world.step(200);
+		TestCase.assertTrue(box.isInContact(ground));
+		TestCase.assertEquals(1.0, box.getWorldCenter().y, 1.0e-2);
+		TestCase.assertFalse(ground.isInContact(wall));
+		
+		// removing a baked body removes it from the static layer
+		world.removeBody(wall);
+		TestCase.assertEquals(1, world.getBakedBodyCount());
+		TestCase.assertFalse(wall.isBaked());
+		detects.clear();
+		TestCase.assertFalse(world.detect(new AABB(9.0, 4.0, 11.0, 6.0), false, false, detects));
+		
+		// the box stays on the ground after unbaking
+		world.unbakeStaticBodies();
+		TestCase.assertEquals(0, world.getBakedBodyCount());
+		TestCase.assertFalse(ground.isBaked());
+		TestCase.assertEquals(2, world.getBroadphaseDetector().size());
+		box.setAsleep(false);
+		world.step(10);
+		TestCase.assertTrue(box.isInContact(ground));
+		TestCase.assertEquals(1.0, box.getWorldCenter().y, 1.0e-2);
+		
+		// removing all the bodies clears the static layer
+		world.bakeStaticBodies();
+		world.removeAllBodies();
+		TestCase.assertEquals(0, world.getBakedBodyCount());
+		TestCase.assertFalse(ground.isBaked());
+	}
 }
@@ -363,4 +363,190 @@ public class PolygonTest {
 		TestCase.assertEquals( 2.366, aabb.getMaxX(), 1.0e-3);
 		TestCase.assertEquals( 2.866, aabb.getMaxY(), 1.0e-3);
 	}
+	
+	/**
+	 * Tests that the world space cache returns the same results as transforming the vertices.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void worldSpaceCache() {
+		Polygon cached = Geometry.createUnitCirclePolygon(7, 0.5);
+		Polygon expected = Geometry.createUnitCirclePolygon(7, 0.5);
+		TestCase.assertFalse(cached.isWorldSpaceCacheEnabled());
+		cached.setWorldSpaceCacheEnabled(true);
+		TestCase.assertTrue(cached.isWorldSpaceCacheEnabled());
+		
+		Vector2[] foci = new Vector2[] { new Vector2(2.0, 1.0) };
+		Transform tx = new Transform();
+		for (int i = 0; i < 50; i++) {
+			tx.rotate(Math.toRadians(13.0));
+			tx.translate(0.1, -0.05);
+			// query each transform several times
+			for (int j = 0; j < 3; j++) {
+				Vector2 n = new Vector2(Math.cos(i + j), Math.sin(i + j));
+				
+				Interval e = expected.project(n, tx);
+				Interval a = cached.project(n, tx);
+				TestCase.assertEquals(e.getMin(), a.getMin());
+				TestCase.assertEquals(e.getMax(), a.getMax());
+				
+				TestCase.assertEquals(expected.getFarthestPoint(n, tx), cached.getFarthestPoint(n, tx));
+				
+				EdgeFeature ef = expected.getFarthestFeature(n, tx);
+				EdgeFeature af = cached.getFarthestFeature(n, tx);
+				TestCase.assertEquals(ef.getIndex(), af.getIndex());
+				TestCase.assertEquals(ef.getVertex1().getPoint(), af.getVertex1().getPoint());
+				TestCase.assertEquals(ef.getVertex2().getPoint(), af.getVertex2().getPoint());
+				TestCase.assertEquals(ef.getMaximum().getIndex(), af.getMaximum().getIndex());
+				
+				Vector2[] ea = expected.getAxes(foci, tx);
+				Vector2[] aa = cached.getAxes(foci, tx);
+				TestCase.assertEquals(ea.length, aa.length);
+				for (int k = 0; k < ea.length; k++) {
+					TestCase.assertEquals(ea[k], aa[k]);
+				}
+				
+				AABB eb = expected.createAABB(tx);
+				AABB ab = cached.createAABB(tx);
+				TestCase.assertEquals(eb.getMinX(), ab.getMinX());
+				TestCase.assertEquals(eb.getMinY(), ab.getMinY());
+				TestCase.assertEquals(eb.getMaxX(), ab.getMaxX());
+				TestCase.assertEquals(eb.getMaxY(), ab.getMaxY());
+			}
+		}
+		
+		// changing the shape empties the cache
+		Vector2 n = new Vector2(1.0, 0.0);
+		TestCase.assertEquals(expected.getFarthestPoint(n, tx), cached.getFarthestPoint(n, tx));
+		cached.translate(1.0, 0.0);
+		expected.translate(1.0, 0.0);
+		TestCase.assertEquals(expected.getFarthestPoint(n, tx), cached.getFarthestPoint(n, tx));
+		cached.rotate(Math.toRadians(20.0));
+		expected.rotate(Math.toRadians(20.0));
+		TestCase.assertEquals(expected.getFarthestPoint(n, tx), cached.getFarthestPoint(n, tx));
+		
+		// the returned points are copies
+		cached.getFarthestPoint(n, tx).add(5.0, 5.0);
+		TestCase.assertEquals(expected.getFarthestPoint(n, tx), cached.getFarthestPoint(n, tx));
+		
+		cached.setWorldSpaceCacheEnabled(false);
+		TestCase.assertFalse(cached.isWorldSpaceCacheEnabled());
+		TestCase.assertEquals(expected.getFarthestPoint(n, tx), cached.getFarthestPoint(n, tx));
+	}
+	
+	/**
+	 * Returns the index of the farthest vertex along the given vector by testing all the vertices.
+	 * @param vertices the vertices
+	 * @param n the vector
+	 * @return int
+	 */
+	private static int getFarthestVertex(Vector2[] vertices, Vector2 n) {
+		int index = 0;
+		double max = n.dot(vertices[0]);
+		for (int i = 1; i < vertices.length; i++) {
+			double d = n.dot(vertices[i]);
+			if (d > max) {
+				max = d;
+				index = i;
+			}
+		}
+		return index;
+	}
+	
+	/**
+	 * Tests that hill climbing finds the same farthest vertices as testing all of them.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void getFarthestHillClimbing() {
+		int count = 32;
+		Vector2[] vertices = new Vector2[count];
+		for (int i = 0; i < count; i++) {
+			double a = Geometry.TWO_PI * i / count;
+			vertices[i] = new Vector2(Math.cos(a) * 2.0, Math.sin(a));
+		}
+		Polygon p = new Polygon(vertices);
+		Transform tx = new Transform();
+		tx.rotate(Math.toRadians(30.0));
+		tx.translate(1.0, -1.0);
+		
+		for (int i = 0; i < 720; i++) {
+			// coherent directions followed by a jump to the opposite side
+			double a = Math.toRadians(i * 0.5 + (i % 7 == 0 ? 180.0 : 0.0));
+			Vector2 n = new Vector2(Math.cos(a), Math.sin(a));
+			int index = getFarthestVertex(vertices, tx.getInverseTransformedR(n));
+			
+			TestCase.assertEquals(tx.getTransformed(vertices[index]), p.getFarthestPoint(n.copy(), tx));
+			TestCase.assertEquals(index, p.getFarthestFeature(n.copy(), tx).getMaximum().getIndex());
+		}
+		
+		// ties return the first vertex
+		for (int i = 0; i < count; i++) {
+			Vector2 n = p.getNormals()[i];
+			Vector2 e = p.getFarthestPoint(n.copy(), Transform.IDENTITY);
+			TestCase.assertEquals(vertices[getFarthestVertex(vertices, n)], e);
+		}
+		
+		// colinear vertices
+		vertices = new Vector2[] {
+			new Vector2(-1.0, -1.0),
+			new Vector2(-0.5, -1.0),
+			new Vector2(0.0, -1.0),
+			new Vector2(0.5, -1.0),
+			new Vector2(1.0, -1.0),
+			new Vector2(1.0, 1.0),
+			new Vector2(0.5, 1.0),
+			new Vector2(0.0, 1.0),
+			new Vector2(-0.5, 1.0),
+			new Vector2(-1.0, 1.0)
+		};
+		p = new Polygon(vertices);
+		for (int i = 0; i < 360; i++) {
+			double a = Math.toRadians(i);
+			Vector2 n = new Vector2(Math.cos(a), Math.sin(a));
+			TestCase.assertEquals(vertices[getFarthestVertex(vertices, n)], p.getFarthestPoint(n.copy(), Transform.IDENTITY));
+		}
+	}
+	
+	/**
+	 * Tests that hill climbing with the world space cache enabled finds the same farthest vertices
+	 * whether or not the cache holds the transform.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void getFarthestHillClimbingWorldSpaceCache() {
+		int count = 32;
+		Vector2[] vertices = new Vector2[count];
+		for (int i = 0; i < count; i++) {
+			double a = Geometry.TWO_PI * i / count;
+			vertices[i] = new Vector2(Math.cos(a) * 2.0, Math.sin(a));
+		}
+		Polygon p = new Polygon(vertices);
+		p.setWorldSpaceCacheEnabled(true);
+		TestCase.assertTrue(count >= Polygon.HILL_CLIMBING_MINIMUM_VERTICES);
+		
+		Transform tx = new Transform();
+		for (int i = 0; i < 720; i++) {
+			tx.rotate(Math.toRadians(3.0));
+			tx.translate(0.01, -0.02);
+			// fill the cache every other transform
+			if (i % 2 == 0) {
+				p.createAABB(tx);
+			}
+			
+			double a = Math.toRadians(i * 0.5 + (i % 7 == 0 ? 180.0 : 0.0));
+			Vector2 n = new Vector2(Math.cos(a), Math.sin(a));
+			int index = getFarthestVertex(vertices, tx.getInverseTransformedR(n));
+			Vector2 e = tx.getTransformed(vertices[index]);
+			
+			Vector2 v = p.getFarthestPoint(n.copy(), tx);
+			TestCase.assertEquals(e.x, v.x, 1.0e-12);
+			TestCase.assertEquals(e.y, v.y, 1.0e-12);
+			
+			EdgeFeature f = p.getFarthestFeature(n.copy(), tx);
+			TestCase.assertEquals(index, f.getMaximum().getIndex());
+			TestCase.assertEquals(e.x, f.getMaximum().getPoint().x, 1.0e-12);
+			TestCase.assertEquals(e.y, f.getMaximum().getPoint().y, 1.0e-12);
+		}
+	}
 }
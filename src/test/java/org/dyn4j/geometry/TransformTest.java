@@ -430,4 +430,72 @@ public class TransformTest {
 	public void identityTranslate2() {
 		Transform.IDENTITY.translate(2, 3);
 	}
+	
+	/**
+	 * Tests the identity's raw set method to ensure no mutation.
+	 * @since 3.3.1
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void identitySetRaw() {
+		Transform.IDENTITY.set(1.0, 0.0, 2.0, 3.0);
+	}
+	
+	/**
+	 * Tests that the raw values of a transform can be restored exactly.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void setRaw() {
+		Transform t1 = new Transform();
+		t1.rotate(Math.toRadians(33.0));
+		t1.translate(1.5, -2.0);
+		t1.rotate(0.3, 1.0, 1.0);
+		
+		Transform t2 = new Transform();
+		t2.set(t1.getCost(), t1.getSint(), t1.getTranslationX(), t1.getTranslationY());
+		
+		TestCase.assertEquals(t1.getCost(), t2.getCost());
+		TestCase.assertEquals(t1.getSint(), t2.getSint());
+		TestCase.assertEquals(t1.getTranslationX(), t2.getTranslationX());
+		TestCase.assertEquals(t1.getTranslationY(), t2.getTranslationY());
+		TestCase.assertEquals(t1.getRotation(), t2.getRotation());
+		TestCase.assertEquals(Math.cos(t1.getRotation()), t1.getCost(), 1.0e-9);
+		TestCase.assertEquals(Math.sin(t1.getRotation()), t1.getSint(), 1.0e-9);
+	}
+	
+	/**
+	 * Tests that setting the raw values of a transform keeps it a rotation.
+	 * @since 3.3.1
+	 */
+	@Test
+	public void setRawNormalized() {
+		Transform t = new Transform();
+		t.set(3.0, 4.0, 1.0, 2.0);
+		TestCase.assertEquals(0.6, t.getCost(), 1.0e-12);
+		TestCase.assertEquals(0.8, t.getSint(), 1.0e-12);
+		TestCase.assertEquals(1.0, t.getTranslationX());
+		TestCase.assertEquals(2.0, t.getTranslationY());
+		
+		// the transformed vectors keep their length
+		Vector2 v = t.getTransformedR(new Vector2(1.0, 1.0));
+		TestCase.assertEquals(Math.sqrt(2.0), v.getMagnitude(), 1.0e-12);
+	}
+	
+	/**
+	 * Tests setting the raw values of a transform to a zero rotation.
+	 * @since 3.3.1
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void setRawZero() {
+		new Transform().set(0.0, 0.0, 1.0, 2.0);
+	}
+	
+	/**
+	 * Tests setting the raw values of a transform to a NaN rotation.
+	 * @since 3.3.1
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void setRawNaN() {
+		new Transform().set(Double.NaN, 0.0, 1.0, 2.0);
+	}
 }